@@ -0,0 +1,35 @@
+package ru.spbhse.hashmap;
+
+/**
+ * Interface of HashMap buckets storing StringPairs with distinct keys
+ * NB! StringPairs mustn't be null.
+ */
+public interface Bucket extends Iterable<StringPair> {
+
+    /**
+     * Searches for element with given key in bucket
+     * @return pair with given key if it exists and null otherwise
+     */
+    StringPair get(String key);
+
+    /** Adds given pair to bucket. Bucket mustn't contain pair with same key */
+    void put(StringPair pair);
+
+    /**
+     * Removes pair with given key from bucket
+     * @return removed pair if it was found and null otherwise
+     */
+    StringPair remove(String key);
+
+    /** Same as get, adds number of keys compared with given key to counter */
+    StringPair get(String key, ProbeCounter counter);
+
+    /** Same as remove, adds number of keys compared with given key to counter */
+    StringPair remove(String key, ProbeCounter counter);
+
+    /** Returns number of elements in a bucket */
+    int size();
+
+    /** Converts bucket to array of its pairs */
+    StringPair[] toArray();
+}
@@ -0,0 +1,75 @@
+package ru.spbhse.hashmap;
+
+/**
+ * Distribution of bucket lengths of HashMap at the moment it was collected
+ * Allows to compare hash strategies: the better strategy, the shorter the longest buckets
+ */
+public class BucketStatistics {
+
+    /** lengthCounts[i] is number of buckets with i elements */
+    private final int[] lengthCounts;
+    private final int bucketsNumber;
+    private final int elementsNumber;
+
+    BucketStatistics(int[] lengthCounts) {
+        this.lengthCounts = lengthCounts;
+        int buckets = 0;
+        int elements = 0;
+        for (int length = 0; length < lengthCounts.length; length++) {
+            buckets += lengthCounts[length];
+            elements += length * lengthCounts[length];
+        }
+        bucketsNumber = buckets;
+        elementsNumber = elements;
+    }
+
+    /** Returns number of buckets with given number of elements */
+    public int bucketsWithLength(int length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("length given to BucketStatistics.bucketsWithLength must be non-negative");
+        }
+        return length < lengthCounts.length ? lengthCounts[length] : 0;
+    }
+
+    /** Returns number of elements in the longest bucket */
+    public int maxLength() {
+        return lengthCounts.length - 1;
+    }
+
+    /** Returns number of buckets, including empty ones */
+    public int bucketsNumber() {
+        return bucketsNumber;
+    }
+
+    /** Returns number of empty buckets */
+    public int emptyBuckets() {
+        return lengthCounts[0];
+    }
+
+    /**
+     * Returns average number of elements compared by lookup of present key
+     * Counted as if every bucket were a list: its elements are found after (n + 1) / 2 comparisons on average
+     */
+    public double averageSuccessfulProbes() {
+        if (elementsNumber == 0) {
+            return 0;
+        }
+        double probes = 0;
+        for (int length = 1; length < lengthCounts.length; length++) {
+            probes += (double) lengthCounts[length] * length * (length + 1) / 2;
+        }
+        return probes / elementsNumber;
+    }
+
+    /** Returns histogram of bucket lengths in form "length: buckets" per line */
+    @Override
+    public String toString() {
+        var histogram = new StringBuilder();
+        for (int length = 0; length < lengthCounts.length; length++) {
+            if (lengthCounts[length] != 0) {
+                histogram.append(length).append(": ").append(lengthCounts[length]).append('\n');
+            }
+        }
+        return histogram.toString();
+    }
+}
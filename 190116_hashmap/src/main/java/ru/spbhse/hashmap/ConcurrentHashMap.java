@@ -0,0 +1,346 @@
+package ru.spbhse.hashmap;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe HashMap class to store pairs of Strings
+ *
+ * Reads take no locks: they walk bucket chains through volatile links.
+ * Writers lock only the bucket they change (the monitor of its first node).
+ * Resize is cooperative: the table is split in chunks of TRANSFER_STRIDE buckets, and every writer
+ * which meets a moved bucket claims next chunks and moves them before continuing.
+ * Moved bucket is replaced by a forwarding node, so readers and writers know to look in the new table.
+ * NB! Keys mustn't be nulls
+ */
+public class ConcurrentHashMap implements StringMap {
+
+    private volatile AtomicReferenceArray<Node> table;
+    /** Resize in progress or null if table is not being resized */
+    private final AtomicReference<Resize> resize = new AtomicReference<>();
+    private final LongAdder size = new LongAdder();
+    final private int DEFAULT_SIZE = 16;
+    /** Table is resized when it becomes more than MAX_LOAD_NUMERATOR / MAX_LOAD_DENOMINATOR full */
+    final private int MAX_LOAD_NUMERATOR = 3;
+    final private int MAX_LOAD_DENOMINATOR = 4;
+    /** Number of buckets claimed at once by every thread taking part in resize */
+    final private int TRANSFER_STRIDE = 16;
+
+    /**
+     * Basic constructor. Creates HashMap with DEFAULT_SIZE buckets
+     */
+    public ConcurrentHashMap() {
+        table = new AtomicReferenceArray<>(DEFAULT_SIZE);
+    }
+
+    /** Returns number of elements in HashMap. May be inaccurate while other threads change it */
+    @Override
+    public int size() {
+        return (int) size.sum();
+    }
+
+    /**
+     * Checks if HashMap contains given key
+     * @return true if HashMap contains this key and false otherwise
+     */
+    @Override
+    public boolean contains(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to ConcurrentHashMap.contains mustn't be null");
+        }
+        return findNode(key) != null;
+    }
+
+    /** Returns value by given key if it exists in hash table and null otherwise */
+    @Override
+    public String get(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to ConcurrentHashMap.get mustn't be null");
+        }
+        Node foundNode = findNode(key);
+        return foundNode == null ? null : foundNode.value;
+    }
+
+    /**
+     * Puts pair (key, value) to hash table (or changes previous value by this key to new one)
+     * @return previous value by given key if it exists or null otherwise
+     */
+    @Override
+    public String put(String key, String value) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to ConcurrentHashMap.put mustn't be null");
+        }
+        int hash = spread(key.hashCode());
+        AtomicReferenceArray<Node> currentTable = table;
+        while (true) {
+            int bucketId = hash & (currentTable.length() - 1);
+            Node head = currentTable.get(bucketId);
+
+            if (head == null) {
+                if (currentTable.compareAndSet(bucketId, null, new Node(hash, key, value, null))) {
+                    break;
+                }
+            } else if (head instanceof ForwardingNode) {
+                currentTable = helpResize((ForwardingNode) head);
+            } else {
+                synchronized (head) {
+                    if (currentTable.get(bucketId) != head) {
+                        continue;
+                    }
+                    Node node = head;
+                    while (true) {
+                        if (node.hash == hash && node.key.equals(key)) {
+                            String previousValue = node.value;
+                            node.value = value;
+                            return previousValue;
+                        }
+                        if (node.next == null) {
+                            node.next = new Node(hash, key, value, null);
+                            break;
+                        }
+                        node = node.next;
+                    }
+                }
+                break;
+            }
+        }
+
+        size.increment();
+        if (size.sum() * MAX_LOAD_DENOMINATOR > (long) currentTable.length() * MAX_LOAD_NUMERATOR) {
+            startResize(currentTable);
+        }
+        return null;
+    }
+
+    /**
+     * Removes element with given key from table
+     * @return value by given key if it was in table and null otherwise
+     */
+    @Override
+    public String remove(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to ConcurrentHashMap.remove mustn't be null");
+        }
+        int hash = spread(key.hashCode());
+        AtomicReferenceArray<Node> currentTable = table;
+        while (true) {
+            int bucketId = hash & (currentTable.length() - 1);
+            Node head = currentTable.get(bucketId);
+
+            if (head == null) {
+                return null;
+            } else if (head instanceof ForwardingNode) {
+                currentTable = helpResize((ForwardingNode) head);
+            } else {
+                synchronized (head) {
+                    if (currentTable.get(bucketId) != head) {
+                        continue;
+                    }
+                    Node previous = null;
+                    for (Node node = head; node != null; previous = node, node = node.next) {
+                        if (node.hash == hash && node.key.equals(key)) {
+                            if (previous == null) {
+                                currentTable.set(bucketId, node.next);
+                            } else {
+                                previous.next = node.next;
+                            }
+                            size.decrement();
+                            return node.value;
+                        }
+                    }
+                }
+                return null;
+            }
+        }
+    }
+
+    /** Removes all elements from table. Elements put concurrently with clear may stay in table */
+    @Override
+    public void clear() {
+        AtomicReferenceArray<Node> currentTable = table;
+        int bucketId = 0;
+        while (bucketId < currentTable.length()) {
+            Node head = currentTable.get(bucketId);
+            if (head == null) {
+                ++bucketId;
+            } else if (head instanceof ForwardingNode) {
+                currentTable = helpResize((ForwardingNode) head);
+                bucketId = 0;
+            } else {
+                synchronized (head) {
+                    if (currentTable.get(bucketId) != head) {
+                        continue;
+                    }
+                    int removedNumber = 0;
+                    for (Node node = head; node != null; node = node.next) {
+                        ++removedNumber;
+                    }
+                    currentTable.set(bucketId, null);
+                    size.add(-removedNumber);
+                }
+                ++bucketId;
+            }
+        }
+    }
+
+    /** Returns number of buckets in current table */
+    int capacity() {
+        return table.length();
+    }
+
+    /** Finds node with given key without taking any locks, returns null if there is no such node */
+    private Node findNode(String key) {
+        int hash = spread(key.hashCode());
+        AtomicReferenceArray<Node> currentTable = table;
+        while (true) {
+            Node node = currentTable.get(hash & (currentTable.length() - 1));
+            if (node instanceof ForwardingNode) {
+                currentTable = ((ForwardingNode) node).nextTable;
+                continue;
+            }
+            for (; node != null; node = node.next) {
+                if (node.hash == hash && node.key.equals(key)) {
+                    return node;
+                }
+            }
+            return null;
+        }
+    }
+
+    /** Starts resize of given table unless it has already been started or finished */
+    private void startResize(AtomicReferenceArray<Node> oldTable) {
+        if (resize.get() != null || table != oldTable) {
+            return;
+        }
+        var newResize = new Resize(oldTable);
+        if (!resize.compareAndSet(null, newResize)) {
+            return;
+        }
+        if (table != oldTable) {
+            // table has been resized by other threads between the checks, so it's already big enough
+            resize.set(null);
+            return;
+        }
+        transfer(newResize);
+    }
+
+    /**
+     * Takes part in resize which moved bucket with given forwarding node
+     * @return table to which elements are moved
+     */
+    private AtomicReferenceArray<Node> helpResize(ForwardingNode forwardingNode) {
+        Resize currentResize = resize.get();
+        if (currentResize != null && currentResize.newTable == forwardingNode.nextTable) {
+            transfer(currentResize);
+        }
+        return forwardingNode.nextTable;
+    }
+
+    /**
+     * Claims chunks of not moved buckets and moves them until there are no free chunks
+     * Thread which moves the last bucket publishes new table
+     */
+    private void transfer(Resize currentResize) {
+        int oldLength = currentResize.oldTable.length();
+        while (true) {
+            int chunkStart = currentResize.nextChunk.getAndAdd(TRANSFER_STRIDE);
+            if (chunkStart >= oldLength) {
+                return;
+            }
+            int chunkEnd = Math.min(chunkStart + TRANSFER_STRIDE, oldLength);
+            for (int bucketId = chunkStart; bucketId < chunkEnd; bucketId++) {
+                moveBucket(currentResize, bucketId);
+            }
+            if (currentResize.movedBuckets.addAndGet(chunkEnd - chunkStart) == oldLength) {
+                table = currentResize.newTable;
+                resize.set(null);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Copies nodes of bucket to new table and replaces bucket with forwarding node
+     * Old nodes are not changed, so readers walking them see consistent chain
+     */
+    private void moveBucket(Resize currentResize, int bucketId) {
+        AtomicReferenceArray<Node> oldTable = currentResize.oldTable;
+        AtomicReferenceArray<Node> newTable = currentResize.newTable;
+        int oldLength = oldTable.length();
+        while (true) {
+            Node head = oldTable.get(bucketId);
+            if (head == null) {
+                if (oldTable.compareAndSet(bucketId, null, currentResize.forwardingNode)) {
+                    return;
+                }
+                continue;
+            }
+            synchronized (head) {
+                if (oldTable.get(bucketId) != head) {
+                    continue;
+                }
+                Node lowHead = null;
+                Node highHead = null;
+                for (Node node = head; node != null; node = node.next) {
+                    if ((node.hash & oldLength) == 0) {
+                        lowHead = new Node(node.hash, node.key, node.value, lowHead);
+                    } else {
+                        highHead = new Node(node.hash, node.key, node.value, highHead);
+                    }
+                }
+                newTable.set(bucketId, lowHead);
+                newTable.set(bucketId + oldLength, highHead);
+                oldTable.set(bucketId, currentResize.forwardingNode);
+                return;
+            }
+        }
+    }
+
+    /** Mixes high bits of hash code into low ones, which are used as bucket index */
+    private static int spread(int hashCode) {
+        return hashCode ^ (hashCode >>> 16);
+    }
+
+    /** Element of bucket chain */
+    private static class Node {
+        final int hash;
+        final String key;
+        volatile String value;
+        volatile Node next;
+
+        Node(int hash, String key, String value, Node next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /** Node placed instead of moved bucket, points to table where its elements are now */
+    private static class ForwardingNode extends Node {
+        final AtomicReferenceArray<Node> nextTable;
+
+        ForwardingNode(AtomicReferenceArray<Node> nextTable) {
+            super(0, null, null, null);
+            this.nextTable = nextTable;
+        }
+    }
+
+    /** State of one resize shared by all threads taking part in it */
+    private static class Resize {
+        final AtomicReferenceArray<Node> oldTable;
+        final AtomicReferenceArray<Node> newTable;
+        final ForwardingNode forwardingNode;
+        /** First bucket of next chunk that is not claimed by any thread */
+        final AtomicInteger nextChunk = new AtomicInteger();
+        final AtomicInteger movedBuckets = new AtomicInteger();
+
+        Resize(AtomicReferenceArray<Node> oldTable) {
+            this.oldTable = oldTable;
+            newTable = new AtomicReferenceArray<>(oldTable.length() * 2);
+            forwardingNode = new ForwardingNode(newTable);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package ru.spbhse.hashmap;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Thread-safe HashMap class to store pairs of Strings for read-mostly access
+ *
+ * Holds current version of PersistentHashMap in atomic reference. Readers take no locks: they read the reference
+ * and search in immutable version. Writers build new version and publish it by compare-and-set,
+ * so every write takes O(log n) time and memory and concurrent writers retry.
+ * snapshot returns current version, which stays consistent however map changes later.
+ * NB! Keys mustn't be nulls
+ */
+public class CopyOnWriteHashMap implements StringMap {
+
+    private final AtomicReference<PersistentHashMap> current = new AtomicReference<>(PersistentHashMap.empty());
+
+    /** Returns current version of map */
+    public PersistentHashMap snapshot() {
+        return current.get();
+    }
+
+    /** Returns number of elements in HashMap */
+    @Override
+    public int size() {
+        return current.get().size();
+    }
+
+    /**
+     * Checks if HashMap contains given key
+     * @return true if HashMap contains this key and false otherwise
+     */
+    @Override
+    public boolean contains(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to CopyOnWriteHashMap.contains mustn't be null");
+        }
+        return current.get().contains(key);
+    }
+
+    /** Returns value by given key if it exists in hash table and null otherwise */
+    @Override
+    public String get(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to CopyOnWriteHashMap.get mustn't be null");
+        }
+        return current.get().get(key);
+    }
+
+    /**
+     * Puts pair (key, value) to hash table (or changes previous value by this key to new one)
+     * @return previous value by given key if it exists or null otherwise
+     */
+    @Override
+    public String put(String key, String value) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to CopyOnWriteHashMap.put mustn't be null");
+        }
+        return current.getAndUpdate(version -> version.put(key, value)).get(key);
+    }
+
+    /**
+     * Removes element with given key from table
+     * @return value by given key if it was in table and null otherwise
+     */
+    @Override
+    public String remove(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to CopyOnWriteHashMap.remove mustn't be null");
+        }
+        return current.getAndUpdate(version -> version.remove(key)).get(key);
+    }
+
+    /**
+     * Replaces current version by result of given function, so that several changes are published at once
+     * Function may be called several times if other writers change map concurrently
+     */
+    public void update(UnaryOperator<PersistentHashMap> function) {
+        current.updateAndGet(function);
+    }
+
+    /** Removes all elements from table */
+    @Override
+    public void clear() {
+        current.set(PersistentHashMap.empty());
+    }
+}
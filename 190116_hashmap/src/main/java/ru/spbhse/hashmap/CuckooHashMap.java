@@ -0,0 +1,416 @@
+package ru.spbhse.hashmap;
+
+import java.security.SecureRandom;
+import java.util.SplittableRandom;
+import java.util.function.LongFunction;
+
+/**
+ * HashMap class to store pairs of Strings with bucketized cuckoo hashing
+ *
+ * Every key may be placed only in one of two buckets of CELLS_PER_BUCKET cells, chosen by two seeded hash functions,
+ * or in a small stash of STASH_SIZE cells. So any lookup checks at most 2 * CELLS_PER_BUCKET + STASH_SIZE cells,
+ * however the keys are distributed: worst-case time of get doesn't depend on size.
+ * Put of a key whose buckets are full moves a random pair of them to its other bucket, which may move another one,
+ * and so on up to DEFAULT_MAX_KICKS times. Pair left without place after that goes to stash, and if stash is full,
+ * table is rebuilt with new hash functions, growing twice after MAX_REHASH_ATTEMPTS failed attempts.
+ * Failed attempts don't make table more than MAX_REHASH_GROWTH times larger than its load requires: keys colliding
+ * under any hash functions would make it grow until memory is exhausted. Pairs which don't fit such table
+ * are kept in overflow HashMap with treeified buckets until the next rebuild, lookup of absent key
+ * checks it too while it isn't empty
+ * First hash of every key is kept next to it, so keys are compared by equals only if their hashes match
+ * NB! Keys mustn't be nulls
+ */
+public class CuckooHashMap implements StringMap {
+
+    private static final SecureRandom SEED_GENERATOR = new SecureRandom();
+
+    private int size;
+    /** Cells of buckets (bucket b has cells [b * CELLS_PER_BUCKET, (b + 1) * CELLS_PER_BUCKET)), then cells of stash */
+    private String[] keys;
+    private String[] values;
+    /** First hash of key of every cell */
+    private int[] hashes;
+    /** Number of buckets, always a power of two */
+    private int bucketsNumber;
+    /** Number of occupied stash cells, they are the first ones */
+    private int stashSize;
+    private HashStrategy firstHash;
+    private HashStrategy secondHash;
+    /** Creates hash function by seed */
+    private final LongFunction<HashStrategy> hashFactory;
+    /** Pairs which got no place in table of maximal size, null if there are no such pairs */
+    private HashMap overflow;
+    private final SplittableRandom random;
+    private int rebuilds;
+    /** Pair which insert failed to place, it is placed by rebuild */
+    private String homelessKey;
+    private String homelessValue;
+    final private int CELLS_PER_BUCKET = 4;
+    final private int STASH_SIZE = 4;
+    final private int DEFAULT_BUCKETS = 2;
+    /** Table grows when more than MAX_LOAD_NUMERATOR / MAX_LOAD_DENOMINATOR of bucket cells are occupied */
+    final private int MAX_LOAD_NUMERATOR = 7;
+    final private int MAX_LOAD_DENOMINATOR = 8;
+    /** Maximum number of pairs moved by one insert before it uses stash */
+    private final int maxKicks;
+    private static final int DEFAULT_MAX_KICKS = 256;
+    /** Number of rebuilds with new hash functions after which table grows */
+    final private int MAX_REHASH_ATTEMPTS = 4;
+    /** Failed rebuilds don't make number of buckets more than this number of times larger than load requires */
+    final private int MAX_REHASH_GROWTH = 4;
+
+    /**
+     * Basic constructor. Creates HashMap with DEFAULT_BUCKETS buckets and random hash functions
+     */
+    public CuckooHashMap() {
+        this(SEED_GENERATOR.nextLong());
+    }
+
+    /** Creates HashMap whose hash functions and moves are chosen by random generator with given seed */
+    public CuckooHashMap(long seed) {
+        this(seed, DEFAULT_MAX_KICKS);
+    }
+
+    /** Creates HashMap which moves at most given number of pairs by insert, small numbers make stash used often */
+    CuckooHashMap(long seed, int maxKicks) {
+        this(seed, maxKicks, SeededHashStrategy::new);
+    }
+
+    /** Creates HashMap whose hash functions are created by given factory from random seeds */
+    CuckooHashMap(long seed, int maxKicks, LongFunction<HashStrategy> hashFactory) {
+        this.maxKicks = maxKicks;
+        this.hashFactory = hashFactory;
+        random = new SplittableRandom(seed);
+        chooseHashes();
+        allocate(DEFAULT_BUCKETS);
+    }
+
+    /** Returns number of elements in HashMap */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if HashMap contains given key
+     * @return true if HashMap contains this key and false otherwise
+     */
+    @Override
+    public boolean contains(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to CuckooHashMap.contains mustn't be null");
+        }
+        return findCellOf(key, firstHash.hash(key)) != -1 || overflow != null && overflow.contains(key);
+    }
+
+    /** Returns value by given key if it exists in hash table and null otherwise */
+    @Override
+    public String get(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to CuckooHashMap.get mustn't be null");
+        }
+        int cellId = findCellOf(key, firstHash.hash(key));
+        if (cellId == -1) {
+            return overflow == null ? null : overflow.get(key);
+        }
+        return values[cellId];
+    }
+
+    /**
+     * Puts pair (key, value) to hash table (or changes previous value by this key to new one)
+     * @return previous value by given key if it exists or null otherwise
+     */
+    @Override
+    public String put(String key, String value) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to CuckooHashMap.put mustn't be null");
+        }
+        int hash = firstHash.hash(key);
+        int cellId = findCellOf(key, hash);
+        if (cellId != -1) {
+            String previousValue = values[cellId];
+            values[cellId] = value;
+            return previousValue;
+        }
+        if (overflow != null && overflow.contains(key)) {
+            return overflow.put(key, value);
+        }
+
+        ++size;
+        if (size * MAX_LOAD_DENOMINATOR > bucketsNumber * CELLS_PER_BUCKET * MAX_LOAD_NUMERATOR) {
+            homelessKey = key;
+            homelessValue = value;
+            rebuild(bucketsNumber * 2);
+        } else if (!insert(key, value, hash)) {
+            if (overflow != null) {
+                // table already has maximal size for its load, so rebuild would likely fail too
+                moveHomelessToOverflow();
+            } else {
+                rebuild(bucketsNumber);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes element with given key from table
+     * @return value by given key if it was in table and null otherwise
+     */
+    @Override
+    public String remove(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to CuckooHashMap.remove mustn't be null");
+        }
+        int cellId = findCellOf(key, firstHash.hash(key));
+        if (cellId == -1) {
+            if (overflow == null || !overflow.contains(key)) {
+                return null;
+            }
+            --size;
+            String removedValue = overflow.remove(key);
+            if (overflow.size() == 0) {
+                overflow = null;
+            }
+            return removedValue;
+        }
+        String removedValue = values[cellId];
+        int lastCellId = cellId;
+        if (cellId >= stashStart()) {
+            // stash is kept without gaps, so its last pair fills the hole
+            lastCellId = stashStart() + --stashSize;
+            keys[cellId] = keys[lastCellId];
+            values[cellId] = values[lastCellId];
+            hashes[cellId] = hashes[lastCellId];
+        }
+        keys[lastCellId] = null;
+        values[lastCellId] = null;
+        hashes[lastCellId] = 0;
+        --size;
+        return removedValue;
+    }
+
+    /** Removes all elements from table */
+    @Override
+    public void clear() {
+        size = 0;
+        overflow = null;
+        allocate(DEFAULT_BUCKETS);
+    }
+
+    /** Returns number of cells in buckets */
+    int capacity() {
+        return bucketsNumber * CELLS_PER_BUCKET;
+    }
+
+    /** Returns number of pairs in stash */
+    int stashSize() {
+        return stashSize;
+    }
+
+    /** Returns number of pairs in overflow HashMap */
+    int overflowSize() {
+        return overflow == null ? 0 : overflow.size();
+    }
+
+    /** Returns number of times table was rebuilt, with new hash functions or growing */
+    int rebuilds() {
+        return rebuilds;
+    }
+
+    private void chooseHashes() {
+        firstHash = hashFactory.apply(random.nextLong());
+        secondHash = hashFactory.apply(random.nextLong());
+    }
+
+    /** Creates empty table with given number of buckets, which must be a power of two */
+    private void allocate(int newBucketsNumber) {
+        bucketsNumber = newBucketsNumber;
+        keys = new String[bucketsNumber * CELLS_PER_BUCKET + STASH_SIZE];
+        values = new String[keys.length];
+        hashes = new int[keys.length];
+        stashSize = 0;
+        homelessKey = null;
+        homelessValue = null;
+    }
+
+    /**
+     * Places all pairs, including homeless one, to new table with given number of buckets and new hash functions
+     * Hash functions are changed until all pairs fit, table grows if they don't fit MAX_REHASH_ATTEMPTS times.
+     * If table can't grow more, pairs which don't fit go to overflow
+     */
+    private void rebuild(int newBucketsNumber) {
+        var oldKeys = new String[size];
+        var oldValues = new String[size];
+        int pairsNumber = 0;
+        for (int cellId = 0; cellId < keys.length; cellId++) {
+            if (keys[cellId] != null) {
+                oldKeys[pairsNumber] = keys[cellId];
+                oldValues[pairsNumber++] = values[cellId];
+            }
+        }
+        if (overflow != null) {
+            for (StringPair pair : overflow) {
+                oldKeys[pairsNumber] = pair.getKey();
+                oldValues[pairsNumber++] = pair.getValue();
+            }
+            overflow = null;
+        }
+        if (homelessKey != null) {
+            oldKeys[pairsNumber] = homelessKey;
+            oldValues[pairsNumber] = homelessValue;
+        }
+
+        int maxBucketsNumber = Math.max(newBucketsNumber, bucketsNumberFor(size) * MAX_REHASH_GROWTH);
+        for (int attempt = 1; ; attempt++) {
+            boolean isLastAttempt = false;
+            if (attempt > MAX_REHASH_ATTEMPTS) {
+                if (newBucketsNumber * 2 > maxBucketsNumber) {
+                    isLastAttempt = true;
+                } else {
+                    newBucketsNumber *= 2;
+                    attempt = 1;
+                }
+            }
+            ++rebuilds;
+            chooseHashes();
+            allocate(newBucketsNumber);
+            boolean isPlaced = true;
+            for (int i = 0; i < oldKeys.length && (isPlaced || isLastAttempt); i++) {
+                isPlaced = insert(oldKeys[i], oldValues[i], firstHash.hash(oldKeys[i]));
+                if (!isPlaced && isLastAttempt) {
+                    moveHomelessToOverflow();
+                }
+            }
+            if (isPlaced || isLastAttempt) {
+                return;
+            }
+        }
+    }
+
+    /** Returns number of buckets, a power of two, needed to keep given number of pairs without growing */
+    private int bucketsNumberFor(int pairsNumber) {
+        int result = DEFAULT_BUCKETS;
+        while ((long) pairsNumber * MAX_LOAD_DENOMINATOR > (long) result * CELLS_PER_BUCKET * MAX_LOAD_NUMERATOR) {
+            result *= 2;
+        }
+        return result;
+    }
+
+    private void moveHomelessToOverflow() {
+        if (overflow == null) {
+            overflow = new HashMap(hashFactory.apply(random.nextLong()));
+        }
+        overflow.put(homelessKey, homelessValue);
+        homelessKey = null;
+        homelessValue = null;
+    }
+
+    /**
+     * Places pair with absent key to one of its buckets, moving other pairs if both are full, or to stash
+     * @return false if some pair (maybe other one) got no place, then it is kept as homeless
+     */
+    private boolean insert(String key, String value, int hash) {
+        int firstBucket = firstBucketOf(hash);
+        if (placeToBucket(firstBucket, key, value, hash)) {
+            return true;
+        }
+        int secondBucket = secondBucketOf(key, firstBucket);
+        if (placeToBucket(secondBucket, key, value, hash)) {
+            return true;
+        }
+
+        int bucket = random.nextBoolean() ? firstBucket : secondBucket;
+        for (int kick = 0; kick < maxKicks; kick++) {
+            int victimCellId = bucket * CELLS_PER_BUCKET + random.nextInt(CELLS_PER_BUCKET);
+            String victimKey = keys[victimCellId];
+            String victimValue = values[victimCellId];
+            int victimHash = hashes[victimCellId];
+            keys[victimCellId] = key;
+            values[victimCellId] = value;
+            hashes[victimCellId] = hash;
+            key = victimKey;
+            value = victimValue;
+            hash = victimHash;
+
+            // moved pair goes to the other one of its buckets
+            int victimFirstBucket = firstBucketOf(hash);
+            bucket = victimFirstBucket == bucket ? secondBucketOf(key, victimFirstBucket) : victimFirstBucket;
+            if (placeToBucket(bucket, key, value, hash)) {
+                return true;
+            }
+        }
+
+        if (stashSize < STASH_SIZE) {
+            int cellId = stashStart() + stashSize++;
+            keys[cellId] = key;
+            values[cellId] = value;
+            hashes[cellId] = hash;
+            return true;
+        }
+        homelessKey = key;
+        homelessValue = value;
+        return false;
+    }
+
+    /**
+     * Places pair to free cell of given bucket
+     * @return false if bucket is full
+     */
+    private boolean placeToBucket(int bucket, String key, String value, int hash) {
+        for (int cellId = bucket * CELLS_PER_BUCKET; cellId < (bucket + 1) * CELLS_PER_BUCKET; cellId++) {
+            if (keys[cellId] == null) {
+                keys[cellId] = key;
+                values[cellId] = value;
+                hashes[cellId] = hash;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds cell with given key, whose first hash is given
+     * Second hash is computed only if key is not in its first bucket
+     * @return number of cell or -1 if there is no such key
+     */
+    private int findCellOf(String key, int hash) {
+        int firstBucket = firstBucketOf(hash);
+        int cellId = findInBucket(firstBucket, key, hash);
+        if (cellId != -1) {
+            return cellId;
+        }
+        cellId = findInBucket(secondBucketOf(key, firstBucket), key, hash);
+        if (cellId != -1) {
+            return cellId;
+        }
+        for (cellId = stashStart(); cellId < stashStart() + stashSize; cellId++) {
+            if (hashes[cellId] == hash && key.equals(keys[cellId])) {
+                return cellId;
+            }
+        }
+        return -1;
+    }
+
+    private int findInBucket(int bucket, String key, int hash) {
+        for (int cellId = bucket * CELLS_PER_BUCKET; cellId < (bucket + 1) * CELLS_PER_BUCKET; cellId++) {
+            if (hashes[cellId] == hash && key.equals(keys[cellId])) {
+                return cellId;
+            }
+        }
+        return -1;
+    }
+
+    private int firstBucketOf(int hash) {
+        return hash & (bucketsNumber - 1);
+    }
+
+    /** Returns second bucket of key, it always differs from the first one */
+    private int secondBucketOf(String key, int firstBucket) {
+        int bucket = secondHash.hash(key) & (bucketsNumber - 1);
+        return bucket == firstBucket ? bucket ^ 1 : bucket;
+    }
+
+    private int stashStart() {
+        return bucketsNumber * CELLS_PER_BUCKET;
+    }
+}
@@ -0,0 +1,109 @@
+package ru.spbhse.hashmap;
+
+import ru.spbhse.hashmap.specialized.ObjectIntMap;
+
+/**
+ * HashMap class to store pairs of Strings whose values are repeated many times, like region codes or statuses
+ * Entry is a key and int code of its value in parallel arrays of ObjectIntMap, values are stored once in ValueDictionary.
+ * So an entry takes a reference and an int instead of StringPair and list element of HashMap,
+ * and equal values which are different String objects are stored once
+ * Values are reference counted, so values which are not used anymore are removed from dictionary
+ * NB! Keys mustn't be nulls
+ */
+public class DictionaryEncodedHashMap implements StringMap {
+
+    /** Code reported by ObjectIntMap for absent keys, differs from NULL_CODE and all real codes */
+    private static final int ABSENT = Integer.MIN_VALUE;
+
+    private final ObjectIntMap<String> codes = new ObjectIntMap<>(ABSENT);
+    private final ValueDictionary dictionary;
+
+    /**
+     * Basic constructor. Creates empty HashMap with its own dictionary
+     */
+    public DictionaryEncodedHashMap() {
+        this(new ValueDictionary());
+    }
+
+    /** Creates empty HashMap storing values in given dictionary, which may be shared with other maps */
+    public DictionaryEncodedHashMap(ValueDictionary dictionary) {
+        if (dictionary == null) {
+            throw new IllegalArgumentException("dictionary given to DictionaryEncodedHashMap constructor mustn't be null");
+        }
+        this.dictionary = dictionary;
+    }
+
+    /** Returns number of elements in HashMap */
+    @Override
+    public int size() {
+        return codes.size();
+    }
+
+    /**
+     * Checks if HashMap contains given key
+     * @return true if HashMap contains this key and false otherwise
+     */
+    @Override
+    public boolean contains(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to DictionaryEncodedHashMap.contains mustn't be null");
+        }
+        return codes.contains(key);
+    }
+
+    /** Returns value by given key if it exists in HashMap and null otherwise */
+    @Override
+    public String get(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to DictionaryEncodedHashMap.get mustn't be null");
+        }
+        int code = codes.get(key);
+        return code == ABSENT ? null : dictionary.valueOf(code);
+    }
+
+    /**
+     * Puts pair (key, value) to HashMap (or changes previous value by this key to new one)
+     * @return previous value by given key if it exists or null otherwise
+     */
+    @Override
+    public String put(String key, String value) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to DictionaryEncodedHashMap.put mustn't be null");
+        }
+        // new value is acquired first, so that putting same value again doesn't reclaim its code
+        int previousCode = codes.put(key, dictionary.acquire(value));
+        return previousCode == ABSENT ? null : releaseValue(previousCode);
+    }
+
+    /**
+     * Removes element with given key from HashMap
+     * @return value by given key if it was in HashMap and null otherwise
+     */
+    @Override
+    public String remove(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to DictionaryEncodedHashMap.remove mustn't be null");
+        }
+        int code = codes.remove(key);
+        return code == ABSENT ? null : releaseValue(code);
+    }
+
+    /** Removes all elements from HashMap, releasing their values */
+    @Override
+    public void clear() {
+        codes.forEach((key, code) -> dictionary.release(code));
+        codes.clear();
+    }
+
+    /** Returns dictionary of values of this HashMap */
+    public ValueDictionary dictionary() {
+        return dictionary;
+    }
+
+    /** Releases value with given code and returns it */
+    private String releaseValue(int code) {
+        String value = dictionary.valueOf(code);
+        dictionary.release(code);
+        return value;
+    }
+}
@@ -0,0 +1,55 @@
+package ru.spbhse.hashmap;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+
+/**
+ * Serving class with methods to allocate and explicitly free direct (off-heap) buffers
+ * Direct buffer is freed by garbage collector only when buffer object itself is collected,
+ * which may be much later than it becomes unused, so memory is freed through invokeCleaner of Unsafe if it is available.
+ * Unsafe is found by name and its method is called through MethodHandle, so compiler doesn't see the internal class
+ */
+class DirectMemory {
+    /** Handle of invokeCleaner(ByteBuffer) bound to Unsafe instance, null if it is not accessible */
+    private static final MethodHandle INVOKE_CLEANER = findInvokeCleaner();
+
+    /** Allocates direct buffer with given capacity */
+    static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity);
+    }
+
+    /**
+     * Frees memory of given direct buffer. Buffer mustn't be used after that
+     * If Unsafe is not available, memory is freed later by garbage collector
+     */
+    static void free(ByteBuffer buffer) {
+        if (INVOKE_CLEANER == null || !buffer.isDirect()) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invokeExact(buffer);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("DirectMemory.free failed to free buffer", e);
+        }
+    }
+
+    /** Returns handle of Unsafe.invokeCleaner bound to Unsafe instance or null if it is not accessible */
+    private static MethodHandle findInvokeCleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            Object unsafe = field.get(null);
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(unsafe);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -1,28 +1,127 @@
 package ru.spbhse.hashmap;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * HashMap class to store pairs of Strings
  * NB! Keys mustn't be nulls
  */
-public class HashMap {
+public class HashMap implements StringMap, Iterable<StringPair> {
 
     private int size;
-    private List[] buckets;
+    /** Number of structural modifications (adding or removing keys, resizes), used to detect them during iteration */
+    private int modCount;
+    /**
+     * Buckets are created lazily, so empty ones are nulls
+     * Bucket is a List, or a TreeBucket if it has more than TREEIFY_THRESHOLD elements
+     */
+    private Bucket[] buckets;
+    /**
+     * Buckets of previous table which are not moved to new one yet
+     * Not null only during incremental resize
+     */
+    private Bucket[] oldBuckets;
+    /** Number of first buckets of oldBuckets that are already moved */
+    private int migratedBuckets;
+    private final boolean isIncrementalResize;
+    private final HashStrategy hashStrategy;
+    /** Collects statistics of operations if it is enabled and is null otherwise, so disabled one costs a null check */
+    private HashMapInstrumentation instrumentation;
+    /** Table grows when there are more than loadFactor elements per bucket on average */
+    private final double loadFactor;
+    /** Number of buckets of empty table, table never shrinks below it */
+    private final int initialBuckets;
     final private int DEFAULT_SIZE = 3;
-    final private int ACCEPTABLE_DIFF = 2;
+    private static final double DEFAULT_LOAD_FACTOR = 2;
     final private int RESIZE_TIMES = 2;
+    /**
+     * Table shrinks when it has SHRINK_DIFF times less elements than it may have
+     * Must be more than RESIZE_TIMES, so that table isn't shrunk right after growth and vice versa
+     */
+    final private int SHRINK_DIFF = 8;
+    /** Number of old buckets moved by every operation during incremental resize */
+    final private int MIGRATION_STEP = 4;
+    /** List bucket becomes TreeBucket when it gets more elements */
+    final private int TREEIFY_THRESHOLD = 8;
+    /** TreeBucket becomes List when it gets less elements, less than TREEIFY_THRESHOLD to avoid flapping */
+    final private int UNTREEIFY_THRESHOLD = 6;
 
     /**
      * Basic constructor. Creates HashMap with DEFAULT_SIZE buckets
      */
     public HashMap() {
-        buckets = new List[DEFAULT_SIZE];
-        for (int bucketId = 0; bucketId < DEFAULT_SIZE; bucketId++) {
-            buckets[bucketId] = new List();
+        this(false);
+    }
+
+    /**
+     * Creates HashMap with DEFAULT_SIZE buckets choosing buckets by given hash strategy
+     */
+    public HashMap(HashStrategy hashStrategy) {
+        this(false, hashStrategy);
+    }
+
+    /**
+     * Creates HashMap with DEFAULT_SIZE buckets
+     * @param isIncrementalResize if true, table is resized step by step: old and new tables coexist
+     *                            and every operation moves at most MIGRATION_STEP buckets,
+     *                            otherwise the whole table is rebuilt inside one put
+     */
+    public HashMap(boolean isIncrementalResize) {
+        this(isIncrementalResize, HashStrategy.STRING_HASH_CODE);
+    }
+
+    /**
+     * Creates HashMap with DEFAULT_SIZE buckets
+     * @param isIncrementalResize see {@link #HashMap(boolean)}
+     * @param hashStrategy strategy of hashing keys, see {@link SeededHashStrategy} for hashing with random seed
+     */
+    public HashMap(boolean isIncrementalResize, HashStrategy hashStrategy) {
+        this(0, DEFAULT_LOAD_FACTOR, isIncrementalResize, hashStrategy);
+    }
+
+    /**
+     * Creates HashMap which can store expectedSize elements without resize
+     * @param expectedSize non-negative number of elements which are going to be put
+     * @param loadFactor positive maximum average number of elements per bucket
+     */
+    public HashMap(int expectedSize, double loadFactor) {
+        this(expectedSize, loadFactor, false, HashStrategy.STRING_HASH_CODE);
+    }
+
+    /**
+     * Creates HashMap which can store expectedSize elements without resize
+     * @param expectedSize non-negative number of elements which are going to be put
+     * @param loadFactor positive maximum average number of elements per bucket, DEFAULT_LOAD_FACTOR is 2
+     * @param isIncrementalResize see {@link #HashMap(boolean)}
+     * @param hashStrategy strategy of hashing keys, see {@link SeededHashStrategy} for hashing with random seed
+     */
+    public HashMap(int expectedSize, double loadFactor, boolean isIncrementalResize, HashStrategy hashStrategy) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize given to HashMap constructor must be non-negative");
+        }
+        if (!(loadFactor > 0) || Double.isInfinite(loadFactor)) {
+            throw new IllegalArgumentException("loadFactor given to HashMap constructor must be positive");
         }
+        if (hashStrategy == null) {
+            throw new IllegalArgumentException("hashStrategy given to HashMap constructor mustn't be null");
+        }
+        this.isIncrementalResize = isIncrementalResize;
+        this.hashStrategy = hashStrategy;
+        this.loadFactor = loadFactor;
+        initialBuckets = bucketsNumberFor(expectedSize);
+        buckets = new Bucket[initialBuckets];
     }
 
     /** Returns number of elements in HashMap */
+    @Override
     public int size() {
         return size;
     }
@@ -31,19 +130,33 @@ public class HashMap {
      * Checks if HashMap contains given key
      * @return true if HashMap contains this key and false otherwise
      */
+    @Override
     public boolean contains(String key) {
         if (key == null) {
             throw new IllegalArgumentException("key given to HashMap.contains mustn't be null");
         }
-        return buckets[findBucketOf(key)].get(key) != null;
+        migrateStep();
+        Bucket bucket = findBucketWith(hashStrategy.hash(key));
+        if (instrumentation != null) {
+            return instrumentation.recordGet(bucket, key) != null;
+        }
+        return bucket != null && bucket.get(key) != null;
     }
 
     /** Returns value by given key if it exists in hash table and null otherwise */
+    @Override
     public String get(String key) {
         if (key == null) {
             throw new IllegalArgumentException("key given to HashMap.get mustn't be null");
         }
-        StringPair foundPair = buckets[findBucketOf(key)].get(key);
+        migrateStep();
+        Bucket bucket = findBucketWith(hashStrategy.hash(key));
+        StringPair foundPair;
+        if (instrumentation != null) {
+            foundPair = instrumentation.recordGet(bucket, key);
+        } else {
+            foundPair = bucket == null ? null : bucket.get(key);
+        }
         return foundPair == null ? null : foundPair.getValue();
     }
 
@@ -51,24 +164,34 @@ public class HashMap {
      * Puts pair (key, value) to hash table (or changes previous value by this key to new one)
      * @return previous value by given key if it exists or null otherwise
      */
+    @Override
     public String put(String key, String value) {
         if (key == null) {
             throw new IllegalArgumentException("key given to HashMap.put mustn't be null");
         }
-        int bucketId = findBucketOf(key);
-        StringPair foundPair = buckets[bucketId].get(key);
+        migrateStep();
+        int hash = hashStrategy.hash(key);
+        Bucket[] table = findTableWith(hash);
+        int bucketId = findBucketOf(hash, table.length);
+        StringPair foundPair;
+        if (instrumentation != null) {
+            foundPair = instrumentation.recordPut(table[bucketId], key);
+        } else {
+            foundPair = table[bucketId] == null ? null : table[bucketId].get(key);
+        }
         String previousValue;
         if (foundPair == null) {
-            buckets[bucketId].put(new StringPair(key, value));
+            putToBucket(table, bucketId, new StringPair(key, value));
             previousValue = null;
             ++size;
+            ++modCount;
         } else {
             previousValue = foundPair.getValue();
             foundPair.setValue(value);
         }
 
-        if (size > ACCEPTABLE_DIFF * buckets.length) {
-            reallocate();
+        if (size > loadFactor * buckets.length) {
+            reallocate(Primes.genNextPrime(buckets.length * RESIZE_TIMES));
         }
 
         return previousValue;
@@ -78,55 +201,417 @@ public class HashMap {
      * Removes element with given key from table
      * @return value by given key if it was in table and null otherwise
      */
+    @Override
     public String remove(String key) {
         if (key == null) {
             throw new IllegalArgumentException("key given to HashMap.remove mustn't be null");
         }
-        StringPair deletedPair = buckets[findBucketOf(key)].remove(key);
+        migrateStep();
+        int hash = hashStrategy.hash(key);
+        Bucket[] table = findTableWith(hash);
+        int bucketId = findBucketOf(hash, table.length);
+        Bucket bucket = table[bucketId];
+        StringPair deletedPair;
+        if (instrumentation != null) {
+            deletedPair = instrumentation.recordRemove(bucket, key);
+        } else {
+            deletedPair = bucket == null ? null : bucket.remove(key);
+        }
         if (deletedPair != null) {
             --size;
+            ++modCount;
+            if (bucket instanceof TreeBucket && bucket.size() < UNTREEIFY_THRESHOLD) {
+                var list = new List();
+                for (StringPair pair : bucket.toArray()) {
+                    list.put(pair);
+                }
+                table[bucketId] = list;
+            }
+            if (size * SHRINK_DIFF < loadFactor * buckets.length && buckets.length > initialBuckets
+                    && oldBuckets == null) {
+                reallocate(Math.max(initialBuckets, Primes.genNextPrime(buckets.length / RESIZE_TIMES)));
+            }
             return deletedPair.getValue();
         } else {
             return null;
         }
     }
 
+    /**
+     * Puts all given pairs (keys[i], values[i]) to hash table
+     * Table is resized at most once, before putting any pairs
+     * @throws IllegalArgumentException if arrays have different lengths or some key is null.
+     *                                  Nothing is put in this case
+     */
+    public void putAll(String[] keys, String[] values) {
+        if (keys == null || values == null || keys.length != values.length) {
+            throw new IllegalArgumentException("keys and values given to HashMap.putAll must be arrays of same length");
+        }
+        for (String key : keys) {
+            if (key == null) {
+                throw new IllegalArgumentException("keys given to HashMap.putAll mustn't contain null");
+            }
+        }
+
+        // keys are not looked up in advance, table made too big by present or repeated keys shrinks on removes
+        int requiredBuckets = bucketsNumberFor(size + keys.length);
+        if (requiredBuckets > buckets.length) {
+            reallocate(requiredBuckets);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            put(keys[i], values[i]);
+        }
+    }
+
+    /**
+     * Finds values by all given keys
+     * @return array of values, i-th value is value by keys[i] or null if there is no such key
+     */
+    public String[] getAll(String[] keys) {
+        if (keys == null) {
+            throw new IllegalArgumentException("keys given to HashMap.getAll mustn't be null");
+        }
+        var values = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            values[i] = get(keys[i]);
+        }
+        return values;
+    }
+
     /** Removes all elements from table */
+    @Override
     public void clear() {
         size = 0;
-        buckets = new List[DEFAULT_SIZE];
-        for (int bucketId = 0; bucketId < DEFAULT_SIZE; bucketId++) {
-            buckets[bucketId] = new List();
+        ++modCount;
+        buckets = new Bucket[initialBuckets];
+        oldBuckets = null;
+        migratedBuckets = 0;
+    }
+
+    /**
+     * Returns number of buckets of previous table that are still waiting to be moved to the new one
+     * Always 0 if HashMap is not in incremental resize mode
+     */
+    public int pendingMigration() {
+        return oldBuckets == null ? 0 : oldBuckets.length - migratedBuckets;
+    }
+
+    /**
+     * Returns iterator over all pairs in no particular order
+     * See {@link #spliterator()} for details
+     */
+    @Override
+    public Iterator<StringPair> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * Returns spliterator over all pairs, which is split by ranges of buckets
+     * Pending incremental resize is finished first, so that pairs are not moved between tables during traversal
+     * Adding or removing keys during traversal is detected and leads to ConcurrentModificationException,
+     * changing values of existing keys is allowed
+     */
+    @Override
+    public Spliterator<StringPair> spliterator() {
+        if (oldBuckets != null) {
+            migrateBuckets(pendingMigration());
+        }
+        return new BucketRangeSpliterator(0, buckets.length, size);
+    }
+
+    /** Returns sequential stream of all pairs */
+    public Stream<StringPair> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /** Returns parallel stream of all pairs, different threads process different ranges of buckets */
+    public Stream<StringPair> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Collects distribution of bucket lengths. Takes time proportional to number of buckets
+     * During incremental resize buckets of both tables are counted
+     */
+    public BucketStatistics bucketStatistics() {
+        int maxLength = 0;
+        for (Bucket bucket : buckets) {
+            maxLength = Math.max(maxLength, bucket == null ? 0 : bucket.size());
         }
+        for (int bucketId = migratedBuckets; oldBuckets != null && bucketId < oldBuckets.length; bucketId++) {
+            maxLength = Math.max(maxLength, oldBuckets[bucketId] == null ? 0 : oldBuckets[bucketId].size());
+        }
+
+        var lengthCounts = new int[maxLength + 1];
+        for (Bucket bucket : buckets) {
+            ++lengthCounts[bucket == null ? 0 : bucket.size()];
+        }
+        for (int bucketId = migratedBuckets; oldBuckets != null && bucketId < oldBuckets.length; bucketId++) {
+            ++lengthCounts[oldBuckets[bucketId] == null ? 0 : oldBuckets[bucketId].size()];
+        }
+        return new BucketStatistics(lengthCounts);
     }
 
-    /** Builds new HashMap with greater size */
-    private void reallocate() {
+    /**
+     * Starts collecting statistics of operations, see {@link HashMapInstrumentation}
+     * Does nothing if instrumentation is already enabled
+     * @return instrumentation of this HashMap
+     */
+    public HashMapInstrumentation enableInstrumentation() {
+        if (instrumentation == null) {
+            instrumentation = new HashMapInstrumentation(this);
+            setTreeBucketsCounting(true);
+        }
+        return instrumentation;
+    }
+
+    /**
+     * Stops collecting statistics, previously returned instrumentation isn't updated anymore
+     * MBean registered by its registerMBean is unregistered, so it doesn't keep this HashMap reachable
+     */
+    public void disableInstrumentation() {
+        if (instrumentation != null) {
+            instrumentation.unregisterRegisteredMBean();
+            setTreeBucketsCounting(false);
+        }
+        instrumentation = null;
+    }
+
+    /**
+     * Writes all elements to snapshot file, which can be opened by MappedHashMap.open without reading it
+     * See MappedHashMap for format description
+     */
+    public void writeSnapshot(Path snapshot) throws IOException {
+        StringPair[] pairs = toArray();
+        var keys = new String[pairs.length];
+        var values = new String[pairs.length];
+        for (int i = 0; i < pairs.length; i++) {
+            keys[i] = pairs[i].getKey();
+            values[i] = pairs[i].getValue();
+        }
+        MappedHashMap.write(snapshot, keys, values);
+    }
+
+    /**
+     * Converts HashMap to array
+     * @return array of all pairs in HashMap in no particular order
+     */
+    StringPair[] toArray() {
         var allContent = new StringPair[size];
+        int pairPointer = 0;
+        for (Bucket[] table : new Bucket[][] {oldBuckets, buckets}) {
+            if (table == null) {
+                continue;
+            }
+            for (Bucket bucket : table) {
+                if (bucket == null) {
+                    continue;
+                }
+                for (StringPair pair : bucket.toArray()) {
+                    allContent[pairPointer++] = pair;
+                }
+            }
+        }
+        return allContent;
+    }
 
-        int listElementPointer = 0;
-        for (List bucket : buckets) {
-            for (StringPair pair : bucket.toArray()) {
-                allContent[listElementPointer++] = pair;
+    /** Returns number of buckets */
+    int capacity() {
+        return buckets.length;
+    }
+
+    /** Returns prime number of buckets enough to store given number of elements without resize */
+    private int bucketsNumberFor(int elementsNumber) {
+        return Primes.genNextPrime(Math.max(DEFAULT_SIZE, (int) Math.ceil(elementsNumber / loadFactor)));
+    }
+
+    /**
+     * Starts building new HashMap with given number of buckets
+     * In incremental mode elements are moved later by operations, otherwise all of them are moved immediately
+     */
+    private void reallocate(int newBucketsNumber) {
+        long startTime = instrumentation == null ? 0 : System.nanoTime();
+        if (oldBuckets != null) {
+            // previous resize is not finished yet, it has to be done before starting new one
+            migrateBuckets(pendingMigration());
+        }
+
+        ++modCount;
+        oldBuckets = buckets;
+        migratedBuckets = 0;
+        buckets = new Bucket[newBucketsNumber];
+
+        if (!isIncrementalResize) {
+            migrateBuckets(oldBuckets.length);
+        }
+        if (instrumentation != null) {
+            instrumentation.recordResize(System.nanoTime() - startTime);
+        }
+    }
+
+    /** Moves next MIGRATION_STEP buckets if incremental resize is in progress */
+    private void migrateStep() {
+        if (oldBuckets != null) {
+            migrateBuckets(Math.min(MIGRATION_STEP, pendingMigration()));
+        }
+    }
+
+    /** Moves given number of not yet moved buckets from old table to the new one */
+    private void migrateBuckets(int bucketsNumber) {
+        for (int i = 0; i < bucketsNumber; i++) {
+            if (oldBuckets[migratedBuckets] != null) {
+                for (StringPair pair : oldBuckets[migratedBuckets].toArray()) {
+                    putToBucket(buckets, findBucketOf(hashStrategy.hash(pair.getKey()), buckets.length), pair);
+                }
             }
+            oldBuckets[migratedBuckets++] = null;
         }
 
-        int bucketsSize = buckets.length * RESIZE_TIMES;
-        buckets = new List[Primes.genNextPrime(bucketsSize)];
-        for (int bucketId = 0; bucketId < buckets.length; bucketId++) {
-            buckets[bucketId] = new List();
+        if (migratedBuckets == oldBuckets.length) {
+            oldBuckets = null;
+            migratedBuckets = 0;
         }
+    }
 
-        for (StringPair pair : allContent) {
-            buckets[findBucketOf(pair.getKey())].put(pair);
+    /**
+     * Finds bucket where key with given hash is placed
+     * @return found bucket or null if it doesn't exist
+     */
+    private Bucket findBucketWith(int hash) {
+        Bucket[] table = findTableWith(hash);
+        return table[findBucketOf(hash, table.length)];
+    }
+
+    /**
+     * Finds table where key with given hash is placed or should be placed
+     * During incremental resize it is the old table if bucket of this key is not moved yet
+     */
+    private Bucket[] findTableWith(int hash) {
+        if (oldBuckets != null && findBucketOf(hash, oldBuckets.length) >= migratedBuckets) {
+            return oldBuckets;
+        }
+        return buckets;
+    }
+
+    /**
+     * Adds pair to given bucket of given table, creating bucket if it doesn't exist
+     * List bucket is converted to TreeBucket if it becomes too long
+     */
+    private void putToBucket(Bucket[] table, int bucketId, StringPair pair) {
+        if (table[bucketId] == null) {
+            table[bucketId] = new List();
+        }
+        table[bucketId].put(pair);
+        if (table[bucketId] instanceof List && table[bucketId].size() > TREEIFY_THRESHOLD) {
+            table[bucketId] = new TreeBucket(table[bucketId].toArray(), instrumentation != null);
+        }
+    }
+
+    /** Switches all TreeBuckets of both tables to counting or plain comparator, see TreeBucket.setCounting */
+    private void setTreeBucketsCounting(boolean isCounting) {
+        for (Bucket[] table : new Bucket[][] {buckets, oldBuckets}) {
+            if (table == null) {
+                continue;
+            }
+            for (Bucket bucket : table) {
+                if (bucket instanceof TreeBucket) {
+                    ((TreeBucket) bucket).setCounting(isCounting);
+                }
+            }
         }
     }
 
     /**
-     * Finds number of bucket where this key should be placed
+     * Finds number of bucket where key with given hash should be placed in table with given number of buckets
      * @return number of bucket
      */
-    private int findBucketOf(String key) {
-        return ((key.hashCode() % buckets.length) + buckets.length) % buckets.length;
+    private static int findBucketOf(int hash, int bucketsNumber) {
+        return ((hash % bucketsNumber) + bucketsNumber) % bucketsNumber;
+    }
+
+    /**
+     * Spliterator over pairs in buckets [bucketId, fence) of table, which was current when it was created
+     * Number of pairs is estimated as proportional to number of buckets
+     */
+    private class BucketRangeSpliterator implements Spliterator<StringPair> {
+        private final Bucket[] table = buckets;
+        private final int expectedModCount = modCount;
+        private int bucketId;
+        private final int fence;
+        private long estimatedSize;
+        /** Iterator over current bucket, bucketId is already moved after it */
+        private Iterator<StringPair> bucketIterator;
+
+        BucketRangeSpliterator(int bucketId, int fence, long estimatedSize) {
+            this.bucketId = bucketId;
+            this.fence = fence;
+            this.estimatedSize = estimatedSize;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super StringPair> action) {
+            if (action == null) {
+                throw new NullPointerException();
+            }
+            while (bucketIterator == null || !bucketIterator.hasNext()) {
+                if (bucketId >= fence) {
+                    return false;
+                }
+                Bucket bucket = table[bucketId++];
+                bucketIterator = bucket == null ? null : bucket.iterator();
+            }
+            StringPair pair = bucketIterator.next();
+            checkForModification();
+            action.accept(pair);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super StringPair> action) {
+            if (action == null) {
+                throw new NullPointerException();
+            }
+            if (bucketIterator != null) {
+                bucketIterator.forEachRemaining(action);
+                bucketIterator = null;
+            }
+            for (; bucketId < fence; bucketId++) {
+                if (table[bucketId] != null) {
+                    table[bucketId].forEach(action);
+                }
+            }
+            checkForModification();
+        }
+
+        /** Gives away first half of not traversed buckets */
+        @Override
+        public Spliterator<StringPair> trySplit() {
+            int middle = (bucketId + fence) >>> 1;
+            if (middle <= bucketId) {
+                return null;
+            }
+            estimatedSize >>>= 1;
+            var prefix = new BucketRangeSpliterator(bucketId, middle, estimatedSize);
+            prefix.bucketIterator = bucketIterator;
+            bucketIterator = null;
+            bucketId = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimatedSize;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.DISTINCT | Spliterator.NONNULL;
+        }
+
+        private void checkForModification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
     }
 }
@@ -0,0 +1,193 @@
+package ru.spbhse.hashmap;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Counters of operations of one HashMap, enabled by {@link HashMap#enableInstrumentation()}
+ * Every get, contains, put and remove records length of bucket it looked into and number of keys it compared,
+ * every resize records its duration. Keys are counted by the lookup itself, so bucket is walked once.
+ * Recording is a few increments of plain fields, not synchronized:
+ * values read by other threads (for example through JMX) may be slightly stale.
+ * Registered MBean keeps instrumentation and its HashMap reachable until it is unregistered,
+ * HashMap.disableInstrumentation unregisters MBean registered by registerMBean
+ */
+public class HashMapInstrumentation implements HashMapInstrumentationMXBean {
+
+    /** Histograms have a cell for every length up to this one, longer lengths are counted in the last cell */
+    static final int MAX_TRACKED_LENGTH = 32;
+
+    private final HashMap map;
+    private long gets;
+    private long puts;
+    private long removes;
+    private long resizes;
+    private long totalResizeNanos;
+    private long maxResizeNanos;
+    private long[] chainLengths = new long[MAX_TRACKED_LENGTH + 1];
+    private long[] probeLengths = new long[MAX_TRACKED_LENGTH + 1];
+    private final ProbeCounter probeCounter = new ProbeCounter();
+    /** Name of MBean registered by registerMBean, MXBean can be registered only once */
+    private ObjectName registeredName;
+
+    HashMapInstrumentation(HashMap map) {
+        this.map = map;
+    }
+
+    /** Returns copy of all counters and current size of HashMap */
+    public InstrumentationSnapshot snapshot() {
+        return new InstrumentationSnapshot(gets, puts, removes, resizes, totalResizeNanos, maxResizeNanos,
+                map.size(), map.capacity(), chainLengths.clone(), probeLengths.clone());
+    }
+
+    /**
+     * Registers this instrumentation in platform MBean server
+     * @param name value of name key of MBean, type key is HashMap
+     * @return name of registered MBean, needed to unregister it
+     * @throws JMException if MBean with same name is already registered
+     */
+    public ObjectName registerMBean(String name) throws JMException {
+        var objectName = new ObjectName("ru.spbhse.hashmap:type=HashMap,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        registeredName = objectName;
+        return objectName;
+    }
+
+    /** Removes MBean registered by registerMBean */
+    public static void unregisterMBean(ObjectName name) throws JMException {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+    }
+
+    /** Unregisters MBean registered by registerMBean if it is still registered */
+    void unregisterRegisteredMBean() {
+        if (registeredName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+        } catch (InstanceNotFoundException e) {
+            // already unregistered by unregisterMBean
+        } catch (JMException e) {
+            throw new IllegalStateException("HashMapInstrumentation failed to unregister MBean " + registeredName, e);
+        }
+        registeredName = null;
+    }
+
+    @Override
+    public long getGets() {
+        return gets;
+    }
+
+    @Override
+    public long getPuts() {
+        return puts;
+    }
+
+    @Override
+    public long getRemoves() {
+        return removes;
+    }
+
+    @Override
+    public long getResizes() {
+        return resizes;
+    }
+
+    @Override
+    public long getTotalResizeNanos() {
+        return totalResizeNanos;
+    }
+
+    @Override
+    public long getMaxResizeNanos() {
+        return maxResizeNanos;
+    }
+
+    @Override
+    public int getSize() {
+        return map.size();
+    }
+
+    @Override
+    public int getBucketsNumber() {
+        return map.capacity();
+    }
+
+    @Override
+    public double getLoadFactor() {
+        return (double) map.size() / map.capacity();
+    }
+
+    @Override
+    public long[] getChainLengthHistogram() {
+        return chainLengths.clone();
+    }
+
+    @Override
+    public long[] getProbeLengthHistogram() {
+        return probeLengths.clone();
+    }
+
+    @Override
+    public void reset() {
+        gets = 0;
+        puts = 0;
+        removes = 0;
+        resizes = 0;
+        totalResizeNanos = 0;
+        maxResizeNanos = 0;
+        chainLengths = new long[MAX_TRACKED_LENGTH + 1];
+        probeLengths = new long[MAX_TRACKED_LENGTH + 1];
+    }
+
+    /**
+     * Looks for given key in given bucket (null if it doesn't exist) for get or contains and records the lookup
+     * @return found pair or null
+     */
+    StringPair recordGet(Bucket bucket, String key) {
+        ++gets;
+        return lookup(bucket, key);
+    }
+
+    /** Looks for given key in given bucket for put and records the lookup, returns found pair or null */
+    StringPair recordPut(Bucket bucket, String key) {
+        ++puts;
+        return lookup(bucket, key);
+    }
+
+    /** Removes given key from given bucket and records the lookup, returns removed pair or null */
+    StringPair recordRemove(Bucket bucket, String key) {
+        ++removes;
+        if (bucket == null) {
+            recordLengths(0, 0);
+            return null;
+        }
+        int chainLength = bucket.size();
+        StringPair removedPair = bucket.remove(key, probeCounter);
+        recordLengths(chainLength, probeCounter.take());
+        return removedPair;
+    }
+
+    void recordResize(long nanos) {
+        ++resizes;
+        totalResizeNanos += nanos;
+        maxResizeNanos = Math.max(maxResizeNanos, nanos);
+    }
+
+    private StringPair lookup(Bucket bucket, String key) {
+        if (bucket == null) {
+            recordLengths(0, 0);
+            return null;
+        }
+        StringPair foundPair = bucket.get(key, probeCounter);
+        recordLengths(bucket.size(), probeCounter.take());
+        return foundPair;
+    }
+
+    private void recordLengths(int chainLength, int probeLength) {
+        ++chainLengths[Math.min(chainLength, MAX_TRACKED_LENGTH)];
+        ++probeLengths[Math.min(probeLength, MAX_TRACKED_LENGTH)];
+    }
+}
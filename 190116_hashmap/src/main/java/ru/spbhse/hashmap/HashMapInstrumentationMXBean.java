@@ -0,0 +1,34 @@
+package ru.spbhse.hashmap;
+
+/**
+ * JMX view of HashMapInstrumentation, registered by {@link HashMapInstrumentation#registerMBean(String)}
+ * Histograms are arrays where element i is number of operations with length i,
+ * the last element counts all longer ones
+ */
+public interface HashMapInstrumentationMXBean {
+
+    long getGets();
+
+    long getPuts();
+
+    long getRemoves();
+
+    long getResizes();
+
+    long getTotalResizeNanos();
+
+    long getMaxResizeNanos();
+
+    int getSize();
+
+    int getBucketsNumber();
+
+    double getLoadFactor();
+
+    long[] getChainLengthHistogram();
+
+    long[] getProbeLengthHistogram();
+
+    /** Sets all counters and histograms to zero */
+    void reset();
+}
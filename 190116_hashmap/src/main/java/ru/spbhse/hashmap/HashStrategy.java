@@ -0,0 +1,15 @@
+package ru.spbhse.hashmap;
+
+/**
+ * Strategy of hashing keys used by HashMap to choose buckets
+ * Must return same hash for equal keys during whole life of HashMap
+ */
+@FunctionalInterface
+public interface HashStrategy {
+
+    /** Strategy using String.hashCode, which is default for HashMap */
+    HashStrategy STRING_HASH_CODE = String::hashCode;
+
+    /** Returns hash of given key */
+    int hash(String key);
+}
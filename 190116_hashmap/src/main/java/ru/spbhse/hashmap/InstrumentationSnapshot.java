@@ -0,0 +1,136 @@
+package ru.spbhse.hashmap;
+
+import java.util.Arrays;
+
+/**
+ * Statistics of HashMap operations collected by HashMapInstrumentation, copied at the moment snapshot was taken
+ * Chain length of operation is size of bucket it looked into, probe length is number of keys it compared.
+ * Lengths of MAX_TRACKED_LENGTH and more are counted together
+ */
+public class InstrumentationSnapshot {
+
+    public static final int MAX_TRACKED_LENGTH = HashMapInstrumentation.MAX_TRACKED_LENGTH;
+
+    private final long gets;
+    private final long puts;
+    private final long removes;
+    private final long resizes;
+    private final long totalResizeNanos;
+    private final long maxResizeNanos;
+    private final int size;
+    private final int bucketsNumber;
+    private final long[] chainLengths;
+    private final long[] probeLengths;
+
+    InstrumentationSnapshot(long gets, long puts, long removes, long resizes, long totalResizeNanos,
+                            long maxResizeNanos, int size, int bucketsNumber, long[] chainLengths, long[] probeLengths) {
+        this.gets = gets;
+        this.puts = puts;
+        this.removes = removes;
+        this.resizes = resizes;
+        this.totalResizeNanos = totalResizeNanos;
+        this.maxResizeNanos = maxResizeNanos;
+        this.size = size;
+        this.bucketsNumber = bucketsNumber;
+        this.chainLengths = chainLengths;
+        this.probeLengths = probeLengths;
+    }
+
+    /** Returns number of get and contains calls */
+    public long gets() {
+        return gets;
+    }
+
+    public long puts() {
+        return puts;
+    }
+
+    public long removes() {
+        return removes;
+    }
+
+    /** Returns number of table rebuilds, both growths and shrinks */
+    public long resizes() {
+        return resizes;
+    }
+
+    /** Returns total time spent in resizes. In incremental mode it doesn't include moving buckets by later operations */
+    public long totalResizeNanos() {
+        return totalResizeNanos;
+    }
+
+    public long maxResizeNanos() {
+        return maxResizeNanos;
+    }
+
+    /** Returns number of elements in HashMap */
+    public int size() {
+        return size;
+    }
+
+    public int bucketsNumber() {
+        return bucketsNumber;
+    }
+
+    /** Returns average number of elements per bucket */
+    public double loadFactor() {
+        return (double) size / bucketsNumber;
+    }
+
+    /** Returns number of operations which looked into bucket with given number of elements */
+    public long operationsWithChainLength(int length) {
+        return countOf(chainLengths, length, "operationsWithChainLength");
+    }
+
+    /** Returns number of operations which compared given number of keys */
+    public long operationsWithProbeLength(int length) {
+        return countOf(probeLengths, length, "operationsWithProbeLength");
+    }
+
+    /** Returns copy of chain length histogram: element i is number of operations with chain length i */
+    public long[] chainLengthHistogram() {
+        return chainLengths.clone();
+    }
+
+    /** Returns copy of probe length histogram: element i is number of operations with probe length i */
+    public long[] probeLengthHistogram() {
+        return probeLengths.clone();
+    }
+
+    /** Returns average number of compared keys per operation, or 0 if there were no operations */
+    public double averageProbeLength() {
+        return average(probeLengths);
+    }
+
+    /** Returns average size of bucket looked into per operation, or 0 if there were no operations */
+    public double averageChainLength() {
+        return average(chainLengths);
+    }
+
+    @Override
+    public String toString() {
+        return "gets: " + gets + ", puts: " + puts + ", removes: " + removes
+                + ", resizes: " + resizes + " (" + totalResizeNanos + " ns)"
+                + ", load factor: " + loadFactor()
+                + ", chain lengths: " + Arrays.toString(chainLengths)
+                + ", probe lengths: " + Arrays.toString(probeLengths);
+    }
+
+    private static long countOf(long[] histogram, int length, String method) {
+        if (length < 0) {
+            throw new IllegalArgumentException("length given to InstrumentationSnapshot." + method
+                    + " must be non-negative");
+        }
+        return histogram[Math.min(length, MAX_TRACKED_LENGTH)];
+    }
+
+    private static double average(long[] histogram) {
+        long operations = 0;
+        double lengths = 0;
+        for (int length = 0; length < histogram.length; length++) {
+            operations += histogram[length];
+            lengths += (double) length * histogram[length];
+        }
+        return operations == 0 ? 0 : lengths / operations;
+    }
+}
@@ -1,10 +1,13 @@
 package ru.spbhse.hashmap;
 
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
 /**
  * Class to store lists of StringPairs
  * NB! StringPairs mustn't be null.
  */
-public class List {
+public class List implements Bucket {
 
     private ListElement head;
     private int size;
@@ -20,6 +23,7 @@ public class List {
      * Searches for element with given key in list
      * @return first pair with given key if it exists and null otherwise
      */
+    @Override
     public StringPair get(String key) {
         ListElement ptr = head;
         while (ptr.getElement() != null) {
@@ -34,6 +38,7 @@ public class List {
     /**
      * Adds given pair to the head of list
      */
+    @Override
     public void put(StringPair pair) {
         if (pair == null) {
             throw new IllegalArgumentException("pair given to List.put mustn't be null");
@@ -46,6 +51,7 @@ public class List {
      * Removes first pair with given key from list
      * @return removed pair if it was found and null otherwise
      */
+    @Override
     public StringPair remove(String key) {
         ListElement ptr = head;
         while (ptr.getElement() != null) {
@@ -60,7 +66,45 @@ public class List {
         return null;
     }
 
+    /** Same as get, adds its position in list to counter or size if it is absent */
+    @Override
+    public StringPair get(String key, ProbeCounter counter) {
+        int probes = 0;
+        ListElement ptr = head;
+        while (ptr.getElement() != null) {
+            ++probes;
+            if (ptr.getElement().getKey().equals(key)) {
+                counter.add(probes);
+                return ptr.getElement();
+            }
+            ptr = ptr.getNext();
+        }
+        counter.add(probes);
+        return null;
+    }
+
+    /** Same as remove, adds its position in list to counter or size if it is absent */
+    @Override
+    public StringPair remove(String key, ProbeCounter counter) {
+        int probes = 0;
+        ListElement ptr = head;
+        while (ptr.getElement() != null) {
+            ++probes;
+            if (ptr.getElement().getKey().equals(key)) {
+                counter.add(probes);
+                StringPair foundPair = ptr.getElement();
+                ptr.setFields(ptr.getNext());
+                --size;
+                return foundPair;
+            }
+            ptr = ptr.getNext();
+        }
+        counter.add(probes);
+        return null;
+    }
+
     /** Returns number of elements in a list */
+    @Override
     public int size() {
         return size;
     }
@@ -69,6 +113,7 @@ public class List {
      * Converts list to array
      * @return array made of this list with elements in order from head to tail
      */
+    @Override
     public StringPair[] toArray() {
         StringPair[] content = new StringPair[size];
         ListElement ptr = head;
@@ -79,6 +124,29 @@ public class List {
         return content;
     }
 
+    /** Returns iterator over pairs in order from head to tail */
+    @Override
+    public Iterator<StringPair> iterator() {
+        return new Iterator<>() {
+            private ListElement ptr = head;
+
+            @Override
+            public boolean hasNext() {
+                return ptr.getElement() != null;
+            }
+
+            @Override
+            public StringPair next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                StringPair element = ptr.getElement();
+                ptr = ptr.getNext();
+                return element;
+            }
+        };
+    }
+
     /**
      * Class to store elements of list with pointers on next element
      */
@@ -0,0 +1,75 @@
+package ru.spbhse.hashmap;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only file mapped to memory
+ * One MappedByteBuffer can't be larger than 2 GB, so file is mapped by segments of SEGMENT_SIZE bytes
+ * and values crossing segment border are assembled byte by byte
+ */
+class MappedFile implements AutoCloseable {
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+
+    private final MappedByteBuffer[] segments;
+    private final long length;
+
+    /** Maps whole given file to memory. File may be closed after that, mapping stays valid */
+    MappedFile(Path file) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            length = channel.size();
+            segments = new MappedByteBuffer[(int) ((length + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+            for (int segmentId = 0; segmentId < segments.length; segmentId++) {
+                long start = segmentId * SEGMENT_SIZE;
+                segments[segmentId] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        start, Math.min(SEGMENT_SIZE, length - start));
+            }
+        }
+    }
+
+    /** Returns length of file in bytes */
+    long length() {
+        return length;
+    }
+
+    byte getByte(long position) {
+        return segments[(int) (position >>> SEGMENT_BITS)].get((int) (position & (SEGMENT_SIZE - 1)));
+    }
+
+    int getInt(long position) {
+        int offset = (int) (position & (SEGMENT_SIZE - 1));
+        if (offset + Integer.BYTES <= SEGMENT_SIZE) {
+            return segments[(int) (position >>> SEGMENT_BITS)].getInt(offset);
+        }
+        int result = 0;
+        for (int i = 0; i < Integer.BYTES; i++) {
+            result = (result << Byte.SIZE) | (getByte(position + i) & 0xFF);
+        }
+        return result;
+    }
+
+    long getLong(long position) {
+        return ((long) getInt(position) << Integer.SIZE) | (getInt(position + Integer.BYTES) & 0xFFFFFFFFL);
+    }
+
+    /** Copies given number of bytes starting from given position to new array */
+    byte[] getBytes(long position, int bytesNumber) {
+        var bytes = new byte[bytesNumber];
+        for (int i = 0; i < bytesNumber; i++) {
+            bytes[i] = getByte(position + i);
+        }
+        return bytes;
+    }
+
+    /** Unmaps file. Nothing may be read after that */
+    @Override
+    public void close() {
+        for (MappedByteBuffer segment : segments) {
+            DirectMemory.free(segment);
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package ru.spbhse.hashmap;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+
+/**
+ * HashMap class to store pairs of Strings which answers queries straight from memory-mapped snapshot file
+ *
+ * Opening snapshot only maps file to memory, so it takes same time for any size of map.
+ * Changes are kept in heap overlay (changed pairs and set of removed keys) until next snapshot is written.
+ *
+ * Snapshot format:
+ * 1. Header: MAGIC (int), VERSION (int), number of elements (int), number of slots (int, power of two)
+ * 2. Slots: file position of record (long) for every slot, EMPTY_SLOT for empty ones.
+ *    Records are placed by linear probing by hash of key
+ * 3. Hashes: hash of key (int) for every slot, used to skip records with other keys without reading them
+ * 4. Records: key length in bytes (int), key in UTF-8, value length (int, -1 for null value), value in UTF-8
+ * All numbers are big-endian
+ * NB! Keys mustn't be nulls
+ */
+public class MappedHashMap implements StringMap, AutoCloseable {
+
+    static final int MAGIC = 0x53484D53;
+    static final int VERSION = 1;
+    private static final long EMPTY_SLOT = 0;
+    private static final int HEADER_SIZE = 4 * Integer.BYTES;
+
+    private MappedFile file;
+    private int mappedSize;
+    private int slotsNumber;
+    private final HashMap overlay = new HashMap();
+    /** Keys which are in snapshot file but were removed after it was opened */
+    private final HashSet<String> removedKeys = new HashSet<>();
+    private int size;
+
+    private MappedHashMap(MappedFile file) throws IOException {
+        this.file = file;
+        if (file.length() < HEADER_SIZE || file.getInt(0) != MAGIC) {
+            file.close();
+            throw new IOException("File is not a HashMap snapshot");
+        }
+        if (file.getInt(Integer.BYTES) != VERSION) {
+            file.close();
+            throw new IOException("Unsupported HashMap snapshot version " + file.getInt(Integer.BYTES));
+        }
+        mappedSize = file.getInt(2 * Integer.BYTES);
+        slotsNumber = file.getInt(3 * Integer.BYTES);
+        size = mappedSize;
+    }
+
+    /**
+     * Opens snapshot written by HashMap.writeSnapshot or MappedHashMap.writeSnapshot
+     * Snapshot file mustn't be changed while it is opened
+     * @throws IOException if file can't be read or it is not a snapshot
+     */
+    public static MappedHashMap open(Path snapshot) throws IOException {
+        return new MappedHashMap(new MappedFile(snapshot));
+    }
+
+    /** Returns number of elements in HashMap */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if HashMap contains given key
+     * @return true if HashMap contains this key and false otherwise
+     */
+    @Override
+    public boolean contains(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to MappedHashMap.contains mustn't be null");
+        }
+        checkNotClosed();
+        if (overlay.contains(key)) {
+            return true;
+        }
+        return !removedKeys.contains(key) && findRecordOf(key) != EMPTY_SLOT;
+    }
+
+    /** Returns value by given key if it exists in hash table and null otherwise */
+    @Override
+    public String get(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to MappedHashMap.get mustn't be null");
+        }
+        checkNotClosed();
+        if (overlay.contains(key)) {
+            return overlay.get(key);
+        }
+        if (removedKeys.contains(key)) {
+            return null;
+        }
+        long record = findRecordOf(key);
+        return record == EMPTY_SLOT ? null : readValue(record);
+    }
+
+    /**
+     * Puts pair (key, value) to heap overlay (or changes previous value by this key to new one)
+     * @return previous value by given key if it exists or null otherwise
+     */
+    @Override
+    public String put(String key, String value) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to MappedHashMap.put mustn't be null");
+        }
+        checkNotClosed();
+        boolean wasPresent = contains(key);
+        String previousValue = get(key);
+        overlay.put(key, value);
+        removedKeys.remove(key);
+        if (!wasPresent) {
+            ++size;
+        }
+        return previousValue;
+    }
+
+    /**
+     * Removes element with given key
+     * @return value by given key if it was in table and null otherwise
+     */
+    @Override
+    public String remove(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to MappedHashMap.remove mustn't be null");
+        }
+        checkNotClosed();
+        if (!contains(key)) {
+            return null;
+        }
+        String removedValue = get(key);
+        overlay.remove(key);
+        if (findRecordOf(key) != EMPTY_SLOT) {
+            removedKeys.add(key);
+        }
+        --size;
+        return removedValue;
+    }
+
+    /** Removes all elements. Snapshot file is unmapped, but not deleted */
+    @Override
+    public void clear() {
+        checkNotClosed();
+        if (file != null) {
+            file.close();
+        }
+        file = null;
+        mappedSize = 0;
+        slotsNumber = 0;
+        overlay.clear();
+        removedKeys.clear();
+        size = 0;
+    }
+
+    /**
+     * Writes all elements (from snapshot and overlay) to new snapshot
+     * It may be the file this map is opened from, then new snapshot is used after reopening
+     */
+    public void writeSnapshot(Path snapshot) throws IOException {
+        checkNotClosed();
+        var keys = new String[size];
+        var values = new String[size];
+        int written = 0;
+        for (StringPair pair : overlay.toArray()) {
+            keys[written] = pair.getKey();
+            values[written++] = pair.getValue();
+        }
+        for (int slot = 0; slot < slotsNumber; slot++) {
+            long record = file == null ? EMPTY_SLOT : file.getLong(HEADER_SIZE + (long) slot * Long.BYTES);
+            if (record == EMPTY_SLOT) {
+                continue;
+            }
+            String key = readKey(record);
+            if (!overlay.contains(key) && !removedKeys.contains(key)) {
+                keys[written] = key;
+                values[written++] = readValue(record);
+            }
+        }
+        write(snapshot, keys, values);
+    }
+
+    /** Unmaps snapshot file. HashMap mustn't be used after that */
+    @Override
+    public void close() {
+        if (file != null) {
+            file.close();
+        }
+        file = null;
+        slotsNumber = -1;
+    }
+
+    /**
+     * Writes pairs with given keys and values (values[i] corresponds to keys[i]) as snapshot file
+     * File is written next to destination and then moved, so opened snapshot is never changed
+     */
+    static void write(Path snapshot, String[] keys, String[] values) throws IOException {
+        int slots = 1;
+        while (slots < 2 * keys.length) {
+            slots *= 2;
+        }
+        var slotRecords = new long[slots];
+        var slotHashes = new int[slots];
+        long recordPosition = HEADER_SIZE + (long) slots * (Long.BYTES + Integer.BYTES);
+        for (int i = 0; i < keys.length; i++) {
+            int hash = hashOf(keys[i]);
+            int slot = hash & (slots - 1);
+            while (slotRecords[slot] != EMPTY_SLOT) {
+                slot = (slot + 1) & (slots - 1);
+            }
+            slotRecords[slot] = recordPosition;
+            slotHashes[slot] = hash;
+            recordPosition += 2 * Integer.BYTES + utf8Length(keys[i]) + (values[i] == null ? 0 : utf8Length(values[i]));
+        }
+
+        Path temporary = Files.createTempFile(snapshot.toAbsolutePath().getParent(), "snapshot", ".tmp");
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(keys.length);
+            out.writeInt(slots);
+            for (long record : slotRecords) {
+                out.writeLong(record);
+            }
+            for (int hash : slotHashes) {
+                out.writeInt(hash);
+            }
+            for (int i = 0; i < keys.length; i++) {
+                byte[] keyBytes = keys[i].getBytes(StandardCharsets.UTF_8);
+                out.writeInt(keyBytes.length);
+                out.write(keyBytes);
+                if (values[i] == null) {
+                    out.writeInt(-1);
+                } else {
+                    byte[] valueBytes = values[i].getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(valueBytes.length);
+                    out.write(valueBytes);
+                }
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void checkNotClosed() {
+        if (slotsNumber == -1) {
+            throw new IllegalStateException("MappedHashMap is closed");
+        }
+    }
+
+    /** Returns file position of record with given key or EMPTY_SLOT if there is no such record in snapshot */
+    private long findRecordOf(String key) {
+        if (mappedSize == 0) {
+            return EMPTY_SLOT;
+        }
+        int hash = hashOf(key);
+        byte[] keyBytes = null;
+        long hashesStart = HEADER_SIZE + (long) slotsNumber * Long.BYTES;
+        int slot = hash & (slotsNumber - 1);
+        while (true) {
+            long record = file.getLong(HEADER_SIZE + (long) slot * Long.BYTES);
+            if (record == EMPTY_SLOT) {
+                return EMPTY_SLOT;
+            }
+            if (file.getInt(hashesStart + (long) slot * Integer.BYTES) == hash) {
+                if (keyBytes == null) {
+                    keyBytes = key.getBytes(StandardCharsets.UTF_8);
+                }
+                if (keyEquals(record, keyBytes)) {
+                    return record;
+                }
+            }
+            slot = (slot + 1) & (slotsNumber - 1);
+        }
+    }
+
+    /** Compares key of record by given position with given bytes */
+    private boolean keyEquals(long record, byte[] keyBytes) {
+        if (file.getInt(record) != keyBytes.length) {
+            return false;
+        }
+        for (int i = 0; i < keyBytes.length; i++) {
+            if (file.getByte(record + Integer.BYTES + i) != keyBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String readKey(long record) {
+        return new String(file.getBytes(record + Integer.BYTES, file.getInt(record)), StandardCharsets.UTF_8);
+    }
+
+    private String readValue(long record) {
+        long valuePosition = record + Integer.BYTES + file.getInt(record);
+        int valueLength = file.getInt(valuePosition);
+        if (valueLength == -1) {
+            return null;
+        }
+        return new String(file.getBytes(valuePosition + Integer.BYTES, valueLength), StandardCharsets.UTF_8);
+    }
+
+    /** Hash of key stored in snapshot. String.hashCode is specified, so it is same in every run */
+    private static int hashOf(String key) {
+        int hashCode = key.hashCode();
+        return hashCode ^ (hashCode >>> 16);
+    }
+
+    /** Returns length of given string in UTF-8 without encoding it */
+    private static int utf8Length(String string) {
+        int length = 0;
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < string.length()
+                    && Character.isLowSurrogate(string.charAt(i + 1))) {
+                length += 4;
+                ++i;
+            } else {
+                // unpaired surrogates are encoded as '?' by String.getBytes
+                length += Character.isSurrogate(c) ? 1 : 3;
+            }
+        }
+        return length;
+    }
+}
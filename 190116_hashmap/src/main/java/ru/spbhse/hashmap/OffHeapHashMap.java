@@ -0,0 +1,370 @@
+package ru.spbhse.hashmap;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * HashMap class to store pairs of Strings outside of Java heap
+ *
+ * Keys and values are stored as records in direct buffers (arenas) of CHUNK_SIZE bytes:
+ * 1. Key length in bytes (int)
+ * 2. Key in UTF-8
+ * 3. Value length in bytes (int), -1 if value is null
+ * 4. Value in UTF-8
+ * Heap keeps only index: open addressing table of record addresses and key hash codes,
+ * so heap usage doesn't depend on length of strings and there are no objects per entry.
+ * Lookup compares bytes of stored key with bytes of given one without creating Strings.
+ * Replaced and removed records are not freed at once, arenas are compacted when garbage outweighs live data.
+ * Memory is freed by close(), map can't be used after that.
+ * NB! Keys mustn't be nulls
+ */
+public class OffHeapHashMap implements StringMap, AutoCloseable {
+
+    private int size;
+    /** Addresses of records: number of chunk in high 32 bits and offset in low ones, EMPTY for empty cells */
+    private long[] addresses;
+    /** Hash codes of keys in corresponding cells */
+    private int[] hashes;
+    private ArrayList<ByteBuffer> chunks = new ArrayList<>();
+    private long liveBytes;
+    private long garbageBytes;
+    private boolean isClosed;
+    final private long EMPTY = -1;
+    final private int DEFAULT_SIZE = 16;
+    final private int CHUNK_SIZE = 1 << 20;
+    /** Table is resized when it becomes more than MAX_LOAD_NUMERATOR / MAX_LOAD_DENOMINATOR full */
+    final private int MAX_LOAD_NUMERATOR = 5;
+    final private int MAX_LOAD_DENOMINATOR = 8;
+
+    /**
+     * Basic constructor. Creates HashMap with DEFAULT_SIZE cells and no allocated memory
+     */
+    public OffHeapHashMap() {
+        allocateIndex(DEFAULT_SIZE);
+    }
+
+    /** Returns number of elements in HashMap */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if HashMap contains given key
+     * @return true if HashMap contains this key and false otherwise
+     */
+    @Override
+    public boolean contains(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to OffHeapHashMap.contains mustn't be null");
+        }
+        checkNotClosed();
+        return addresses[findCellOf(spread(key.hashCode()), encode(key))] != EMPTY;
+    }
+
+    /** Returns value by given key if it exists in hash table and null otherwise */
+    @Override
+    public String get(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to OffHeapHashMap.get mustn't be null");
+        }
+        checkNotClosed();
+        long address = addresses[findCellOf(spread(key.hashCode()), encode(key))];
+        return address == EMPTY ? null : readValue(address);
+    }
+
+    /**
+     * Puts pair (key, value) to hash table (or changes previous value by this key to new one)
+     * @return previous value by given key if it exists or null otherwise
+     */
+    @Override
+    public String put(String key, String value) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to OffHeapHashMap.put mustn't be null");
+        }
+        checkNotClosed();
+        int hash = spread(key.hashCode());
+        byte[] keyBytes = encode(key);
+        int cellId = findCellOf(hash, keyBytes);
+
+        String previousValue = null;
+        if (addresses[cellId] != EMPTY) {
+            previousValue = readValue(addresses[cellId]);
+            markGarbage(addresses[cellId]);
+        } else {
+            ++size;
+        }
+        addresses[cellId] = writeRecord(keyBytes, value == null ? null : encode(value));
+        hashes[cellId] = hash;
+
+        if (size * MAX_LOAD_DENOMINATOR > addresses.length * MAX_LOAD_NUMERATOR) {
+            reallocateIndex();
+        }
+        if (garbageBytes > liveBytes && garbageBytes > CHUNK_SIZE) {
+            compact();
+        }
+
+        return previousValue;
+    }
+
+    /**
+     * Removes element with given key from table
+     * @return value by given key if it was in table and null otherwise
+     */
+    @Override
+    public String remove(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to OffHeapHashMap.remove mustn't be null");
+        }
+        checkNotClosed();
+        int cellId = findCellOf(spread(key.hashCode()), encode(key));
+        if (addresses[cellId] == EMPTY) {
+            return null;
+        }
+        String removedValue = readValue(addresses[cellId]);
+        markGarbage(addresses[cellId]);
+        --size;
+
+        int mask = addresses.length - 1;
+        int emptyCellId = cellId;
+        int currentCellId = (cellId + 1) & mask;
+        while (addresses[currentCellId] != EMPTY) {
+            int homeCellId = hashes[currentCellId] & mask;
+            // element may be moved to empty cell only if the empty cell lies between its home and current cell
+            if (((currentCellId - homeCellId) & mask) >= ((currentCellId - emptyCellId) & mask)) {
+                addresses[emptyCellId] = addresses[currentCellId];
+                hashes[emptyCellId] = hashes[currentCellId];
+                emptyCellId = currentCellId;
+            }
+            currentCellId = (currentCellId + 1) & mask;
+        }
+        addresses[emptyCellId] = EMPTY;
+
+        if (garbageBytes > liveBytes && garbageBytes > CHUNK_SIZE) {
+            compact();
+        }
+
+        return removedValue;
+    }
+
+    /** Removes all elements from table and frees all off-heap memory */
+    @Override
+    public void clear() {
+        checkNotClosed();
+        freeChunks(chunks);
+        chunks = new ArrayList<>();
+        size = 0;
+        liveBytes = 0;
+        garbageBytes = 0;
+        allocateIndex(DEFAULT_SIZE);
+    }
+
+    /** Frees all off-heap memory. HashMap mustn't be used after that */
+    @Override
+    public void close() {
+        if (isClosed) {
+            return;
+        }
+        freeChunks(chunks);
+        chunks = null;
+        addresses = null;
+        hashes = null;
+        isClosed = true;
+    }
+
+    /** Returns number of bytes of off-heap memory allocated for records */
+    public long allocatedBytes() {
+        checkNotClosed();
+        long allocated = 0;
+        for (ByteBuffer chunk : chunks) {
+            allocated += chunk.capacity();
+        }
+        return allocated;
+    }
+
+    private void checkNotClosed() {
+        if (isClosed) {
+            throw new IllegalStateException("OffHeapHashMap is closed");
+        }
+    }
+
+    /** Creates empty index with given number of cells */
+    private void allocateIndex(int cellsNumber) {
+        addresses = new long[cellsNumber];
+        hashes = new int[cellsNumber];
+        Arrays.fill(addresses, EMPTY);
+    }
+
+    /** Builds new index with twice as many cells, records are not moved */
+    private void reallocateIndex() {
+        long[] oldAddresses = addresses;
+        int[] oldHashes = hashes;
+        allocateIndex(addresses.length * 2);
+
+        int mask = addresses.length - 1;
+        for (int oldCellId = 0; oldCellId < oldAddresses.length; oldCellId++) {
+            if (oldAddresses[oldCellId] == EMPTY) {
+                continue;
+            }
+            int cellId = oldHashes[oldCellId] & mask;
+            while (addresses[cellId] != EMPTY) {
+                cellId = (cellId + 1) & mask;
+            }
+            addresses[cellId] = oldAddresses[oldCellId];
+            hashes[cellId] = oldHashes[oldCellId];
+        }
+    }
+
+    /** Copies all live records to new chunks and frees old ones */
+    private void compact() {
+        ArrayList<ByteBuffer> oldChunks = chunks;
+        chunks = new ArrayList<>();
+        for (int cellId = 0; cellId < addresses.length; cellId++) {
+            if (addresses[cellId] == EMPTY) {
+                continue;
+            }
+            ByteBuffer oldChunk = oldChunks.get(chunkOf(addresses[cellId]));
+            int oldOffset = offsetOf(addresses[cellId]);
+            int recordSize = recordSize(oldChunk, oldOffset);
+
+            long newAddress = reserve(recordSize);
+            ByteBuffer newChunk = chunks.get(chunkOf(newAddress));
+            int newOffset = offsetOf(newAddress);
+            for (int i = 0; i < recordSize; i++) {
+                newChunk.put(newOffset + i, oldChunk.get(oldOffset + i));
+            }
+            addresses[cellId] = newAddress;
+        }
+        freeChunks(oldChunks);
+        garbageBytes = 0;
+    }
+
+    /**
+     * Finds cell where key with given hash code and UTF-8 bytes is placed or empty cell where it should be placed
+     * @return number of cell
+     */
+    private int findCellOf(int hash, byte[] keyBytes) {
+        int mask = addresses.length - 1;
+        int cellId = hash & mask;
+        while (addresses[cellId] != EMPTY && (hashes[cellId] != hash || !keyEquals(addresses[cellId], keyBytes))) {
+            cellId = (cellId + 1) & mask;
+        }
+        return cellId;
+    }
+
+    /** Compares key of record by given address with given bytes */
+    private boolean keyEquals(long address, byte[] keyBytes) {
+        ByteBuffer chunk = chunks.get(chunkOf(address));
+        int offset = offsetOf(address);
+        if (chunk.getInt(offset) != keyBytes.length) {
+            return false;
+        }
+        offset += Integer.BYTES;
+        for (int i = 0; i < keyBytes.length; i++) {
+            if (chunk.get(offset + i) != keyBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Decodes value of record by given address */
+    private String readValue(long address) {
+        ByteBuffer chunk = chunks.get(chunkOf(address));
+        int offset = offsetOf(address);
+        offset += Integer.BYTES + chunk.getInt(offset);
+        int valueLength = chunk.getInt(offset);
+        if (valueLength == -1) {
+            return null;
+        }
+        offset += Integer.BYTES;
+        var valueBytes = new byte[valueLength];
+        for (int i = 0; i < valueLength; i++) {
+            valueBytes[i] = chunk.get(offset + i);
+        }
+        return new String(valueBytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes new record to arena
+     * @param valueBytes UTF-8 bytes of value or null if value is null
+     * @return address of record
+     */
+    private long writeRecord(byte[] keyBytes, byte[] valueBytes) {
+        int recordSize = 2 * Integer.BYTES + keyBytes.length + (valueBytes == null ? 0 : valueBytes.length);
+        long address = reserve(recordSize);
+        ByteBuffer chunk = chunks.get(chunkOf(address));
+        int offset = offsetOf(address);
+
+        chunk.putInt(offset, keyBytes.length);
+        offset += Integer.BYTES;
+        for (byte keyByte : keyBytes) {
+            chunk.put(offset++, keyByte);
+        }
+        chunk.putInt(offset, valueBytes == null ? -1 : valueBytes.length);
+        offset += Integer.BYTES;
+        if (valueBytes != null) {
+            for (byte valueByte : valueBytes) {
+                chunk.put(offset++, valueByte);
+            }
+        }
+
+        liveBytes += recordSize;
+        return address;
+    }
+
+    /**
+     * Reserves given number of bytes at the end of last chunk, allocating new chunk if there is not enough space
+     * Records longer than CHUNK_SIZE get chunks of their own size
+     * @return address of reserved space
+     */
+    private long reserve(int bytesNumber) {
+        ByteBuffer lastChunk = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+        if (lastChunk == null || lastChunk.remaining() < bytesNumber) {
+            lastChunk = DirectMemory.allocate(Math.max(CHUNK_SIZE, bytesNumber));
+            chunks.add(lastChunk);
+        }
+        int offset = lastChunk.position();
+        lastChunk.position(offset + bytesNumber);
+        return ((long) (chunks.size() - 1) << Integer.SIZE) | offset;
+    }
+
+    /** Accounts record by given address as garbage */
+    private void markGarbage(long address) {
+        int recordSize = recordSize(chunks.get(chunkOf(address)), offsetOf(address));
+        liveBytes -= recordSize;
+        garbageBytes += recordSize;
+    }
+
+    /** Returns size in bytes of record placed in given chunk with given offset */
+    private static int recordSize(ByteBuffer chunk, int offset) {
+        int keyLength = chunk.getInt(offset);
+        int valueLength = chunk.getInt(offset + Integer.BYTES + keyLength);
+        return 2 * Integer.BYTES + keyLength + Math.max(valueLength, 0);
+    }
+
+    private static void freeChunks(ArrayList<ByteBuffer> chunksToFree) {
+        for (ByteBuffer chunk : chunksToFree) {
+            DirectMemory.free(chunk);
+        }
+    }
+
+    /** Mixes high bits of hash code into low ones, which are used as cell index */
+    private static int spread(int hashCode) {
+        return hashCode ^ (hashCode >>> 16);
+    }
+
+    private static int chunkOf(long address) {
+        return (int) (address >>> Integer.SIZE);
+    }
+
+    private static int offsetOf(long address) {
+        return (int) address;
+    }
+
+    private static byte[] encode(String string) {
+        return string.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,174 @@
+package ru.spbhse.hashmap;
+
+/**
+ * HashMap class to store pairs of Strings
+ * Keeps keys and values in two parallel arrays and uses open addressing with linear probing,
+ * so there are no objects per entry and lookup walks neighbouring array cells instead of list nodes
+ * Number of cells is always a power of two
+ * NB! Keys mustn't be nulls
+ */
+public class OpenAddressingHashMap implements StringMap {
+
+    private int size;
+    private String[] keys;
+    private String[] values;
+    /** Number of bits in cell index, number of cells is 2^indexBits */
+    private int indexBits;
+    final private int DEFAULT_INDEX_BITS = 2;
+    /** Table is resized when it becomes more than MAX_LOAD_NUMERATOR / MAX_LOAD_DENOMINATOR full */
+    final private int MAX_LOAD_NUMERATOR = 5;
+    final private int MAX_LOAD_DENOMINATOR = 8;
+    /** Multiplier for Fibonacci hashing, 2^32 divided by golden ratio */
+    final private int HASH_MULTIPLIER = 0x9E3779B9;
+
+    /**
+     * Basic constructor. Creates HashMap with 2^DEFAULT_INDEX_BITS cells
+     */
+    public OpenAddressingHashMap() {
+        allocate(DEFAULT_INDEX_BITS);
+    }
+
+    /** Returns number of elements in HashMap */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if HashMap contains given key
+     * @return true if HashMap contains this key and false otherwise
+     */
+    @Override
+    public boolean contains(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to OpenAddressingHashMap.contains mustn't be null");
+        }
+        return keys[findCellOf(key)] != null;
+    }
+
+    /** Returns value by given key if it exists in hash table and null otherwise */
+    @Override
+    public String get(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to OpenAddressingHashMap.get mustn't be null");
+        }
+        return values[findCellOf(key)];
+    }
+
+    /**
+     * Puts pair (key, value) to hash table (or changes previous value by this key to new one)
+     * @return previous value by given key if it exists or null otherwise
+     */
+    @Override
+    public String put(String key, String value) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to OpenAddressingHashMap.put mustn't be null");
+        }
+        int cellId = findCellOf(key);
+        String previousValue = values[cellId];
+        if (keys[cellId] == null) {
+            keys[cellId] = key;
+            ++size;
+        }
+        values[cellId] = value;
+
+        if (size * MAX_LOAD_DENOMINATOR > keys.length * MAX_LOAD_NUMERATOR) {
+            reallocate();
+        }
+
+        return previousValue;
+    }
+
+    /**
+     * Removes element with given key from table
+     * Elements after removed one are shifted back, so no deleted markers are needed
+     * @return value by given key if it was in table and null otherwise
+     */
+    @Override
+    public String remove(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to OpenAddressingHashMap.remove mustn't be null");
+        }
+        int cellId = findCellOf(key);
+        if (keys[cellId] == null) {
+            return null;
+        }
+        String removedValue = values[cellId];
+        --size;
+
+        int mask = keys.length - 1;
+        int emptyCellId = cellId;
+        int currentCellId = (cellId + 1) & mask;
+        while (keys[currentCellId] != null) {
+            int homeCellId = homeCellOf(keys[currentCellId]);
+            // element may be moved to empty cell only if the empty cell lies between its home and current cell
+            if (((currentCellId - homeCellId) & mask) >= ((currentCellId - emptyCellId) & mask)) {
+                keys[emptyCellId] = keys[currentCellId];
+                values[emptyCellId] = values[currentCellId];
+                emptyCellId = currentCellId;
+            }
+            currentCellId = (currentCellId + 1) & mask;
+        }
+        keys[emptyCellId] = null;
+        values[emptyCellId] = null;
+
+        return removedValue;
+    }
+
+    /** Removes all elements from table */
+    @Override
+    public void clear() {
+        size = 0;
+        allocate(DEFAULT_INDEX_BITS);
+    }
+
+    /** Returns number of cells in table */
+    int capacity() {
+        return keys.length;
+    }
+
+    /** Creates empty arrays with 2^newIndexBits cells */
+    private void allocate(int newIndexBits) {
+        indexBits = newIndexBits;
+        keys = new String[1 << indexBits];
+        values = new String[1 << indexBits];
+    }
+
+    /** Builds new table with twice as many cells */
+    private void reallocate() {
+        String[] oldKeys = keys;
+        String[] oldValues = values;
+        allocate(indexBits + 1);
+
+        int mask = keys.length - 1;
+        for (int oldCellId = 0; oldCellId < oldKeys.length; oldCellId++) {
+            if (oldKeys[oldCellId] == null) {
+                continue;
+            }
+            int cellId = homeCellOf(oldKeys[oldCellId]);
+            while (keys[cellId] != null) {
+                cellId = (cellId + 1) & mask;
+            }
+            keys[cellId] = oldKeys[oldCellId];
+            values[cellId] = oldValues[oldCellId];
+        }
+    }
+
+    /**
+     * Finds cell where this key is placed or empty cell where it should be placed
+     * @return number of cell
+     */
+    private int findCellOf(String key) {
+        int mask = keys.length - 1;
+        int cellId = homeCellOf(key);
+        while (keys[cellId] != null && !keys[cellId].equals(key)) {
+            cellId = (cellId + 1) & mask;
+        }
+        return cellId;
+    }
+
+    /** Finds first cell of probing sequence for given key */
+    private int homeCellOf(String key) {
+        return (key.hashCode() * HASH_MULTIPLIER) >>> (Integer.SIZE - indexBits);
+    }
+}
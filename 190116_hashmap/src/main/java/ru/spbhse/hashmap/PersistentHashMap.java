@@ -0,0 +1,409 @@
+package ru.spbhse.hashmap;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable HashMap class to store pairs of Strings (hash array mapped trie)
+ *
+ * put and remove don't change the map but return new version of it. New version shares all nodes
+ * except the path from root to changed pair, so it takes O(log n) time and memory.
+ * Every node covers BITS bits of hash: it keeps pairs whose hash part is unique among its children inline
+ * and subnodes for the others, both in one array compressed by bitmaps. Keys with completely equal hashes
+ * are kept in collision nodes at the bottom.
+ * Subnode always holds at least two pairs: subnode left with one pair after remove is inlined to its parent.
+ * Versions may be read by any number of threads without synchronization.
+ * NB! Keys mustn't be nulls, values may be nulls
+ */
+public final class PersistentHashMap {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    /** Returned by nodes instead of value when there is no such key, as null is a valid value */
+    private static final Object NOT_FOUND = new Object();
+    private static final PersistentHashMap EMPTY = new PersistentHashMap(BitmapNode.EMPTY, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentHashMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /** Returns map without elements */
+    public static PersistentHashMap empty() {
+        return EMPTY;
+    }
+
+    /** Returns number of elements in HashMap */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if HashMap contains given key
+     * @return true if HashMap contains this key and false otherwise
+     */
+    public boolean contains(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to PersistentHashMap.contains mustn't be null");
+        }
+        return root.find(key, hashOf(key), 0) != NOT_FOUND;
+    }
+
+    /** Returns value by given key if it exists in hash table and null otherwise */
+    public String get(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to PersistentHashMap.get mustn't be null");
+        }
+        Object value = root.find(key, hashOf(key), 0);
+        return value == NOT_FOUND ? null : (String) value;
+    }
+
+    /**
+     * Returns version with pair (key, value) (previous value by this key is replaced)
+     * @return new version or this one if it already contains this pair
+     */
+    public PersistentHashMap put(String key, String value) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to PersistentHashMap.put mustn't be null");
+        }
+        var change = new Change();
+        Node newRoot = root.put(key, value, hashOf(key), 0, change);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentHashMap(newRoot, change.previousValue == NOT_FOUND ? size + 1 : size);
+    }
+
+    /**
+     * Returns version without given key
+     * @return new version or this one if there is no such key
+     */
+    public PersistentHashMap remove(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to PersistentHashMap.remove mustn't be null");
+        }
+        Node newRoot = root.remove(key, hashOf(key), 0, new Change());
+        if (newRoot == root) {
+            return this;
+        }
+        return size == 1 ? EMPTY : new PersistentHashMap(newRoot, size - 1);
+    }
+
+    /** Calls given action for every pair in no particular order */
+    public void forEach(BiConsumer<String, String> action) {
+        root.forEach(action);
+    }
+
+    /** Mixes high bits of hash code into low ones, which choose children of root */
+    private static int hashOf(String key) {
+        int hashCode = key.hashCode();
+        return hashCode ^ (hashCode >>> 16);
+    }
+
+    /** Part of hash choosing child of node on given shift */
+    private static int bitOf(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    /** Result of put or remove in nodes: value which was replaced or removed, NOT_FOUND if there was none */
+    private static class Change {
+        Object previousValue = NOT_FOUND;
+    }
+
+    private static abstract class Node {
+        /** Returns value by key or NOT_FOUND */
+        abstract Object find(String key, int hash, int shift);
+
+        /** Returns node with given pair, this node if it already has it */
+        abstract Node put(String key, String value, int hash, int shift, Change change);
+
+        /** Returns node without given key, this node if it has no such key */
+        abstract Node remove(String key, int hash, int shift, Change change);
+
+        /** Checks if node holds exactly one pair and no subnodes, then parent keeps the pair inline instead */
+        abstract boolean hasSinglePair();
+
+        /** Returns key of the first pair of node, which must have inline pairs */
+        abstract String firstKey();
+
+        abstract String firstValue();
+
+        abstract void forEach(BiConsumer<String, String> action);
+    }
+
+    /**
+     * Node with up to 2^BITS children chosen by part of hash
+     * content keeps inline pairs (key, value) first and then subnodes, both in order of their hash parts
+     */
+    private static class BitmapNode extends Node {
+        static final BitmapNode EMPTY = new BitmapNode(0, 0, new Object[0]);
+
+        /** Bits of hash parts which have inline pairs */
+        final int dataMap;
+        /** Bits of hash parts which have subnodes */
+        final int nodeMap;
+        final Object[] content;
+
+        BitmapNode(int dataMap, int nodeMap, Object[] content) {
+            this.dataMap = dataMap;
+            this.nodeMap = nodeMap;
+            this.content = content;
+        }
+
+        @Override
+        Object find(String key, int hash, int shift) {
+            int bit = bitOf(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int dataIndex = dataIndexOf(bit);
+                return key.equals(content[2 * dataIndex]) ? content[2 * dataIndex + 1] : NOT_FOUND;
+            }
+            if ((nodeMap & bit) != 0) {
+                return nodeAt(bit).find(key, hash, shift + BITS);
+            }
+            return NOT_FOUND;
+        }
+
+        @Override
+        Node put(String key, String value, int hash, int shift, Change change) {
+            int bit = bitOf(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int dataIndex = dataIndexOf(bit);
+                var existingKey = (String) content[2 * dataIndex];
+                var existingValue = (String) content[2 * dataIndex + 1];
+                if (key.equals(existingKey)) {
+                    change.previousValue = existingValue;
+                    if (existingValue == value) {
+                        return this;
+                    }
+                    Object[] newContent = content.clone();
+                    newContent[2 * dataIndex + 1] = value;
+                    return new BitmapNode(dataMap, nodeMap, newContent);
+                }
+                Node subnode = merge(existingKey, existingValue, hashOf(existingKey), key, value, hash, shift + BITS);
+                return replaceDataWithNode(bit, subnode);
+            }
+            if ((nodeMap & bit) != 0) {
+                Node subnode = nodeAt(bit);
+                Node newSubnode = subnode.put(key, value, hash, shift + BITS, change);
+                return newSubnode == subnode ? this : replaceNode(bit, newSubnode);
+            }
+            return insertData(bit, key, value);
+        }
+
+        @Override
+        Node remove(String key, int hash, int shift, Change change) {
+            int bit = bitOf(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int dataIndex = dataIndexOf(bit);
+                if (!key.equals(content[2 * dataIndex])) {
+                    return this;
+                }
+                change.previousValue = content[2 * dataIndex + 1];
+                var newContent = new Object[content.length - 2];
+                System.arraycopy(content, 0, newContent, 0, 2 * dataIndex);
+                System.arraycopy(content, 2 * dataIndex + 2, newContent, 2 * dataIndex,
+                        content.length - 2 * dataIndex - 2);
+                return new BitmapNode(dataMap ^ bit, nodeMap, newContent);
+            }
+            if ((nodeMap & bit) != 0) {
+                Node subnode = nodeAt(bit);
+                Node newSubnode = subnode.remove(key, hash, shift + BITS, change);
+                if (newSubnode == subnode) {
+                    return this;
+                }
+                if (newSubnode.hasSinglePair()) {
+                    return replaceNodeWithData(bit, newSubnode.firstKey(), newSubnode.firstValue());
+                }
+                return replaceNode(bit, newSubnode);
+            }
+            return this;
+        }
+
+        @Override
+        boolean hasSinglePair() {
+            return nodeMap == 0 && Integer.bitCount(dataMap) == 1;
+        }
+
+        @Override
+        String firstKey() {
+            return (String) content[0];
+        }
+
+        @Override
+        String firstValue() {
+            return (String) content[1];
+        }
+
+        @Override
+        void forEach(BiConsumer<String, String> action) {
+            int dataCount = Integer.bitCount(dataMap);
+            for (int i = 0; i < dataCount; i++) {
+                action.accept((String) content[2 * i], (String) content[2 * i + 1]);
+            }
+            for (int i = 2 * dataCount; i < content.length; i++) {
+                ((Node) content[i]).forEach(action);
+            }
+        }
+
+        private int dataIndexOf(int bit) {
+            return Integer.bitCount(dataMap & (bit - 1));
+        }
+
+        /** Returns position of subnode with given bit in content */
+        private int nodePositionOf(int bit) {
+            return 2 * Integer.bitCount(dataMap) + Integer.bitCount(nodeMap & (bit - 1));
+        }
+
+        private Node nodeAt(int bit) {
+            return (Node) content[nodePositionOf(bit)];
+        }
+
+        private BitmapNode insertData(int bit, String key, String value) {
+            int dataIndex = dataIndexOf(bit);
+            var newContent = new Object[content.length + 2];
+            System.arraycopy(content, 0, newContent, 0, 2 * dataIndex);
+            newContent[2 * dataIndex] = key;
+            newContent[2 * dataIndex + 1] = value;
+            System.arraycopy(content, 2 * dataIndex, newContent, 2 * dataIndex + 2, content.length - 2 * dataIndex);
+            return new BitmapNode(dataMap | bit, nodeMap, newContent);
+        }
+
+        private BitmapNode replaceNode(int bit, Node newSubnode) {
+            Object[] newContent = content.clone();
+            newContent[nodePositionOf(bit)] = newSubnode;
+            return new BitmapNode(dataMap, nodeMap, newContent);
+        }
+
+        /** Replaces inline pair with given bit by subnode */
+        private BitmapNode replaceDataWithNode(int bit, Node subnode) {
+            int dataIndex = dataIndexOf(bit);
+            // position of subnode after the pair is removed
+            int nodePosition = nodePositionOf(bit) - 2;
+            var newContent = new Object[content.length - 1];
+            System.arraycopy(content, 0, newContent, 0, 2 * dataIndex);
+            System.arraycopy(content, 2 * dataIndex + 2, newContent, 2 * dataIndex, nodePosition - 2 * dataIndex);
+            newContent[nodePosition] = subnode;
+            System.arraycopy(content, nodePosition + 2, newContent, nodePosition + 1,
+                    content.length - nodePosition - 2);
+            return new BitmapNode(dataMap ^ bit, nodeMap | bit, newContent);
+        }
+
+        /** Replaces subnode with given bit by inline pair */
+        private BitmapNode replaceNodeWithData(int bit, String key, String value) {
+            int dataIndex = dataIndexOf(bit);
+            int nodePosition = nodePositionOf(bit);
+            var newContent = new Object[content.length + 1];
+            System.arraycopy(content, 0, newContent, 0, 2 * dataIndex);
+            newContent[2 * dataIndex] = key;
+            newContent[2 * dataIndex + 1] = value;
+            System.arraycopy(content, 2 * dataIndex, newContent, 2 * dataIndex + 2, nodePosition - 2 * dataIndex);
+            System.arraycopy(content, nodePosition + 1, newContent, nodePosition + 2,
+                    content.length - nodePosition - 1);
+            return new BitmapNode(dataMap | bit, nodeMap ^ bit, newContent);
+        }
+
+        /** Builds node on given shift holding two pairs with different keys */
+        private static Node merge(String firstKey, String firstValue, int firstHash,
+                                  String secondKey, String secondValue, int secondHash, int shift) {
+            if (shift >= Integer.SIZE) {
+                return new CollisionNode(new String[] {firstKey, secondKey}, new String[] {firstValue, secondValue});
+            }
+            int firstBit = bitOf(firstHash, shift);
+            int secondBit = bitOf(secondHash, shift);
+            if (firstBit == secondBit) {
+                Node subnode = merge(firstKey, firstValue, firstHash, secondKey, secondValue, secondHash, shift + BITS);
+                return new BitmapNode(0, firstBit, new Object[] {subnode});
+            }
+            Object[] content = Integer.compareUnsigned(firstBit, secondBit) < 0
+                    ? new Object[] {firstKey, firstValue, secondKey, secondValue}
+                    : new Object[] {secondKey, secondValue, firstKey, firstValue};
+            return new BitmapNode(firstBit | secondBit, 0, content);
+        }
+    }
+
+    /** Node below the last level holding pairs whose keys have equal hashes */
+    private static class CollisionNode extends Node {
+        final String[] keys;
+        final String[] values;
+
+        CollisionNode(String[] keys, String[] values) {
+            this.keys = keys;
+            this.values = values;
+        }
+
+        @Override
+        Object find(String key, int hash, int shift) {
+            int index = indexOf(key);
+            return index == -1 ? NOT_FOUND : values[index];
+        }
+
+        @Override
+        Node put(String key, String value, int hash, int shift, Change change) {
+            int index = indexOf(key);
+            if (index == -1) {
+                var newKeys = Arrays.copyOf(keys, keys.length + 1);
+                var newValues = Arrays.copyOf(values, values.length + 1);
+                newKeys[keys.length] = key;
+                newValues[values.length] = value;
+                return new CollisionNode(newKeys, newValues);
+            }
+            change.previousValue = values[index];
+            if (values[index] == value) {
+                return this;
+            }
+            String[] newValues = values.clone();
+            newValues[index] = value;
+            return new CollisionNode(keys, newValues);
+        }
+
+        @Override
+        Node remove(String key, int hash, int shift, Change change) {
+            int index = indexOf(key);
+            if (index == -1) {
+                return this;
+            }
+            change.previousValue = values[index];
+            var newKeys = new String[keys.length - 1];
+            var newValues = new String[values.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, newKeys.length - index);
+            System.arraycopy(values, 0, newValues, 0, index);
+            System.arraycopy(values, index + 1, newValues, index, newValues.length - index);
+            return new CollisionNode(newKeys, newValues);
+        }
+
+        @Override
+        boolean hasSinglePair() {
+            return keys.length == 1;
+        }
+
+        @Override
+        String firstKey() {
+            return keys[0];
+        }
+
+        @Override
+        String firstValue() {
+            return values[0];
+        }
+
+        @Override
+        void forEach(BiConsumer<String, String> action) {
+            for (int i = 0; i < keys.length; i++) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+
+        private int indexOf(String key) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i].equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
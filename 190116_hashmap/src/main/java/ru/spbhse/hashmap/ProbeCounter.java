@@ -0,0 +1,22 @@
+package ru.spbhse.hashmap;
+
+/**
+ * Holder of number of keys compared by lookups in a Bucket, filled by its counting get and remove
+ * Used by HashMapInstrumentation, so that keys are counted by the lookup itself without walking bucket again
+ */
+public final class ProbeCounter {
+
+    private int probes;
+
+    /** Adds given number of compared keys */
+    public void add(int number) {
+        probes += number;
+    }
+
+    /** Returns number of keys compared since previous call and starts counting from zero */
+    public int take() {
+        int taken = probes;
+        probes = 0;
+        return taken;
+    }
+}
@@ -0,0 +1,78 @@
+package ru.spbhse.hashmap;
+
+import java.security.SecureRandom;
+
+/**
+ * Fast non-cryptographic hash of string chars with per-instance seed, based on wyhash mixing
+ * Chars are read by four into 64-bit words, every pair of words is mixed by 128-bit multiplication
+ * Both operands of every multiplication are xored with secrets derived from seed: a public constant there would let
+ * a block of chars equal to it turn the operand to zero and the whole state to the same value for any seed.
+ * Seed is not known outside of HashMap, so keys with equal hashes can't be prepared in advance,
+ * unlike String.hashCode, for which such keys are easy to find
+ */
+public class SeededHashStrategy implements HashStrategy {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final SecureRandom SEED_GENERATOR = new SecureRandom();
+
+    /** Initial state of hashing */
+    private final long initialState;
+    /** Secret xored with the first operand of every multiplication */
+    private final long firstSecret;
+    /** Secret xored with length of key in the last multiplication */
+    private final long lengthSecret;
+
+    /** Creates strategy with random seed */
+    public SeededHashStrategy() {
+        this(SEED_GENERATOR.nextLong());
+    }
+
+    /** Creates strategy with given seed, same seed always gives same hashes */
+    public SeededHashStrategy(long seed) {
+        initialState = scramble(seed + GOLDEN_GAMMA);
+        firstSecret = scramble(seed + 2 * GOLDEN_GAMMA);
+        lengthSecret = scramble(seed + 3 * GOLDEN_GAMMA);
+    }
+
+    @Override
+    public int hash(String key) {
+        int length = key.length();
+        long state = initialState;
+        int charId = 0;
+        while (length - charId >= 8) {
+            state = mix(readWord(key, charId) ^ firstSecret, readWord(key, charId + 4) ^ state);
+            charId += 8;
+        }
+        long first = 0;
+        long second = 0;
+        if (length - charId >= 4) {
+            first = readWord(key, charId);
+            charId += 4;
+        }
+        for (int shift = 0; charId < length; charId++, shift += Character.SIZE) {
+            second |= (long) key.charAt(charId) << shift;
+        }
+        long result = mix(lengthSecret ^ length, mix(first ^ firstSecret, second ^ state));
+        return (int) (result ^ (result >>> Integer.SIZE));
+    }
+
+    /** Reads four chars starting from given index as one 64-bit word */
+    private static long readWord(String key, int charId) {
+        return key.charAt(charId)
+                | (long) key.charAt(charId + 1) << 16
+                | (long) key.charAt(charId + 2) << 32
+                | (long) key.charAt(charId + 3) << 48;
+    }
+
+    /** Multiplies two words as 128-bit numbers and folds result to 64 bits */
+    private static long mix(long first, long second) {
+        return (first * second) ^ Math.multiplyHigh(first, second);
+    }
+
+    /** Finalizer of SplitMix64, turns consecutive seeds into unrelated secrets */
+    private static long scramble(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -0,0 +1,279 @@
+package ru.spbhse.hashmap;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Thread-safe HashMap class to store pairs of Strings for workloads which mostly read
+ *
+ * Keys are split between segments by hash, every segment is an open addressing table guarded by its own StampedLock.
+ * Readers take no lock: they read the table under optimistic stamp and check that no writer locked segment
+ * meanwhile, only then they take read lock and read again.
+ * Writers take write lock of one segment, so put and remove are linearizable and return exact previous values.
+ * Keys and values of a segment are kept in one array (key of cell i at 2i, its value at 2i + 1),
+ * so an optimistic reader always sees keys and values of the same table, even if writer replaces it
+ * NB! Keys mustn't be nulls
+ */
+public class SegmentedHashMap implements StringMap {
+
+    private final Segment[] segments;
+    private static final int DEFAULT_SEGMENTS = 16;
+    /** Segment is chosen by bits of hash starting from this one, cell in segment by the lowest ones */
+    final private int SEGMENT_SHIFT = 24;
+    final private int MAX_SEGMENTS = 1 << (Integer.SIZE - SEGMENT_SHIFT);
+
+    /**
+     * Basic constructor. Creates HashMap with DEFAULT_SEGMENTS segments
+     */
+    public SegmentedHashMap() {
+        this(DEFAULT_SEGMENTS);
+    }
+
+    /**
+     * Creates HashMap with given number of segments
+     * @param segmentsNumber power of two not greater than 256, number of writers which may work at once
+     */
+    public SegmentedHashMap(int segmentsNumber) {
+        if (segmentsNumber <= 0 || segmentsNumber > MAX_SEGMENTS || Integer.bitCount(segmentsNumber) != 1) {
+            throw new IllegalArgumentException("segmentsNumber given to SegmentedHashMap constructor "
+                    + "must be a power of two not greater than " + MAX_SEGMENTS);
+        }
+        segments = new Segment[segmentsNumber];
+        for (int segmentId = 0; segmentId < segments.length; segmentId++) {
+            segments[segmentId] = new Segment();
+        }
+    }
+
+    /** Returns number of elements in HashMap. May be inaccurate while other threads change it */
+    @Override
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            long stamp = segment.lock.tryOptimisticRead();
+            int segmentSize = segment.size;
+            if (!segment.lock.validate(stamp)) {
+                stamp = segment.lock.readLock();
+                segmentSize = segment.size;
+                segment.lock.unlockRead(stamp);
+            }
+            size += segmentSize;
+        }
+        return size;
+    }
+
+    /**
+     * Checks if HashMap contains given key
+     * @return true if HashMap contains this key and false otherwise
+     */
+    @Override
+    public boolean contains(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to SegmentedHashMap.contains mustn't be null");
+        }
+        int hash = spread(key.hashCode());
+        Segment segment = segmentOf(hash);
+        long stamp = segment.lock.tryOptimisticRead();
+        if (stamp != 0) {
+            boolean isFound = findCellOf(segment.cells, key, hash) != -1;
+            if (segment.lock.validate(stamp)) {
+                return isFound;
+            }
+        }
+        stamp = segment.lock.readLock();
+        try {
+            return findCellOf(segment.cells, key, hash) != -1;
+        } finally {
+            segment.lock.unlockRead(stamp);
+        }
+    }
+
+    /** Returns value by given key if it exists in hash table and null otherwise */
+    @Override
+    public String get(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to SegmentedHashMap.get mustn't be null");
+        }
+        int hash = spread(key.hashCode());
+        Segment segment = segmentOf(hash);
+        long stamp = segment.lock.tryOptimisticRead();
+        if (stamp != 0) {
+            String value = valueOf(segment.cells, key, hash);
+            if (segment.lock.validate(stamp)) {
+                return value;
+            }
+        }
+        stamp = segment.lock.readLock();
+        try {
+            return valueOf(segment.cells, key, hash);
+        } finally {
+            segment.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Puts pair (key, value) to hash table (or changes previous value by this key to new one)
+     * @return previous value by given key if it exists or null otherwise
+     */
+    @Override
+    public String put(String key, String value) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to SegmentedHashMap.put mustn't be null");
+        }
+        int hash = spread(key.hashCode());
+        Segment segment = segmentOf(hash);
+        long stamp = segment.lock.writeLock();
+        try {
+            return segment.put(key, value, hash);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes element with given key from table
+     * @return value by given key if it was in table and null otherwise
+     */
+    @Override
+    public String remove(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to SegmentedHashMap.remove mustn't be null");
+        }
+        int hash = spread(key.hashCode());
+        Segment segment = segmentOf(hash);
+        long stamp = segment.lock.writeLock();
+        try {
+            return segment.remove(key, hash);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /** Removes all elements from table, segment by segment */
+    @Override
+    public void clear() {
+        for (Segment segment : segments) {
+            long stamp = segment.lock.writeLock();
+            try {
+                segment.clear();
+            } finally {
+                segment.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    private Segment segmentOf(int hash) {
+        return segments[(hash >>> SEGMENT_SHIFT) & (segments.length - 1)];
+    }
+
+    /**
+     * Finds cell of given table with given key
+     * Table may be changed by writer meanwhile, so probing stops after visiting every cell once
+     * @return number of cell or -1 if there is no such key
+     */
+    private static int findCellOf(String[] cells, String key, int hash) {
+        int cellsNumber = cells.length / 2;
+        int cellId = hash & (cellsNumber - 1);
+        for (int probe = 0; probe < cellsNumber; probe++) {
+            String cellKey = cells[2 * cellId];
+            if (cellKey == null) {
+                return -1;
+            }
+            if (cellKey.equals(key)) {
+                return cellId;
+            }
+            cellId = (cellId + 1) & (cellsNumber - 1);
+        }
+        return -1;
+    }
+
+    private static String valueOf(String[] cells, String key, int hash) {
+        int cellId = findCellOf(cells, key, hash);
+        return cellId == -1 ? null : cells[2 * cellId + 1];
+    }
+
+    private static int spread(int hashCode) {
+        return hashCode ^ (hashCode >>> 16);
+    }
+
+    /** Open addressing table with linear probing, changed only under write lock */
+    private static class Segment {
+        final StampedLock lock = new StampedLock();
+        /** Key of cell i is cells[2i], its value is cells[2i + 1]. Number of cells is a power of two */
+        String[] cells = new String[2 * DEFAULT_CELLS];
+        int size;
+        private static final int DEFAULT_CELLS = 4;
+        /** Table is resized when it becomes more than MAX_LOAD_NUMERATOR / MAX_LOAD_DENOMINATOR full */
+        private static final int MAX_LOAD_NUMERATOR = 5;
+        private static final int MAX_LOAD_DENOMINATOR = 8;
+
+        String put(String key, String value, int hash) {
+            int cellsNumber = cells.length / 2;
+            int cellId = hash & (cellsNumber - 1);
+            while (cells[2 * cellId] != null) {
+                if (cells[2 * cellId].equals(key)) {
+                    String previousValue = cells[2 * cellId + 1];
+                    cells[2 * cellId + 1] = value;
+                    return previousValue;
+                }
+                cellId = (cellId + 1) & (cellsNumber - 1);
+            }
+            cells[2 * cellId + 1] = value;
+            cells[2 * cellId] = key;
+            ++size;
+            if (size * MAX_LOAD_DENOMINATOR > cellsNumber * MAX_LOAD_NUMERATOR) {
+                reallocate();
+            }
+            return null;
+        }
+
+        /** Removes pair with given key, shifting back pairs after it, so no deleted markers are needed */
+        String remove(String key, int hash) {
+            int cellId = findCellOf(cells, key, hash);
+            if (cellId == -1) {
+                return null;
+            }
+            String removedValue = cells[2 * cellId + 1];
+            --size;
+
+            int mask = cells.length / 2 - 1;
+            int emptyCellId = cellId;
+            int currentCellId = (cellId + 1) & mask;
+            while (cells[2 * currentCellId] != null) {
+                int homeCellId = spread(cells[2 * currentCellId].hashCode()) & mask;
+                // pair may be moved to empty cell only if the empty cell lies between its home and current cell
+                if (((currentCellId - homeCellId) & mask) >= ((currentCellId - emptyCellId) & mask)) {
+                    cells[2 * emptyCellId] = cells[2 * currentCellId];
+                    cells[2 * emptyCellId + 1] = cells[2 * currentCellId + 1];
+                    emptyCellId = currentCellId;
+                }
+                currentCellId = (currentCellId + 1) & mask;
+            }
+            cells[2 * emptyCellId] = null;
+            cells[2 * emptyCellId + 1] = null;
+            return removedValue;
+        }
+
+        void clear() {
+            cells = new String[2 * DEFAULT_CELLS];
+            size = 0;
+        }
+
+        /** Builds table with twice as many cells, readers of the old one see it unchanged */
+        private void reallocate() {
+            var newCells = new String[cells.length * 2];
+            int mask = newCells.length / 2 - 1;
+            for (int oldCellId = 0; oldCellId < cells.length / 2; oldCellId++) {
+                String key = cells[2 * oldCellId];
+                if (key == null) {
+                    continue;
+                }
+                int cellId = spread(key.hashCode()) & mask;
+                while (newCells[2 * cellId] != null) {
+                    cellId = (cellId + 1) & mask;
+                }
+                newCells[2 * cellId] = key;
+                newCells[2 * cellId + 1] = cells[2 * oldCellId + 1];
+            }
+            cells = newCells;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package ru.spbhse.hashmap;
+
+/**
+ * Interface of maps from Strings to Strings
+ * NB! Keys mustn't be nulls, values may be nulls
+ */
+public interface StringMap {
+
+    /** Returns number of elements in map */
+    int size();
+
+    /**
+     * Checks if map contains given key
+     * @return true if map contains this key and false otherwise
+     */
+    boolean contains(String key);
+
+    /** Returns value by given key if it exists in map and null otherwise */
+    String get(String key);
+
+    /**
+     * Puts pair (key, value) to map (or changes previous value by this key to new one)
+     * @return previous value by given key if it exists or null otherwise
+     */
+    String put(String key, String value);
+
+    /**
+     * Removes element with given key from map
+     * @return value by given key if it was in map and null otherwise
+     */
+    String remove(String key);
+
+    /** Removes all elements from map */
+    void clear();
+}
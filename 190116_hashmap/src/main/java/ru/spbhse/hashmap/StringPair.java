@@ -8,11 +8,11 @@ public class StringPair {
     private String key;
     private String value;
 
-    String getKey() {
+    public String getKey() {
         return key;
     }
 
-    String getValue() {
+    public String getValue() {
         return value;
     }
 
@@ -0,0 +1,251 @@
+package ru.spbhse.hashmap;
+
+import java.util.Arrays;
+
+/**
+ * HashMap class to store pairs of Strings, modeled on SwissTable
+ *
+ * Cells are split in groups of GROUP_SIZE. Every cell has a control byte: EMPTY, DELETED
+ * or 7-bit fingerprint of hash of its key. Control bytes of a group are packed into one long,
+ * so all cells of a group are compared with fingerprint at once by bit tricks (SWAR),
+ * and String.equals is called only for cells whose fingerprint matches.
+ * Lookup of absent key usually ends in the first group: it has an empty cell and no matching fingerprints.
+ * Groups are probed quadratically (group + 1, + 3, + 6, ...), which visits every group as number of groups
+ * is a power of two.
+ * NB! Keys mustn't be nulls
+ */
+public class SwissHashMap implements StringMap {
+
+    private int size;
+    private String[] keys;
+    private String[] values;
+    /** Control bytes, byte i of control[group] is the control byte of cell group * GROUP_SIZE + i */
+    private long[] control;
+    /** Number of EMPTY cells which may still be filled before resize */
+    private int growthLeft;
+    final private int GROUP_SIZE = Long.BYTES;
+    final private int DEFAULT_GROUPS = 2;
+    /** Table is resized when it becomes more than MAX_LOAD_NUMERATOR / MAX_LOAD_DENOMINATOR full */
+    final private int MAX_LOAD_NUMERATOR = 7;
+    final private int MAX_LOAD_DENOMINATOR = 8;
+    private static final int EMPTY = 0x80;
+    private static final int DELETED = 0xFE;
+    private static final int FINGERPRINT_BITS = 7;
+    /** Byte 0x01 in every position of long */
+    private static final long LOW_BITS = 0x0101010101010101L;
+    /** Byte 0x80 in every position of long */
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    /**
+     * Basic constructor. Creates HashMap with DEFAULT_GROUPS groups
+     */
+    public SwissHashMap() {
+        allocate(DEFAULT_GROUPS);
+    }
+
+    /** Returns number of elements in HashMap */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if HashMap contains given key
+     * @return true if HashMap contains this key and false otherwise
+     */
+    @Override
+    public boolean contains(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to SwissHashMap.contains mustn't be null");
+        }
+        return findCellOf(key, hashOf(key)) != -1;
+    }
+
+    /** Returns value by given key if it exists in hash table and null otherwise */
+    @Override
+    public String get(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to SwissHashMap.get mustn't be null");
+        }
+        int cellId = findCellOf(key, hashOf(key));
+        return cellId == -1 ? null : values[cellId];
+    }
+
+    /**
+     * Puts pair (key, value) to hash table (or changes previous value by this key to new one)
+     * @return previous value by given key if it exists or null otherwise
+     */
+    @Override
+    public String put(String key, String value) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to SwissHashMap.put mustn't be null");
+        }
+        int hash = hashOf(key);
+        int cellId = findCellOf(key, hash);
+        if (cellId != -1) {
+            String previousValue = values[cellId];
+            values[cellId] = value;
+            return previousValue;
+        }
+
+        if (growthLeft == 0) {
+            reallocate();
+        }
+        cellId = findFreeCell(hash);
+        if (controlByte(cellId) == EMPTY) {
+            --growthLeft;
+        }
+        setControlByte(cellId, hash & ((1 << FINGERPRINT_BITS) - 1));
+        keys[cellId] = key;
+        values[cellId] = value;
+        ++size;
+        return null;
+    }
+
+    /**
+     * Removes element with given key from table
+     * Cell becomes EMPTY if its group has an empty cell, because then no probe sequence has passed this group.
+     * Otherwise it becomes DELETED, so that lookups of other keys continue probing after it
+     * @return value by given key if it was in table and null otherwise
+     */
+    @Override
+    public String remove(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to SwissHashMap.remove mustn't be null");
+        }
+        int cellId = findCellOf(key, hashOf(key));
+        if (cellId == -1) {
+            return null;
+        }
+        String removedValue = values[cellId];
+        if (matchEmpty(control[cellId / GROUP_SIZE]) != 0) {
+            setControlByte(cellId, EMPTY);
+            ++growthLeft;
+        } else {
+            setControlByte(cellId, DELETED);
+        }
+        keys[cellId] = null;
+        values[cellId] = null;
+        --size;
+        return removedValue;
+    }
+
+    /** Removes all elements from table */
+    @Override
+    public void clear() {
+        size = 0;
+        allocate(DEFAULT_GROUPS);
+    }
+
+    /** Returns number of cells in table */
+    int capacity() {
+        return keys.length;
+    }
+
+    /** Creates empty table with given number of groups, which must be a power of two */
+    private void allocate(int groupsNumber) {
+        keys = new String[groupsNumber * GROUP_SIZE];
+        values = new String[groupsNumber * GROUP_SIZE];
+        control = new long[groupsNumber];
+        Arrays.fill(control, EMPTY * LOW_BITS);
+        growthLeft = keys.length * MAX_LOAD_NUMERATOR / MAX_LOAD_DENOMINATOR;
+    }
+
+    /**
+     * Builds new table without DELETED cells
+     * Table becomes twice larger if it is more than half full, otherwise only DELETED cells are cleaned
+     */
+    private void reallocate() {
+        String[] oldKeys = keys;
+        String[] oldValues = values;
+        int groupsNumber = control.length;
+        if (size * 2 >= keys.length * MAX_LOAD_NUMERATOR / MAX_LOAD_DENOMINATOR) {
+            groupsNumber *= 2;
+        }
+        allocate(groupsNumber);
+
+        for (int oldCellId = 0; oldCellId < oldKeys.length; oldCellId++) {
+            if (oldKeys[oldCellId] == null) {
+                continue;
+            }
+            int hash = hashOf(oldKeys[oldCellId]);
+            int cellId = findFreeCell(hash);
+            setControlByte(cellId, hash & ((1 << FINGERPRINT_BITS) - 1));
+            keys[cellId] = oldKeys[oldCellId];
+            values[cellId] = oldValues[oldCellId];
+            --growthLeft;
+        }
+    }
+
+    /**
+     * Finds cell with given key
+     * @return number of cell or -1 if there is no such key
+     */
+    private int findCellOf(String key, int hash) {
+        long fingerprints = (hash & ((1 << FINGERPRINT_BITS) - 1)) * LOW_BITS;
+        int groupsMask = control.length - 1;
+        int groupId = (hash >>> FINGERPRINT_BITS) & groupsMask;
+        for (int step = 1; ; step++) {
+            long group = control[groupId];
+            for (long matches = matchByte(group, fingerprints); matches != 0; matches &= matches - 1) {
+                int cellId = groupId * GROUP_SIZE + Long.numberOfTrailingZeros(matches) / Byte.SIZE;
+                if (key.equals(keys[cellId])) {
+                    return cellId;
+                }
+            }
+            if (matchEmpty(group) != 0) {
+                return -1;
+            }
+            groupId = (groupId + step) & groupsMask;
+        }
+    }
+
+    /** Finds first EMPTY or DELETED cell in probe sequence of given hash */
+    private int findFreeCell(int hash) {
+        int groupsMask = control.length - 1;
+        int groupId = (hash >>> FINGERPRINT_BITS) & groupsMask;
+        for (int step = 1; ; step++) {
+            // both EMPTY and DELETED have the highest bit set, fingerprints don't
+            long free = control[groupId] & HIGH_BITS;
+            if (free != 0) {
+                return groupId * GROUP_SIZE + Long.numberOfTrailingZeros(free) / Byte.SIZE;
+            }
+            groupId = (groupId + step) & groupsMask;
+        }
+    }
+
+    private int controlByte(int cellId) {
+        return (int) (control[cellId / GROUP_SIZE] >>> (cellId % GROUP_SIZE * Byte.SIZE)) & 0xFF;
+    }
+
+    private void setControlByte(int cellId, int value) {
+        int shift = cellId % GROUP_SIZE * Byte.SIZE;
+        int groupId = cellId / GROUP_SIZE;
+        control[groupId] = (control[groupId] & ~(0xFFL << shift)) | ((long) value << shift);
+    }
+
+    /**
+     * Returns long with highest bit set in bytes of group equal to corresponding bytes of pattern
+     * Byte right after equal one may be reported too, callers check keys anyway
+     */
+    private static long matchByte(long group, long pattern) {
+        long difference = group ^ pattern;
+        return (difference - LOW_BITS) & ~difference & HIGH_BITS;
+    }
+
+    /** Returns long with highest bit set in EMPTY bytes of group. Only EMPTY has highest bit set and next bit clear */
+    private static long matchEmpty(long group) {
+        return group & ~(group << 1) & HIGH_BITS;
+    }
+
+    /** Mixes all bits of hash code, low FINGERPRINT_BITS become fingerprint and the rest choose first group */
+    private static int hashOf(String key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
@@ -0,0 +1,117 @@
+package ru.spbhse.hashmap;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.TreeMap;
+
+/**
+ * Bucket storing StringPairs in balanced search tree ordered by hash code of key and then by key itself
+ * HashMap turns long lists into such buckets, so that lookup in bucket with many colliding keys
+ * takes logarithmic time instead of linear
+ * NB! StringPairs mustn't be null.
+ */
+public class TreeBucket implements Bucket {
+
+    private static final Comparator<String> HASH_THEN_KEY_ORDER =
+            Comparator.comparingInt(String::hashCode).thenComparing(Comparator.naturalOrder());
+
+    /** Number of keys compared by counting tree since the last counting lookup */
+    private int comparisons;
+    /** Same order as HASH_THEN_KEY_ORDER which also counts comparisons, tree uses it only while lookups are counted */
+    private final Comparator<String> countingOrder = (first, second) -> {
+        ++comparisons;
+        return HASH_THEN_KEY_ORDER.compare(first, second);
+    };
+    private TreeMap<String, StringPair> tree;
+
+    /**
+     * Constructs bucket with given pairs
+     * @param pairs pairs with distinct keys
+     */
+    public TreeBucket(StringPair[] pairs) {
+        this(pairs, false);
+    }
+
+    /**
+     * Constructs bucket with given pairs
+     * @param pairs pairs with distinct keys
+     * @param isCounting if true, tree counts comparisons from the start, see setCounting
+     */
+    public TreeBucket(StringPair[] pairs, boolean isCounting) {
+        tree = new TreeMap<>(isCounting ? countingOrder : HASH_THEN_KEY_ORDER);
+        for (StringPair pair : pairs) {
+            put(pair);
+        }
+    }
+
+    @Override
+    public StringPair get(String key) {
+        return key == null ? null : tree.get(key);
+    }
+
+    @Override
+    public void put(StringPair pair) {
+        if (pair == null) {
+            throw new IllegalArgumentException("pair given to TreeBucket.put mustn't be null");
+        }
+        tree.put(pair.getKey(), pair);
+    }
+
+    @Override
+    public StringPair remove(String key) {
+        return key == null ? null : tree.remove(key);
+    }
+
+    /** Same as get, adds number of keys compared by the tree to counter */
+    @Override
+    public StringPair get(String key, ProbeCounter counter) {
+        setCounting(true);
+        comparisons = 0;
+        StringPair foundPair = get(key);
+        counter.add(comparisons);
+        return foundPair;
+    }
+
+    /** Same as remove, adds number of keys compared by the tree to counter */
+    @Override
+    public StringPair remove(String key, ProbeCounter counter) {
+        setCounting(true);
+        comparisons = 0;
+        StringPair removedPair = remove(key);
+        counter.add(comparisons);
+        return removedPair;
+    }
+
+    /**
+     * Chooses comparator of the tree, tree is rebuilt if it changes
+     * Counting comparator is needed by counting lookups, the plain one keeps other operations free of counting
+     */
+    void setCounting(boolean isCounting) {
+        if ((tree.comparator() == countingOrder) == isCounting) {
+            return;
+        }
+        var newTree = new TreeMap<String, StringPair>(isCounting ? countingOrder : HASH_THEN_KEY_ORDER);
+        newTree.putAll(tree);
+        tree = newTree;
+    }
+
+    @Override
+    public int size() {
+        return tree.size();
+    }
+
+    /**
+     * Converts bucket to array
+     * @return array of pairs in order of their hash codes and keys
+     */
+    @Override
+    public StringPair[] toArray() {
+        return tree.values().toArray(new StringPair[0]);
+    }
+
+    /** Returns iterator over pairs in order of their hash codes and keys */
+    @Override
+    public Iterator<StringPair> iterator() {
+        return tree.values().iterator();
+    }
+}
@@ -0,0 +1,81 @@
+package ru.spbhse.hashmap;
+
+import ru.spbhse.hashmap.specialized.ObjectIntMap;
+
+import java.util.Arrays;
+
+/**
+ * Table of distinct Strings used as values by DictionaryEncodedHashMap, which stores int code of value instead of it
+ * Every code counts references to it: code of a value nobody refers to anymore is reclaimed and given to next new value,
+ * so codes stay dense and the table doesn't grow with number of replaced values.
+ * Dictionary may be shared by several maps, then equal values of all of them are stored once
+ * null has code NULL_CODE and is not stored
+ */
+public class ValueDictionary {
+
+    static final int NULL_CODE = -1;
+    final private int DEFAULT_CAPACITY = 16;
+
+    private final ObjectIntMap<String> codes = new ObjectIntMap<>(NULL_CODE);
+    /** values[code] is value with this code or null if code is free */
+    private String[] values = new String[DEFAULT_CAPACITY];
+    private int[] referenceCounts = new int[DEFAULT_CAPACITY];
+    /** Stack of reclaimed codes, the first freeCodesNumber elements are used */
+    private int[] freeCodes = new int[DEFAULT_CAPACITY];
+    private int freeCodesNumber;
+    /** Codes below it were given at least once */
+    private int usedCodesNumber;
+
+    /** Returns number of distinct values referred to */
+    public int size() {
+        return codes.size();
+    }
+
+    /** Returns number of references to given value, 0 if it is not in dictionary */
+    public int referencesTo(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("value given to ValueDictionary.referencesTo mustn't be null");
+        }
+        int code = codes.get(value);
+        return code == NULL_CODE ? 0 : referenceCounts[code];
+    }
+
+    /** Returns code of given value, adding it to dictionary if needed, and counts one more reference to it */
+    int acquire(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        int code = codes.get(value);
+        if (code == NULL_CODE) {
+            code = freeCodesNumber > 0 ? freeCodes[--freeCodesNumber] : usedCodesNumber++;
+            if (code == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+                referenceCounts = Arrays.copyOf(referenceCounts, referenceCounts.length * 2);
+            }
+            values[code] = value;
+            codes.put(value, code);
+        }
+        ++referenceCounts[code];
+        return code;
+    }
+
+    /** Counts one less reference to value with given code, code is reclaimed when there are no references left */
+    void release(int code) {
+        if (code == NULL_CODE) {
+            return;
+        }
+        if (--referenceCounts[code] == 0) {
+            codes.remove(values[code]);
+            values[code] = null;
+            if (freeCodesNumber == freeCodes.length) {
+                freeCodes = Arrays.copyOf(freeCodes, freeCodes.length * 2);
+            }
+            freeCodes[freeCodesNumber++] = code;
+        }
+    }
+
+    /** Returns value with given code */
+    String valueOf(int code) {
+        return code == NULL_CODE ? null : values[code];
+    }
+}
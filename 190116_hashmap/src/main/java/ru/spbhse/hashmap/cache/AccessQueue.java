@@ -0,0 +1,80 @@
+package ru.spbhse.hashmap.cache;
+
+/**
+ * Doubly linked queue of cache entries from least to most recently used (or added)
+ * All operations take O(1) time, queue keeps total weight of its entries
+ */
+class AccessQueue {
+    private CacheEntry first;
+    private CacheEntry last;
+    private long weight;
+
+    /** Returns least recently used entry or null if queue is empty */
+    CacheEntry first() {
+        return first;
+    }
+
+    /** Returns most recently used entry or null if queue is empty */
+    CacheEntry last() {
+        return last;
+    }
+
+    boolean isEmpty() {
+        return first == null;
+    }
+
+    long weight() {
+        return weight;
+    }
+
+    /** Adds entry, which mustn't be in any queue, as the most recently used one */
+    void addLast(CacheEntry entry) {
+        entry.queue = this;
+        entry.previous = last;
+        entry.next = null;
+        if (last == null) {
+            first = entry;
+        } else {
+            last.next = entry;
+        }
+        last = entry;
+        weight += entry.getWeight();
+    }
+
+    /** Removes entry, which must be in this queue */
+    void remove(CacheEntry entry) {
+        if (entry.previous == null) {
+            first = entry.next;
+        } else {
+            entry.previous.next = entry.next;
+        }
+        if (entry.next == null) {
+            last = entry.previous;
+        } else {
+            entry.next.previous = entry.previous;
+        }
+        entry.queue = null;
+        entry.previous = null;
+        entry.next = null;
+        weight -= entry.getWeight();
+    }
+
+    /** Makes entry of this queue the most recently used one */
+    void moveToLast(CacheEntry entry) {
+        if (entry != last) {
+            remove(entry);
+            addLast(entry);
+        }
+    }
+
+    /** Takes into account that weight of entry of this queue has changed */
+    void updateWeight(int oldWeight, int newWeight) {
+        weight += newWeight - oldWeight;
+    }
+
+    void clear() {
+        first = null;
+        last = null;
+        weight = 0;
+    }
+}
@@ -0,0 +1,196 @@
+package ru.spbhse.hashmap.cache;
+
+import ru.spbhse.hashmap.StringMap;
+import ru.spbhse.hashmap.specialized.HashMap;
+
+/**
+ * Cache of pairs of Strings which never becomes heavier than its maximum weight
+ * Weight of every entry is given by Weigher (1 by default, then maximum weight is maximum number of entries).
+ * When cache becomes too heavy, entries chosen by EvictionPolicy are evicted.
+ * Bookkeeping of every operation takes O(1) time: entries are found by HashMap and ordered by linked queues of policy.
+ * Counts hits and misses of get, evictions and rejected pairs
+ * NB! Keys mustn't be nulls
+ */
+public class BoundedCache implements StringMap {
+
+    private final HashMap<String, CacheEntry> entries = new HashMap<>();
+    private final long maximumWeight;
+    private final Weigher weigher;
+    private final EvictionPolicy policy;
+    private long weight;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long rejections;
+
+    /**
+     * Basic constructor. Creates LRU cache keeping at most given number of entries
+     */
+    public BoundedCache(int maximumSize) {
+        this(maximumSize, Weigher.ENTRIES, new LruPolicy());
+    }
+
+    /** Creates cache with given maximum total weight of entries and eviction policy, which mustn't be shared */
+    public BoundedCache(long maximumWeight, Weigher weigher, EvictionPolicy policy) {
+        if (maximumWeight < 0) {
+            throw new IllegalArgumentException("maximumWeight given to BoundedCache mustn't be negative");
+        }
+        if (weigher == null || policy == null) {
+            throw new IllegalArgumentException("weigher and policy given to BoundedCache mustn't be null");
+        }
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.policy = policy;
+        policy.setMaximumWeight(maximumWeight);
+    }
+
+    /** Returns number of elements in cache */
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Checks if cache contains given key. It is neither counted as hit or miss nor as access to the key
+     * @return true if cache contains this key and false otherwise
+     */
+    @Override
+    public boolean contains(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to BoundedCache.contains mustn't be null");
+        }
+        return entries.contains(key);
+    }
+
+    /** Returns value by given key if it exists in cache and null otherwise */
+    @Override
+    public String get(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to BoundedCache.get mustn't be null");
+        }
+        policy.recordAccess(key);
+        CacheEntry entry = entries.get(key);
+        if (entry == null) {
+            ++misses;
+            return null;
+        }
+        ++hits;
+        policy.onHit(entry);
+        return entry.getValue();
+    }
+
+    /**
+     * Puts pair (key, value) to cache (or changes previous value by this key to new one)
+     * and evicts entries while cache is heavier than maximum weight, new pair may be evicted as well
+     * Pair heavier than maximum weight is not put at all, previous value by its key is removed
+     * @return previous value by given key if it exists or null otherwise
+     */
+    @Override
+    public String put(String key, String value) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to BoundedCache.put mustn't be null");
+        }
+        int entryWeight = weigher.weigh(key, value);
+        if (entryWeight < 0) {
+            throw new IllegalArgumentException("weight of pair given to BoundedCache.put is negative");
+        }
+        policy.recordAccess(key);
+        if (entryWeight > maximumWeight) {
+            // pair can't fit even in empty cache, so it is rejected instead of evicting others
+            ++rejections;
+            CacheEntry previousEntry = entries.get(key);
+            if (previousEntry == null) {
+                return null;
+            }
+            evict(previousEntry);
+            return previousEntry.getValue();
+        }
+        CacheEntry entry = entries.get(key);
+        String previousValue = null;
+        if (entry == null) {
+            entry = new CacheEntry(key, value, entryWeight);
+            entries.put(key, entry);
+            policy.onAdd(entry);
+        } else {
+            previousValue = entry.getValue();
+            int oldWeight = entry.getWeight();
+            entry.setValue(value, entryWeight);
+            weight -= oldWeight;
+            policy.onWeightChange(entry, oldWeight);
+            policy.onHit(entry);
+        }
+        weight += entryWeight;
+
+        while (weight > maximumWeight) {
+            evict(policy.victim());
+        }
+        return previousValue;
+    }
+
+    /**
+     * Removes element with given key from cache
+     * @return value by given key if it was in cache and null otherwise
+     */
+    @Override
+    public String remove(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to BoundedCache.remove mustn't be null");
+        }
+        CacheEntry entry = entries.remove(key);
+        if (entry == null) {
+            return null;
+        }
+        weight -= entry.getWeight();
+        policy.onRemove(entry);
+        return entry.getValue();
+    }
+
+    /** Removes all elements from cache. Hit, miss, eviction and rejection counters are not reset */
+    @Override
+    public void clear() {
+        entries.clear();
+        policy.clear();
+        weight = 0;
+    }
+
+    /** Returns total weight of entries in cache */
+    public long weight() {
+        return weight;
+    }
+
+    public long maximumWeight() {
+        return maximumWeight;
+    }
+
+    /** Returns number of gets which found their key */
+    public long hits() {
+        return hits;
+    }
+
+    /** Returns number of gets which didn't find their key */
+    public long misses() {
+        return misses;
+    }
+
+    /** Returns number of entries evicted by policy or replaced by pair heavier than maximum weight */
+    public long evictions() {
+        return evictions;
+    }
+
+    /** Returns number of pairs heavier than maximum weight which were not put */
+    public long rejections() {
+        return rejections;
+    }
+
+    /** Returns share of gets which found their key, or 0 if there were no gets */
+    public double hitRate() {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
+    private void evict(CacheEntry victim) {
+        entries.remove(victim.getKey());
+        weight -= victim.getWeight();
+        policy.onRemove(victim);
+        ++evictions;
+    }
+}
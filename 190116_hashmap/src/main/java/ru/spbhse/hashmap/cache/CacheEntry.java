@@ -0,0 +1,41 @@
+package ru.spbhse.hashmap.cache;
+
+/**
+ * Pair of cache with its weight
+ * Entry is also node of doubly linked queue of eviction policy or timing wheel,
+ * so moving it between queues allocates nothing
+ */
+public class CacheEntry {
+    private final String key;
+    private String value;
+    private int weight;
+    CacheEntry previous;
+    CacheEntry next;
+    /** Queue of eviction policy or bucket of timing wheel holding this entry */
+    AccessQueue queue;
+    /** Time when entry expires, used by ExpiringHashMap */
+    long expirationTime;
+
+    CacheEntry(String key, String value, int weight) {
+        this.key = key;
+        this.value = value;
+        this.weight = weight;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    void setValue(String value, int weight) {
+        this.value = value;
+        this.weight = weight;
+    }
+}
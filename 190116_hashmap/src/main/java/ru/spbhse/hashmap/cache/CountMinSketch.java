@@ -0,0 +1,88 @@
+package ru.spbhse.hashmap.cache;
+
+/**
+ * Approximate counter of key frequencies in small fixed memory
+ * Every key has a counter in each of DEPTH rows chosen by different hash functions,
+ * its frequency is estimated as the minimum of them, so it may be overestimated but never underestimated.
+ * Only minimal counters of key are incremented (conservative update), which makes overestimation smaller.
+ * Counters saturate at MAX_COUNT and all of them are halved after every 10 increments per counted key,
+ * so old popularity fades out
+ */
+class CountMinSketch {
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final int MIN_WIDTH_BITS = 4;
+    private static final int MAX_WIDTH_BITS = 28;
+    private static final int COUNTERS_PER_KEY = 4;
+    /** Odd multipliers making hash functions of rows different */
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L
+    };
+
+    private byte[] counters;
+    private int widthBits;
+    private int increments;
+
+    CountMinSketch() {
+        allocate(MIN_WIDTH_BITS);
+    }
+
+    /**
+     * Makes rows wide enough to count given number of keys, COUNTERS_PER_KEY counters in every row per key
+     * Counters are reset if rows are widened
+     */
+    void ensureCapacity(int keysNumber) {
+        long width = (long) keysNumber * COUNTERS_PER_KEY;
+        if (width > 1 << widthBits && widthBits < MAX_WIDTH_BITS) {
+            allocate(Math.min(MAX_WIDTH_BITS, Long.SIZE - Long.numberOfLeadingZeros(width - 1)));
+        }
+    }
+
+    /** Counts one more occurrence of given key */
+    void increment(String key) {
+        int frequency = frequency(key);
+        if (frequency < MAX_COUNT) {
+            long hash = spread(key.hashCode());
+            for (int row = 0; row < DEPTH; row++) {
+                int counterId = counterOf(hash, row);
+                if (counters[counterId] == frequency) {
+                    ++counters[counterId];
+                }
+            }
+        }
+        if (++increments == (10 << widthBits) / COUNTERS_PER_KEY) {
+            halve();
+        }
+    }
+
+    /** Returns estimated number of occurrences of given key, at most MAX_COUNT */
+    int frequency(String key) {
+        long hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < DEPTH; row++) {
+            frequency = Math.min(frequency, counters[counterOf(hash, row)]);
+        }
+        return frequency;
+    }
+
+    private void allocate(int newWidthBits) {
+        widthBits = newWidthBits;
+        counters = new byte[DEPTH << widthBits];
+        increments = 0;
+    }
+
+    private void halve() {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] >>= 1;
+        }
+        increments /= 2;
+    }
+
+    private int counterOf(long hash, int row) {
+        return (row << widthBits) + (int) ((hash * SEEDS[row]) >>> (Long.SIZE - widthBits));
+    }
+
+    private static long spread(int hashCode) {
+        return hashCode ^ ((long) hashCode << 32);
+    }
+}
@@ -0,0 +1,35 @@
+package ru.spbhse.hashmap.cache;
+
+/**
+ * Policy choosing which entries BoundedCache evicts when it becomes heavier than its maximum weight
+ * Cache notifies policy about every event with its entries, every notification must take O(1) time
+ */
+public interface EvictionPolicy {
+
+    /** Called once by cache using this policy before any other notification */
+    void setMaximumWeight(long maximumWeight);
+
+    /** Called on every get and put of given key, including misses */
+    void recordAccess(String key);
+
+    /** Called when new entry is added to cache */
+    void onAdd(CacheEntry entry);
+
+    /** Called when existing entry is read or its value is replaced */
+    void onHit(CacheEntry entry);
+
+    /** Called when value of entry is replaced and its weight changes from oldWeight to entry.getWeight() */
+    void onWeightChange(CacheEntry entry, int oldWeight);
+
+    /** Called when entry is removed from cache, either explicitly or as victim */
+    void onRemove(CacheEntry entry);
+
+    /**
+     * Chooses entry to evict. Called only when cache is not empty
+     * Chosen entry is removed from cache with onRemove notification
+     */
+    CacheEntry victim();
+
+    /** Called when cache is cleared */
+    void clear();
+}
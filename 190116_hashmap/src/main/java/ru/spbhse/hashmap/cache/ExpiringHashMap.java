@@ -0,0 +1,196 @@
+package ru.spbhse.hashmap.cache;
+
+import ru.spbhse.hashmap.StringMap;
+import ru.spbhse.hashmap.specialized.HashMap;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * HashMap class to store pairs of Strings, pairs may have time to live
+ *
+ * Expired pairs are never returned: lookups check expiration time and drop expired pair of their key.
+ * Other expired pairs are removed by sweep, which may run in background. Expiration times are tracked
+ * by hierarchical TimingWheel, so sweep visits only pairs whose time has come and never scans whole table.
+ * Methods are synchronized, so sweep may run in another thread.
+ * size counts expired pairs which are not removed yet
+ * NB! Keys mustn't be nulls
+ */
+public class ExpiringHashMap implements StringMap {
+
+    private final HashMap<String, CacheEntry> entries = new HashMap<>();
+    private final TimingWheel wheel = new TimingWheel();
+    private final LongSupplier nanoClock;
+    private final long startTime;
+    /** Expiration time of pairs without time to live */
+    private static final long NEVER = Long.MAX_VALUE;
+
+    /**
+     * Basic constructor. Creates HashMap using System.nanoTime as clock
+     */
+    public ExpiringHashMap() {
+        this(System::nanoTime);
+    }
+
+    /** Creates HashMap using given clock, which returns time in nanoseconds and never goes back */
+    public ExpiringHashMap(LongSupplier nanoClock) {
+        if (nanoClock == null) {
+            throw new IllegalArgumentException("clock given to ExpiringHashMap mustn't be null");
+        }
+        this.nanoClock = nanoClock;
+        startTime = nanoClock.getAsLong();
+    }
+
+    /** Returns number of elements in HashMap, including expired ones which are not removed yet */
+    @Override
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Checks if HashMap contains given key with not expired value
+     * @return true if HashMap contains this key and false otherwise
+     */
+    @Override
+    public synchronized boolean contains(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to ExpiringHashMap.contains mustn't be null");
+        }
+        return findAlive(key) != null;
+    }
+
+    /** Returns value by given key if it exists in hash table and is not expired, null otherwise */
+    @Override
+    public synchronized String get(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to ExpiringHashMap.get mustn't be null");
+        }
+        CacheEntry entry = findAlive(key);
+        return entry == null ? null : entry.getValue();
+    }
+
+    /**
+     * Puts pair (key, value) which never expires (or changes previous value by this key to new one)
+     * @return previous not expired value by given key if it exists or null otherwise
+     */
+    @Override
+    public synchronized String put(String key, String value) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to ExpiringHashMap.put mustn't be null");
+        }
+        return putUntil(key, value, NEVER);
+    }
+
+    /**
+     * Puts pair (key, value) which expires after given time to live (or changes previous value and its time to live)
+     * @return previous not expired value by given key if it exists or null otherwise
+     */
+    public synchronized String put(String key, String value, Duration ttl) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to ExpiringHashMap.put mustn't be null");
+        }
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl given to ExpiringHashMap.put must be positive");
+        }
+        long now = now();
+        long expirationTime = now + ttl.toNanos();
+        return putUntil(key, value, expirationTime < now ? NEVER : expirationTime);
+    }
+
+    /**
+     * Removes element with given key from table
+     * @return value by given key if it was in table and not expired, null otherwise
+     */
+    @Override
+    public synchronized String remove(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to ExpiringHashMap.remove mustn't be null");
+        }
+        CacheEntry entry = entries.remove(key);
+        if (entry == null) {
+            return null;
+        }
+        wheel.cancel(entry);
+        return entry.expirationTime <= now() ? null : entry.getValue();
+    }
+
+    /** Removes all elements from table */
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+        wheel.clear();
+    }
+
+    /**
+     * Removes at most maxBatch expired pairs
+     * Expired pairs which are not removed stay in queue for next sweep
+     * @return number of removed pairs
+     */
+    public synchronized int sweep(int maxBatch) {
+        if (maxBatch < 0) {
+            throw new IllegalArgumentException("maxBatch given to ExpiringHashMap.sweep mustn't be negative");
+        }
+        wheel.advance(now());
+        int removed = 0;
+        while (removed < maxBatch) {
+            CacheEntry entry = wheel.pollExpired();
+            if (entry == null) {
+                break;
+            }
+            entries.remove(entry.getKey());
+            ++removed;
+        }
+        return removed;
+    }
+
+    /**
+     * Starts sweeping by given executor every period, at most maxBatch pairs at once
+     * @return future to cancel sweeping
+     */
+    public ScheduledFuture<?> startSweeping(ScheduledExecutorService executor, Duration period, int maxBatch) {
+        if (maxBatch < 0) {
+            throw new IllegalArgumentException("maxBatch given to ExpiringHashMap.startSweeping mustn't be negative");
+        }
+        long periodNanos = period.toNanos();
+        return executor.scheduleWithFixedDelay(() -> sweep(maxBatch), periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private String putUntil(String key, String value, long expirationTime) {
+        CacheEntry entry = entries.get(key);
+        String previousValue = null;
+        if (entry == null) {
+            entry = new CacheEntry(key, value, 0);
+            entries.put(key, entry);
+        } else {
+            wheel.cancel(entry);
+            if (entry.expirationTime > now()) {
+                previousValue = entry.getValue();
+            }
+            entry.setValue(value, 0);
+        }
+        entry.expirationTime = expirationTime;
+        if (expirationTime != NEVER) {
+            wheel.schedule(entry);
+        }
+        return previousValue;
+    }
+
+    /** Finds not expired entry with given key, expired one is removed */
+    private CacheEntry findAlive(String key) {
+        CacheEntry entry = entries.get(key);
+        if (entry == null || entry.expirationTime > now()) {
+            return entry;
+        }
+        entries.remove(key);
+        wheel.cancel(entry);
+        return null;
+    }
+
+    /** Returns time in nanoseconds since creation of HashMap */
+    private long now() {
+        return nanoClock.getAsLong() - startTime;
+    }
+}
@@ -0,0 +1,44 @@
+package ru.spbhse.hashmap.cache;
+
+/** Eviction policy evicting least recently used entry */
+public class LruPolicy implements EvictionPolicy {
+    private final AccessQueue queue = new AccessQueue();
+
+    @Override
+    public void setMaximumWeight(long maximumWeight) {
+    }
+
+    @Override
+    public void recordAccess(String key) {
+    }
+
+    @Override
+    public void onAdd(CacheEntry entry) {
+        queue.addLast(entry);
+    }
+
+    @Override
+    public void onHit(CacheEntry entry) {
+        queue.moveToLast(entry);
+    }
+
+    @Override
+    public void onWeightChange(CacheEntry entry, int oldWeight) {
+        queue.updateWeight(oldWeight, entry.getWeight());
+    }
+
+    @Override
+    public void onRemove(CacheEntry entry) {
+        queue.remove(entry);
+    }
+
+    @Override
+    public CacheEntry victim() {
+        return queue.first();
+    }
+
+    @Override
+    public void clear() {
+        queue.clear();
+    }
+}
@@ -0,0 +1,115 @@
+package ru.spbhse.hashmap.cache;
+
+/**
+ * Hierarchical timing wheel of entries waiting for their expiration time
+ *
+ * Level k has BUCKETS buckets, each of them holds entries expiring during one tick of 2^(BASE_SHIFT + k * BUCKET_BITS)
+ * nanoseconds, so every level covers BUCKETS ticks of the previous one. Entry is placed to the lowest level
+ * covering its expiration time. When time advances, only buckets of passed ticks are visited: expired entries go
+ * to queue of expired ones, the rest (from higher levels) are placed again to lower levels.
+ * Entries expiring after the highest level are placed to its bucket by modulo and wait for several rounds.
+ * Times are nanoseconds since creation of wheel
+ */
+class TimingWheel {
+    private static final int BUCKET_BITS = 6;
+    private static final int BUCKETS = 1 << BUCKET_BITS;
+    private static final int LEVELS = 5;
+    /** Tick of the lowest level is 2^BASE_SHIFT nanoseconds, about a millisecond */
+    private static final int BASE_SHIFT = 20;
+
+    private final AccessQueue[][] buckets = new AccessQueue[LEVELS][BUCKETS];
+    private final AccessQueue expired = new AccessQueue();
+    /** Time up to which wheel has been advanced */
+    private long time;
+
+    TimingWheel() {
+        for (AccessQueue[] level : buckets) {
+            for (int bucketId = 0; bucketId < BUCKETS; bucketId++) {
+                level[bucketId] = new AccessQueue();
+            }
+        }
+    }
+
+    /** Places entry, which mustn't be in any queue, according to its expiration time */
+    void schedule(CacheEntry entry) {
+        if (entry.expirationTime <= time) {
+            expired.addLast(entry);
+            return;
+        }
+        long delay = entry.expirationTime - time;
+        int level = 0;
+        while (level < LEVELS - 1 && delay >= 1L << (shiftOf(level) + BUCKET_BITS)) {
+            ++level;
+        }
+        long tick = Math.max(entry.expirationTime >>> shiftOf(level), (time >>> shiftOf(level)) + 1);
+        buckets[level][(int) (tick & (BUCKETS - 1))].addLast(entry);
+    }
+
+    /** Removes entry from wheel or from expired queue. Entry may be not scheduled */
+    void cancel(CacheEntry entry) {
+        if (entry.queue != null) {
+            entry.queue.remove(entry);
+        }
+    }
+
+    /**
+     * Moves wheel to given time, entries which expire by then are moved to queue of expired ones
+     * Takes time proportional to number of entries in passed buckets, not to number of all entries
+     */
+    void advance(long newTime) {
+        long previousTime = time;
+        if (newTime <= previousTime) {
+            return;
+        }
+        time = newTime;
+        for (int level = 0; level < LEVELS; level++) {
+            long previousTick = previousTime >>> shiftOf(level);
+            long currentTick = newTime >>> shiftOf(level);
+            if (previousTick == currentTick) {
+                // higher levels have longer ticks, so none of them has passed
+                break;
+            }
+            long lastTick = Math.min(currentTick, previousTick + BUCKETS);
+            for (long tick = previousTick + 1; tick <= lastTick; tick++) {
+                rescheduleBucket(buckets[level][(int) (tick & (BUCKETS - 1))]);
+            }
+        }
+    }
+
+    /** Removes and returns entry which expired earliest among not yet polled ones, or null if there are none */
+    CacheEntry pollExpired() {
+        CacheEntry entry = expired.first();
+        if (entry != null) {
+            expired.remove(entry);
+        }
+        return entry;
+    }
+
+    /** Removes all entries from wheel. Removed entries mustn't be scheduled again */
+    void clear() {
+        for (AccessQueue[] level : buckets) {
+            for (AccessQueue bucket : level) {
+                bucket.clear();
+            }
+        }
+        expired.clear();
+    }
+
+    /** Places every entry of bucket again according to current time */
+    private void rescheduleBucket(AccessQueue bucket) {
+        // entries may return to the same bucket, so only the entries which were in it at the start are visited
+        CacheEntry last = bucket.last();
+        while (!bucket.isEmpty()) {
+            CacheEntry entry = bucket.first();
+            bucket.remove(entry);
+            schedule(entry);
+            if (entry == last) {
+                break;
+            }
+        }
+    }
+
+    private static int shiftOf(int level) {
+        return BASE_SHIFT + level * BUCKET_BITS;
+    }
+}
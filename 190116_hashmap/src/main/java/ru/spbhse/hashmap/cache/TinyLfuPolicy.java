@@ -0,0 +1,110 @@
+package ru.spbhse.hashmap.cache;
+
+/**
+ * W-TinyLFU eviction policy
+ *
+ * New entries come to small LRU window (WINDOW_PERCENT of maximum weight). Entry leaving the window
+ * is admitted to main part only if it is accessed more often than the entry main part would evict,
+ * frequencies are estimated by CountMinSketch of all recent accesses, including misses.
+ * Main part is segmented LRU: entries come to probation queue and move to protected queue on hit,
+ * protected queue takes at most PROTECTED_PERCENT of main part.
+ * So one-time scans go through the window without flushing frequently used entries
+ */
+public class TinyLfuPolicy implements EvictionPolicy {
+    private final AccessQueue window = new AccessQueue();
+    private final AccessQueue probation = new AccessQueue();
+    private final AccessQueue protectedQueue = new AccessQueue();
+    private final CountMinSketch sketch = new CountMinSketch();
+    private int entriesNumber;
+    private long windowMaximum;
+    private long mainMaximum;
+    private long protectedMaximum;
+    final private int WINDOW_PERCENT = 1;
+    final private int PROTECTED_PERCENT = 80;
+
+    @Override
+    public void setMaximumWeight(long maximumWeight) {
+        windowMaximum = maximumWeight * WINDOW_PERCENT / 100;
+        mainMaximum = maximumWeight - windowMaximum;
+        protectedMaximum = mainMaximum * PROTECTED_PERCENT / 100;
+    }
+
+    @Override
+    public void recordAccess(String key) {
+        sketch.increment(key);
+    }
+
+    /** Adds entry to window, while main part is not full window overflow moves to it without competition */
+    @Override
+    public void onAdd(CacheEntry entry) {
+        window.addLast(entry);
+        sketch.ensureCapacity(++entriesNumber);
+        while (window.weight() > windowMaximum
+                && probation.weight() + protectedQueue.weight() + window.first().getWeight() <= mainMaximum) {
+            CacheEntry moved = window.first();
+            window.remove(moved);
+            probation.addLast(moved);
+        }
+    }
+
+    @Override
+    public void onHit(CacheEntry entry) {
+        if (entry.queue == probation) {
+            probation.remove(entry);
+            protectedQueue.addLast(entry);
+            demoteProtectedOverflow();
+        } else {
+            entry.queue.moveToLast(entry);
+        }
+    }
+
+    @Override
+    public void onWeightChange(CacheEntry entry, int oldWeight) {
+        entry.queue.updateWeight(oldWeight, entry.getWeight());
+        if (entry.queue == protectedQueue) {
+            demoteProtectedOverflow();
+        }
+    }
+
+    @Override
+    public void onRemove(CacheEntry entry) {
+        entry.queue.remove(entry);
+        --entriesNumber;
+    }
+
+    /**
+     * If window is too heavy, its least recently used entry competes with victim of main part by frequency,
+     * the loser is evicted. Otherwise victim of main part is evicted
+     */
+    @Override
+    public CacheEntry victim() {
+        CacheEntry mainVictim = probation.isEmpty() ? protectedQueue.first() : probation.first();
+        if (window.isEmpty() || (window.weight() <= windowMaximum && mainVictim != null)) {
+            return mainVictim;
+        }
+        CacheEntry candidate = window.first();
+        if (mainVictim != null && sketch.frequency(candidate.getKey()) > sketch.frequency(mainVictim.getKey())) {
+            window.remove(candidate);
+            probation.addLast(candidate);
+            return mainVictim;
+        }
+        return candidate;
+    }
+
+    @Override
+    public void clear() {
+        window.clear();
+        probation.clear();
+        protectedQueue.clear();
+        entriesNumber = 0;
+    }
+
+    /** Moves least recently used protected entries to probation while protected queue is too heavy */
+    private void demoteProtectedOverflow() {
+        while (protectedQueue.weight() > protectedMaximum) {
+            CacheEntry demoted = protectedQueue.first();
+            protectedQueue.remove(demoted);
+            probation.addLast(demoted);
+        }
+    }
+}
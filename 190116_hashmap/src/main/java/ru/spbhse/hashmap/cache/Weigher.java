@@ -0,0 +1,18 @@
+package ru.spbhse.hashmap.cache;
+
+/**
+ * Weight of cache entry, cache keeps sum of weights of its entries not greater than its maximum weight
+ * Must return same weight for same pair
+ */
+@FunctionalInterface
+public interface Weigher {
+
+    /** Every entry weighs 1, so maximum weight is maximum number of entries */
+    Weigher ENTRIES = (key, value) -> 1;
+
+    /** Weight is number of bytes in chars of key and value */
+    Weigher CHAR_BYTES = (key, value) -> Character.BYTES * (key.length() + (value == null ? 0 : value.length()));
+
+    /** Returns non-negative weight of pair (key, value) */
+    int weigh(String key, String value);
+}
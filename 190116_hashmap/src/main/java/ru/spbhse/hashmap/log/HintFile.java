@@ -0,0 +1,94 @@
+package ru.spbhse.hashmap.log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Hint file of segment written by compaction: keys of its records with their places,
+ * so key directory is rebuilt without reading values
+ *
+ * Format: MAGIC (int), VERSION (int), length of segment (long), number of records (int),
+ * then for every record: key length in bytes (int), key in UTF-8, position of record (long), length of record (int)
+ * All numbers are big-endian
+ */
+class HintFile {
+
+    static final int MAGIC = 0x53484C48;
+    static final int VERSION = 1;
+
+    /** Writes hint file of segment of given length and forces it to storage device */
+    static void write(Path path, long segmentLength, String[] keys, long[] positions, int[] lengths)
+            throws IOException {
+        try (var file = new FileOutputStream(path.toFile());
+             var out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(segmentLength);
+            out.writeInt(keys.length);
+            for (int i = 0; i < keys.length; i++) {
+                byte[] keyBytes = keys[i].getBytes(StandardCharsets.UTF_8);
+                out.writeInt(keyBytes.length);
+                out.write(keyBytes);
+                out.writeLong(positions[i]);
+                out.writeInt(lengths[i]);
+            }
+            out.flush();
+            file.getFD().sync();
+        }
+    }
+
+    /**
+     * Gives every record listed in hint file to visitor
+     * Nothing is visited if hint file is broken, so segment may be scanned instead
+     * @return false if there is no hint file, it is broken or it was written for segment of other length
+     */
+    static boolean read(Path path, long segmentLength, Segment.RecordVisitor visitor) throws IOException {
+        if (!Files.exists(path)) {
+            return false;
+        }
+        String[] keys;
+        long[] positions;
+        int[] lengths;
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readLong() != segmentLength) {
+                return false;
+            }
+            int recordsNumber = in.readInt();
+            if (recordsNumber < 0 || recordsNumber > segmentLength / Segment.RECORD_HEADER_SIZE) {
+                return false;
+            }
+            keys = new String[recordsNumber];
+            positions = new long[recordsNumber];
+            lengths = new int[recordsNumber];
+            for (int i = 0; i < recordsNumber; i++) {
+                int keyLength = in.readInt();
+                if (keyLength < 0 || keyLength > segmentLength) {
+                    return false;
+                }
+                byte[] keyBytes = new byte[keyLength];
+                in.readFully(keyBytes);
+                keys[i] = new String(keyBytes, StandardCharsets.UTF_8);
+                positions[i] = in.readLong();
+                lengths[i] = in.readInt();
+                if (positions[i] < Segment.HEADER_SIZE || lengths[i] < Segment.RECORD_HEADER_SIZE
+                        || positions[i] + lengths[i] > segmentLength) {
+                    return false;
+                }
+            }
+        } catch (EOFException e) {
+            return false;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            visitor.visit(keys[i], false, positions[i], lengths[i]);
+        }
+        return true;
+    }
+}
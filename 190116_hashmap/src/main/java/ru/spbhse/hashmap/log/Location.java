@@ -0,0 +1,14 @@
+package ru.spbhse.hashmap.log;
+
+/** Place of the latest record of a key in segment files */
+class Location {
+    final Segment segment;
+    final long position;
+    final int length;
+
+    Location(Segment segment, long position, int length) {
+        this.segment = segment;
+        this.position = position;
+        this.length = length;
+    }
+}
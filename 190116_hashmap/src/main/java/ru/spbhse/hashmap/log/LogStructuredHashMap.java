@@ -0,0 +1,475 @@
+package ru.spbhse.hashmap.log;
+
+import ru.spbhse.hashmap.StringMap;
+import ru.spbhse.hashmap.specialized.HashMap;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable HashMap of Strings stored as log of changes in a directory, modeled on Bitcask
+ *
+ * Every put and remove appends one record to the end of active segment file, so a write is one sequential append.
+ * Key directory in memory maps every key to the place of its latest record, so get reads file once.
+ * When active segment grows larger than maximum segment size, it is sealed and new active segment is started.
+ * Compaction rewrites live records of sealed segments into one segment with a hint file and deletes sealed segments,
+ * it may run in background while map is used.
+ * Opening rebuilds key directory from hint files where they exist and by reading segments otherwise.
+ * Torn record at the end of the last segment, left by crash during write, is cut off.
+ * Records are given to OS on every write, so they survive crash of process.
+ * To survive crash of OS too, open map with syncWrites or call sync.
+ * StringMap methods throw UncheckedIOException on I/O errors
+ * NB! Keys mustn't be nulls
+ */
+public class LogStructuredHashMap implements StringMap, AutoCloseable {
+
+    private static final long DEFAULT_MAX_SEGMENT_SIZE = 64L << 20;
+    private static final int COMPACTION_BUFFER_SIZE = 1 << 20;
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String HINT_SUFFIX = ".hint";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final long maxSegmentSize;
+    private final boolean syncWrites;
+    private final HashMap<String, Location> keyDirectory = new HashMap<>();
+    /** Segments from the oldest to the newest, the last one is active, others are sealed */
+    private final ArrayList<Segment> segments = new ArrayList<>();
+    /** Held by compaction for all its time, so that sealed segments are not changed under it */
+    private final Object compactionLock = new Object();
+    private boolean closed;
+
+    private LogStructuredHashMap(Path directory, long maxSegmentSize, boolean syncWrites) {
+        this.directory = directory;
+        this.maxSegmentSize = maxSegmentSize;
+        this.syncWrites = syncWrites;
+    }
+
+    /**
+     * Opens map stored in given directory or creates empty one if there are no segments
+     * @throws IOException if directory can't be read or its segments are corrupted
+     */
+    public static LogStructuredHashMap open(Path directory) throws IOException {
+        return open(directory, DEFAULT_MAX_SEGMENT_SIZE, false);
+    }
+
+    /**
+     * Opens map stored in given directory or creates empty one if there are no segments
+     * @param maxSegmentSize length of segment in bytes after which new segment is started
+     * @param syncWrites whether every put and remove forces its record to storage device
+     * @throws IOException if directory can't be read or its segments are corrupted
+     */
+    public static LogStructuredHashMap open(Path directory, long maxSegmentSize, boolean syncWrites)
+            throws IOException {
+        if (maxSegmentSize <= 0) {
+            throw new IllegalArgumentException("maxSegmentSize given to LogStructuredHashMap.open must be positive");
+        }
+        Files.createDirectories(directory);
+        var map = new LogStructuredHashMap(directory, maxSegmentSize, syncWrites);
+        try {
+            map.load();
+        } catch (IOException e) {
+            for (Segment segment : map.segments) {
+                segment.close();
+            }
+            throw e;
+        }
+        return map;
+    }
+
+    /** Returns number of elements in HashMap */
+    @Override
+    public synchronized int size() {
+        checkNotClosed();
+        return keyDirectory.size();
+    }
+
+    /**
+     * Checks if HashMap contains given key. Files are not read
+     * @return true if HashMap contains this key and false otherwise
+     */
+    @Override
+    public synchronized boolean contains(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to LogStructuredHashMap.contains mustn't be null");
+        }
+        checkNotClosed();
+        return keyDirectory.contains(key);
+    }
+
+    /** Returns value by given key if it exists in HashMap and null otherwise */
+    @Override
+    public synchronized String get(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to LogStructuredHashMap.get mustn't be null");
+        }
+        checkNotClosed();
+        try {
+            return read(keyDirectory.get(key));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Appends pair (key, value) to log (it replaces previous value by this key)
+     * Previous value is read from file only if there is one
+     * @return previous value by given key if it exists or null otherwise
+     */
+    @Override
+    public synchronized String put(String key, String value) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to LogStructuredHashMap.put mustn't be null");
+        }
+        checkNotClosed();
+        try {
+            Location previous = keyDirectory.get(key);
+            String previousValue = read(previous);
+            Location location = append(Segment.encode(key, value, false));
+            keyDirectory.put(key, location);
+            location.segment.liveBytes += location.length;
+            if (previous != null) {
+                previous.segment.liveBytes -= previous.length;
+            }
+            return previousValue;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Appends removal of given key to log if HashMap contains this key
+     * @return value by given key if it was in HashMap and null otherwise
+     */
+    @Override
+    public synchronized String remove(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to LogStructuredHashMap.remove mustn't be null");
+        }
+        checkNotClosed();
+        Location previous = keyDirectory.get(key);
+        if (previous == null) {
+            return null;
+        }
+        try {
+            String previousValue = read(previous);
+            append(Segment.encode(key, null, true));
+            keyDirectory.remove(key);
+            previous.segment.liveBytes -= previous.length;
+            return previousValue;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Removes all elements. New empty segment replacing all old ones is started, then old segments are deleted
+     * Waits for running compaction
+     */
+    @Override
+    public void clear() {
+        synchronized (compactionLock) {
+            synchronized (this) {
+                checkNotClosed();
+                try {
+                    Segment newActive = Segment.create(segmentPath(activeSegment().id + 1),
+                            activeSegment().id + 1, segments.get(0).firstReplacedId);
+                    newActive.force();
+                    for (Segment segment : segments) {
+                        segment.close();
+                        Files.delete(segment.path());
+                        Files.deleteIfExists(hintPath(segment.id));
+                    }
+                    segments.clear();
+                    segments.add(newActive);
+                    keyDirectory.clear();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    /** Forces all written records to storage device */
+    public synchronized void sync() throws IOException {
+        checkNotClosed();
+        activeSegment().force();
+    }
+
+    /** Returns number of segment files */
+    public synchronized int segmentsNumber() {
+        return segments.size();
+    }
+
+    /**
+     * Rewrites live records of all sealed segments into one new segment with hint file, then deletes sealed segments
+     * Does nothing if there are no sealed segments or the only one is already compacted.
+     * Other threads may use map meanwhile, they wait only while new segment replaces old ones
+     * New segment gets id of the newest sealed segment and is moved over it, so if compaction is interrupted by crash,
+     * opening finds either old segments or new one, which marks old ones as replaced
+     */
+    public void compact() throws IOException {
+        synchronized (compactionLock) {
+            List<Segment> sealed;
+            String[] keys;
+            Location[] locations;
+            synchronized (this) {
+                checkNotClosed();
+                sealed = new ArrayList<>(segments.subList(0, segments.size() - 1));
+                if (sealed.isEmpty() || sealed.size() == 1 && isCompacted(sealed.get(0))) {
+                    return;
+                }
+                Segment active = activeSegment();
+                var liveKeys = new ArrayList<String>();
+                var liveLocations = new ArrayList<Location>();
+                keyDirectory.forEach((key, location) -> {
+                    if (location.segment != active) {
+                        liveKeys.add(key);
+                        liveLocations.add(location);
+                    }
+                });
+                keys = liveKeys.toArray(new String[0]);
+                locations = liveLocations.toArray(new Location[0]);
+            }
+
+            // records are copied in order of old files, so they are read sequentially
+            var order = new Integer[keys.length];
+            Arrays.setAll(order, i -> i);
+            Arrays.sort(order, Comparator.<Integer>comparingInt(i -> locations[i].segment.id)
+                    .thenComparingLong(i -> locations[i].position));
+            String[] orderedKeys = new String[keys.length];
+            Location[] orderedLocations = new Location[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                orderedKeys[i] = keys[order[i]];
+                orderedLocations[i] = locations[order[i]];
+            }
+
+            Segment newest = sealed.get(sealed.size() - 1);
+            Path temporarySegment = directory.resolve(segmentPath(newest.id).getFileName() + TEMPORARY_SUFFIX);
+            Path temporaryHint = directory.resolve(hintPath(newest.id).getFileName() + TEMPORARY_SUFFIX);
+            Files.deleteIfExists(temporarySegment);
+            Segment compacted = Segment.create(temporarySegment, newest.id, sealed.get(0).firstReplacedId);
+            long[] positions = new long[keys.length];
+            int[] lengths = new int[keys.length];
+            try {
+                copyRecords(orderedLocations, compacted, positions, lengths);
+                compacted.force();
+                HintFile.write(temporaryHint, compacted.length(), orderedKeys, positions, lengths);
+            } catch (IOException e) {
+                compacted.close();
+                Files.deleteIfExists(temporarySegment);
+                Files.deleteIfExists(temporaryHint);
+                throw e;
+            }
+
+            synchronized (this) {
+                // hint of replaced segment must not be taken for hint of new one
+                Files.deleteIfExists(hintPath(newest.id));
+                compacted.moveTo(segmentPath(newest.id));
+                Files.move(temporaryHint, hintPath(newest.id),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                for (int i = 0; i < orderedKeys.length; i++) {
+                    // keys changed during copying already point to newer records
+                    if (keyDirectory.get(orderedKeys[i]) == orderedLocations[i]) {
+                        keyDirectory.put(orderedKeys[i], new Location(compacted, positions[i], lengths[i]));
+                        compacted.liveBytes += lengths[i];
+                    }
+                }
+                for (Segment segment : sealed) {
+                    segment.close();
+                    if (segment != newest) {
+                        Files.delete(segment.path());
+                        Files.deleteIfExists(hintPath(segment.id));
+                    }
+                }
+                segments.subList(0, sealed.size()).clear();
+                segments.add(0, compacted);
+            }
+        }
+    }
+
+    /**
+     * Schedules compaction to run on given executor with given delay between runs
+     * @return future of scheduled task, cancel it to stop compacting. It fails if compaction throws IOException
+     */
+    public ScheduledFuture<?> startCompaction(ScheduledExecutorService executor, Duration period) {
+        long periodNanos = period.toNanos();
+        return executor.scheduleWithFixedDelay(() -> {
+            try {
+                compact();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** Forces records to storage device and closes files. Waits for running compaction. HashMap mustn't be used after that */
+    @Override
+    public void close() throws IOException {
+        synchronized (compactionLock) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                activeSegment().force();
+                for (Segment segment : segments) {
+                    segment.close();
+                }
+                keyDirectory.clear();
+            }
+        }
+    }
+
+    /** Opens segments of directory and rebuilds key directory */
+    private void load() throws IOException {
+        var ids = new ArrayList<Integer>();
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TEMPORARY_SUFFIX)) {
+                    // left by interrupted compaction
+                    Files.delete(file);
+                } else if (name.endsWith(SEGMENT_SUFFIX)) {
+                    try {
+                        ids.add(Integer.parseInt(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+                    } catch (NumberFormatException e) {
+                        // not a segment
+                    }
+                }
+            }
+        }
+        ids.sort(null);
+
+        if (!ids.isEmpty() && Files.size(segmentPath(ids.get(ids.size() - 1))) < Segment.HEADER_SIZE) {
+            // crash happened while header of new segment was written, so it has no records
+            Files.delete(segmentPath(ids.remove(ids.size() - 1)));
+        }
+        for (int id : ids) {
+            segments.add(Segment.open(segmentPath(id), id));
+        }
+
+        // segments replaced by newer compacted ones are left if compaction was interrupted, they are deleted now
+        int firstReplacedId = Integer.MAX_VALUE;
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            Segment segment = segments.get(i);
+            if (segment.id >= firstReplacedId) {
+                segment.close();
+                Files.delete(segment.path());
+                Files.deleteIfExists(hintPath(segment.id));
+                segments.remove(i);
+            } else {
+                firstReplacedId = Math.min(firstReplacedId, segment.firstReplacedId);
+            }
+        }
+
+        for (int i = 0; i < segments.size(); i++) {
+            Segment segment = segments.get(i);
+            Segment.RecordVisitor visitor = (key, isTombstone, position, length) -> {
+                Location previous = isTombstone
+                        ? keyDirectory.remove(key)
+                        : keyDirectory.put(key, new Location(segment, position, length));
+                if (previous != null) {
+                    previous.segment.liveBytes -= previous.length;
+                }
+                if (!isTombstone) {
+                    segment.liveBytes += length;
+                }
+            };
+            if (HintFile.read(hintPath(segment.id), segment.length(), visitor)) {
+                continue;
+            }
+            long validLength = segment.scan(visitor);
+            if (validLength < segment.length()) {
+                if (i != segments.size() - 1) {
+                    throw new IOException("Segment " + segment.path() + " is corrupted at position " + validLength);
+                }
+                segment.truncate(validLength);
+            }
+        }
+
+        if (segments.isEmpty()) {
+            segments.add(Segment.create(segmentPath(1), 1, 1));
+        }
+    }
+
+    private Segment activeSegment() {
+        return segments.get(segments.size() - 1);
+    }
+
+    /** Appends record to active segment, which is sealed first if it is full */
+    private Location append(ByteBuffer record) throws IOException {
+        Segment active = activeSegment();
+        if (active.length() >= maxSegmentSize) {
+            active.force();
+            active = Segment.create(segmentPath(active.id + 1), active.id + 1, active.id + 1);
+            segments.add(active);
+        }
+        int length = record.remaining();
+        long position = active.append(record);
+        if (syncWrites) {
+            active.force();
+        }
+        return new Location(active, position, length);
+    }
+
+    /** Returns value stored by given location or null if there is no location */
+    private static String read(Location location) throws IOException {
+        if (location == null) {
+            return null;
+        }
+        return Segment.decodeValue(location.segment.read(location.position, location.length));
+    }
+
+    /** Copies records by given locations to the end of given segment, writing by large blocks */
+    private static void copyRecords(Location[] locations, Segment destination, long[] positions, int[] lengths)
+            throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(COMPACTION_BUFFER_SIZE);
+        for (int i = 0; i < locations.length; i++) {
+            ByteBuffer record = locations[i].segment.read(locations[i].position, locations[i].length);
+            if (record.remaining() > block.remaining()) {
+                destination.append(block.flip());
+                block.clear();
+            }
+            lengths[i] = record.remaining();
+            if (record.remaining() > block.remaining()) {
+                positions[i] = destination.append(record);
+            } else {
+                positions[i] = destination.length() + block.position();
+                block.put(record);
+            }
+        }
+        destination.append(block.flip());
+    }
+
+    /** Checks if segment has no dead records and has hint file */
+    private boolean isCompacted(Segment segment) {
+        return segment.liveBytes == segment.length() - Segment.HEADER_SIZE && Files.exists(hintPath(segment.id));
+    }
+
+    private Path segmentPath(int id) {
+        return directory.resolve(String.format("%010d", id) + SEGMENT_SUFFIX);
+    }
+
+    private Path hintPath(int id) {
+        return directory.resolve(String.format("%010d", id) + HINT_SUFFIX);
+    }
+
+    private void checkNotClosed() {
+        if (closed) {
+            throw new IllegalStateException("LogStructuredHashMap is closed");
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package ru.spbhse.hashmap.log;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of records of LogStructuredHashMap
+ *
+ * File format:
+ * 1. Header: MAGIC (int), VERSION (int), id of the first segment replaced by this one (int).
+ *    It is own id for segments written by puts and smaller id for segments written by compaction
+ * 2. Records: CRC32 of the rest of record (int), key length in bytes (int),
+ *    value length in bytes (int, NULL_VALUE for null value, TOMBSTONE for removal), key in UTF-8, value in UTF-8
+ * All numbers are big-endian
+ */
+class Segment implements AutoCloseable {
+
+    static final int MAGIC = 0x53484C47;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 3 * Integer.BYTES;
+    static final int RECORD_HEADER_SIZE = 3 * Integer.BYTES;
+    static final int NULL_VALUE = -1;
+    static final int TOMBSTONE = -2;
+    private static final int SCAN_BUFFER_SIZE = 1 << 16;
+
+    final int id;
+    final int firstReplacedId;
+    /** Total length of records which key directory points to */
+    long liveBytes;
+    private Path path;
+    private final FileChannel channel;
+    private long length;
+
+    /** Receives records found by scan or read from hint file */
+    interface RecordVisitor {
+        void visit(String key, boolean isTombstone, long position, int length);
+    }
+
+    private Segment(Path path, FileChannel channel, int id, int firstReplacedId, long length) {
+        this.path = path;
+        this.channel = channel;
+        this.id = id;
+        this.firstReplacedId = firstReplacedId;
+        this.length = length;
+    }
+
+    /** Creates new empty segment file, which mustn't exist */
+    static Segment create(Path path, int id, int firstReplacedId) throws IOException {
+        var channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        var segment = new Segment(path, channel, id, firstReplacedId, 0);
+        try {
+            segment.append(ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putInt(firstReplacedId).flip());
+        } catch (IOException e) {
+            segment.close();
+            throw e;
+        }
+        return segment;
+    }
+
+    /**
+     * Opens existing segment file for reading and appending
+     * @throws IOException if file can't be read or it is not a segment
+     */
+    static Segment open(Path path, int id) throws IOException {
+        var channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, header, 0);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("File " + path + " is not a segment");
+            }
+            if (header.getInt(Integer.BYTES) != VERSION) {
+                throw new IOException("Unsupported segment version " + header.getInt(Integer.BYTES));
+            }
+            return new Segment(path, channel, id, header.getInt(2 * Integer.BYTES), channel.size());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** Returns record with given key and value (or removal of given key) ready to be appended */
+    static ByteBuffer encode(String key, String value, boolean isTombstone) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] valueBytes = isTombstone || value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        int valueLength = isTombstone ? TOMBSTONE : value == null ? NULL_VALUE : valueBytes.length;
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + keyBytes.length + valueBytes.length);
+        record.putInt(0).putInt(keyBytes.length).putInt(valueLength).put(keyBytes).put(valueBytes);
+        record.putInt(0, checksum(record.array(), record.capacity()));
+        return record.flip();
+    }
+
+    /** Returns value stored in given record */
+    static String decodeValue(ByteBuffer record) {
+        int keyLength = record.getInt(Integer.BYTES);
+        int valueLength = record.getInt(2 * Integer.BYTES);
+        if (valueLength < 0) {
+            return null;
+        }
+        return new String(record.array(), RECORD_HEADER_SIZE + keyLength, valueLength, StandardCharsets.UTF_8);
+    }
+
+    Path path() {
+        return path;
+    }
+
+    /** Returns length of file in bytes */
+    long length() {
+        return length;
+    }
+
+    /**
+     * Appends all remaining bytes of given buffer to the end of file
+     * @return position of appended bytes in file
+     */
+    long append(ByteBuffer bytes) throws IOException {
+        long position = length;
+        while (bytes.hasRemaining()) {
+            length += channel.write(bytes, length);
+        }
+        return position;
+    }
+
+    /** Reads given number of bytes starting from given position. May be called concurrently with append */
+    ByteBuffer read(long position, int bytesNumber) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(bytesNumber);
+        readFully(channel, bytes, position);
+        return bytes.flip();
+    }
+
+    /**
+     * Reads records from the beginning of file and gives every valid one to visitor
+     * @return position after the last valid record. Reading stops at the first torn or corrupted record
+     */
+    long scan(RecordVisitor visitor) throws IOException {
+        // stream reads from current position of channel, which is not used by positional reads and writes
+        channel.position(HEADER_SIZE);
+        var in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), SCAN_BUFFER_SIZE));
+        long position = HEADER_SIZE;
+        while (position + RECORD_HEADER_SIZE <= length) {
+            int storedChecksum = in.readInt();
+            int keyLength = in.readInt();
+            int valueLength = in.readInt();
+            if (keyLength < 0 || valueLength < TOMBSTONE) {
+                break;
+            }
+            long recordLength = RECORD_HEADER_SIZE + (long) keyLength + Math.max(valueLength, 0);
+            if (position + recordLength > length) {
+                break;
+            }
+            byte[] record = new byte[(int) recordLength];
+            ByteBuffer.wrap(record).putInt(0).putInt(keyLength).putInt(valueLength);
+            in.readFully(record, RECORD_HEADER_SIZE, record.length - RECORD_HEADER_SIZE);
+            if (checksum(record, record.length) != storedChecksum) {
+                break;
+            }
+            String key = new String(record, RECORD_HEADER_SIZE, keyLength, StandardCharsets.UTF_8);
+            visitor.visit(key, valueLength == TOMBSTONE, position, record.length);
+            position += recordLength;
+        }
+        return position;
+    }
+
+    /** Cuts off everything after given position */
+    void truncate(long newLength) throws IOException {
+        channel.truncate(newLength);
+        length = newLength;
+    }
+
+    /** Forces all appended records to storage device */
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    /** Atomically moves file to given path, replacing file there. Segment stays opened */
+    void moveTo(Path destination) throws IOException {
+        Files.move(path, destination, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        path = destination;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /** Checksum of record of given length stored in given array, first int of record (the checksum) is skipped */
+    private static int checksum(byte[] record, int recordLength) {
+        var crc = new CRC32();
+        crc.update(record, Integer.BYTES, recordLength - Integer.BYTES);
+        return (int) crc.getValue();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer bytes, long position) throws IOException {
+        while (bytes.hasRemaining()) {
+            int read = channel.read(bytes, position);
+            if (read == -1) {
+                throw new EOFException("Unexpected end of segment");
+            }
+            position += read;
+        }
+    }
+}
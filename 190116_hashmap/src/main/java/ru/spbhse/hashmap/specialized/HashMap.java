@@ -0,0 +1,194 @@
+// Generated from templates/SpecializedMap.java.template by templates/GenerateSpecializedMaps.java, do not edit
+package ru.spbhse.hashmap.specialized;
+
+import java.util.function.BiConsumer;
+
+/**
+ * HashMap class to store pairs of objects of any types
+ * Keeps keys and values in two parallel arrays and uses open addressing with linear probing,
+ * Fibonacci hashing and backward shift deletion, like OpenAddressingHashMap
+ * Number of cells is always a power of two
+ * NB! Keys mustn't be nulls
+ * Values may be nulls, then get can't tell absent key from null value
+ */
+public class HashMap<K, V> {
+
+    private int size;
+    private Object[] keys;
+    private Object[] values;
+    /** Number of bits in cell index, number of cells is 2^indexBits */
+    private int indexBits;
+    final private int DEFAULT_INDEX_BITS = 2;
+    /** Table is resized when it becomes more than MAX_LOAD_NUMERATOR / MAX_LOAD_DENOMINATOR full */
+    final private int MAX_LOAD_NUMERATOR = 5;
+    final private int MAX_LOAD_DENOMINATOR = 8;
+    /** Multiplier for Fibonacci hashing, 2^32 divided by golden ratio */
+    final private int HASH_MULTIPLIER = 0x9E3779B9;
+
+    /**
+     * Basic constructor. Creates map with 2^DEFAULT_INDEX_BITS cells
+     */
+    public HashMap() {
+        allocate(DEFAULT_INDEX_BITS);
+    }
+
+    /** Returns number of elements in map */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if map contains given key
+     * @return true if map contains this key and false otherwise
+     */
+    public boolean contains(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to HashMap.contains mustn't be null");
+        }
+        return keys[findCellOf(key)] != null;
+    }
+
+    /** Returns value by given key if it exists in map and null otherwise */
+    public V get(K key) {
+        return getOrDefault(key, null);
+    }
+
+    /** Returns value by given key if it exists in map and given default value otherwise */
+    public V getOrDefault(K key, V defaultValue) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to HashMap.get mustn't be null");
+        }
+        int cellId = findCellOf(key);
+        return keys[cellId] == null ? defaultValue : valueAt(cellId);
+    }
+
+    /**
+     * Puts pair (key, value) to map (or changes previous value by this key to new one)
+     * @return previous value by given key if it exists or null otherwise
+     */
+    public V put(K key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to HashMap.put mustn't be null");
+        }
+        int cellId = findCellOf(key);
+        if (keys[cellId] != null) {
+            V previousValue = valueAt(cellId);
+            values[cellId] = value;
+            return previousValue;
+        }
+        keys[cellId] = key;
+        values[cellId] = value;
+        ++size;
+
+        if (size * MAX_LOAD_DENOMINATOR > keys.length * MAX_LOAD_NUMERATOR) {
+            reallocate();
+        }
+        return null;
+    }
+
+    /**
+     * Removes element with given key from map
+     * Elements after removed one are shifted back, so no deleted markers are needed
+     * @return value by given key if it was in map and null otherwise
+     */
+    public V remove(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key given to HashMap.remove mustn't be null");
+        }
+        int cellId = findCellOf(key);
+        if (keys[cellId] == null) {
+            return null;
+        }
+        V removedValue = valueAt(cellId);
+        --size;
+
+        int mask = keys.length - 1;
+        int emptyCellId = cellId;
+        int currentCellId = (cellId + 1) & mask;
+        while (keys[currentCellId] != null) {
+            int homeCellId = homeCellOf(keys[currentCellId]);
+            // element may be moved to empty cell only if the empty cell lies between its home and current cell
+            if (((currentCellId - homeCellId) & mask) >= ((currentCellId - emptyCellId) & mask)) {
+                keys[emptyCellId] = keys[currentCellId];
+                values[emptyCellId] = values[currentCellId];
+                emptyCellId = currentCellId;
+            }
+            currentCellId = (currentCellId + 1) & mask;
+        }
+        keys[emptyCellId] = null;
+        values[emptyCellId] = null;
+
+        return removedValue;
+    }
+
+    /** Removes all elements from map */
+    public void clear() {
+        size = 0;
+        allocate(DEFAULT_INDEX_BITS);
+    }
+
+    /** Calls given action for every pair in map in no particular order. Map mustn't be changed by action */
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int cellId = 0; cellId < keys.length; cellId++) {
+            if (keys[cellId] != null) {
+                action.accept((K) keys[cellId], valueAt(cellId));
+            }
+        }
+    }
+
+    /** Returns number of cells in table */
+    int capacity() {
+        return keys.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int cellId) {
+        return (V) values[cellId];
+    }
+
+    /** Creates empty arrays with 2^newIndexBits cells */
+    private void allocate(int newIndexBits) {
+        indexBits = newIndexBits;
+        keys = new Object[1 << indexBits];
+        values = new Object[1 << indexBits];
+    }
+
+    /** Builds new table with twice as many cells */
+    private void reallocate() {
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(indexBits + 1);
+
+        int mask = keys.length - 1;
+        for (int oldCellId = 0; oldCellId < oldKeys.length; oldCellId++) {
+            if (oldKeys[oldCellId] == null) {
+                continue;
+            }
+            int cellId = homeCellOf(oldKeys[oldCellId]);
+            while (keys[cellId] != null) {
+                cellId = (cellId + 1) & mask;
+            }
+            keys[cellId] = oldKeys[oldCellId];
+            values[cellId] = oldValues[oldCellId];
+        }
+    }
+
+    /**
+     * Finds cell where this key is placed or empty cell where it should be placed
+     * @return number of cell
+     */
+    private int findCellOf(Object key) {
+        int mask = keys.length - 1;
+        int cellId = homeCellOf(key);
+        while (keys[cellId] != null && !keys[cellId].equals(key)) {
+            cellId = (cellId + 1) & mask;
+        }
+        return cellId;
+    }
+
+    /** Finds first cell of probing sequence for given key */
+    private int homeCellOf(Object key) {
+        return (key.hashCode() * HASH_MULTIPLIER) >>> (Integer.SIZE - indexBits);
+    }
+}
@@ -0,0 +1,245 @@
+// Generated from templates/SpecializedMap.java.template by templates/GenerateSpecializedMaps.java, do not edit
+package ru.spbhse.hashmap.specialized;
+
+/**
+ * Map from ints to ints which never boxes keys or values
+ * Keeps keys and values in two parallel arrays and uses open addressing with linear probing,
+ * Fibonacci hashing and backward shift deletion, like OpenAddressingHashMap
+ * Number of cells is always a power of two
+ * Cell is free if its key is FREE_KEY, so pair with key FREE_KEY is kept apart from arrays
+ * Absent values are reported as noEntryValue given to constructor (0 by default)
+ */
+public class IntIntMap {
+
+    private int size;
+    private int[] keys;
+    private int[] values;
+    /** Number of bits in cell index, number of cells is 2^indexBits */
+    private int indexBits;
+    private boolean hasFreeKey;
+    private int freeKeyValue;
+    private final int noEntryValue;
+    final private int FREE_KEY = 0;
+    final private int DEFAULT_INDEX_BITS = 2;
+    /** Table is resized when it becomes more than MAX_LOAD_NUMERATOR / MAX_LOAD_DENOMINATOR full */
+    final private int MAX_LOAD_NUMERATOR = 5;
+    final private int MAX_LOAD_DENOMINATOR = 8;
+    /** Multiplier for Fibonacci hashing, 2^32 divided by golden ratio */
+    final private int HASH_MULTIPLIER = 0x9E3779B9;
+
+    /**
+     * Basic constructor. Creates map with 2^DEFAULT_INDEX_BITS cells, absent values are reported as 0
+     */
+    public IntIntMap() {
+        this(0);
+    }
+
+    /** Creates map which reports absent values as given one */
+    public IntIntMap(int noEntryValue) {
+        this.noEntryValue = noEntryValue;
+        allocate(DEFAULT_INDEX_BITS);
+    }
+
+    /** Returns number of elements in map */
+    public int size() {
+        return size;
+    }
+
+    /** Returns value which is returned instead of values of absent keys */
+    public int noEntryValue() {
+        return noEntryValue;
+    }
+
+    /**
+     * Checks if map contains given key
+     * @return true if map contains this key and false otherwise
+     */
+    public boolean contains(int key) {
+        if (key == FREE_KEY) {
+            return hasFreeKey;
+        }
+        return keys[findCellOf(key)] != FREE_KEY;
+    }
+
+    /** Returns value by given key if it exists in map and noEntryValue otherwise */
+    public int get(int key) {
+        return getOrDefault(key, noEntryValue);
+    }
+
+    /** Returns value by given key if it exists in map and given default value otherwise */
+    public int getOrDefault(int key, int defaultValue) {
+        if (key == FREE_KEY) {
+            return hasFreeKey ? freeKeyValue : defaultValue;
+        }
+        int cellId = findCellOf(key);
+        return keys[cellId] == FREE_KEY ? defaultValue : valueAt(cellId);
+    }
+
+    /**
+     * Puts pair (key, value) to map (or changes previous value by this key to new one)
+     * @return previous value by given key if it exists or noEntryValue otherwise
+     */
+    public int put(int key, int value) {
+        if (key == FREE_KEY) {
+            int previousValue = hasFreeKey ? freeKeyValue : noEntryValue;
+            if (!hasFreeKey) {
+                hasFreeKey = true;
+                ++size;
+            }
+            freeKeyValue = value;
+            return previousValue;
+        }
+        int cellId = findCellOf(key);
+        if (keys[cellId] != FREE_KEY) {
+            int previousValue = valueAt(cellId);
+            values[cellId] = value;
+            return previousValue;
+        }
+        keys[cellId] = key;
+        values[cellId] = value;
+        ++size;
+
+        if (size * MAX_LOAD_DENOMINATOR > keys.length * MAX_LOAD_NUMERATOR) {
+            reallocate();
+        }
+        return noEntryValue;
+    }
+
+    /**
+     * Adds delta to value by given key, absent value is treated as noEntryValue
+     * @return new value by given key
+     */
+    public int addTo(int key, int delta) {
+        if (key == FREE_KEY) {
+            int newValue = get(key) + delta;
+            put(key, newValue);
+            return newValue;
+        }
+        int cellId = findCellOf(key);
+        if (keys[cellId] != FREE_KEY) {
+            values[cellId] += delta;
+            return values[cellId];
+        }
+        put(key, noEntryValue + delta);
+        return noEntryValue + delta;
+    }
+
+    /**
+     * Removes element with given key from map
+     * Elements after removed one are shifted back, so no deleted markers are needed
+     * @return value by given key if it was in map and noEntryValue otherwise
+     */
+    public int remove(int key) {
+        if (key == FREE_KEY) {
+            if (!hasFreeKey) {
+                return noEntryValue;
+            }
+            int removedValue = freeKeyValue;
+            hasFreeKey = false;
+            --size;
+            return removedValue;
+        }
+        int cellId = findCellOf(key);
+        if (keys[cellId] == FREE_KEY) {
+            return noEntryValue;
+        }
+        int removedValue = valueAt(cellId);
+        --size;
+
+        int mask = keys.length - 1;
+        int emptyCellId = cellId;
+        int currentCellId = (cellId + 1) & mask;
+        while (keys[currentCellId] != FREE_KEY) {
+            int homeCellId = homeCellOf(keys[currentCellId]);
+            // element may be moved to empty cell only if the empty cell lies between its home and current cell
+            if (((currentCellId - homeCellId) & mask) >= ((currentCellId - emptyCellId) & mask)) {
+                keys[emptyCellId] = keys[currentCellId];
+                values[emptyCellId] = values[currentCellId];
+                emptyCellId = currentCellId;
+            }
+            currentCellId = (currentCellId + 1) & mask;
+        }
+        keys[emptyCellId] = FREE_KEY;
+
+        return removedValue;
+    }
+
+    /** Removes all elements from map */
+    public void clear() {
+        size = 0;
+        hasFreeKey = false;
+        allocate(DEFAULT_INDEX_BITS);
+    }
+
+    /** Calls given action for every pair in map in no particular order. Map mustn't be changed by action */
+    public void forEach(EntryConsumer action) {
+        if (hasFreeKey) {
+            action.accept(FREE_KEY, freeKeyValue);
+        }
+        for (int cellId = 0; cellId < keys.length; cellId++) {
+            if (keys[cellId] != FREE_KEY) {
+                action.accept(keys[cellId], valueAt(cellId));
+            }
+        }
+    }
+
+    /** Returns number of cells in table */
+    int capacity() {
+        return keys.length;
+    }
+
+    private int valueAt(int cellId) {
+        return values[cellId];
+    }
+
+    /** Creates empty arrays with 2^newIndexBits cells */
+    private void allocate(int newIndexBits) {
+        indexBits = newIndexBits;
+        keys = new int[1 << indexBits];
+        values = new int[1 << indexBits];
+    }
+
+    /** Builds new table with twice as many cells */
+    private void reallocate() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(indexBits + 1);
+
+        int mask = keys.length - 1;
+        for (int oldCellId = 0; oldCellId < oldKeys.length; oldCellId++) {
+            if (oldKeys[oldCellId] == FREE_KEY) {
+                continue;
+            }
+            int cellId = homeCellOf(oldKeys[oldCellId]);
+            while (keys[cellId] != FREE_KEY) {
+                cellId = (cellId + 1) & mask;
+            }
+            keys[cellId] = oldKeys[oldCellId];
+            values[cellId] = oldValues[oldCellId];
+        }
+    }
+
+    /**
+     * Finds cell where this key is placed or empty cell where it should be placed
+     * @return number of cell
+     */
+    private int findCellOf(int key) {
+        int mask = keys.length - 1;
+        int cellId = homeCellOf(key);
+        while (keys[cellId] != FREE_KEY && keys[cellId] != key) {
+            cellId = (cellId + 1) & mask;
+        }
+        return cellId;
+    }
+
+    /** Finds first cell of probing sequence for given key */
+    private int homeCellOf(int key) {
+        return (key * HASH_MULTIPLIER) >>> (Integer.SIZE - indexBits);
+    }
+
+    /** Action on pair of map */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int key, int value);
+    }
+}
@@ -0,0 +1,218 @@
+// Generated from templates/SpecializedMap.java.template by templates/GenerateSpecializedMaps.java, do not edit
+package ru.spbhse.hashmap.specialized;
+
+/**
+ * Map from longs to objects which never boxes keys
+ * Keeps keys and values in two parallel arrays and uses open addressing with linear probing,
+ * Fibonacci hashing and backward shift deletion, like OpenAddressingHashMap
+ * Number of cells is always a power of two
+ * Cell is free if its key is FREE_KEY, so pair with key FREE_KEY is kept apart from arrays
+ * Values may be nulls, then get can't tell absent key from null value
+ */
+public class LongObjectMap<V> {
+
+    private int size;
+    private long[] keys;
+    private Object[] values;
+    /** Number of bits in cell index, number of cells is 2^indexBits */
+    private int indexBits;
+    private boolean hasFreeKey;
+    private V freeKeyValue;
+    final private long FREE_KEY = 0;
+    final private int DEFAULT_INDEX_BITS = 2;
+    /** Table is resized when it becomes more than MAX_LOAD_NUMERATOR / MAX_LOAD_DENOMINATOR full */
+    final private int MAX_LOAD_NUMERATOR = 5;
+    final private int MAX_LOAD_DENOMINATOR = 8;
+    /** Multiplier for Fibonacci hashing, 2^64 divided by golden ratio */
+    final private long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Basic constructor. Creates map with 2^DEFAULT_INDEX_BITS cells
+     */
+    public LongObjectMap() {
+        allocate(DEFAULT_INDEX_BITS);
+    }
+
+    /** Returns number of elements in map */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if map contains given key
+     * @return true if map contains this key and false otherwise
+     */
+    public boolean contains(long key) {
+        if (key == FREE_KEY) {
+            return hasFreeKey;
+        }
+        return keys[findCellOf(key)] != FREE_KEY;
+    }
+
+    /** Returns value by given key if it exists in map and null otherwise */
+    public V get(long key) {
+        return getOrDefault(key, null);
+    }
+
+    /** Returns value by given key if it exists in map and given default value otherwise */
+    public V getOrDefault(long key, V defaultValue) {
+        if (key == FREE_KEY) {
+            return hasFreeKey ? freeKeyValue : defaultValue;
+        }
+        int cellId = findCellOf(key);
+        return keys[cellId] == FREE_KEY ? defaultValue : valueAt(cellId);
+    }
+
+    /**
+     * Puts pair (key, value) to map (or changes previous value by this key to new one)
+     * @return previous value by given key if it exists or null otherwise
+     */
+    public V put(long key, V value) {
+        if (key == FREE_KEY) {
+            V previousValue = hasFreeKey ? freeKeyValue : null;
+            if (!hasFreeKey) {
+                hasFreeKey = true;
+                ++size;
+            }
+            freeKeyValue = value;
+            return previousValue;
+        }
+        int cellId = findCellOf(key);
+        if (keys[cellId] != FREE_KEY) {
+            V previousValue = valueAt(cellId);
+            values[cellId] = value;
+            return previousValue;
+        }
+        keys[cellId] = key;
+        values[cellId] = value;
+        ++size;
+
+        if (size * MAX_LOAD_DENOMINATOR > keys.length * MAX_LOAD_NUMERATOR) {
+            reallocate();
+        }
+        return null;
+    }
+
+    /**
+     * Removes element with given key from map
+     * Elements after removed one are shifted back, so no deleted markers are needed
+     * @return value by given key if it was in map and null otherwise
+     */
+    public V remove(long key) {
+        if (key == FREE_KEY) {
+            if (!hasFreeKey) {
+                return null;
+            }
+            V removedValue = freeKeyValue;
+            hasFreeKey = false;
+            freeKeyValue = null;
+            --size;
+            return removedValue;
+        }
+        int cellId = findCellOf(key);
+        if (keys[cellId] == FREE_KEY) {
+            return null;
+        }
+        V removedValue = valueAt(cellId);
+        --size;
+
+        int mask = keys.length - 1;
+        int emptyCellId = cellId;
+        int currentCellId = (cellId + 1) & mask;
+        while (keys[currentCellId] != FREE_KEY) {
+            int homeCellId = homeCellOf(keys[currentCellId]);
+            // element may be moved to empty cell only if the empty cell lies between its home and current cell
+            if (((currentCellId - homeCellId) & mask) >= ((currentCellId - emptyCellId) & mask)) {
+                keys[emptyCellId] = keys[currentCellId];
+                values[emptyCellId] = values[currentCellId];
+                emptyCellId = currentCellId;
+            }
+            currentCellId = (currentCellId + 1) & mask;
+        }
+        keys[emptyCellId] = FREE_KEY;
+        values[emptyCellId] = null;
+
+        return removedValue;
+    }
+
+    /** Removes all elements from map */
+    public void clear() {
+        size = 0;
+        hasFreeKey = false;
+        freeKeyValue = null;
+        allocate(DEFAULT_INDEX_BITS);
+    }
+
+    /** Calls given action for every pair in map in no particular order. Map mustn't be changed by action */
+    public void forEach(EntryConsumer<? super V> action) {
+        if (hasFreeKey) {
+            action.accept(FREE_KEY, freeKeyValue);
+        }
+        for (int cellId = 0; cellId < keys.length; cellId++) {
+            if (keys[cellId] != FREE_KEY) {
+                action.accept(keys[cellId], valueAt(cellId));
+            }
+        }
+    }
+
+    /** Returns number of cells in table */
+    int capacity() {
+        return keys.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int cellId) {
+        return (V) values[cellId];
+    }
+
+    /** Creates empty arrays with 2^newIndexBits cells */
+    private void allocate(int newIndexBits) {
+        indexBits = newIndexBits;
+        keys = new long[1 << indexBits];
+        values = new Object[1 << indexBits];
+    }
+
+    /** Builds new table with twice as many cells */
+    private void reallocate() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(indexBits + 1);
+
+        int mask = keys.length - 1;
+        for (int oldCellId = 0; oldCellId < oldKeys.length; oldCellId++) {
+            if (oldKeys[oldCellId] == FREE_KEY) {
+                continue;
+            }
+            int cellId = homeCellOf(oldKeys[oldCellId]);
+            while (keys[cellId] != FREE_KEY) {
+                cellId = (cellId + 1) & mask;
+            }
+            keys[cellId] = oldKeys[oldCellId];
+            values[cellId] = oldValues[oldCellId];
+        }
+    }
+
+    /**
+     * Finds cell where this key is placed or empty cell where it should be placed
+     * @return number of cell
+     */
+    private int findCellOf(long key) {
+        int mask = keys.length - 1;
+        int cellId = homeCellOf(key);
+        while (keys[cellId] != FREE_KEY && keys[cellId] != key) {
+            cellId = (cellId + 1) & mask;
+        }
+        return cellId;
+    }
+
+    /** Finds first cell of probing sequence for given key */
+    private int homeCellOf(long key) {
+        return (int) ((key * HASH_MULTIPLIER) >>> (Long.SIZE - indexBits));
+    }
+
+    /** Action on pair of map */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+}
@@ -0,0 +1,28 @@
+package ru.spbhse.hashmap;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BucketStatisticsTest {
+
+    @Test
+    public void totalTest() {
+        var statistics = new BucketStatistics(new int[] {2, 1, 0, 1});
+        assertEquals(4, statistics.bucketsNumber());
+        assertEquals(2, statistics.emptyBuckets());
+        assertEquals(3, statistics.maxLength());
+        assertEquals(1, statistics.bucketsWithLength(3));
+        assertEquals(0, statistics.bucketsWithLength(4));
+        // 1 probe for single element, 1 + 2 + 3 probes for elements of bucket with 3 elements
+        assertEquals(7.0 / 4, statistics.averageSuccessfulProbes());
+        assertEquals("0: 2\n1: 1\n3: 1\n", statistics.toString());
+    }
+
+    @Test
+    public void bucketsWithLengthCheckThrows() {
+        var statistics = new BucketStatistics(new int[] {1});
+        assertThrows(IllegalArgumentException.class, () -> statistics.bucketsWithLength(-1));
+    }
+}
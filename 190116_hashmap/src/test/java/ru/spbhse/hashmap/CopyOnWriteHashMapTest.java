@@ -0,0 +1,107 @@
+package ru.spbhse.hashmap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CopyOnWriteHashMapTest {
+
+    private CopyOnWriteHashMap test;
+
+    @BeforeEach
+    void init() {
+        test = new CopyOnWriteHashMap();
+    }
+
+    @Test
+    public void putGetRemoveTest() {
+        assertNull(test.put("a", "1"));
+        assertEquals("1", test.put("a", "2"));
+        assertEquals("2", test.get("a"));
+        assertTrue(test.contains("a"));
+        assertEquals(1, test.size());
+        assertEquals("2", test.remove("a"));
+        assertNull(test.remove("a"));
+        assertFalse(test.contains("a"));
+    }
+
+    @Test
+    public void nullKeyTest() {
+        assertThrows(IllegalArgumentException.class, () -> test.contains(null));
+        assertThrows(IllegalArgumentException.class, () -> test.get(null));
+        assertThrows(IllegalArgumentException.class, () -> test.put(null, "a"));
+        assertThrows(IllegalArgumentException.class, () -> test.remove(null));
+    }
+
+    @Test
+    public void snapshotIsNotChanged() {
+        test.put("a", "1");
+        PersistentHashMap snapshot = test.snapshot();
+        test.put("a", "2");
+        test.put("b", "3");
+        test.clear();
+        assertEquals("1", snapshot.get("a"));
+        assertEquals(1, snapshot.size());
+        assertEquals(0, test.size());
+    }
+
+    @Test
+    public void readersSeeConsistentSnapshots() throws InterruptedException {
+        // writer keeps values of "x" and "y" equal, so no snapshot may see them different
+        var stop = new AtomicBoolean();
+        var failure = new AtomicReference<String>();
+        var readers = new ArrayList<Thread>();
+        test.put("x", "0");
+        test.put("y", "0");
+        for (int i = 0; i < 4; i++) {
+            var reader = new Thread(() -> {
+                while (!stop.get()) {
+                    PersistentHashMap snapshot = test.snapshot();
+                    if (!snapshot.get("x").equals(snapshot.get("y"))) {
+                        failure.set(snapshot.get("x") + " " + snapshot.get("y"));
+                    }
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+        for (Integer i = 1; i <= 20000; i++) {
+            String value = i.toString();
+            test.update(version -> version.put("x", value).put("y", value));
+        }
+        stop.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertNull(failure.get());
+        assertEquals("20000", test.get("y"));
+    }
+
+    @Test
+    public void concurrentWritersDoNotLoseUpdates() throws InterruptedException {
+        var writers = new ArrayList<Thread>();
+        for (int writerId = 0; writerId < 4; writerId++) {
+            int id = writerId;
+            var writer = new Thread(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    test.put(id + "_" + i, "v");
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        assertEquals(20000, test.size());
+    }
+}
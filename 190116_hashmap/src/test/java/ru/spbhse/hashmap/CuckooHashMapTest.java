@@ -0,0 +1,150 @@
+package ru.spbhse.hashmap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CuckooHashMapTest {
+
+    private CuckooHashMap test;
+
+    @BeforeEach
+    void init() {
+        test = new CuckooHashMap(239);
+    }
+
+    @Test
+    public void sizeTotalTest() {
+        assertEquals(0, test.size());
+        test.put("aba", null);
+        test.put("caba", null);
+        test.put("aba", "x");
+        assertEquals(2, test.size());
+        test.clear();
+        assertEquals(0, test.size());
+        assertFalse(test.contains("aba"));
+    }
+
+    @Test
+    public void putGetRemove() {
+        assertNull(test.put("aa", "bb"));
+        assertEquals("bb", test.put("aa", "cc"));
+        assertEquals("cc", test.get("aa"));
+        assertTrue(test.contains("aa"));
+        assertNull(test.get("ab"));
+        assertEquals("cc", test.remove("aa"));
+        assertNull(test.remove("aa"));
+        assertFalse(test.contains("aa"));
+    }
+
+    @Test
+    public void nullKeys() {
+        assertThrows(IllegalArgumentException.class, () -> test.put(null, "a"));
+        assertThrows(IllegalArgumentException.class, () -> test.get(null));
+        assertThrows(IllegalArgumentException.class, () -> test.contains(null));
+        assertThrows(IllegalArgumentException.class, () -> test.remove(null));
+    }
+
+    @Test
+    public void growsKeepingHighLoad() {
+        for (int i = 0; i < 100000; i++) {
+            test.put("key" + i, "value" + i);
+        }
+        assertEquals(100000, test.size());
+        assertTrue(test.size() * 2 > test.capacity());
+        for (int i = 0; i < 100000; i++) {
+            assertEquals("value" + i, test.get("key" + i));
+        }
+    }
+
+    @Test
+    public void equalStringHashCodesDontMatter() {
+        // all 2^12 strings of 12 blocks "Aa" or "BB" have equal String.hashCode
+        for (int mask = 0; mask < 1 << 12; mask++) {
+            var key = new StringBuilder();
+            for (int bit = 0; bit < 12; bit++) {
+                key.append((mask >> bit & 1) == 0 ? "Aa" : "BB");
+            }
+            test.put(key.toString(), Integer.toString(mask));
+        }
+        assertEquals(1 << 12, test.size());
+        assertEquals("0", test.get("AaAaAaAaAaAaAaAaAaAaAaAa"));
+        assertEquals(Integer.toString((1 << 12) - 1), test.get("BBBBBBBBBBBBBBBBBBBBBBBB"));
+    }
+
+    @Test
+    public void stashedPairsAreFoundAndRemoved() {
+        test = new CuckooHashMap(239, 0);
+        for (int i = 0; i < 200000 && test.stashSize() == 0; i++) {
+            test.put("key" + i, "value" + i);
+        }
+        assertTrue(test.stashSize() > 0);
+        int size = test.size();
+        for (int i = 0; i < size; i++) {
+            assertEquals("value" + i, test.remove("key" + i));
+        }
+        assertEquals(0, test.size());
+        assertEquals(0, test.stashSize());
+    }
+
+    @Test
+    public void keysCollidingUnderAnyHashFunctionsGoToOverflow() {
+        // every key has the same two buckets whatever seeds are, only 2 buckets and stash fit them
+        test = new CuckooHashMap(239, 16, seed -> key -> 0);
+        for (int i = 0; i < 1000; i++) {
+            assertNull(test.put("key" + i, "value" + i));
+        }
+        assertEquals(1000, test.size());
+        assertTrue(test.overflowSize() > 900);
+        assertTrue(test.capacity() <= 16 * test.size(), test.capacity() + " cells");
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("value" + i, test.get("key" + i));
+        }
+        assertEquals("value5", test.put("key5", "new"));
+        assertEquals("new", test.get("key5"));
+        assertFalse(test.contains("absent"));
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(test.contains("key" + i));
+            test.remove("key" + i);
+            assertFalse(test.contains("key" + i));
+        }
+        assertEquals(0, test.size());
+        assertEquals(0, test.overflowSize());
+    }
+
+    @Test
+    public void randomOperationsMatchJavaUtilHashMap() {
+        randomOperations(new CuckooHashMap(239));
+    }
+
+    @Test
+    public void randomOperationsWithFrequentRebuilds() {
+        randomOperations(new CuckooHashMap(239, 1));
+    }
+
+    private void randomOperations(CuckooHashMap test) {
+        var random = new Random(239);
+        var expected = new java.util.HashMap<String, String>();
+        for (int i = 0; i < 200000; i++) {
+            String key = "key" + random.nextInt(5000);
+            int operation = random.nextInt(10);
+            if (operation < 5) {
+                String value = "value" + i;
+                assertEquals(expected.put(key, value), test.put(key, value));
+            } else if (operation < 8) {
+                assertEquals(expected.get(key), test.get(key));
+            } else {
+                assertEquals(expected.remove(key), test.remove(key));
+            }
+            assertEquals(expected.size(), test.size());
+        }
+        assertTrue(test.rebuilds() > 0);
+    }
+}
@@ -0,0 +1,112 @@
+package ru.spbhse.hashmap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DictionaryEncodedHashMapTest {
+
+    private DictionaryEncodedHashMap test;
+
+    @BeforeEach
+    void init() {
+        test = new DictionaryEncodedHashMap();
+    }
+
+    @Test
+    public void putGetRemove() {
+        assertNull(test.put("a", "active"));
+        assertNull(test.put("b", "active"));
+        assertNull(test.put("c", null));
+        assertEquals(3, test.size());
+        assertEquals("active", test.get("a"));
+        assertTrue(test.contains("c"));
+        assertNull(test.get("c"));
+        assertNull(test.get("d"));
+        assertFalse(test.contains("d"));
+
+        assertEquals("active", test.put("a", "blocked"));
+        assertEquals("blocked", test.remove("a"));
+        assertNull(test.remove("a"));
+        assertNull(test.remove("c"));
+        assertEquals(1, test.size());
+    }
+
+    @Test
+    public void nullKeys() {
+        assertThrows(IllegalArgumentException.class, () -> test.put(null, "a"));
+        assertThrows(IllegalArgumentException.class, () -> test.get(null));
+        assertThrows(IllegalArgumentException.class, () -> test.contains(null));
+        assertThrows(IllegalArgumentException.class, () -> test.remove(null));
+        assertThrows(IllegalArgumentException.class, () -> new DictionaryEncodedHashMap(null));
+    }
+
+    @Test
+    public void equalValuesAreStoredOnce() {
+        for (int i = 0; i < 1000; i++) {
+            test.put("key" + i, "region" + i % 10);
+        }
+        assertEquals(10, test.dictionary().size());
+        assertEquals(100, test.dictionary().referencesTo("region3"));
+        assertEquals(0, test.dictionary().referencesTo("region10"));
+    }
+
+    @Test
+    public void unusedValuesAreReclaimed() {
+        test.put("a", "x");
+        test.put("b", "x");
+        test.put("a", "y");
+        assertEquals(1, test.dictionary().referencesTo("x"));
+        test.put("b", "y");
+        assertEquals(0, test.dictionary().referencesTo("x"));
+        assertEquals(1, test.dictionary().size());
+
+        test.put("a", "y");
+        assertEquals(2, test.dictionary().referencesTo("y"));
+        test.clear();
+        assertEquals(0, test.size());
+        assertEquals(0, test.dictionary().size());
+    }
+
+    @Test
+    public void sharedDictionary() {
+        var dictionary = new ValueDictionary();
+        var first = new DictionaryEncodedHashMap(dictionary);
+        var second = new DictionaryEncodedHashMap(dictionary);
+        first.put("a", "ok");
+        second.put("b", "ok");
+        assertEquals(1, dictionary.size());
+        assertEquals(2, dictionary.referencesTo("ok"));
+        first.clear();
+        assertEquals("ok", second.get("b"));
+        assertEquals(1, dictionary.referencesTo("ok"));
+    }
+
+    @Test
+    public void randomOperationsMatchJavaUtilHashMap() {
+        var random = new Random(239);
+        var expected = new java.util.HashMap<String, String>();
+        for (int i = 0; i < 100000; i++) {
+            String key = "key" + random.nextInt(1000);
+            int operation = random.nextInt(10);
+            if (operation < 5) {
+                String value = random.nextInt(20) == 0 ? null : "value" + random.nextInt(30);
+                assertEquals(expected.put(key, value), test.put(key, value));
+            } else if (operation < 8) {
+                assertEquals(expected.get(key), test.get(key));
+            } else {
+                assertEquals(expected.remove(key), test.remove(key));
+            }
+            assertEquals(expected.size(), test.size());
+        }
+        long distinctValues = expected.values().stream().filter(value -> value != null).distinct().count();
+        assertEquals(distinctValues, test.dictionary().size());
+    }
+}
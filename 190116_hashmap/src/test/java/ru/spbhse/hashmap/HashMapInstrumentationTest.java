@@ -0,0 +1,184 @@
+package ru.spbhse.hashmap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HashMapInstrumentationTest {
+
+    private HashMap map;
+    private HashMapInstrumentation test;
+
+    @BeforeEach
+    void init() {
+        map = new HashMap();
+        test = map.enableInstrumentation();
+    }
+
+    @Test
+    public void enableReturnsSameInstrumentation() {
+        assertSame(test, map.enableInstrumentation());
+    }
+
+    @Test
+    public void countsOperations() {
+        map.put("a", "1");
+        map.put("a", "2");
+        map.get("a");
+        map.get("b");
+        map.contains("a");
+        map.remove("a");
+        InstrumentationSnapshot snapshot = test.snapshot();
+        assertEquals(2, snapshot.puts());
+        assertEquals(3, snapshot.gets());
+        assertEquals(1, snapshot.removes());
+        assertEquals(0, snapshot.resizes());
+    }
+
+    @Test
+    public void chainAndProbeLengthsOfCollidingKeys() {
+        // "Aa" and "BB" have equal hash codes, so they are in one bucket
+        map.put("Aa", "1");
+        map.put("BB", "2");
+        map.get("Aa");
+        map.get("BB");
+        InstrumentationSnapshot snapshot = test.snapshot();
+        assertEquals(1, snapshot.operationsWithChainLength(0));
+        assertEquals(1, snapshot.operationsWithChainLength(1));
+        assertEquals(2, snapshot.operationsWithChainLength(2));
+        // new pairs are put to the head of list, so "BB" is found first
+        assertEquals(1, snapshot.operationsWithProbeLength(0));
+        assertEquals(2, snapshot.operationsWithProbeLength(1));
+        assertEquals(1, snapshot.operationsWithProbeLength(2));
+        assertEquals(1.25, snapshot.averageChainLength());
+        assertThrows(IllegalArgumentException.class, () -> snapshot.operationsWithChainLength(-1));
+    }
+
+    @Test
+    public void longLengthsAreCountedTogether() {
+        var collidingMap = new HashMap(s -> 0);
+        HashMapInstrumentation colliding = collidingMap.enableInstrumentation();
+        for (int i = 0; i < 100; i++) {
+            collidingMap.put("key" + i, "value");
+        }
+        collidingMap.get("key0");
+        long[] histogram = colliding.snapshot().chainLengthHistogram();
+        assertEquals(InstrumentationSnapshot.MAX_TRACKED_LENGTH + 1, histogram.length);
+        assertEquals(100 - InstrumentationSnapshot.MAX_TRACKED_LENGTH + 1,
+                histogram[InstrumentationSnapshot.MAX_TRACKED_LENGTH]);
+    }
+
+    @Test
+    public void resizesAndLoadFactor() {
+        for (int i = 0; i < 1000; i++) {
+            map.put("key" + i, "value");
+        }
+        InstrumentationSnapshot snapshot = test.snapshot();
+        assertTrue(snapshot.resizes() > 0);
+        assertTrue(snapshot.totalResizeNanos() >= snapshot.maxResizeNanos());
+        assertEquals(1000, snapshot.size());
+        assertEquals(1000.0 / map.capacity(), snapshot.loadFactor());
+        assertTrue(snapshot.loadFactor() <= 2);
+    }
+
+    @Test
+    public void disabledInstrumentationIsNotUpdated() {
+        map.put("a", "1");
+        map.disableInstrumentation();
+        map.put("b", "2");
+        assertEquals(1, test.snapshot().puts());
+        assertEquals(2, test.snapshot().size());
+    }
+
+    @Test
+    public void snapshotIsNotChangedByLaterOperations() {
+        map.put("a", "1");
+        InstrumentationSnapshot snapshot = test.snapshot();
+        map.put("b", "2");
+        test.reset();
+        assertEquals(1, snapshot.puts());
+        assertEquals(1, snapshot.operationsWithChainLength(0));
+        assertEquals(0, test.snapshot().puts());
+        assertArrayEquals(new long[InstrumentationSnapshot.MAX_TRACKED_LENGTH + 1], test.getProbeLengthHistogram());
+    }
+
+    @Test
+    public void exportedThroughJmx() throws JMException {
+        map.put("a", "1");
+        map.get("a");
+        ObjectName name = test.registerMBean("instrumentationTest");
+        try {
+            var server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(1L, server.getAttribute(name, "Puts"));
+            assertEquals(1L, server.getAttribute(name, "Gets"));
+            assertEquals(1, server.getAttribute(name, "Size"));
+            server.invoke(name, "reset", new Object[0], new String[0]);
+            assertEquals(0L, server.getAttribute(name, "Puts"));
+        } finally {
+            HashMapInstrumentation.unregisterMBean(name);
+        }
+    }
+
+    @Test
+    public void disableUnregistersMBean() throws JMException {
+        ObjectName name = test.registerMBean("disabledInstrumentationTest");
+        var server = ManagementFactory.getPlatformMBeanServer();
+        assertTrue(server.isRegistered(name));
+        map.disableInstrumentation();
+        assertFalse(server.isRegistered(name));
+
+        var otherMap = new HashMap();
+        ObjectName otherName = otherMap.enableInstrumentation().registerMBean("unregisteredInstrumentationTest");
+        HashMapInstrumentation.unregisterMBean(otherName);
+        otherMap.disableInstrumentation();
+        assertFalse(server.isRegistered(otherName));
+    }
+
+    @Test
+    public void probesOfTreeBucketAreCounted() {
+        var collidingMap = new HashMap(s -> 0);
+        HashMapInstrumentation colliding = collidingMap.enableInstrumentation();
+        for (int i = 0; i < 100; i++) {
+            collidingMap.put("key" + i, "value");
+        }
+        colliding.reset();
+        collidingMap.get("key50");
+        InstrumentationSnapshot snapshot = colliding.snapshot();
+        assertEquals(1, snapshot.operationsWithChainLength(InstrumentationSnapshot.MAX_TRACKED_LENGTH));
+        // tree of 100 keys compares at most 2 * log2(100) of them, list would compare up to 100
+        long probes = 0;
+        for (int length = 1; length <= 14; length++) {
+            probes += snapshot.operationsWithProbeLength(length);
+        }
+        assertEquals(1, probes);
+    }
+
+    @Test
+    public void probesOfTreeBucketBuiltBeforeEnablingAreCounted() {
+        var collidingMap = new HashMap(s -> 0);
+        for (int i = 0; i < 100; i++) {
+            collidingMap.put("key" + i, "value");
+        }
+        collidingMap.enableInstrumentation();
+        collidingMap.disableInstrumentation();
+        HashMapInstrumentation colliding = collidingMap.enableInstrumentation();
+        collidingMap.get("key50");
+        InstrumentationSnapshot snapshot = colliding.snapshot();
+        long probes = 0;
+        for (int length = 1; length <= 14; length++) {
+            probes += snapshot.operationsWithProbeLength(length);
+        }
+        assertEquals(1, probes);
+        collidingMap.disableInstrumentation();
+    }
+}
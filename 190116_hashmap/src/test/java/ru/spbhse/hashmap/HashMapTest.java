@@ -3,6 +3,11 @@ package ru.spbhse.hashmap;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ConcurrentModificationException;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -170,4 +175,355 @@ public class HashMapTest {
         }
         assertEquals(100, test.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void pendingMigrationIsZeroWithoutIncrementalResize() {
+        for (Integer i = 0; i < 1000; i++) {
+            test.put(i.toString(), null);
+            assertEquals(0, test.pendingMigration());
+        }
+    }
+
+    @Test
+    public void incrementalResizeMovesBucketsStepByStep() {
+        test = new HashMap(true);
+        boolean wasMigrating = false;
+        for (Integer i = 0; i < 1000; i++) {
+            test.put(i.toString(), i.toString());
+            wasMigrating |= test.pendingMigration() > 0;
+        }
+        assertTrue(wasMigrating);
+        assertEquals(1000, test.size());
+
+        while (test.pendingMigration() > 0) {
+            int pending = test.pendingMigration();
+            test.contains("a");
+            assertTrue(test.pendingMigration() < pending);
+        }
+        for (Integer i = 0; i < 1000; i++) {
+            assertEquals(i.toString(), test.get(i.toString()));
+        }
+    }
+
+    @Test
+    public void incrementalResizeRandomOperationsLikeJavaHashMap() {
+        test = new HashMap(true);
+        var random = new Random(239);
+        var expected = new java.util.HashMap<String, String>();
+        for (int operation = 0; operation < 100000; operation++) {
+            String key = Integer.toString(random.nextInt(operation / 10 + 10));
+            String value = Integer.toString(random.nextInt());
+            switch (random.nextInt(4)) {
+                case 0:
+                    assertEquals(expected.remove(key), test.remove(key));
+                    break;
+                case 1:
+                    assertEquals(expected.get(key), test.get(key));
+                    assertEquals(expected.containsKey(key), test.contains(key));
+                    break;
+                default:
+                    assertEquals(expected.put(key, value), test.put(key, value));
+            }
+            assertEquals(expected.size(), test.size());
+        }
+    }
+
+    @Test
+    public void clearStopsIncrementalResize() {
+        test = new HashMap(true);
+        for (Integer i = 0; i < 100; i++) {
+            test.put(i.toString(), null);
+        }
+        test.clear();
+        assertEquals(0, test.pendingMigration());
+        assertFalse(test.contains("1"));
+    }
+
+    @Test
+    public void manyKeysWithSameHashCode() {
+        // "Aa" and "BB" have same hash code, so do all strings made of them
+        String[] keys = new String[1 << 10];
+        for (int i = 0; i < keys.length; i++) {
+            var key = new StringBuilder();
+            for (int bit = 0; bit < 10; bit++) {
+                key.append((i >> bit & 1) == 0 ? "Aa" : "BB");
+            }
+            keys[i] = key.toString();
+            assertNull(test.put(keys[i], Integer.toString(i)));
+        }
+        assertEquals(keys.length, test.size());
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(Integer.toString(i), test.get(keys[i]));
+        }
+
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(Integer.toString(i), test.remove(keys[i]));
+            assertFalse(test.contains(keys[i]));
+            if (i + 1 < keys.length) {
+                assertEquals(Integer.toString(i + 1), test.get(keys[i + 1]));
+            }
+        }
+        assertEquals(0, test.size());
+    }
+
+    @Test
+    public void constructorCheckThrows() {
+        assertThrows(IllegalArgumentException.class, () -> new HashMap(null));
+    }
+
+    @Test
+    public void customHashStrategy() {
+        test = new HashMap(key -> 0);
+        for (Integer i = 0; i < 100; i++) {
+            test.put(i.toString(), i.toString());
+        }
+        for (Integer i = 0; i < 100; i++) {
+            assertEquals(i.toString(), test.get(i.toString()));
+        }
+        assertEquals(100, test.bucketStatistics().maxLength());
+    }
+
+    @Test
+    public void seededHashStrategyRandomOperationsLikeJavaHashMap() {
+        test = new HashMap(true, new SeededHashStrategy());
+        var random = new Random(239);
+        var expected = new java.util.HashMap<String, String>();
+        for (int operation = 0; operation < 100000; operation++) {
+            String key = Integer.toString(random.nextInt(1000));
+            String value = Integer.toString(random.nextInt());
+            if (random.nextBoolean()) {
+                assertEquals(expected.put(key, value), test.put(key, value));
+            } else {
+                assertEquals(expected.remove(key), test.remove(key));
+            }
+            assertEquals(expected.size(), test.size());
+        }
+    }
+
+    @Test
+    public void bucketStatisticsCountsAllElements() {
+        test = new HashMap(true);
+        for (Integer i = 0; i < 1000; i++) {
+            test.put(i.toString(), null);
+
+            BucketStatistics statistics = test.bucketStatistics();
+            int elements = 0;
+            int buckets = 0;
+            for (int length = 0; length <= statistics.maxLength(); length++) {
+                elements += length * statistics.bucketsWithLength(length);
+                buckets += statistics.bucketsWithLength(length);
+            }
+            assertEquals(test.size(), elements);
+            assertEquals(statistics.bucketsNumber(), buckets);
+        }
+    }
+
+    @Test
+    public void bucketStatisticsOfEmptyMap() {
+        BucketStatistics statistics = test.bucketStatistics();
+        assertEquals(0, statistics.maxLength());
+        assertEquals(statistics.bucketsNumber(), statistics.emptyBuckets());
+        assertEquals(0, statistics.averageSuccessfulProbes());
+    }
+
+    @Test
+    public void capacityHintPreventsResize() {
+        test = new HashMap(10000, 0.75);
+        int capacity = test.capacity();
+        assertTrue(capacity * 0.75 >= 10000);
+        for (Integer i = 0; i < 10000; i++) {
+            test.put(i.toString(), null);
+        }
+        assertEquals(capacity, test.capacity());
+    }
+
+    @Test
+    public void capacityHintCheckThrows() {
+        assertThrows(IllegalArgumentException.class, () -> new HashMap(-1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new HashMap(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new HashMap(10, Double.NaN));
+    }
+
+    @Test
+    public void putAllResizesOnce() {
+        String[] keys = new String[10000];
+        String[] values = new String[10000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = Integer.toString(i);
+            values[i] = Integer.toString(-i);
+        }
+        test.put("0", "old");
+        HashMapInstrumentation instrumentation = test.enableInstrumentation();
+        test.putAll(keys, values);
+        assertEquals(1, instrumentation.getResizes());
+        assertEquals(keys.length, test.size());
+        assertEquals(0, test.pendingMigration());
+
+        String[] found = test.getAll(keys);
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(values[i], found[i]);
+        }
+        test.putAll(keys, values);
+        assertTrue(instrumentation.getResizes() <= 2);
+        assertEquals(keys.length, test.size());
+        test.disableInstrumentation();
+    }
+
+    @Test
+    public void putAllWithRepeatedKeys() {
+        String[] keys = new String[1000];
+        String[] values = new String[1000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = Integer.toString(i % 10);
+            values[i] = Integer.toString(i);
+        }
+        test.putAll(keys, values);
+        assertEquals(10, test.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Integer.toString(990 + i), test.get(Integer.toString(i)));
+        }
+    }
+
+    @Test
+    public void putAllCheckThrows() {
+        assertThrows(IllegalArgumentException.class, () -> test.putAll(new String[] {"a"}, new String[0]));
+        assertThrows(IllegalArgumentException.class, () -> test.putAll(new String[] {"a", null}, new String[2]));
+        assertEquals(0, test.size());
+        assertThrows(IllegalArgumentException.class, () -> test.getAll(new String[] {null}));
+    }
+
+    @Test
+    public void getAllOfAbsentKeys() {
+        test.put("a", "b");
+        String[] found = test.getAll(new String[] {"a", "c"});
+        assertEquals("b", found[0]);
+        assertNull(found[1]);
+    }
+
+    @Test
+    public void tableShrinksAfterMassRemoves() {
+        for (Integer i = 0; i < 10000; i++) {
+            test.put(i.toString(), null);
+        }
+        int grownCapacity = test.capacity();
+        for (Integer i = 0; i < 9990; i++) {
+            test.remove(i.toString());
+        }
+        assertTrue(test.capacity() * 100 < grownCapacity);
+        for (Integer i = 9990; i < 10000; i++) {
+            assertTrue(test.contains(i.toString()));
+        }
+    }
+
+    @Test
+    public void tableDoesNotShrinkBelowCapacityHint() {
+        test = new HashMap(1000, 1);
+        int capacity = test.capacity();
+        for (Integer i = 0; i < 1000; i++) {
+            test.put(i.toString(), null);
+        }
+        for (Integer i = 0; i < 1000; i++) {
+            test.remove(i.toString());
+        }
+        assertEquals(capacity, test.capacity());
+    }
+
+    @Test
+    public void incrementalShrinkRandomOperationsLikeJavaHashMap() {
+        test = new HashMap(0, 1, true, new SeededHashStrategy());
+        var random = new Random(239);
+        var expected = new java.util.HashMap<String, String>();
+        for (int round = 0; round < 5; round++) {
+            for (int operation = 0; operation < 20000; operation++) {
+                String key = Integer.toString(random.nextInt(20000));
+                assertEquals(expected.put(key, key), test.put(key, key));
+            }
+            for (int operation = 0; operation < 40000; operation++) {
+                String key = Integer.toString(random.nextInt(20000));
+                assertEquals(expected.remove(key), test.remove(key));
+                assertEquals(expected.size(), test.size());
+            }
+        }
+    }
+
+    @Test
+    public void iterationVisitsEveryPairOnce() {
+        test = new HashMap(true);
+        var expected = new java.util.HashMap<String, String>();
+        for (Integer i = 0; i < 5000; i++) {
+            test.put(i.toString(), "value" + i);
+            expected.put(i.toString(), "value" + i);
+        }
+        var visited = new java.util.HashMap<String, String>();
+        for (StringPair pair : test) {
+            assertNull(visited.put(pair.getKey(), pair.getValue()));
+        }
+        assertEquals(expected, visited);
+        assertEquals(0, test.pendingMigration());
+    }
+
+    @Test
+    public void iterationOverTreeBuckets() {
+        test = new HashMap(key -> 0);
+        for (Integer i = 0; i < 100; i++) {
+            test.put(i.toString(), i.toString());
+        }
+        assertEquals(100, test.stream().map(StringPair::getKey).distinct().count());
+    }
+
+    @Test
+    public void parallelStreamLikeSequential() {
+        for (Integer i = 0; i < 100000; i++) {
+            test.put(i.toString(), i.toString());
+        }
+        long expectedSum = 100000L * 99999 / 2;
+        assertEquals(expectedSum, test.parallelStream().mapToLong(pair -> Long.parseLong(pair.getValue())).sum());
+        assertEquals(expectedSum, test.stream().mapToLong(pair -> Long.parseLong(pair.getKey())).sum());
+        assertEquals(test.stream().map(StringPair::getKey).collect(Collectors.toSet()),
+                test.parallelStream().map(StringPair::getKey).collect(Collectors.toSet()));
+    }
+
+    @Test
+    public void spliteratorSplitsCoverAllPairs() {
+        for (Integer i = 0; i < 1000; i++) {
+            test.put(i.toString(), null);
+        }
+        Spliterator<StringPair> suffix = test.spliterator();
+        Spliterator<StringPair> prefix = suffix.trySplit();
+        assertTrue(prefix.estimateSize() > 0 && suffix.estimateSize() > 0);
+        var keys = new java.util.HashSet<String>();
+        prefix.forEachRemaining(pair -> assertTrue(keys.add(pair.getKey())));
+        suffix.forEachRemaining(pair -> assertTrue(keys.add(pair.getKey())));
+        assertEquals(1000, keys.size());
+    }
+
+    @Test
+    public void emptyMapIteration() {
+        assertFalse(test.iterator().hasNext());
+        assertEquals(0, test.parallelStream().count());
+    }
+
+    @Test
+    public void addingKeyDuringIterationThrows() {
+        for (Integer i = 0; i < 100; i++) {
+            test.put(i.toString(), null);
+        }
+        assertThrows(ConcurrentModificationException.class, () -> {
+            for (StringPair pair : test) {
+                test.put(pair.getKey() + "new", null);
+            }
+        });
+    }
+
+    @Test
+    public void changingValuesDuringIterationAllowed() {
+        for (Integer i = 0; i < 100; i++) {
+            test.put(i.toString(), null);
+        }
+        for (StringPair pair : test) {
+            test.put(pair.getKey(), "changed");
+        }
+        assertEquals("changed", test.get("42"));
+        assertEquals(100, test.size());
+    }
+}
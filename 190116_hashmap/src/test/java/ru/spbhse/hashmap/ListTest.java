@@ -20,6 +20,25 @@ public class ListTest {
         assertNull(test.get("a"));
     }
 
+    @Test
+    public void countingLookupsCountComparedKeys() {
+        var counter = new ProbeCounter();
+        assertNull(test.get("a", counter));
+        assertEquals(0, counter.take());
+        test.put(new StringPair("a", "1"));
+        test.put(new StringPair("b", "2"));
+        test.put(new StringPair("c", "3"));
+        assertEquals("3", test.get("c", counter).getValue());
+        assertEquals(1, counter.take());
+        assertEquals("1", test.get("a", counter).getValue());
+        assertEquals(3, counter.take());
+        assertNull(test.get("d", counter));
+        assertEquals(3, counter.take());
+        assertEquals("2", test.remove("b", counter).getValue());
+        assertEquals(2, counter.take());
+        assertEquals(2, test.size());
+    }
+
     @Test
     public void getExist() {
         var a = new StringPair("a", "b");
@@ -0,0 +1,162 @@
+package ru.spbhse.hashmap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MappedHashMapTest {
+
+    private Path directory;
+    private Path snapshot;
+    private MappedHashMap test;
+
+    @BeforeEach
+    void init() throws IOException {
+        directory = Files.createTempDirectory("snapshots");
+        snapshot = directory.resolve("map.snapshot");
+
+        var source = new HashMap();
+        source.put("aa", "bb");
+        source.put("FB", "cc");
+        source.put("Ea", "dd");
+        source.put("null", null);
+        source.put("\u043a\u043b\u044e\u0447", "\u0437\u043d\u0430\u0447\u0435\u043d\u0438\u0435\ud83d\ude00");
+        source.writeSnapshot(snapshot);
+        test = MappedHashMap.open(snapshot);
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        test.close();
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void getFromSnapshot() {
+        assertEquals(5, test.size());
+        assertEquals("bb", test.get("aa"));
+        assertEquals("cc", test.get("FB"));
+        assertEquals("dd", test.get("Ea"));
+        assertEquals("\u0437\u043d\u0430\u0447\u0435\u043d\u0438\u0435\ud83d\ude00",
+                test.get("\u043a\u043b\u044e\u0447"));
+        assertNull(test.get("ab"));
+    }
+
+    @Test
+    public void containsFromSnapshot() {
+        assertTrue(test.contains("aa"));
+        assertTrue(test.contains("null"));
+        assertFalse(test.contains("nul"));
+        assertThrows(IllegalArgumentException.class, () -> test.contains(null));
+    }
+
+    @Test
+    public void putGoesToOverlay() {
+        assertEquals("bb", test.put("aa", "new"));
+        assertNull(test.put("new", "value"));
+        assertEquals(6, test.size());
+        assertEquals("new", test.get("aa"));
+        assertEquals("value", test.get("new"));
+    }
+
+    @Test
+    public void removeHidesSnapshotElements() {
+        assertEquals("bb", test.remove("aa"));
+        assertNull(test.remove("aa"));
+        assertFalse(test.contains("aa"));
+        assertEquals(4, test.size());
+
+        assertNull(test.put("aa", "cc"));
+        assertEquals("cc", test.get("aa"));
+        assertEquals(5, test.size());
+    }
+
+    @Test
+    public void clearForgetsSnapshot() {
+        test.clear();
+        assertEquals(0, test.size());
+        assertFalse(test.contains("aa"));
+        test.put("aa", "bb");
+        assertEquals("bb", test.get("aa"));
+    }
+
+    @Test
+    public void clearTwice() {
+        test.clear();
+        test.clear();
+        assertEquals(0, test.size());
+        assertFalse(test.contains("aa"));
+        test.put("aa", "bb");
+        assertEquals("bb", test.get("aa"));
+        assertEquals(1, test.size());
+    }
+
+    @Test
+    public void rewriteSnapshotOfOpenedFile() throws IOException {
+        test.remove("FB");
+        test.put("aa", "changed");
+        test.put("added", "value");
+        test.writeSnapshot(snapshot);
+
+        // opened map still reads old image
+        assertEquals("changed", test.get("aa"));
+
+        try (var reopened = MappedHashMap.open(snapshot)) {
+            assertEquals(5, reopened.size());
+            assertEquals("changed", reopened.get("aa"));
+            assertEquals("value", reopened.get("added"));
+            assertFalse(reopened.contains("FB"));
+            assertTrue(reopened.contains("null"));
+            assertNull(reopened.get("null"));
+        }
+    }
+
+    @Test
+    public void openNotSnapshotThrows() throws IOException {
+        Path notSnapshot = directory.resolve("not.snapshot");
+        Files.write(notSnapshot, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+        assertThrows(IOException.class, () -> MappedHashMap.open(notSnapshot));
+    }
+
+    @Test
+    public void bigSnapshotLikeJavaHashMap() throws IOException {
+        var random = new Random(239);
+        var source = new HashMap(true);
+        var expected = new java.util.HashMap<String, String>();
+        for (int i = 0; i < 100000; i++) {
+            String key = Integer.toString(random.nextInt());
+            String value = Integer.toString(i);
+            source.put(key, value);
+            expected.put(key, value);
+        }
+        Path bigSnapshot = directory.resolve("big.snapshot");
+        source.writeSnapshot(bigSnapshot);
+
+        try (var mapped = MappedHashMap.open(bigSnapshot)) {
+            assertEquals(expected.size(), mapped.size());
+            for (var entry : expected.entrySet()) {
+                assertEquals(entry.getValue(), mapped.get(entry.getKey()));
+            }
+            for (int i = 0; i < 1000; i++) {
+                String key = Integer.toString(random.nextInt());
+                assertEquals(expected.containsKey(key), mapped.contains(key));
+            }
+        }
+    }
+}
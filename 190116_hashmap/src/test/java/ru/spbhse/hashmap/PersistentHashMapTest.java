@@ -0,0 +1,137 @@
+package ru.spbhse.hashmap;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PersistentHashMapTest {
+
+    private final PersistentHashMap empty = PersistentHashMap.empty();
+
+    @Test
+    public void putGetTest() {
+        PersistentHashMap map = empty.put("a", "1").put("b", "2").put("a", "3");
+        assertEquals(2, map.size());
+        assertEquals("3", map.get("a"));
+        assertEquals("2", map.get("b"));
+        assertNull(map.get("c"));
+        assertFalse(map.contains("c"));
+    }
+
+    @Test
+    public void oldVersionsDoNotChange() {
+        PersistentHashMap first = empty.put("a", "1");
+        PersistentHashMap second = first.put("a", "2").put("b", "3");
+        PersistentHashMap third = second.remove("a");
+        assertEquals("1", first.get("a"));
+        assertFalse(first.contains("b"));
+        assertEquals("2", second.get("a"));
+        assertFalse(third.contains("a"));
+        assertEquals("3", third.get("b"));
+        assertEquals(0, empty.size());
+    }
+
+    @Test
+    public void unchangedVersionIsReturned() {
+        PersistentHashMap map = empty.put("a", "1");
+        assertSame(map, map.remove("b"));
+        assertSame(map, map.put("a", map.get("a")));
+        assertSame(empty, map.remove("a"));
+    }
+
+    @Test
+    public void nullValuesTest() {
+        PersistentHashMap map = empty.put("a", null);
+        assertTrue(map.contains("a"));
+        assertNull(map.get("a"));
+        assertEquals(1, map.size());
+        assertEquals(0, map.remove("a").size());
+    }
+
+    @Test
+    public void nullKeyTest() {
+        assertThrows(IllegalArgumentException.class, () -> empty.contains(null));
+        assertThrows(IllegalArgumentException.class, () -> empty.get(null));
+        assertThrows(IllegalArgumentException.class, () -> empty.put(null, "a"));
+        assertThrows(IllegalArgumentException.class, () -> empty.remove(null));
+    }
+
+    @Test
+    public void equalHashCodesTest() {
+        // "Aa" and "BB" have equal hash codes, so do all their concatenations
+        var keys = new ArrayList<String>();
+        for (int mask = 0; mask < 16; mask++) {
+            var key = new StringBuilder();
+            for (int bit = 0; bit < 4; bit++) {
+                key.append((mask & (1 << bit)) == 0 ? "Aa" : "BB");
+            }
+            keys.add(key.toString());
+        }
+        PersistentHashMap map = empty;
+        for (String key : keys) {
+            map = map.put(key, key);
+        }
+        assertEquals(16, map.size());
+        for (String key : keys) {
+            assertEquals(key, map.get(key));
+        }
+        for (int i = 0; i < 15; i++) {
+            map = map.remove(keys.get(i));
+            assertFalse(map.contains(keys.get(i)));
+            assertEquals(keys.get(15), map.get(keys.get(15)));
+        }
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void forEachTest() {
+        PersistentHashMap map = empty;
+        for (Integer i = 0; i < 1000; i++) {
+            map = map.put(i.toString(), "v" + i);
+        }
+        var visited = new java.util.HashMap<String, String>();
+        map.forEach(visited::put);
+        assertEquals(1000, visited.size());
+        assertEquals("v500", visited.get("500"));
+    }
+
+    @Test
+    public void randomOperationsLikeJavaHashMap() {
+        var random = new Random(239);
+        var versions = new ArrayList<PersistentHashMap>();
+        var expectedVersions = new ArrayList<java.util.HashMap<String, String>>();
+        PersistentHashMap map = empty;
+        var expected = new java.util.HashMap<String, String>();
+        for (int operation = 0; operation < 100000; operation++) {
+            String key = Integer.toString(random.nextInt(3000));
+            if (random.nextInt(3) == 0) {
+                map = map.remove(key);
+                expected.remove(key);
+            } else {
+                String value = Integer.toString(random.nextInt());
+                map = map.put(key, value);
+                expected.put(key, value);
+            }
+            assertEquals(expected.size(), map.size());
+            String checked = Integer.toString(random.nextInt(3000));
+            assertEquals(expected.get(checked), map.get(checked));
+            if (operation % 10000 == 0) {
+                versions.add(map);
+                expectedVersions.add(new java.util.HashMap<>(expected));
+            }
+        }
+        for (int i = 0; i < versions.size(); i++) {
+            var actual = new java.util.HashMap<String, String>();
+            versions.get(i).forEach(actual::put);
+            assertEquals(expectedVersions.get(i), actual);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package ru.spbhse.hashmap;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SeededHashStrategyTest {
+
+    @Test
+    public void sameSeedGivesSameHashes() {
+        var first = new SeededHashStrategy(239);
+        var second = new SeededHashStrategy(239);
+        for (Integer i = 0; i < 1000; i++) {
+            assertEquals(first.hash(i.toString()), second.hash(i.toString()));
+            assertEquals(first.hash(i.toString()), first.hash(new String(i.toString())));
+        }
+    }
+
+    @Test
+    public void differentSeedsGiveDifferentHashes() {
+        var first = new SeededHashStrategy(1);
+        var second = new SeededHashStrategy(2);
+        assertNotEquals(first.hash("key"), second.hash("key"));
+    }
+
+    @Test
+    public void collisionsOfStringHashCodeAreSeparated() {
+        var strategy = new SeededHashStrategy();
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        assertNotEquals(strategy.hash("Aa"), strategy.hash("BB"));
+    }
+
+    @Test
+    public void hashesOfAllLengthsAreDistinct() {
+        var strategy = new SeededHashStrategy(239);
+        var hashes = new HashSet<Integer>();
+        var key = new StringBuilder();
+        for (int length = 0; length < 100; length++) {
+            assertTrue(hashes.add(strategy.hash(key.toString())));
+            key.append('a');
+        }
+    }
+
+    @Test
+    public void blockZeroingPublicConstantDoesNotCollapseState() {
+        // block equal to low half of former public constant, it made the first operand of mixing zero
+        String prefix = "\u28db\ua0b4\u7ed1\ue703";
+        String[] keys = {prefix + "abcdXYZ", prefix + "qwerXYZ", prefix + "0000XYZ"};
+        for (long seed : new long[] {1, 42, 987654321}) {
+            var strategy = new SeededHashStrategy(seed);
+            var hashes = new HashSet<Integer>();
+            for (String key : keys) {
+                assertTrue(hashes.add(strategy.hash(key)));
+            }
+        }
+        var seedHashes = new HashSet<Integer>();
+        for (long seed : new long[] {1, 42, 987654321}) {
+            assertTrue(seedHashes.add(new SeededHashStrategy(seed).hash(keys[0])));
+        }
+    }
+}
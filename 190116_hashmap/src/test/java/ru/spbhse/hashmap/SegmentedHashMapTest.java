@@ -0,0 +1,183 @@
+package ru.spbhse.hashmap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SegmentedHashMapTest {
+
+    private SegmentedHashMap test;
+
+    @BeforeEach
+    void init() {
+        test = new SegmentedHashMap();
+    }
+
+    @Test
+    public void putGetRemove() {
+        assertNull(test.put("aa", "bb"));
+        assertNull(test.put("null", null));
+        assertEquals("bb", test.put("aa", "cc"));
+        assertEquals(2, test.size());
+        assertEquals("cc", test.get("aa"));
+        assertTrue(test.contains("null"));
+        assertNull(test.get("null"));
+        assertEquals("cc", test.remove("aa"));
+        assertNull(test.remove("aa"));
+        assertFalse(test.contains("aa"));
+        assertEquals(1, test.size());
+
+        test.clear();
+        assertEquals(0, test.size());
+        assertFalse(test.contains("null"));
+    }
+
+    @Test
+    public void nullKeysThrow() {
+        assertThrows(IllegalArgumentException.class, () -> test.put(null, "a"));
+        assertThrows(IllegalArgumentException.class, () -> test.get(null));
+        assertThrows(IllegalArgumentException.class, () -> test.contains(null));
+        assertThrows(IllegalArgumentException.class, () -> test.remove(null));
+    }
+
+    @Test
+    public void segmentsNumberMustBePowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new SegmentedHashMap(0));
+        assertThrows(IllegalArgumentException.class, () -> new SegmentedHashMap(12));
+        assertThrows(IllegalArgumentException.class, () -> new SegmentedHashMap(512));
+        new SegmentedHashMap(1).put("a", "b");
+        new SegmentedHashMap(256).put("a", "b");
+    }
+
+    @Test
+    public void sameHashCodes() {
+        // "Aa" and "BB" have the same hash code, so they share segment and home cell
+        test.put("Aa", "1");
+        test.put("BB", "2");
+        test.put("AaAa", "3");
+        test.put("BBBB", "4");
+        assertEquals("1", test.remove("Aa"));
+        assertEquals("2", test.get("BB"));
+        assertEquals("3", test.get("AaAa"));
+        assertEquals("4", test.get("BBBB"));
+        assertEquals(3, test.size());
+    }
+
+    @Test
+    public void randomOperationsMatchJavaHashMap() {
+        var random = new Random(239);
+        var expected = new java.util.HashMap<String, String>();
+        for (int i = 0; i < 100000; i++) {
+            String key = "key" + random.nextInt(3000);
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(expected.remove(key), test.remove(key));
+                    break;
+                case 1:
+                    String value = "value" + i;
+                    assertEquals(expected.put(key, value), test.put(key, value));
+                    break;
+                default:
+                    assertEquals(expected.get(key), test.get(key));
+                    assertEquals(expected.containsKey(key), test.contains(key));
+            }
+        }
+        assertEquals(expected.size(), test.size());
+    }
+
+    @Test
+    public void putReturnsAreLinearizable() throws InterruptedException {
+        // every put replaces exactly one previous value, so no value is returned twice or lost
+        final int increments = 5000;
+        var threads = new ArrayList<Thread>();
+        Set<String> returned = java.util.concurrent.ConcurrentHashMap.newKeySet();
+        var lostUpdates = new AtomicInteger();
+        test.put("counter", "initial");
+        for (int i = 0; i < 4; i++) {
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < increments; j++) {
+                    String token = Thread.currentThread().getName() + " " + j;
+                    String previous = test.put("counter", token);
+                    if (previous == null || !returned.add(previous)) {
+                        lostUpdates.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, lostUpdates.get());
+        assertEquals(4 * increments, returned.size());
+        assertFalse(returned.contains(test.get("counter")));
+        assertEquals(1, test.size());
+    }
+
+    @Test
+    public void optimisticReadersSeeConsistentPairs() throws InterruptedException {
+        // value of every key is its own name followed by a version, readers must never see other key's value
+        var isFinished = new AtomicBoolean();
+        var inconsistentReads = new AtomicInteger();
+        var readers = new ArrayList<Thread>();
+        for (int i = 0; i < 3; i++) {
+            final int seed = i;
+            readers.add(new Thread(() -> {
+                var random = new Random(seed);
+                while (!isFinished.get()) {
+                    String key = "key" + random.nextInt(2000);
+                    String value = test.get(key);
+                    if (value != null && !value.startsWith(key + " ")) {
+                        inconsistentReads.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        var writers = new ArrayList<Thread>();
+        for (int i = 0; i < 2; i++) {
+            final int firstKey = i * 1000;
+            writers.add(new Thread(() -> {
+                for (int round = 0; round < 5; round++) {
+                    for (int j = firstKey; j < firstKey + 1000; j++) {
+                        test.put("key" + j, "key" + j + " " + round);
+                    }
+                    for (int j = firstKey; j < firstKey + 1000; j += 2) {
+                        test.remove("key" + j);
+                    }
+                }
+            }));
+        }
+        for (Thread reader : readers) {
+            reader.start();
+        }
+        for (Thread writer : writers) {
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        isFinished.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertEquals(0, inconsistentReads.get());
+        assertEquals(1000, test.size());
+        for (int j = 1; j < 2000; j += 2) {
+            assertEquals("key" + j + " 4", test.get("key" + j));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package ru.spbhse.hashmap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TreeBucketTest {
+
+    private TreeBucket test;
+
+    @BeforeEach
+    void init() {
+        test = new TreeBucket(new StringPair[0]);
+    }
+
+    @Test
+    public void constructFromPairs() {
+        test = new TreeBucket(new StringPair[] {new StringPair("a", "b"), new StringPair("b", "c")});
+        assertEquals(2, test.size());
+        assertEquals("b", test.get("a").getValue());
+        assertEquals("c", test.get("b").getValue());
+    }
+
+    @Test
+    public void getNotExist() {
+        assertNull(test.get("a"));
+        assertNull(test.get(null));
+    }
+
+    @Test
+    public void putCheckThrows() {
+        assertThrows(IllegalArgumentException.class, () -> test.put(null));
+    }
+
+    @Test
+    public void sameHashCodes() {
+        test.put(new StringPair("FB", "a"));
+        test.put(new StringPair("Ea", "b"));
+        assertEquals(2, test.size());
+        assertEquals("a", test.get("FB").getValue());
+        assertEquals("b", test.get("Ea").getValue());
+
+        assertEquals("a", test.remove("FB").getValue());
+        assertNull(test.get("FB"));
+        assertEquals(1, test.size());
+    }
+
+    @Test
+    public void removeNotExist() {
+        assertNull(test.remove("Ab"));
+        assertNull(test.remove(null));
+    }
+
+    @Test
+    public void toArrayOrderedByHashCode() {
+        test.put(new StringPair("b", "1"));
+        test.put(new StringPair("a", "2"));
+        test.put(new StringPair("c", "3"));
+
+        StringPair[] array = test.toArray();
+        assertEquals(3, array.length);
+        assertEquals("a", array[0].getKey());
+        assertEquals("b", array[1].getKey());
+        assertEquals("c", array[2].getKey());
+    }
+
+    @Test
+    public void countingLookupsCountComparedKeys() {
+        var counter = new ProbeCounter();
+        assertNull(test.get("a", counter));
+        assertEquals(0, counter.take());
+        test.put(new StringPair("a", "1"));
+        assertEquals("1", test.get("a", counter).getValue());
+        assertEquals(1, counter.take());
+        for (int i = 0; i < 1000; i++) {
+            test.put(new StringPair("key" + i, "value"));
+        }
+        assertEquals("value", test.get("key500", counter).getValue());
+        int probes = counter.take();
+        // lookup in red-black tree of 1001 nodes compares at most 2 * log2(1001) keys
+        assertTrue(probes >= 1 && probes <= 20, probes + " probes");
+        assertEquals("value", test.remove("key500", counter).getValue());
+        assertTrue(counter.take() >= 1);
+    }
+
+    @Test
+    public void switchingComparatorKeepsPairs() {
+        for (int i = 0; i < 100; i++) {
+            test.put(new StringPair("key" + i, "value" + i));
+        }
+        test.setCounting(true);
+        test.setCounting(false);
+        var counter = new ProbeCounter();
+        for (int i = 0; i < 100; i++) {
+            assertEquals("value" + i, test.get("key" + i).getValue());
+            assertEquals("value" + i, test.get("key" + i, counter).getValue());
+            assertTrue(counter.take() >= 1);
+        }
+        assertEquals(100, test.size());
+    }
+}
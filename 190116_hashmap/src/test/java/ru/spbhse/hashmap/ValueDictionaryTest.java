@@ -0,0 +1,54 @@
+package ru.spbhse.hashmap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ValueDictionaryTest {
+
+    private ValueDictionary test;
+
+    @BeforeEach
+    void init() {
+        test = new ValueDictionary();
+    }
+
+    @Test
+    public void equalValuesGetSameCode() {
+        int code = test.acquire("a");
+        assertEquals(code, test.acquire(new String("a")));
+        assertEquals("a", test.valueOf(code));
+        assertEquals(2, test.referencesTo("a"));
+        assertEquals(1, test.size());
+    }
+
+    @Test
+    public void nullIsNotStored() {
+        assertEquals(ValueDictionary.NULL_CODE, test.acquire(null));
+        assertNull(test.valueOf(ValueDictionary.NULL_CODE));
+        test.release(ValueDictionary.NULL_CODE);
+        assertEquals(0, test.size());
+        assertThrows(IllegalArgumentException.class, () -> test.referencesTo(null));
+    }
+
+    @Test
+    public void releasedCodesAreReused() {
+        int[] codes = new int[100];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = test.acquire("value" + i);
+        }
+        for (int i = 0; i < codes.length; i += 2) {
+            test.release(codes[i]);
+        }
+        assertEquals(50, test.size());
+        for (int i = 0; i < 50; i++) {
+            assertTrue(test.acquire("new" + i) < codes.length);
+        }
+        assertEquals(100, test.size());
+        assertEquals("value1", test.valueOf(codes[1]));
+    }
+}
@@ -0,0 +1,164 @@
+package ru.spbhse.hashmap.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BoundedCacheTest {
+
+    private BoundedCache test;
+
+    @BeforeEach
+    void init() {
+        test = new BoundedCache(3);
+    }
+
+    @Test
+    public void putGetRemoveTest() {
+        assertNull(test.put("a", "1"));
+        assertEquals("1", test.put("a", "2"));
+        assertEquals("2", test.get("a"));
+        assertTrue(test.contains("a"));
+        assertEquals("2", test.remove("a"));
+        assertFalse(test.contains("a"));
+        assertNull(test.remove("a"));
+        assertEquals(0, test.size());
+        assertEquals(0, test.weight());
+    }
+
+    @Test
+    public void nullKeyTest() {
+        assertThrows(IllegalArgumentException.class, () -> test.contains(null));
+        assertThrows(IllegalArgumentException.class, () -> test.get(null));
+        assertThrows(IllegalArgumentException.class, () -> test.put(null, "a"));
+        assertThrows(IllegalArgumentException.class, () -> test.remove(null));
+    }
+
+    @Test
+    public void wrongArgumentsTest() {
+        assertThrows(IllegalArgumentException.class, () -> new BoundedCache(-1));
+        assertThrows(IllegalArgumentException.class, () -> new BoundedCache(1, null, new LruPolicy()));
+        assertThrows(IllegalArgumentException.class, () -> new BoundedCache(1, Weigher.ENTRIES, null));
+        var negativeWeight = new BoundedCache(10, (key, value) -> -1, new LruPolicy());
+        assertThrows(IllegalArgumentException.class, () -> negativeWeight.put("a", "b"));
+    }
+
+    @Test
+    public void lruEvictsLeastRecentlyUsed() {
+        test.put("a", "1");
+        test.put("b", "2");
+        test.put("c", "3");
+        test.get("a");
+        test.put("d", "4");
+        assertEquals(3, test.size());
+        assertFalse(test.contains("b"));
+        assertTrue(test.contains("a"));
+        assertTrue(test.contains("c"));
+        assertTrue(test.contains("d"));
+        assertEquals(1, test.evictions());
+    }
+
+    @Test
+    public void replacingValueCountsAsUse() {
+        test.put("a", "1");
+        test.put("b", "2");
+        test.put("c", "3");
+        test.put("a", "4");
+        test.put("d", "5");
+        assertFalse(test.contains("b"));
+        assertEquals("4", test.get("a"));
+    }
+
+    @Test
+    public void hitAndMissCounters() {
+        test.put("a", "1");
+        test.get("a");
+        test.get("a");
+        test.get("b");
+        test.contains("b");
+        assertEquals(2, test.hits());
+        assertEquals(1, test.misses());
+        assertEquals(2.0 / 3, test.hitRate(), 1e-9);
+        test.clear();
+        assertEquals(0, test.size());
+        assertEquals(2, test.hits());
+    }
+
+    @Test
+    public void weightIsBounded() {
+        test = new BoundedCache(100, Weigher.CHAR_BYTES, new LruPolicy());
+        test.put("ab", "cdef");
+        assertEquals(12, test.weight());
+        test.put("ab", "c");
+        assertEquals(6, test.weight());
+        var random = new Random(239);
+        for (int i = 0; i < 1000; i++) {
+            test.put(Integer.toString(random.nextInt(100)), "x".repeat(random.nextInt(20)));
+            assertTrue(test.weight() <= 100);
+        }
+    }
+
+    @Test
+    public void tooHeavyEntryIsEvicted() {
+        test = new BoundedCache(10, Weigher.CHAR_BYTES, new TinyLfuPolicy());
+        test.put("a", "b");
+        test.put("key", "very long value");
+        assertFalse(test.contains("key"));
+        assertTrue(test.contains("a"));
+        assertEquals(4, test.weight());
+        assertEquals(0, test.evictions());
+        assertEquals(1, test.rejections());
+
+        assertEquals("b", test.put("a", "very long value"));
+        assertFalse(test.contains("a"));
+        assertEquals(0, test.weight());
+        assertEquals(1, test.evictions());
+        assertEquals(2, test.rejections());
+    }
+
+    @Test
+    public void tinyLfuIsBounded() {
+        test = new BoundedCache(100, Weigher.ENTRIES, new TinyLfuPolicy());
+        var random = new Random(239);
+        var expected = new java.util.HashMap<String, String>();
+        for (int i = 0; i < 100000; i++) {
+            String key = Integer.toString(random.nextInt(1000));
+            if (random.nextInt(4) == 0) {
+                test.remove(key);
+                expected.remove(key);
+            } else {
+                test.put(key, key + i);
+                expected.put(key, key + i);
+            }
+            assertTrue(test.size() <= 100);
+            assertEquals(test.size(), test.weight());
+            String value = test.get(key);
+            assertTrue(value == null || value.equals(expected.get(key)));
+        }
+    }
+
+    @Test
+    public void tinyLfuKeepsHotKeysDuringScan() {
+        var lru = new BoundedCache(100);
+        var tinyLfu = new BoundedCache(100, Weigher.ENTRIES, new TinyLfuPolicy());
+        var random = new Random(239);
+        for (int round = 0; round < 20000; round++) {
+            // 50 hot keys and long scan of keys which are never used again
+            String key = random.nextBoolean() ? "hot" + random.nextInt(50) : "scan" + round;
+            for (BoundedCache cache : new BoundedCache[] {lru, tinyLfu}) {
+                if (cache.get(key) == null) {
+                    cache.put(key, key);
+                }
+            }
+        }
+        assertTrue(tinyLfu.hitRate() > 0.45);
+        assertTrue(tinyLfu.hitRate() > lru.hitRate() + 0.1);
+    }
+}
@@ -0,0 +1,61 @@
+package ru.spbhse.hashmap.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CountMinSketchTest {
+
+    @Test
+    public void countsAreNeverUnderestimated() {
+        var sketch = new CountMinSketch();
+        sketch.ensureCapacity(1000);
+        for (int i = 0; i < 1000; i++) {
+            for (int j = 0; j < i % 10; j++) {
+                sketch.increment("key" + i);
+            }
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(sketch.frequency("key" + i) >= i % 10);
+        }
+    }
+
+    @Test
+    public void countsSaturate() {
+        var sketch = new CountMinSketch();
+        sketch.ensureCapacity(100);
+        for (int i = 0; i < 100; i++) {
+            sketch.increment("key");
+        }
+        assertEquals(15, sketch.frequency("key"));
+    }
+
+    @Test
+    public void countsAreHalvedWithTime() {
+        var sketch = new CountMinSketch();
+        for (int i = 0; i < 10; i++) {
+            sketch.increment("old");
+        }
+        for (int i = 0; i < 1000; i++) {
+            sketch.increment("new" + i);
+        }
+        assertTrue(sketch.frequency("old") < 10);
+    }
+
+    @Test
+    public void unseenKeyIsRare() {
+        var sketch = new CountMinSketch();
+        sketch.ensureCapacity(1 << 12);
+        for (int i = 0; i < 1000; i++) {
+            sketch.increment("key" + i);
+        }
+        int overestimated = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (sketch.frequency("absent" + i) > 0) {
+                ++overestimated;
+            }
+        }
+        assertTrue(overestimated < 50);
+    }
+}
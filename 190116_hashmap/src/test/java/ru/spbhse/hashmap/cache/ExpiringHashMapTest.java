@@ -0,0 +1,165 @@
+package ru.spbhse.hashmap.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExpiringHashMapTest {
+
+    private AtomicLong clock;
+    private ExpiringHashMap test;
+
+    @BeforeEach
+    void init() {
+        clock = new AtomicLong(1000);
+        test = new ExpiringHashMap(clock::get);
+    }
+
+    private void sleep(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+
+    @Test
+    public void pairsWithoutTtlNeverExpire() {
+        assertNull(test.put("a", "1"));
+        sleep(Duration.ofDays(1000));
+        assertEquals("1", test.get("a"));
+        assertEquals(0, test.sweep(100));
+        assertEquals(1, test.size());
+    }
+
+    @Test
+    public void getDropsExpiredPair() {
+        test.put("a", "1", Duration.ofSeconds(10));
+        sleep(Duration.ofSeconds(9));
+        assertEquals("1", test.get("a"));
+        sleep(Duration.ofSeconds(1));
+        assertNull(test.get("a"));
+        assertFalse(test.contains("a"));
+        assertEquals(0, test.size());
+    }
+
+    @Test
+    public void putReplacesTtl() {
+        test.put("a", "1", Duration.ofSeconds(1));
+        assertEquals("1", test.put("a", "2", Duration.ofMinutes(1)));
+        sleep(Duration.ofSeconds(30));
+        assertEquals(0, test.sweep(100));
+        assertEquals("2", test.get("a"));
+        assertEquals("2", test.put("a", "3"));
+        sleep(Duration.ofHours(1));
+        assertEquals("3", test.get("a"));
+    }
+
+    @Test
+    public void expiredValuesAreNotReturned() {
+        test.put("a", "1", Duration.ofMillis(5));
+        sleep(Duration.ofMillis(5));
+        assertNull(test.put("a", "2", Duration.ofMillis(5)));
+        sleep(Duration.ofMillis(5));
+        assertNull(test.remove("a"));
+        assertEquals(0, test.size());
+    }
+
+    @Test
+    public void sweepRemovesOnlyExpiredInBatches() {
+        for (int i = 0; i < 100; i++) {
+            test.put("short" + i, "v", Duration.ofSeconds(1));
+            test.put("long" + i, "v", Duration.ofHours(1));
+        }
+        sleep(Duration.ofSeconds(2));
+        assertEquals(30, test.sweep(30));
+        assertEquals(170, test.size());
+        assertEquals(70, test.sweep(1000));
+        assertEquals(100, test.size());
+        assertEquals(0, test.sweep(1000));
+        for (int i = 0; i < 100; i++) {
+            assertTrue(test.contains("long" + i));
+        }
+        sleep(Duration.ofHours(1));
+        assertEquals(100, test.sweep(1000));
+        assertEquals(0, test.size());
+    }
+
+    @Test
+    public void sweepIsPrecise() {
+        test.put("a", "1", Duration.ofMillis(1500));
+        test.put("b", "2", Duration.ofMinutes(90));
+        test.put("c", "3", Duration.ofDays(40));
+        sleep(Duration.ofMillis(1490));
+        assertEquals(0, test.sweep(10));
+        sleep(Duration.ofMillis(20));
+        assertEquals(1, test.sweep(10));
+        sleep(Duration.ofMinutes(89));
+        assertEquals(0, test.sweep(10));
+        sleep(Duration.ofMinutes(1));
+        assertEquals(1, test.sweep(10));
+        sleep(Duration.ofDays(39));
+        assertEquals(0, test.sweep(10));
+        sleep(Duration.ofDays(1));
+        assertEquals(1, test.sweep(10));
+    }
+
+    @Test
+    public void randomTtlsLikeNaiveMap() {
+        var random = new Random(239);
+        var expirations = new java.util.HashMap<String, Long>();
+        for (int round = 0; round < 20000; round++) {
+            String key = Integer.toString(random.nextInt(1000));
+            long ttl = 1 + (long) (Math.pow(10, random.nextDouble() * 12));
+            test.put(key, key, Duration.ofNanos(ttl));
+            expirations.put(key, clock.get() + ttl);
+            sleep(Duration.ofNanos(random.nextInt(10000000)));
+            test.sweep(random.nextInt(5));
+            for (int check = 0; check < 3; check++) {
+                String checked = Integer.toString(random.nextInt(1000));
+                Long expiration = expirations.get(checked);
+                assertEquals(expiration != null && expiration > clock.get(), test.contains(checked));
+            }
+        }
+        test.sweep(Integer.MAX_VALUE);
+        long alive = expirations.values().stream().filter(expiration -> expiration > clock.get()).count();
+        assertEquals(alive, test.size());
+    }
+
+    @Test
+    public void wrongArgumentsTest() {
+        assertThrows(IllegalArgumentException.class, () -> test.put(null, "a", Duration.ofSeconds(1)));
+        assertThrows(IllegalArgumentException.class, () -> test.put("a", "a", Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> test.put("a", "a", Duration.ofSeconds(-1)));
+        assertThrows(IllegalArgumentException.class, () -> test.put("a", "a", null));
+        assertThrows(IllegalArgumentException.class, () -> test.sweep(-1));
+        assertThrows(IllegalArgumentException.class, () -> test.get(null));
+    }
+
+    @Test
+    public void backgroundSweeping() throws InterruptedException {
+        test = new ExpiringHashMap();
+        for (int i = 0; i < 1000; i++) {
+            test.put(Integer.toString(i), "v", Duration.ofMillis(1));
+        }
+        var executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            var sweeping = test.startSweeping(executor, Duration.ofMillis(5), 100);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (test.size() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            sweeping.cancel(false);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, test.size());
+    }
+}
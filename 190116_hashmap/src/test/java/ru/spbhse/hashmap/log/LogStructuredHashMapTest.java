@@ -0,0 +1,273 @@
+package ru.spbhse.hashmap.log;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LogStructuredHashMapTest {
+
+    private Path directory;
+    private LogStructuredHashMap test;
+
+    @BeforeEach
+    void init() throws IOException {
+        directory = Files.createTempDirectory("log");
+        test = LogStructuredHashMap.open(directory, 256, false);
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        test.close();
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    private void reopen() throws IOException {
+        test.close();
+        test = LogStructuredHashMap.open(directory, 256, false);
+    }
+
+    private ArrayList<Path> filesWithSuffix(String suffix) throws IOException {
+        var result = new ArrayList<Path>();
+        try (var files = Files.list(directory)) {
+            files.filter(file -> file.toString().endsWith(suffix)).sorted().forEach(result::add);
+        }
+        return result;
+    }
+
+    @Test
+    public void putGetRemove() {
+        assertNull(test.put("aa", "bb"));
+        assertNull(test.put("null", null));
+        assertNull(test.put("\u043a\u043b\u044e\u0447", "\u0437\u043d\u0430\u0447\u0435\u043d\u0438\u0435\ud83d\ude00"));
+        assertEquals("bb", test.put("aa", "cc"));
+        assertEquals(3, test.size());
+        assertEquals("cc", test.get("aa"));
+        assertTrue(test.contains("null"));
+        assertNull(test.get("null"));
+        assertEquals("\u0437\u043d\u0430\u0447\u0435\u043d\u0438\u0435\ud83d\ude00", test.get("\u043a\u043b\u044e\u0447"));
+        assertEquals("cc", test.remove("aa"));
+        assertNull(test.remove("aa"));
+        assertFalse(test.contains("aa"));
+        assertEquals(2, test.size());
+    }
+
+    @Test
+    public void nullKeys() {
+        assertThrows(IllegalArgumentException.class, () -> test.put(null, "a"));
+        assertThrows(IllegalArgumentException.class, () -> test.get(null));
+        assertThrows(IllegalArgumentException.class, () -> test.contains(null));
+        assertThrows(IllegalArgumentException.class, () -> test.remove(null));
+    }
+
+    @Test
+    public void changesSurviveReopening() throws IOException {
+        for (int i = 0; i < 100; i++) {
+            test.put("key" + i, "value" + i);
+        }
+        for (int i = 0; i < 100; i += 3) {
+            test.remove("key" + i);
+        }
+        test.put("key1", null);
+        assertTrue(test.segmentsNumber() > 1);
+
+        reopen();
+        assertEquals(66, test.size());
+        assertTrue(test.contains("key1"));
+        assertNull(test.get("key1"));
+        for (int i = 2; i < 100; i++) {
+            assertEquals(i % 3 == 0 ? null : "value" + i, test.get("key" + i));
+        }
+    }
+
+    @Test
+    public void compactionKeepsLivePairs() throws IOException {
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 20; i++) {
+                test.put("key" + i, "value" + round);
+            }
+        }
+        test.remove("key0");
+        int segmentsBefore = test.segmentsNumber();
+        test.compact();
+        assertTrue(test.segmentsNumber() < segmentsBefore);
+        assertEquals(2, test.segmentsNumber());
+        assertEquals(1, filesWithSuffix(".hint").size());
+        assertEquals(19, test.size());
+        for (int i = 1; i < 20; i++) {
+            assertEquals("value9", test.get("key" + i));
+        }
+
+        test.put("key1", "new");
+        reopen();
+        assertEquals(19, test.size());
+        assertNull(test.get("key0"));
+        assertEquals("new", test.get("key1"));
+        for (int i = 2; i < 20; i++) {
+            assertEquals("value9", test.get("key" + i));
+        }
+    }
+
+    @Test
+    public void repeatedCompactionIsIdempotent() throws IOException {
+        for (int i = 0; i < 50; i++) {
+            test.put("key" + i, "value" + i);
+        }
+        test.compact();
+        Path hint = filesWithSuffix(".hint").get(0);
+        long modified = Files.getLastModifiedTime(hint).toMillis();
+        test.compact();
+        assertEquals(hint, filesWithSuffix(".hint").get(0));
+        assertEquals(modified, Files.getLastModifiedTime(hint).toMillis());
+    }
+
+    @Test
+    public void brokenHintIsIgnored() throws IOException {
+        for (int i = 0; i < 50; i++) {
+            test.put("key" + i, "value" + i);
+        }
+        test.compact();
+        Files.write(filesWithSuffix(".hint").get(0), new byte[] {1, 2, 3});
+        reopen();
+        assertEquals(50, test.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals("value" + i, test.get("key" + i));
+        }
+    }
+
+    @Test
+    public void tornRecordIsCutOff() throws IOException {
+        test.put("a", "1");
+        test.put("b", "2");
+        test.close();
+        ArrayList<Path> segments = filesWithSuffix(".log");
+        Path active = segments.get(segments.size() - 1);
+        long length = Files.size(active);
+        // half of record: checksum, key length and value length claim more bytes than there are
+        Files.write(active, new byte[] {0, 0, 0, 0, 0, 0, 0, 5, 0, 0, 0, 5, 'c'}, StandardOpenOption.APPEND);
+
+        test = LogStructuredHashMap.open(directory, 256, false);
+        assertEquals(length, Files.size(active));
+        assertEquals(2, test.size());
+        test.put("c", "3");
+        reopen();
+        assertEquals("1", test.get("a"));
+        assertEquals("2", test.get("b"));
+        assertEquals("3", test.get("c"));
+    }
+
+    @Test
+    public void corruptedRecordIsCutOff() throws IOException {
+        test.put("a", "1");
+        test.close();
+        ArrayList<Path> segments = filesWithSuffix(".log");
+        Path active = segments.get(segments.size() - 1);
+        long length = Files.size(active);
+        test = LogStructuredHashMap.open(directory, 256, false);
+        test.put("b", "2");
+        test.close();
+        byte[] bytes = Files.readAllBytes(active);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(active, bytes);
+
+        test = LogStructuredHashMap.open(directory, 256, false);
+        assertEquals(length, Files.size(active));
+        assertEquals("1", test.get("a"));
+        assertFalse(test.contains("b"));
+    }
+
+    @Test
+    public void replacedSegmentsLeftByInterruptedCompactionAreIgnored() throws IOException {
+        for (int i = 0; i < 40; i++) {
+            test.put("key" + i, "value" + i);
+        }
+        test.remove("key0");
+        var oldSegments = new ArrayList<byte[]>();
+        ArrayList<Path> oldPaths = filesWithSuffix(".log");
+        for (Path segment : oldPaths) {
+            oldSegments.add(Files.readAllBytes(segment));
+        }
+        test.compact();
+        test.close();
+        // as if crash happened after new segment was moved over the newest old one, but before others were deleted
+        for (int i = 0; i < oldPaths.size() - 2; i++) {
+            Files.write(oldPaths.get(i), oldSegments.get(i));
+        }
+
+        test = LogStructuredHashMap.open(directory, 256, false);
+        assertEquals(2, test.segmentsNumber());
+        assertEquals(39, test.size());
+        assertFalse(test.contains("key0"));
+    }
+
+    @Test
+    public void clearDeletesSegments() throws IOException {
+        for (int i = 0; i < 40; i++) {
+            test.put("key" + i, "value" + i);
+        }
+        test.compact();
+        test.clear();
+        assertEquals(0, test.size());
+        assertEquals(1, filesWithSuffix(".log").size());
+        assertEquals(0, filesWithSuffix(".hint").size());
+        test.put("a", "b");
+        reopen();
+        assertEquals(1, test.size());
+        assertEquals("b", test.get("a"));
+    }
+
+    @Test
+    public void closedMapThrows() throws IOException {
+        test.close();
+        assertThrows(IllegalStateException.class, () -> test.get("a"));
+        assertThrows(IllegalStateException.class, () -> test.put("a", "b"));
+    }
+
+    @Test
+    public void backgroundCompactionWithConcurrentWrites() throws Exception {
+        var executor = Executors.newSingleThreadScheduledExecutor();
+        var compaction = test.startCompaction(executor, Duration.ofMillis(1));
+        var random = new Random(239);
+        var expected = new java.util.HashMap<String, String>();
+        for (int i = 0; i < 3000; i++) {
+            String key = "key" + random.nextInt(100);
+            if (random.nextInt(4) == 0) {
+                assertEquals(expected.remove(key), test.remove(key));
+            } else {
+                String value = "value" + i;
+                assertEquals(expected.put(key, value), test.put(key, value));
+            }
+        }
+        assertFalse(compaction.isDone());
+        compaction.cancel(false);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        test.compact();
+        reopen();
+        assertEquals(expected.size(), test.size());
+        for (var entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), test.get(entry.getKey()));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package ru.spbhse.hashmap.specialized;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HashMapTest {
+
+    private HashMap<Integer, String> test;
+
+    @BeforeEach
+    void init() {
+        test = new HashMap<>();
+    }
+
+    @Test
+    public void putGetTest() {
+        assertNull(test.put(1, "a"));
+        assertNull(test.put(2, null));
+        assertEquals("a", test.put(1, "b"));
+        assertEquals("b", test.get(1));
+        assertTrue(test.contains(2));
+        assertNull(test.get(2));
+        assertFalse(test.contains(3));
+        assertEquals(2, test.size());
+    }
+
+    @Test
+    public void nullKeyTest() {
+        assertThrows(IllegalArgumentException.class, () -> test.contains(null));
+        assertThrows(IllegalArgumentException.class, () -> test.get(null));
+        assertThrows(IllegalArgumentException.class, () -> test.put(null, "a"));
+        assertThrows(IllegalArgumentException.class, () -> test.remove(null));
+    }
+
+    @Test
+    public void equalKeysTest() {
+        var map = new HashMap<String, Integer>();
+        map.put(new String("key"), 1);
+        assertEquals(Integer.valueOf(1), map.get("key"));
+        assertEquals(Integer.valueOf(1), map.remove(new String("key")));
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    public void collidingKeysTest() {
+        var map = new HashMap<String, String>();
+        // "Aa" and "BB" have equal hash codes, so do all their concatenations
+        String[] keys = {"AaAa", "AaBB", "BBAa", "BBBB"};
+        for (String key : keys) {
+            map.put(key, key);
+        }
+        map.remove("AaBB");
+        assertEquals("BBBB", map.get("BBBB"));
+        assertEquals("BBAa", map.get("BBAa"));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    public void forEachTest() {
+        for (int i = 0; i < 100; i++) {
+            test.put(i, Integer.toString(i));
+        }
+        var count = new int[1];
+        test.forEach((key, value) -> {
+            assertEquals(Integer.toString(key), value);
+            ++count[0];
+        });
+        assertEquals(100, count[0]);
+    }
+
+    @Test
+    public void clearTest() {
+        for (int i = 0; i < 1000; i++) {
+            test.put(i, "value");
+        }
+        test.clear();
+        assertEquals(0, test.size());
+        assertFalse(test.contains(0));
+        assertTrue(test.capacity() < 1000);
+    }
+
+    @Test
+    public void randomOperationsLikeJavaHashMap() {
+        var random = new Random(239);
+        var expected = new java.util.HashMap<Integer, String>();
+        for (int operation = 0; operation < 200000; operation++) {
+            int key = random.nextInt(5000);
+            String value = Integer.toString(random.nextInt());
+            if (random.nextBoolean()) {
+                assertEquals(expected.put(key, value), test.put(key, value));
+            } else {
+                assertEquals(expected.remove(key), test.remove(key));
+            }
+            assertEquals(expected.size(), test.size());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package ru.spbhse.hashmap.specialized;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IntIntMapTest {
+
+    private IntIntMap test;
+
+    @BeforeEach
+    void init() {
+        test = new IntIntMap();
+    }
+
+    @Test
+    public void putGetTest() {
+        assertEquals(0, test.put(1, 10));
+        assertEquals(0, test.put(-2, 20));
+        assertEquals(10, test.put(1, 11));
+        assertEquals(11, test.get(1));
+        assertEquals(20, test.get(-2));
+        assertEquals(0, test.get(3));
+        assertEquals(2, test.size());
+    }
+
+    @Test
+    public void zeroKeyTest() {
+        assertFalse(test.contains(0));
+        assertEquals(0, test.put(0, 5));
+        assertTrue(test.contains(0));
+        assertEquals(5, test.get(0));
+        assertEquals(1, test.size());
+        assertEquals(5, test.remove(0));
+        assertFalse(test.contains(0));
+        assertEquals(0, test.size());
+    }
+
+    @Test
+    public void noEntryValueTest() {
+        test = new IntIntMap(-1);
+        assertEquals(-1, test.get(7));
+        assertEquals(-1, test.put(7, 0));
+        assertEquals(0, test.get(7));
+        assertEquals(0, test.remove(7));
+        assertEquals(-1, test.remove(7));
+        assertEquals(42, test.getOrDefault(7, 42));
+    }
+
+    @Test
+    public void addToTest() {
+        assertEquals(3, test.addTo(5, 3));
+        assertEquals(7, test.addTo(5, 4));
+        assertEquals(2, test.addTo(0, 2));
+        assertEquals(7, test.get(5));
+        assertEquals(2, test.size());
+    }
+
+    @Test
+    public void forEachTest() {
+        for (int i = -50; i < 50; i++) {
+            test.put(i, i * 2);
+        }
+        var sum = new long[1];
+        var count = new int[1];
+        test.forEach((key, value) -> {
+            assertEquals(key * 2, value);
+            sum[0] += value;
+            ++count[0];
+        });
+        assertEquals(100, count[0]);
+        assertEquals(-100, sum[0]);
+    }
+
+    @Test
+    public void clearTest() {
+        for (int i = 0; i < 1000; i++) {
+            test.put(i, i);
+        }
+        test.clear();
+        assertEquals(0, test.size());
+        assertFalse(test.contains(0));
+        assertFalse(test.contains(500));
+        assertTrue(test.capacity() < 1000);
+    }
+
+    @Test
+    public void randomOperationsLikeJavaHashMap() {
+        var random = new Random(239);
+        var expected = new java.util.HashMap<Integer, Integer>();
+        for (int operation = 0; operation < 200000; operation++) {
+            int key = random.nextInt(5000) - 2500;
+            int value = random.nextInt();
+            if (random.nextBoolean()) {
+                Integer previous = expected.put(key, value);
+                assertEquals(previous == null ? 0 : previous, test.put(key, value));
+            } else {
+                Integer removed = expected.remove(key);
+                assertEquals(removed == null ? 0 : removed, test.remove(key));
+            }
+            assertEquals(expected.size(), test.size());
+        }
+        for (int key = -2500; key < 2500; key++) {
+            assertEquals(expected.containsKey(key), test.contains(key));
+        }
+    }
+}
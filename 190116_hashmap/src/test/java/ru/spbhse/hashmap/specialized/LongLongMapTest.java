@@ -0,0 +1,44 @@
+package ru.spbhse.hashmap.specialized;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Smoke test of generated map, logic of template is tested by IntIntMapTest and HashMapTest */
+public class LongLongMapTest {
+
+    private LongLongMap test;
+
+    @BeforeEach
+    void init() {
+        test = new LongLongMap();
+    }
+
+    @Test
+    public void putGetRemoveTest() {
+        assertEquals(0, test.put(1, Long.MAX_VALUE));
+        assertEquals(0, test.put(0, -1));
+        assertEquals(Long.MAX_VALUE, test.get(1));
+        assertEquals(-1, test.get(0));
+        assertEquals(3, test.addTo(5, 3));
+        assertEquals(3, test.size());
+        assertEquals(Long.MAX_VALUE, test.remove(1));
+        assertFalse(test.contains(1));
+        assertEquals(42, new LongLongMap(42).get(1));
+    }
+
+    @Test
+    public void keysDifferingInHighBitsTest() {
+        for (long i = 1; i <= 1000; i++) {
+            test.put(i << 32, i);
+        }
+        for (long i = 1; i <= 1000; i++) {
+            assertEquals(i, test.get(i << 32));
+        }
+        assertFalse(test.contains(1));
+        assertTrue(test.contains(1L << 32));
+    }
+}
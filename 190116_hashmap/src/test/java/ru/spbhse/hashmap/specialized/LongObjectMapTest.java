@@ -0,0 +1,56 @@
+package ru.spbhse.hashmap.specialized;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Smoke test of generated map, logic of template is tested by IntIntMapTest and HashMapTest */
+public class LongObjectMapTest {
+
+    private LongObjectMap<String> test;
+
+    @BeforeEach
+    void init() {
+        test = new LongObjectMap<>();
+    }
+
+    @Test
+    public void putGetRemoveTest() {
+        assertNull(test.put(1, "a"));
+        assertNull(test.put(Long.MIN_VALUE, "b"));
+        assertEquals("a", test.put(1, "c"));
+        assertEquals("c", test.get(1));
+        assertEquals("b", test.get(Long.MIN_VALUE));
+        assertNull(test.get(2));
+        assertEquals("default", test.getOrDefault(2, "default"));
+        assertEquals("c", test.remove(1));
+        assertEquals(1, test.size());
+    }
+
+    @Test
+    public void zeroKeyAndNullValueTest() {
+        assertNull(test.put(0, null));
+        assertTrue(test.contains(0));
+        assertNull(test.put(0, "zero"));
+        assertEquals("zero", test.remove(0));
+        assertFalse(test.contains(0));
+        assertEquals(0, test.size());
+    }
+
+    @Test
+    public void forEachTest() {
+        for (long i = 0; i < 100; i++) {
+            test.put(i, Long.toString(i));
+        }
+        var count = new int[1];
+        test.forEach((key, value) -> {
+            assertEquals(Long.toString(key), value);
+            ++count[0];
+        });
+        assertEquals(100, count[0]);
+    }
+}
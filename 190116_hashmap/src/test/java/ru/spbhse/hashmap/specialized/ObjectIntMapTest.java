@@ -0,0 +1,44 @@
+package ru.spbhse.hashmap.specialized;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/** Smoke test of generated map, logic of template is tested by IntIntMapTest and HashMapTest */
+public class ObjectIntMapTest {
+
+    private ObjectIntMap<String> test;
+
+    @BeforeEach
+    void init() {
+        test = new ObjectIntMap<>();
+    }
+
+    @Test
+    public void putGetRemoveTest() {
+        assertEquals(0, test.put("a", 1));
+        assertEquals(1, test.put("a", 3));
+        assertEquals(3, test.get(new String("a")));
+        assertEquals(7, test.getOrDefault("b", 7));
+        assertEquals(3, test.remove("a"));
+        assertFalse(test.contains("a"));
+        assertEquals(-1, new ObjectIntMap<String>(-1).get("a"));
+    }
+
+    @Test
+    public void addToTest() {
+        assertEquals(1, test.addTo("word", 1));
+        assertEquals(2, test.addTo("word", 1));
+        assertEquals(-3, test.addTo("other", -3));
+        assertEquals(2, test.size());
+    }
+
+    @Test
+    public void nullKeyTest() {
+        assertThrows(IllegalArgumentException.class, () -> test.get(null));
+        assertThrows(IllegalArgumentException.class, () -> test.addTo(null, 1));
+    }
+}
@@ -0,0 +1,157 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Generates maps of package ru.spbhse.hashmap.specialized from SpecializedMap.java.template
+ * Run from module directory: java templates/GenerateSpecializedMaps.java [--check]
+ * With --check nothing is written, exit code is 1 if some generated file differs from the template
+ *
+ * Template lines "#if flag..." (all flags must be set), "#else" and "#endif" choose lines for a specialization,
+ * they may be nested. Flags are primitiveKey or objectKey and primitiveValue or objectValue.
+ * ${Name} is replaced by value of variable Name of the specialization
+ */
+public class GenerateSpecializedMaps {
+
+    private static final Path TEMPLATE = Paths.get("templates", "SpecializedMap.java.template");
+    private static final Path OUTPUT_DIRECTORY = Paths.get("src", "main", "java", "ru", "spbhse", "hashmap", "specialized");
+    private static final String HEADER =
+            "// Generated from templates/SpecializedMap.java.template by templates/GenerateSpecializedMaps.java, do not edit";
+    private static final Pattern VARIABLE = Pattern.compile("\\$\\{(\\w+)}");
+
+    public static void main(String[] args) throws IOException {
+        boolean isCheck = args.length > 0 && args[0].equals("--check");
+        List<String> template = Files.readAllLines(TEMPLATE, StandardCharsets.UTF_8);
+        boolean isUpToDate = true;
+        for (Map<String, String> specialization : specializations()) {
+            String source = generate(template, specialization);
+            Path output = OUTPUT_DIRECTORY.resolve(specialization.get("Map") + ".java");
+            if (isCheck) {
+                if (!Files.exists(output) || !Files.readString(output, StandardCharsets.UTF_8).equals(source)) {
+                    System.err.println(output + " differs from template");
+                    isUpToDate = false;
+                }
+            } else {
+                Files.writeString(output, source, StandardCharsets.UTF_8);
+                System.out.println("generated " + output);
+            }
+        }
+        if (!isUpToDate) {
+            System.exit(1);
+        }
+    }
+
+    private static List<Map<String, String>> specializations() {
+        return Arrays.asList(
+                specialization("HashMap", "K", "V",
+                        "HashMap class to store pairs of objects of any types"),
+                specialization("IntIntMap", "int", "int",
+                        "Map from ints to ints which never boxes keys or values"),
+                specialization("LongLongMap", "long", "long",
+                        "Map from longs to longs which never boxes keys or values"),
+                specialization("LongObjectMap", "long", "V",
+                        "Map from longs to objects which never boxes keys"),
+                specialization("ObjectIntMap", "K", "int",
+                        "Map from objects to ints which never boxes values"));
+    }
+
+    /** Returns variables and flags of map with given key and value types, type parameters are named K and V */
+    private static Map<String, String> specialization(String name, String key, String value, String description) {
+        boolean isObjectKey = key.equals("K");
+        boolean isObjectValue = value.equals("V");
+        var variables = new LinkedHashMap<String, String>();
+        variables.put("Map", name);
+        variables.put("Description", description);
+        variables.put(isObjectKey ? "objectKey" : "primitiveKey", "");
+        variables.put(isObjectValue ? "objectValue" : "primitiveValue", "");
+        variables.put("Key", key);
+        variables.put("Value", value);
+        variables.put("KeyArray", isObjectKey ? "Object" : key);
+        variables.put("ValueArray", isObjectValue ? "Object" : value);
+        variables.put("KeyCast", isObjectKey ? "(K) " : "");
+        variables.put("ValueCast", isObjectValue ? "(V) " : "");
+        variables.put("FreeKey", isObjectKey ? "null" : "FREE_KEY");
+        variables.put("NoEntry", isObjectValue ? "null" : "noEntryValue");
+        variables.put("KeysDiffer", isObjectKey ? "!keys[cellId].equals(key)" : "keys[cellId] != key");
+
+        String typeParameters = isObjectKey && isObjectValue ? "<K, V>" : isObjectKey ? "<K>" : isObjectValue ? "<V>" : "";
+        variables.put("TypeParameters", typeParameters);
+        variables.put("ConsumerTypeParameters", isObjectValue ? "<V>" : "");
+        if (isObjectKey) {
+            variables.put("EntryConsumer", isObjectValue ? "BiConsumer<? super K, ? super V>" : "ObjIntConsumer<? super K>");
+        } else {
+            variables.put("EntryConsumer", isObjectValue ? "EntryConsumer<? super V>" : "EntryConsumer");
+        }
+
+        if (key.equals("long")) {
+            variables.put("HashBits", "64");
+            variables.put("HashType", "long");
+            variables.put("HashMultiplier", "0x9E3779B97F4A7C15L");
+            variables.put("HomeCell", "(int) ((key * HASH_MULTIPLIER) >>> (Long.SIZE - indexBits))");
+        } else {
+            variables.put("HashBits", "32");
+            variables.put("HashType", "int");
+            variables.put("HashMultiplier", "0x9E3779B9");
+            variables.put("HomeCell", isObjectKey
+                    ? "(key.hashCode() * HASH_MULTIPLIER) >>> (Integer.SIZE - indexBits)"
+                    : "(key * HASH_MULTIPLIER) >>> (Integer.SIZE - indexBits)");
+        }
+        return variables;
+    }
+
+    /** Chooses lines of template by directives and substitutes variables */
+    private static String generate(List<String> template, Map<String, String> variables) {
+        var source = new StringBuilder(HEADER).append('\n');
+        Deque<Boolean> conditions = new ArrayDeque<>();
+        for (int lineId = 0; lineId < template.size(); lineId++) {
+            String line = template.get(lineId);
+            String directive = line.strip();
+            if (directive.startsWith("#if ")) {
+                boolean isTrue = true;
+                for (String flag : directive.substring(4).strip().split("\\s+")) {
+                    isTrue &= variables.containsKey(flag);
+                }
+                conditions.push(isTrue);
+            } else if (directive.equals("#else")) {
+                if (conditions.isEmpty()) {
+                    throw new IllegalStateException("#else without #if at line " + (lineId + 1));
+                }
+                conditions.push(!conditions.pop());
+            } else if (directive.equals("#endif")) {
+                if (conditions.isEmpty()) {
+                    throw new IllegalStateException("#endif without #if at line " + (lineId + 1));
+                }
+                conditions.pop();
+            } else if (!conditions.contains(false)) {
+                source.append(substitute(line, variables, lineId + 1)).append('\n');
+            }
+        }
+        if (!conditions.isEmpty()) {
+            throw new IllegalStateException("#if without #endif");
+        }
+        return source.toString();
+    }
+
+    private static String substitute(String line, Map<String, String> variables, int lineNumber) {
+        Matcher matcher = VARIABLE.matcher(line);
+        var result = new StringBuilder();
+        while (matcher.find()) {
+            String value = variables.get(matcher.group(1));
+            if (value == null) {
+                throw new IllegalStateException("unknown variable " + matcher.group(1) + " at line " + lineNumber);
+            }
+            matcher.appendReplacement(result, Matcher.quoteReplacement(value));
+        }
+        return matcher.appendTail(result).toString();
+    }
+}
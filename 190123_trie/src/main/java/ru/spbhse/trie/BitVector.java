@@ -0,0 +1,145 @@
+package ru.spbhse.trie;
+
+import java.util.Arrays;
+
+/**
+ * Immutable sequence of bits with rank and select
+ * Number of ones before every block of BLOCK_WORDS words is stored, which takes 1/16 of bits of the sequence.
+ * Rank counts ones of at most BLOCK_WORDS words after that. Select finds block by binary search between blocks
+ * of every SELECT_SAMPLE-th one (or zero), which are stored too and take 1/64 of bits
+ */
+final class BitVector {
+    private final long[] words;
+    private final int length;
+    /** blockRanks[b] is number of ones before block b, the last element is number of all ones */
+    private final int[] blockRanks;
+    /** oneSamples[k] is block containing one with number k * SELECT_SAMPLE, zeroSamples[k] is the same for zeros */
+    private final int[] oneSamples;
+    private final int[] zeroSamples;
+    private static final int BLOCK_WORDS = 8;
+    private static final int BLOCK_BITS = BLOCK_WORDS * Long.SIZE;
+    private static final int SELECT_SAMPLE = 2048;
+
+    private BitVector(long[] words, int length) {
+        this.words = words;
+        this.length = length;
+        int blocksNumber = (words.length + BLOCK_WORDS - 1) / BLOCK_WORDS;
+        blockRanks = new int[blocksNumber + 1];
+        int ones = 0;
+        for (int wordId = 0; wordId < words.length; wordId++) {
+            if (wordId % BLOCK_WORDS == 0) {
+                blockRanks[wordId / BLOCK_WORDS] = ones;
+            }
+            ones += Long.bitCount(words[wordId]);
+        }
+        blockRanks[blocksNumber] = ones;
+        oneSamples = sample(true);
+        zeroSamples = sample(false);
+    }
+
+    private int[] sample(boolean isOne) {
+        int blocksNumber = blockRanks.length - 1;
+        int total = countBefore(blocksNumber, isOne);
+        var samples = new int[(total + SELECT_SAMPLE - 1) / SELECT_SAMPLE];
+        int block = 0;
+        for (int sampleId = 0; sampleId < samples.length; sampleId++) {
+            while (countBefore(block + 1, isOne) <= sampleId * SELECT_SAMPLE) {
+                ++block;
+            }
+            samples[sampleId] = block;
+        }
+        return samples;
+    }
+
+    int length() {
+        return length;
+    }
+
+    boolean get(int position) {
+        return (words[position >>> 6] & (1L << position)) != 0;
+    }
+
+    /** Returns number of ones before given position, position may be equal to length */
+    int rank1(int position) {
+        int wordId = position >>> 6;
+        int rank = blockRanks[wordId / BLOCK_WORDS];
+        for (int i = wordId - wordId % BLOCK_WORDS; i < wordId; i++) {
+            rank += Long.bitCount(words[i]);
+        }
+        if ((position & 63) != 0) {
+            rank += Long.bitCount(words[wordId] & (-1L >>> (Long.SIZE - (position & 63))));
+        }
+        return rank;
+    }
+
+    /** Returns position of one with given number counting from 0, number must be less than number of ones */
+    int select1(int number) {
+        return select(number, true);
+    }
+
+    /** Returns position of zero with given number counting from 0, number must be less than number of zeros */
+    int select0(int number) {
+        return select(number, false);
+    }
+
+    private int select(int number, boolean isOne) {
+        // the last block whose number of preceding ones (or zeros) is at most given number
+        int[] samples = isOne ? oneSamples : zeroSamples;
+        int sampleId = number / SELECT_SAMPLE;
+        int low = samples[sampleId];
+        int high = sampleId + 1 < samples.length ? samples[sampleId + 1] : blockRanks.length - 2;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (countBefore(middle, isOne) <= number) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        int left = number - countBefore(low, isOne);
+        for (int wordId = low * BLOCK_WORDS; ; wordId++) {
+            long word = isOne ? words[wordId] : ~words[wordId];
+            int count = Long.bitCount(word);
+            if (left < count) {
+                for (; left > 0; left--) {
+                    word &= word - 1;
+                }
+                return wordId * Long.SIZE + Long.numberOfTrailingZeros(word);
+            }
+            left -= count;
+        }
+    }
+
+    /** Returns number of ones (or zeros) before given block, the last block may be shorter than others */
+    private int countBefore(int block, boolean isOne) {
+        return isOne ? blockRanks[block] : Math.min(block * BLOCK_BITS, words.length * Long.SIZE) - blockRanks[block];
+    }
+
+    /** Returns number of bits taken by the sequence and its rank directory */
+    long sizeInBits() {
+        return (long) words.length * Long.SIZE
+                + (long) (blockRanks.length + oneSamples.length + zeroSamples.length) * Integer.SIZE;
+    }
+
+    /** Appender of bits to BitVector being built */
+    static final class Builder {
+        private long[] words = new long[INITIAL_WORDS];
+        private int length;
+        private static final int INITIAL_WORDS = 16;
+
+        void append(boolean bit) {
+            if (length == words.length * Long.SIZE) {
+                words = Arrays.copyOf(words, words.length * 2);
+            }
+            if (bit) {
+                words[length >>> 6] |= 1L << length;
+            }
+            ++length;
+        }
+
+        /** Builds BitVector of appended bits, its words array has no unused words */
+        BitVector build() {
+            return new BitVector(Arrays.copyOf(words, (length + Long.SIZE - 1) / Long.SIZE), length);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package ru.spbhse.trie;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Buffered reader of bytes, big-endian ints and varints written by ByteWriter from InputStream
+ * Bytes after the last read value are left in the stream, so it may hold other data after them.
+ * Stream supporting mark (for example BufferedInputStream or ByteArrayInputStream) is read by blocks,
+ * each block is marked and finish returns its unread bytes by reset. Other streams are read by one byte
+ */
+final class ByteReader {
+    private final InputStream in;
+    private final boolean isMarkSupported;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private static final int BUFFER_SIZE = 1 << 16;
+    /** Longest varint of int takes this number of bytes */
+    private static final int MAX_VAR_INT_BYTES = 5;
+
+    ByteReader(InputStream in) {
+        this.in = in;
+        isMarkSupported = in.markSupported();
+    }
+
+    /**
+     * Returns next byte as unsigned number
+     * @throws EOFException if stream has ended
+     */
+    int readByte() throws IOException {
+        if (position == limit) {
+            fill();
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    int readInt() throws IOException {
+        return readByte() << 24 | readByte() << 16 | readByte() << 8 | readByte();
+    }
+
+    char readChar() throws IOException {
+        return (char) (readByte() << 8 | readByte());
+    }
+
+    /**
+     * Reads value written by ByteWriter.writeVarInt
+     * @throws IOException if varint is longer than int allows or stream has ended
+     */
+    int readVarInt() throws IOException {
+        int value = 0;
+        for (int byteId = 0; byteId < MAX_VAR_INT_BYTES; byteId++) {
+            int currentByte = readByte();
+            value |= (currentByte & 0x7F) << (7 * byteId);
+            if ((currentByte & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("ByteReader.readVarInt got varint longer than " + MAX_VAR_INT_BYTES + " bytes");
+    }
+
+    /**
+     * Returns bytes taken from the stream but not read by this reader back to the stream
+     * Reader mustn't be used after that
+     */
+    void finish() throws IOException {
+        if (!isMarkSupported || limit == 0) {
+            return;
+        }
+        in.reset();
+        for (int left = position; left > 0; ) {
+            long skipped = in.skip(left);
+            if (skipped <= 0) {
+                if (in.read() < 0) {
+                    throw new EOFException("ByteReader got end of stream while returning to read position");
+                }
+                skipped = 1;
+            }
+            left -= skipped;
+        }
+        position = 0;
+        limit = 0;
+    }
+
+    private void fill() throws IOException {
+        int length = isMarkSupported ? buffer.length : 1;
+        if (isMarkSupported) {
+            in.mark(length);
+        }
+        int read = in.read(buffer, 0, length);
+        while (read == 0) {
+            read = in.read(buffer, 0, length);
+        }
+        if (read < 0) {
+            throw new EOFException("ByteReader got end of stream");
+        }
+        position = 0;
+        limit = read;
+    }
+}
@@ -0,0 +1,58 @@
+package ru.spbhse.trie;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Buffered writer of bytes, big-endian ints and varints to OutputStream
+ * Bytes reach the stream only when buffer is full or on flush, the stream is never closed
+ */
+final class ByteWriter {
+    private final OutputStream out;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private static final int BUFFER_SIZE = 1 << 16;
+    /** Longest varint of int takes this number of bytes */
+    private static final int MAX_VAR_INT_BYTES = 5;
+
+    ByteWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    void writeByte(int value) throws IOException {
+        if (position == buffer.length) {
+            drain();
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    void writeInt(int value) throws IOException {
+        writeByte(value >>> 24);
+        writeByte(value >>> 16);
+        writeByte(value >>> 8);
+        writeByte(value);
+    }
+
+    /** Writes non-negative value by 7 bits starting from the lowest ones, high bit of byte means that more follow */
+    void writeVarInt(int value) throws IOException {
+        if (buffer.length - position < MAX_VAR_INT_BYTES) {
+            drain();
+        }
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    /** Writes buffered bytes to the stream and flushes it */
+    void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    private void drain() throws IOException {
+        out.write(buffer, 0, position);
+        position = 0;
+    }
+}
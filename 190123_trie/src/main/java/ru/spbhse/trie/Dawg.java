@@ -0,0 +1,89 @@
+package ru.spbhse.trie;
+
+import java.util.Arrays;
+
+/**
+ * Read-only set of Unicode strings stored as minimal deterministic acyclic word graph, built by DawgBuilder
+ * It is a trie where equal subtrees are stored once, so common suffixes of strings are shared as well as prefixes.
+ * Graph is kept in flat arrays: edges of node i are edges [firstEdges[i], firstEdges[i + 1]) sorted by symbol,
+ * and every node knows number of strings ending below it, which is the same for all paths leading to it
+ */
+public class Dawg {
+    private final int[] firstEdges;
+    private final char[] symbols;
+    /** Node which edge leads to */
+    private final int[] targets;
+    /** Number of strings which end in subtree of node */
+    private final int[] sizes;
+    /** Bit i is set iff node i is terminal */
+    private final long[] terminalFlags;
+    /** Edges of nodes with at most this number of them are searched linearly, others by binary search */
+    private static final int LINEAR_SEARCH_LIMIT = 8;
+    private static final int ROOT = 0;
+
+    Dawg(int[] firstEdges, char[] symbols, int[] targets, int[] sizes, long[] terminalFlags) {
+        this.firstEdges = firstEdges;
+        this.symbols = symbols;
+        this.targets = targets;
+        this.sizes = sizes;
+        this.terminalFlags = terminalFlags;
+    }
+
+    /** Returns true iff element is in set */
+    public boolean contains(String element) {
+        if (element == null) {
+            throw new IllegalArgumentException("Dawg.contains got null as element. It is forbidden.");
+        }
+        int node = goDownPrefix(element);
+        return node != -1 && (terminalFlags[node / Long.SIZE] & (1L << node)) != 0;
+    }
+
+    /** Returns number of strings in set */
+    public int size() {
+        return sizes[ROOT];
+    }
+
+    /** Returns number of strings in set that start with given prefix */
+    public int howManyStartsWithPrefix(String prefix) {
+        if (prefix == null) {
+            throw new IllegalArgumentException("Dawg.howManyStartsWithPrefix got null as prefix. It is forbidden.");
+        }
+        int node = goDownPrefix(prefix);
+        return node == -1 ? 0 : sizes[node];
+    }
+
+    /** Returns number of nodes in graph including root */
+    public int nodesNumber() {
+        return sizes.length;
+    }
+
+    /** Returns number of edges in graph */
+    public int edgesNumber() {
+        return symbols.length;
+    }
+
+    /** Returns node appropriated to given prefix and -1 if it doesn't exist */
+    private int goDownPrefix(String prefix) {
+        int node = ROOT;
+        for (int charId = 0; charId < prefix.length() && node != -1; charId++) {
+            node = childOf(node, prefix.charAt(charId));
+        }
+        return node;
+    }
+
+    /** Returns node which edge by given symbol leads to and -1 if there is no such edge */
+    private int childOf(int node, char symbol) {
+        int from = firstEdges[node];
+        int to = firstEdges[node + 1];
+        if (to - from > LINEAR_SEARCH_LIMIT) {
+            int edge = Arrays.binarySearch(symbols, from, to, symbol);
+            return edge < 0 ? -1 : targets[edge];
+        }
+        for (int edge = from; edge < to; edge++) {
+            if (symbols[edge] == symbol) {
+                return targets[edge];
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,199 @@
+package ru.spbhse.trie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Builder of Dawg from strings given in increasing order
+ * Keeps trie of the last added string unfinished and all other nodes in a register of unique subtrees.
+ * When next string leaves the path of previous one, nodes of the rest of that path are replaced with equal
+ * registered ones or registered themselves, so the graph stays minimal and only one path of it is mutable
+ */
+public class DawgBuilder {
+    private final Node root = new Node();
+    /** Unique finished nodes, two nodes are equal if they have same terminal flag and same edges */
+    private final HashMap<Node, Node> register = new HashMap<>();
+    /** Nodes on the path of the last added string, node by its i-th symbol is unfinishedPath[i] */
+    private Node[] unfinishedPath = new Node[INITIAL_PATH_LENGTH];
+    private String lastElement;
+    private boolean isBuilt;
+    private static final int INITIAL_PATH_LENGTH = 64;
+
+    /**
+     * Adds given element, which must not be less than previously added ones
+     * @return true if element is new and false if it equals the previous one
+     * @throws IllegalArgumentException if element is null or less than previous one
+     * @throws IllegalStateException if Dawg is already built
+     */
+    public boolean add(String element) {
+        if (element == null) {
+            throw new IllegalArgumentException("DawgBuilder.add got null as element. It is forbidden.");
+        }
+        if (isBuilt) {
+            throw new IllegalStateException("DawgBuilder.add is called after build");
+        }
+        int commonLength = 0;
+        if (lastElement != null) {
+            int comparison = element.compareTo(lastElement);
+            if (comparison == 0) {
+                return false;
+            }
+            if (comparison < 0) {
+                throw new IllegalArgumentException("DawgBuilder.add got elements not in increasing order: \""
+                        + element + "\" after \"" + lastElement + "\"");
+            }
+            int maxLength = Math.min(element.length(), lastElement.length());
+            while (commonLength < maxLength && element.charAt(commonLength) == lastElement.charAt(commonLength)) {
+                ++commonLength;
+            }
+        }
+
+        finishPath(commonLength);
+        if (element.length() > unfinishedPath.length) {
+            unfinishedPath = Arrays.copyOf(unfinishedPath, Math.max(element.length(), unfinishedPath.length * 2));
+        }
+        Node node = commonLength == 0 ? root : unfinishedPath[commonLength - 1];
+        for (int charId = commonLength; charId < element.length(); charId++) {
+            var child = new Node();
+            node.appendChild(element.charAt(charId), child);
+            unfinishedPath[charId] = child;
+            node = child;
+        }
+        node.isTerminal = true;
+        lastElement = element;
+        return true;
+    }
+
+    /**
+     * Finishes the graph and returns Dawg of all added elements. Builder can't be used after that
+     * @throws IllegalStateException if Dawg is already built
+     */
+    public Dawg build() {
+        if (isBuilt) {
+            throw new IllegalStateException("DawgBuilder.build is called twice");
+        }
+        isBuilt = true;
+        finishPath(0);
+        root.computeSize();
+
+        // nodes are numbered in order of breadth-first walk, so edges of node i follow edges of node i - 1
+        var nodes = new ArrayList<Node>(register.size() + 1);
+        root.id = 0;
+        nodes.add(root);
+        int edgesNumber = 0;
+        for (int nodeId = 0; nodeId < nodes.size(); nodeId++) {
+            Node node = nodes.get(nodeId);
+            edgesNumber += node.childrenNumber;
+            for (int childId = 0; childId < node.childrenNumber; childId++) {
+                Node child = node.children[childId];
+                if (child.id == -1) {
+                    child.id = nodes.size();
+                    nodes.add(child);
+                }
+            }
+        }
+
+        var firstEdges = new int[nodes.size() + 1];
+        var sizes = new int[nodes.size()];
+        var terminalFlags = new long[(nodes.size() + Long.SIZE - 1) / Long.SIZE];
+        var symbols = new char[edgesNumber];
+        var targets = new int[edgesNumber];
+        int edgeId = 0;
+        for (int nodeId = 0; nodeId < nodes.size(); nodeId++) {
+            Node node = nodes.get(nodeId);
+            firstEdges[nodeId] = edgeId;
+            sizes[nodeId] = node.size;
+            if (node.isTerminal) {
+                terminalFlags[nodeId / Long.SIZE] |= 1L << nodeId;
+            }
+            for (int childId = 0; childId < node.childrenNumber; childId++) {
+                symbols[edgeId] = node.symbols[childId];
+                targets[edgeId++] = node.children[childId].id;
+            }
+        }
+        firstEdges[nodes.size()] = edgeId;
+        register.clear();
+        return new Dawg(firstEdges, symbols, targets, sizes, terminalFlags);
+    }
+
+    /**
+     * Replaces nodes of unfinished path deeper than given length with registered equal ones,
+     * registering those which have no equal ones. Deeper nodes are finished first, so children are always unique
+     */
+    private void finishPath(int keptLength) {
+        int pathLength = lastElement == null ? 0 : lastElement.length();
+        for (int depth = pathLength - 1; depth >= keptLength; depth--) {
+            Node node = unfinishedPath[depth];
+            Node parent = depth == 0 ? root : unfinishedPath[depth - 1];
+            Node registered = register.get(node);
+            if (registered == null) {
+                node.computeSize();
+                register.put(node, node);
+            } else {
+                parent.children[parent.childrenNumber - 1] = registered;
+            }
+            unfinishedPath[depth] = null;
+        }
+    }
+
+    /** Node of graph being built, children are appended in increasing order of symbols */
+    private static class Node {
+        char[] symbols = NO_SYMBOLS;
+        Node[] children = NO_CHILDREN;
+        int childrenNumber;
+        boolean isTerminal;
+        /** Number of strings which end in subtree, known after node is finished */
+        int size;
+        /** Number of node in built Dawg, -1 before numbering */
+        int id = -1;
+        private static final char[] NO_SYMBOLS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        void appendChild(char symbol, Node child) {
+            if (childrenNumber == symbols.length) {
+                int newLength = Math.max(2, childrenNumber * 2);
+                symbols = Arrays.copyOf(symbols, newLength);
+                children = Arrays.copyOf(children, newLength);
+            }
+            symbols[childrenNumber] = symbol;
+            children[childrenNumber++] = child;
+        }
+
+        /** Computes size of node whose children are finished */
+        void computeSize() {
+            size = isTerminal ? 1 : 0;
+            for (int childId = 0; childId < childrenNumber; childId++) {
+                size += children[childId].size;
+            }
+        }
+
+        /** Finished nodes are equal if they have same terminal flag and edges by same symbols to same nodes */
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Node)) {
+                return false;
+            }
+            var otherNode = (Node) other;
+            if (isTerminal != otherNode.isTerminal || childrenNumber != otherNode.childrenNumber) {
+                return false;
+            }
+            for (int childId = 0; childId < childrenNumber; childId++) {
+                if (symbols[childId] != otherNode.symbols[childId] || children[childId] != otherNode.children[childId]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = isTerminal ? 1 : 0;
+            for (int childId = 0; childId < childrenNumber; childId++) {
+                hash = 31 * hash + symbols[childId];
+                hash = 31 * hash + System.identityHashCode(children[childId]);
+            }
+            return hash;
+        }
+    }
+}
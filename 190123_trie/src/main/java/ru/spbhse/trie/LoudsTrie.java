@@ -0,0 +1,266 @@
+package ru.spbhse.trie;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Read-only succinct trie encoded by level-order unary degree sequence (LOUDS)
+ * Nodes are numbered in breadth-first order, root is 0. Shape of the tree is the bit sequence "10" followed by
+ * 1^d 0 for every node of degree d, so it takes 2n + 1 bits for n nodes. Node i is the one with number i,
+ * its children are described after zero with number i. Terminal flags take one bit per node and symbols of edges
+ * are codes in sorted alphabet of the trie packed by ceil(log2(alphabet size)) bits.
+ * Children of a range of nodes form a range on the next level, so strings with given prefix are counted
+ * by summing terminal flags of these ranges level by level
+ */
+public class LoudsTrie {
+    private final BitVector louds;
+    private final BitVector terminalFlags;
+    /** Different symbols of edges in increasing order, edge stores index of its symbol here */
+    private final char[] alphabet;
+    /** Code of symbol of edge leading to node i is codes[i - 1], packed by bitsPerCode bits */
+    private final long[] codes;
+    private final int bitsPerCode;
+    private final int size;
+    /** Children of nodes with at most this number of them are searched linearly, others by binary search */
+    private static final int LINEAR_SEARCH_LIMIT = 8;
+    private static final int ROOT = 0;
+
+    private LoudsTrie(BitVector louds, BitVector terminalFlags, char[] symbols, int edgesNumber) {
+        this.louds = louds;
+        this.terminalFlags = terminalFlags;
+        size = terminalFlags.rank1(terminalFlags.length());
+
+        char[] sortedSymbols = Arrays.copyOf(symbols, edgesNumber);
+        Arrays.sort(sortedSymbols);
+        int alphabetSize = 0;
+        for (int i = 0; i < sortedSymbols.length; i++) {
+            if (i == 0 || sortedSymbols[i] != sortedSymbols[i - 1]) {
+                sortedSymbols[alphabetSize++] = sortedSymbols[i];
+            }
+        }
+        alphabet = Arrays.copyOf(sortedSymbols, alphabetSize);
+
+        bitsPerCode = alphabetSize <= 1 ? 1 : Integer.SIZE - Integer.numberOfLeadingZeros(alphabetSize - 1);
+        codes = new long[(int) (((long) edgesNumber * bitsPerCode + Long.SIZE - 1) / Long.SIZE)];
+        for (int edgeId = 0; edgeId < edgesNumber; edgeId++) {
+            long code = Arrays.binarySearch(alphabet, symbols[edgeId]);
+            long bitPosition = (long) edgeId * bitsPerCode;
+            int wordId = (int) (bitPosition >>> 6);
+            int offset = (int) (bitPosition & 63);
+            codes[wordId] |= code << offset;
+            if (offset + bitsPerCode > Long.SIZE) {
+                codes[wordId + 1] |= code >>> (Long.SIZE - offset);
+            }
+        }
+    }
+
+    /** Builds LoudsTrie of strings of given Trie */
+    public static LoudsTrie fromTrie(Trie trie) {
+        if (trie == null) {
+            throw new IllegalArgumentException("LoudsTrie.fromTrie got null as trie. It is forbidden.");
+        }
+        var louds = new BitVector.Builder();
+        var terminalFlags = new BitVector.Builder();
+        var symbols = new SymbolList();
+        louds.append(true);
+        louds.append(false);
+
+        var queue = new ArrayDeque<Trie>();
+        queue.add(trie);
+        while (!queue.isEmpty()) {
+            Trie node = queue.poll();
+            terminalFlags.append(node.isTerminal());
+            for (int childId = 0; childId < node.childrenNumber(); childId++) {
+                louds.append(true);
+                symbols.add(node.symbolOf(childId));
+                queue.add(node.childAt(childId));
+            }
+            louds.append(false);
+        }
+        return new LoudsTrie(louds.build(), terminalFlags.build(), symbols.symbols, symbols.size);
+    }
+
+    /**
+     * Builds LoudsTrie of given strings without building Trie first
+     * Nodes of a level are ranges of strings with the same prefix, so only ranges of two levels are kept at once
+     * @param sortedElements strings in non-decreasing order, list should provide fast access by index
+     * @throws IllegalArgumentException if strings are not sorted or some of them is null
+     */
+    public static LoudsTrie fromSorted(List<String> sortedElements) {
+        if (sortedElements == null) {
+            throw new IllegalArgumentException("LoudsTrie.fromSorted got null as list. It is forbidden.");
+        }
+        for (int i = 0; i < sortedElements.size(); i++) {
+            if (sortedElements.get(i) == null) {
+                throw new IllegalArgumentException("LoudsTrie.fromSorted got null as element. It is forbidden.");
+            }
+            if (i > 0 && sortedElements.get(i - 1).compareTo(sortedElements.get(i)) > 0) {
+                throw new IllegalArgumentException("LoudsTrie.fromSorted got elements not in increasing order");
+            }
+        }
+
+        var louds = new BitVector.Builder();
+        var terminalFlags = new BitVector.Builder();
+        var symbols = new SymbolList();
+        louds.append(true);
+        louds.append(false);
+
+        // node is range [ranges[2i], ranges[2i + 1]) of strings starting with path to it of length depth
+        var ranges = new int[] {0, sortedElements.size()};
+        int rangesNumber = 1;
+        for (int depth = 0; rangesNumber > 0; depth++) {
+            var nextRanges = new int[2 * Math.max(1, rangesNumber)];
+            int nextRangesNumber = 0;
+            for (int rangeId = 0; rangeId < rangesNumber; rangeId++) {
+                int from = ranges[2 * rangeId];
+                int to = ranges[2 * rangeId + 1];
+
+                // strings ending in node go first, equal strings are met several times
+                boolean isTerminal = false;
+                while (from < to && sortedElements.get(from).length() == depth) {
+                    isTerminal = true;
+                    ++from;
+                }
+                terminalFlags.append(isTerminal);
+
+                while (from < to) {
+                    char symbol = sortedElements.get(from).charAt(depth);
+                    int childTo = from + 1;
+                    while (childTo < to && sortedElements.get(childTo).charAt(depth) == symbol) {
+                        ++childTo;
+                    }
+                    louds.append(true);
+                    symbols.add(symbol);
+                    if (2 * nextRangesNumber == nextRanges.length) {
+                        nextRanges = Arrays.copyOf(nextRanges, nextRanges.length * 2);
+                    }
+                    nextRanges[2 * nextRangesNumber] = from;
+                    nextRanges[2 * nextRangesNumber + 1] = childTo;
+                    ++nextRangesNumber;
+                    from = childTo;
+                }
+                louds.append(false);
+            }
+            ranges = nextRanges;
+            rangesNumber = nextRangesNumber;
+        }
+        return new LoudsTrie(louds.build(), terminalFlags.build(), symbols.symbols, symbols.size);
+    }
+
+    /** Returns true iff element is in trie */
+    public boolean contains(String element) {
+        if (element == null) {
+            throw new IllegalArgumentException("LoudsTrie.contains got null as element. It is forbidden.");
+        }
+        int node = goDownPrefix(element);
+        return node != -1 && terminalFlags.get(node);
+    }
+
+    /** Returns number of strings in a trie */
+    public int size() {
+        return size;
+    }
+
+    /** Returns number of strings in a trie that start with given prefix */
+    public int howManyStartsWithPrefix(String prefix) {
+        if (prefix == null) {
+            throw new IllegalArgumentException("LoudsTrie.howManyStartsWithPrefix got null as prefix. It is forbidden.");
+        }
+        int node = goDownPrefix(prefix);
+        if (node == -1) {
+            return 0;
+        }
+        int count = 0;
+        int from = node;
+        int to = node + 1;
+        while (from < to) {
+            count += terminalFlags.rank1(to) - terminalFlags.rank1(from);
+            from = firstChildOf(from);
+            to = firstChildOf(to);
+        }
+        return count;
+    }
+
+    /** Returns number of nodes in a trie including root */
+    public int nodesNumber() {
+        return terminalFlags.length();
+    }
+
+    /** Returns number of bits taken by the trie: shape, terminal flags, codes of symbols, alphabet and rank directories */
+    public long sizeInBits() {
+        return louds.sizeInBits() + terminalFlags.sizeInBits() + (long) codes.length * Long.SIZE
+                + (long) alphabet.length * Character.SIZE;
+    }
+
+    /** Returns node appropriated to given prefix and -1 if it doesn't exist */
+    private int goDownPrefix(String prefix) {
+        int node = ROOT;
+        for (int charId = 0; charId < prefix.length() && node != -1; charId++) {
+            int code = Arrays.binarySearch(alphabet, prefix.charAt(charId));
+            node = code < 0 ? -1 : childOf(node, code);
+        }
+        return node;
+    }
+
+    /**
+     * Returns number of the first child of given node, or of the first child of the next nodes if it has no children
+     * Node may be equal to number of nodes, then number of nodes is returned
+     */
+    private int firstChildOf(int node) {
+        // ones before zero with number node describe nodes from 0 to the first child
+        return louds.select0(node) - node;
+    }
+
+    /** Returns child of given node by edge with given code of symbol and -1 if there is no such edge */
+    private int childOf(int node, int code) {
+        int blockEnd = louds.select0(node);
+        int firstChild = blockEnd - node;
+        int childrenNumber = louds.select0(node + 1) - blockEnd - 1;
+
+        // codes of children are in increasing order, code of node i is codes[i - 1]
+        int low = firstChild - 1;
+        int high = low + childrenNumber - 1;
+        while (high - low >= LINEAR_SEARCH_LIMIT) {
+            int middle = (low + high) >>> 1;
+            int middleCode = codeOf(middle);
+            if (middleCode < code) {
+                low = middle + 1;
+            } else if (middleCode > code) {
+                high = middle - 1;
+            } else {
+                return middle + 1;
+            }
+        }
+        for (int edgeId = low; edgeId <= high; edgeId++) {
+            if (codeOf(edgeId) == code) {
+                return edgeId + 1;
+            }
+        }
+        return -1;
+    }
+
+    private int codeOf(int edgeId) {
+        long bitPosition = (long) edgeId * bitsPerCode;
+        int wordId = (int) (bitPosition >>> 6);
+        int offset = (int) (bitPosition & 63);
+        long value = codes[wordId] >>> offset;
+        if (offset + bitsPerCode > Long.SIZE) {
+            value |= codes[wordId + 1] << (Long.SIZE - offset);
+        }
+        return (int) (value & ((1L << bitsPerCode) - 1));
+    }
+
+    /** Growing array of symbols of edges in breadth-first order */
+    private static class SymbolList {
+        char[] symbols = new char[16];
+        int size;
+
+        void add(char symbol) {
+            if (size == symbols.length) {
+                symbols = Arrays.copyOf(symbols, size * 2);
+            }
+            symbols[size++] = symbol;
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package ru.spbhse.trie;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Class realizing data structure radix tree (Patricia trie) to store set of Unicode strings
+ * Unlike Trie, edge holds a run of characters: chain of nodes with single child and without terminal flag
+ * is kept as one node. Every node except root is terminal or has at least two children,
+ * so trees of equal sets are the same and insert/remove split/merge at most one node.
+ * Children of every node are kept in two arrays sorted by the first symbol of their labels
+ */
+public class RadixTrie implements Serializable {
+    private int size;
+    /** Symbols on the edge leading to this node, empty for root */
+    private String label = "";
+    /** First symbols of labels of children in increasing order */
+    private char[] symbols = NO_SYMBOLS;
+    /** Child whose label starts with symbols[i] is children[i] */
+    private RadixTrie[] children = NO_CHILDREN;
+    private boolean isTerminal;
+    /** Leaves share empty arrays */
+    private static final char[] NO_SYMBOLS = new char[0];
+    private static final RadixTrie[] NO_CHILDREN = new RadixTrie[0];
+    /** Children of nodes with at most this number of them are searched linearly. Static not to take place in nodes */
+    private static final int LINEAR_SEARCH_LIMIT = 8;
+
+    /**
+     * Adds given element to trie
+     * @return true if this element was not presented in a trie, false otherwise
+     */
+    public boolean add(String element) {
+        if (element == null) {
+            throw new IllegalArgumentException("RadixTrie.add got null as element. It is forbidden.");
+        }
+        return addStartFrom(element, 0);
+    }
+
+    /**
+     * Recursive addition of element to trie, label of this node is already matched with element before charId
+     * @return true if this element was not presented in a trie, false otherwise
+     */
+    private boolean addStartFrom(String element, int charId) {
+        if (charId == element.length()) {
+
+            boolean isNew = !isTerminal;
+            if (isNew) {
+                ++size;
+                isTerminal = true;
+            }
+
+            return isNew;
+        }
+
+        int childId = indexOf(element.charAt(charId));
+        if (childId < 0) {
+            var leaf = new RadixTrie();
+            leaf.label = element.substring(charId);
+            leaf.isTerminal = true;
+            leaf.size = 1;
+            insertChild(-childId - 1, leaf);
+            ++size;
+            return true;
+        }
+
+        RadixTrie child = children[childId];
+        int commonLength = commonPrefixLength(child.label, element, charId);
+        if (commonLength < child.label.length()) {
+            // element leaves the edge in the middle, so the edge is split by new node
+            var middle = new RadixTrie();
+            middle.label = child.label.substring(0, commonLength);
+            middle.size = child.size;
+            child.label = child.label.substring(commonLength);
+            middle.symbols = new char[] {child.label.charAt(0)};
+            middle.children = new RadixTrie[] {child};
+            children[childId] = middle;
+            child = middle;
+        }
+
+        boolean isNew = child.addStartFrom(element, charId + commonLength);
+        if (isNew) {
+            ++size;
+        }
+
+        return isNew;
+    }
+
+    /** Returns true iff element is in trie */
+    public boolean contains(String element) {
+        if (element == null) {
+            throw new IllegalArgumentException("RadixTrie.contains got null as element. It is forbidden.");
+        }
+        RadixTrie currentNode = this;
+        int charId = 0;
+        while (charId < element.length()) {
+            int childId = currentNode.indexOf(element.charAt(charId));
+            if (childId < 0) {
+                return false;
+            }
+            currentNode = currentNode.children[childId];
+            if (!element.startsWith(currentNode.label, charId)) {
+                return false;
+            }
+            charId += currentNode.label.length();
+        }
+        return currentNode.isTerminal;
+    }
+
+    /**
+     * Removes element from trie
+     * @return true iff given element was presented in a trie
+     */
+    public boolean remove(String element) {
+        if (element == null) {
+            throw new IllegalArgumentException("RadixTrie.remove got null as element. It is forbidden.");
+        }
+        return removeStartFrom(element, 0);
+    }
+
+    /**
+     * Recursive removing of element from trie, label of this node is already matched with element before charId
+     * @return true if this element was presented in a trie, false otherwise
+     */
+    private boolean removeStartFrom(String element, int charId) {
+        if (charId == element.length()) {
+
+            boolean wasInTrie = isTerminal;
+            if (wasInTrie) {
+                --size;
+                isTerminal = false;
+            }
+
+            return wasInTrie;
+        }
+
+        int childId = indexOf(element.charAt(charId));
+        if (childId < 0) {
+            return false;
+        }
+
+        RadixTrie removingNode = children[childId];
+        if (!element.startsWith(removingNode.label, charId)) {
+            return false;
+        }
+
+        boolean wasInTrie = removingNode.removeStartFrom(element, charId + removingNode.label.length());
+        if (wasInTrie) {
+            --size;
+            if (removingNode.size == 0) {
+                removeChild(childId);
+            } else if (!removingNode.isTerminal && removingNode.children.length == 1) {
+                // node became a plain part of the edge, so it is merged with its only child
+                RadixTrie onlyChild = removingNode.children[0];
+                onlyChild.label = removingNode.label + onlyChild.label;
+                children[childId] = onlyChild;
+            }
+        }
+
+        return wasInTrie;
+    }
+
+    /** Returns number of strings in a trie */
+    public int size() {
+        return size;
+    }
+
+    /** Returns number of strings in a trie that start with given prefix */
+    public int howManyStartsWithPrefix(String prefix) {
+        if (prefix == null) {
+            throw new IllegalArgumentException("RadixTrie.howManyStartsWithPrefix got null as prefix. It is forbidden.");
+        }
+        RadixTrie currentNode = this;
+        int charId = 0;
+        while (charId < prefix.length()) {
+            int childId = currentNode.indexOf(prefix.charAt(charId));
+            if (childId < 0) {
+                return 0;
+            }
+            currentNode = currentNode.children[childId];
+            int matchedLength = commonPrefixLength(currentNode.label, prefix, charId);
+            if (matchedLength < currentNode.label.length()) {
+                // prefix may end in the middle of the edge, then all strings below it start with prefix
+                return charId + matchedLength == prefix.length() ? currentNode.size : 0;
+            }
+            charId += matchedLength;
+        }
+        return currentNode.size;
+    }
+
+    /** Returns number of nodes in a trie including root */
+    public int nodesNumber() {
+        int nodesNumber = 1;
+        for (RadixTrie child : children) {
+            nodesNumber += child.nodesNumber();
+        }
+        return nodesNumber;
+    }
+
+    /** Returns length of common prefix of given label and element starting from given position */
+    private static int commonPrefixLength(String label, String element, int charId) {
+        int maxLength = Math.min(label.length(), element.length() - charId);
+        int length = 0;
+        while (length < maxLength && label.charAt(length) == element.charAt(charId + length)) {
+            ++length;
+        }
+        return length;
+    }
+
+    /**
+     * Finds child whose label starts with given symbol
+     * @return index of child if it exists or (-(insertion point) - 1) otherwise, like Arrays.binarySearch
+     */
+    private int indexOf(char symbol) {
+        if (symbols.length > LINEAR_SEARCH_LIMIT) {
+            return Arrays.binarySearch(symbols, symbol);
+        }
+        for (int childId = 0; childId < symbols.length; childId++) {
+            if (symbols[childId] >= symbol) {
+                return symbols[childId] == symbol ? childId : -childId - 1;
+            }
+        }
+        return -symbols.length - 1;
+    }
+
+    /** Inserts given child at given position, arrays grow exactly by one cell */
+    private void insertChild(int childId, RadixTrie child) {
+        var newSymbols = new char[symbols.length + 1];
+        var newChildren = new RadixTrie[children.length + 1];
+        System.arraycopy(symbols, 0, newSymbols, 0, childId);
+        System.arraycopy(children, 0, newChildren, 0, childId);
+        newSymbols[childId] = child.label.charAt(0);
+        newChildren[childId] = child;
+        System.arraycopy(symbols, childId, newSymbols, childId + 1, symbols.length - childId);
+        System.arraycopy(children, childId, newChildren, childId + 1, children.length - childId);
+        symbols = newSymbols;
+        children = newChildren;
+    }
+
+    private void removeChild(int childId) {
+        if (symbols.length == 1) {
+            symbols = NO_SYMBOLS;
+            children = NO_CHILDREN;
+            return;
+        }
+        var newSymbols = new char[symbols.length - 1];
+        var newChildren = new RadixTrie[children.length - 1];
+        System.arraycopy(symbols, 0, newSymbols, 0, childId);
+        System.arraycopy(children, 0, newChildren, 0, childId);
+        System.arraycopy(symbols, childId + 1, newSymbols, childId, newSymbols.length - childId);
+        System.arraycopy(children, childId + 1, newChildren, childId, newChildren.length - childId);
+        symbols = newSymbols;
+        children = newChildren;
+    }
+
+    /**
+     * Converts RadixTrie to sequence of bytes and writes it to given OutputStream
+     * Format:
+     * 1. Number of children of current node (int)
+     * 2. For every child length of its label (int), symbols of label (chars) and serialization with same format
+     * 3. Terminal flag (boolean)
+     * Children are written in increasing order of symbols. Given stream is not closed
+     */
+    @Override
+    public void serialize(OutputStream out) throws IOException {
+        var dataOut = new DataOutputStream(out);
+        write(dataOut);
+        dataOut.flush();
+    }
+
+    private void write(DataOutputStream dataOut) throws IOException {
+        dataOut.writeInt(children.length);
+        for (RadixTrie child : children) {
+            dataOut.writeInt(child.label.length());
+            dataOut.writeChars(child.label);
+            child.write(dataOut);
+        }
+        dataOut.writeBoolean(isTerminal);
+    }
+
+    /**
+     * Replaces old trie with new one from stream. Given stream is not closed
+     * @throws IOException if stream ends too early or contains tree which is not compressed
+     */
+    @Override
+    public void deserialize(InputStream in) throws IOException {
+        var newRoot = new RadixTrie();
+        newRoot.read(new DataInputStream(in));
+        size = newRoot.size;
+        symbols = newRoot.symbols;
+        children = newRoot.children;
+        isTerminal = newRoot.isTerminal;
+    }
+
+    private void read(DataInputStream dataIn) throws IOException {
+        int childrenNumber = dataIn.readInt();
+        if (childrenNumber < 0) {
+            throw new IOException("RadixTrie.deserialize got negative number of children");
+        }
+        for (int i = 0; i < childrenNumber; i++) {
+            int labelLength = dataIn.readInt();
+            if (labelLength <= 0) {
+                throw new IOException("RadixTrie.deserialize got edge with empty label");
+            }
+            var label = new char[labelLength];
+            for (int charId = 0; charId < labelLength; charId++) {
+                label[charId] = dataIn.readChar();
+            }
+
+            var child = new RadixTrie();
+            child.label = new String(label);
+            child.read(dataIn);
+            if (!child.isTerminal && child.children.length < 2) {
+                throw new IOException("RadixTrie.deserialize got node which should be merged with its child");
+            }
+
+            int childId = indexOf(label[0]);
+            if (childId >= 0) {
+                throw new IOException("RadixTrie.deserialize got node with two children by symbol " + label[0]);
+            }
+            insertChild(-childId - 1, child);
+            size += child.size;
+        }
+
+        isTerminal = dataIn.readBoolean();
+
+        if (isTerminal) {
+            ++size;
+        }
+    }
+
+    /**
+     * Checks if two RadixTries are equal
+     * Two RadixTries are equal if and only if they store same sets of strings, then they form same trees
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (other == null) {
+            return false;
+        }
+
+        if (this == other) {
+            return true;
+        }
+
+        if (!(other instanceof RadixTrie)) {
+            return false;
+        }
+
+        var otherTrie = (RadixTrie) other;
+
+        if (isTerminal != otherTrie.isTerminal || size != otherTrie.size || !label.equals(otherTrie.label)) {
+            return false;
+        }
+
+        if (!Arrays.equals(symbols, otherTrie.symbols)) {
+            return false;
+        }
+
+        for (int childId = 0; childId < children.length; childId++) {
+            if (!children[childId].equals(otherTrie.children[childId])) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /** Returns hash code of the tree, equal RadixTries have equal hash codes as they form same trees */
+    @Override
+    public int hashCode() {
+        int hash = 31 * Boolean.hashCode(isTerminal) + size;
+        hash = 31 * hash + label.hashCode();
+        for (RadixTrie child : children) {
+            hash = 31 * hash + child.hashCode();
+        }
+        return hash;
+    }
+}
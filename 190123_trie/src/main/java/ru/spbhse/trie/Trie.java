@@ -1,19 +1,39 @@
 package ru.spbhse.trie;
 
-import java.io.*;
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
 
 /**
  * Class realizing data structure Trie to store set of Unicode strings
- * Implemented using HashMap
+ * Children of every node are kept in two arrays sorted by symbol, without boxing and spare cells.
+ * Nodes with few children are searched linearly, nodes with many children by binary search
  */
 public class Trie implements Serializable {
     private int size;
-    private HashMap<Character, Trie> nextNode;
+    /** Symbols leading to children in increasing order */
+    private char[] symbols = NO_SYMBOLS;
+    /** Child by symbols[i] is children[i] */
+    private Trie[] children = NO_CHILDREN;
     private boolean isTerminal;
-
-    public Trie() {
-        nextNode = new HashMap<>();
+    /** Leaves share empty arrays */
+    private static final char[] NO_SYMBOLS = new char[0];
+    private static final Trie[] NO_CHILDREN = new Trie[0];
+    /** Nodes with one child by Latin-1 symbol share array of symbols, arrays of symbols are never changed in place */
+    private static final char[][] SINGLE_SYMBOLS = new char[256][];
+    /** Children of nodes with at most this number of them are searched linearly. Static not to take place in nodes */
+    private static final int LINEAR_SEARCH_LIMIT = 8;
+    /** First bytes of serialized Trie, "TRIE" in ASCII */
+    private static final int MAGIC = 0x54524945;
+    private static final int CURRENT_VERSION = 2;
+    /** Initial depth of explicit stacks used to walk the tree */
+    private static final int INITIAL_STACK_SIZE = 64;
+
+    static {
+        for (char symbol = 0; symbol < SINGLE_SYMBOLS.length; symbol++) {
+            SINGLE_SYMBOLS[symbol] = new char[] {symbol};
+        }
     }
 
     /**
@@ -45,11 +65,13 @@ public class Trie implements Serializable {
 
         char currentChar = element.charAt(charId);
 
-        if (!nextNode.containsKey(currentChar)) {
-            nextNode.put(currentChar, new Trie());
+        int childId = indexOf(currentChar);
+        if (childId < 0) {
+            childId = -childId - 1;
+            insertChild(childId, currentChar, new Trie());
         }
 
-        boolean isNew = nextNode.get(currentChar).addStartFrom(element, charId + 1);
+        boolean isNew = children[childId].addStartFrom(element, charId + 1);
         if (isNew) {
             ++size;
         }
@@ -93,18 +115,18 @@ public class Trie implements Serializable {
             return wasInTrie;
         }
 
-        char currentChar = element.charAt(charId);
+        int childId = indexOf(element.charAt(charId));
 
-        if (!nextNode.containsKey(currentChar)) {
+        if (childId < 0) {
             return false;
         }
 
-        Trie removingNode = nextNode.get(currentChar);
+        Trie removingNode = children[childId];
         boolean wasInTrie = removingNode.removeStartFrom(element, charId + 1);
         if (wasInTrie) {
             --size;
             if (removingNode.size == 0) {
-                nextNode.remove(currentChar);
+                removeChild(childId);
             }
         }
 
@@ -116,6 +138,26 @@ public class Trie implements Serializable {
         return size;
     }
 
+    /** Returns true iff string leading to this node is in a trie */
+    boolean isTerminal() {
+        return isTerminal;
+    }
+
+    /** Returns number of children of this node */
+    int childrenNumber() {
+        return children.length;
+    }
+
+    /** Returns symbol leading to child with given number, children are ordered by symbols */
+    char symbolOf(int childId) {
+        return symbols[childId];
+    }
+
+    /** Returns child with given number, children are ordered by symbols */
+    Trie childAt(int childId) {
+        return children[childId];
+    }
+
     /** Returns number of strings in a trie that start with given prefix */
     public int howManyStartsWithPrefix(String prefix) {
         if (prefix == null) {
@@ -128,62 +170,263 @@ public class Trie implements Serializable {
     /** Returns Node appropriated to given prefix and null if it doesn't exist */
     private Trie goDownPrefix(String prefix) {
         Trie currentNode = this;
-        for (char c : prefix.toCharArray()) {
+        for (int charId = 0; charId < prefix.length(); charId++) {
+            int childId = currentNode.indexOf(prefix.charAt(charId));
 
-            if (!currentNode.nextNode.containsKey(c)) {
+            if (childId < 0) {
                 return null;
             }
 
-            currentNode = currentNode.nextNode.get(c);
+            currentNode = currentNode.children[childId];
         }
 
         return currentNode;
     }
 
+    /**
+     * Finds child by given symbol
+     * @return index of child if it exists or (-(insertion point) - 1) otherwise, like Arrays.binarySearch
+     */
+    private int indexOf(char symbol) {
+        if (symbols.length > LINEAR_SEARCH_LIMIT) {
+            return Arrays.binarySearch(symbols, symbol);
+        }
+        for (int childId = 0; childId < symbols.length; childId++) {
+            if (symbols[childId] >= symbol) {
+                return symbols[childId] == symbol ? childId : -childId - 1;
+            }
+        }
+        return -symbols.length - 1;
+    }
+
+    /** Inserts child with given symbol at given position, arrays grow exactly by one cell */
+    private void insertChild(int childId, char symbol, Trie child) {
+        if (symbols.length == 0 && symbol < SINGLE_SYMBOLS.length) {
+            symbols = SINGLE_SYMBOLS[symbol];
+            children = new Trie[] {child};
+            return;
+        }
+        var newSymbols = new char[symbols.length + 1];
+        var newChildren = new Trie[children.length + 1];
+        System.arraycopy(symbols, 0, newSymbols, 0, childId);
+        System.arraycopy(children, 0, newChildren, 0, childId);
+        newSymbols[childId] = symbol;
+        newChildren[childId] = child;
+        System.arraycopy(symbols, childId, newSymbols, childId + 1, symbols.length - childId);
+        System.arraycopy(children, childId, newChildren, childId + 1, children.length - childId);
+        symbols = newSymbols;
+        children = newChildren;
+    }
+
+    private void removeChild(int childId) {
+        if (symbols.length == 1) {
+            symbols = NO_SYMBOLS;
+            children = NO_CHILDREN;
+            return;
+        }
+        if (symbols.length == 2 && symbols[1 - childId] < SINGLE_SYMBOLS.length) {
+            symbols = SINGLE_SYMBOLS[symbols[1 - childId]];
+            children = new Trie[] {children[1 - childId]};
+            return;
+        }
+        var newSymbols = new char[symbols.length - 1];
+        var newChildren = new Trie[children.length - 1];
+        System.arraycopy(symbols, 0, newSymbols, 0, childId);
+        System.arraycopy(children, 0, newChildren, 0, childId);
+        System.arraycopy(symbols, childId + 1, newSymbols, childId, newSymbols.length - childId);
+        System.arraycopy(children, childId + 1, newChildren, childId, newChildren.length - childId);
+        symbols = newSymbols;
+        children = newChildren;
+    }
+
     /**
      * Converts Trie to sequence of bytes and writes it to given OutputStream
      * Format:
-     * 1. Number of children of current node (int)
-     * 2. For every child of node symbol leading to it (char) and serialization with same format
-     * 3. Terminal flag (boolean)
+     * 1. Header: MAGIC (int) and CURRENT_VERSION (byte)
+     * 2. Nodes in preorder. Node is varint (number of children * 2 + terminal flag),
+     * then for every child varint of its symbol and serialization of its subtree.
+     * Symbol of the first child is written as is, symbol of every next one as difference with previous minus one
+     * Varint is written by 7 bits starting from the lowest ones, high bit of byte means that more follow.
+     * Tree is walked without recursion and bytes are buffered, given stream is flushed but not closed
      */
     @Override
     public void serialize(OutputStream out) throws IOException {
-        try (var dataOut = new DataOutputStream(out)) {
-            dataOut.writeInt(nextNode.size());
-            for (char key : nextNode.keySet()) {
-                dataOut.writeChar(key);
-                nextNode.get(key).serialize(out);
+        var writer = new ByteWriter(out);
+        writer.writeInt(MAGIC);
+        writer.writeByte(CURRENT_VERSION);
+        writer.writeVarInt(header(this));
+
+        var nodes = new Trie[INITIAL_STACK_SIZE];
+        var nextChildIds = new int[INITIAL_STACK_SIZE];
+        nodes[0] = this;
+        int depth = 0;
+        while (depth >= 0) {
+            Trie node = nodes[depth];
+            int childId = nextChildIds[depth];
+            if (childId == node.children.length) {
+                --depth;
+                continue;
             }
-            dataOut.writeBoolean(isTerminal);
+            writer.writeVarInt(childId == 0 ? node.symbols[0] : node.symbols[childId] - node.symbols[childId - 1] - 1);
+            Trie child = node.children[childId];
+            writer.writeVarInt(header(child));
+            nextChildIds[depth] = childId + 1;
+
+            if (++depth == nodes.length) {
+                nodes = Arrays.copyOf(nodes, nodes.length * 2);
+                nextChildIds = Arrays.copyOf(nextChildIds, nodes.length);
+            }
+            nodes[depth] = child;
+            nextChildIds[depth] = 0;
         }
+        writer.flush();
+    }
+
+    private static int header(Trie node) {
+        return node.children.length * 2 + (node.isTerminal ? 1 : 0);
     }
 
-    /** Replaces old trie with new one from stream */
+    /**
+     * Replaces old trie with new one from stream
+     * Reads format of serialize and format of version 1, which had no header: number of children (int),
+     * then for every child in any order its symbol (char) and subtree, then terminal flag (boolean)
+     * Bytes after serialized trie are left in the stream, so several tries may be read from one stream.
+     * Stream supporting mark is read by blocks, others by single bytes: wrap such stream in BufferedInputStream,
+     * which should be kept for reading the following data. Stream is not closed
+     * @throws IOException if stream ends too early, has unknown version or contains incorrect trie,
+     * then old trie is kept
+     */
     @Override
     public void deserialize(InputStream in) throws IOException {
-        size = 0;
-        nextNode.clear();
+        var reader = new ByteReader(in);
+        int firstInt = reader.readInt();
+        Trie newRoot;
+        if (firstInt == MAGIC) {
+            int version = reader.readByte();
+            if (version != CURRENT_VERSION) {
+                throw new IOException("Trie.deserialize got unsupported format version " + version);
+            }
+            newRoot = readNodes(reader);
+        } else {
+            // there is no header in version 1, and MAGIC is greater than any number of children
+            newRoot = readVersion1Nodes(reader, firstInt);
+        }
+        reader.finish();
 
-        try (var dataIn = new DataInputStream(in)) {
-            int nextNodeSize = dataIn.readInt();
+        size = newRoot.size;
+        symbols = newRoot.symbols;
+        children = newRoot.children;
+        isTerminal = newRoot.isTerminal;
+    }
 
-            for (int currentSymbol = 0; currentSymbol < nextNodeSize; currentSymbol++) {
-                char symbol = dataIn.readChar();
+    /** Reads nodes of current format without recursion, arrays of children are allocated of exact size at once */
+    private static Trie readNodes(ByteReader reader) throws IOException {
+        var root = new Trie();
+        readHeader(reader, root);
+
+        var nodes = new Trie[INITIAL_STACK_SIZE];
+        var nextChildIds = new int[INITIAL_STACK_SIZE];
+        nodes[0] = root;
+        int depth = 0;
+        while (depth >= 0) {
+            Trie node = nodes[depth];
+            int childId = nextChildIds[depth];
+            if (childId == node.children.length) {
+                finishNode(node, depth == 0 ? null : nodes[depth - 1]);
+                --depth;
+                continue;
+            }
 
-                var newNode = new Trie();
-                newNode.deserialize(in);
+            int symbol = reader.readVarInt() + (childId == 0 ? 0 : node.symbols[childId - 1] + 1);
+            if (symbol < 0 || symbol > Character.MAX_VALUE) {
+                throw new IOException("Trie.deserialize got symbol out of char range");
+            }
+            var child = new Trie();
+            readHeader(reader, child);
+            node.symbols[childId] = (char) symbol;
+            node.children[childId] = child;
+            nextChildIds[depth] = childId + 1;
+
+            if (++depth == nodes.length) {
+                nodes = Arrays.copyOf(nodes, nodes.length * 2);
+                nextChildIds = Arrays.copyOf(nextChildIds, nodes.length);
+            }
+            nodes[depth] = child;
+            nextChildIds[depth] = 0;
+        }
+        return root;
+    }
 
-                size += newNode.size;
-                nextNode.put(symbol, newNode);
+    private static void readHeader(ByteReader reader, Trie node) throws IOException {
+        int header = reader.readVarInt();
+        int childrenNumber = header >>> 1;
+        if (childrenNumber > Character.MAX_VALUE + 1) {
+            throw new IOException("Trie.deserialize got node with " + childrenNumber + " children");
+        }
+        node.isTerminal = (header & 1) == 1;
+        node.size = node.isTerminal ? 1 : 0;
+        if (childrenNumber > 0) {
+            node.symbols = new char[childrenNumber];
+            node.children = new Trie[childrenNumber];
+        }
+    }
+
+    /** Reads nodes of version 1 without recursion, number of children of root is already read */
+    private static Trie readVersion1Nodes(ByteReader reader, int rootChildrenNumber) throws IOException {
+        var root = new Trie();
+        var nodes = new Trie[INITIAL_STACK_SIZE];
+        var childrenLeft = new int[INITIAL_STACK_SIZE];
+        nodes[0] = root;
+        childrenLeft[0] = rootChildrenNumber;
+        int depth = 0;
+        while (depth >= 0) {
+            Trie node = nodes[depth];
+            if (childrenLeft[depth] == 0) {
+                // in version 1 terminal flag follows children
+                node.isTerminal = reader.readByte() != 0;
+                if (node.isTerminal) {
+                    ++node.size;
+                }
+                finishNode(node, depth == 0 ? null : nodes[depth - 1]);
+                --depth;
+                continue;
             }
+            --childrenLeft[depth];
 
-            isTerminal = dataIn.readBoolean();
+            char symbol = reader.readChar();
+            int childId = node.indexOf(symbol);
+            if (childId >= 0) {
+                throw new IOException("Trie.deserialize got node with two children by symbol " + symbol);
+            }
+            var child = new Trie();
+            node.insertChild(-childId - 1, symbol, child);
+            int childrenNumber = reader.readInt();
+            if (childrenNumber < 0 || childrenNumber > Character.MAX_VALUE + 1) {
+                throw new IOException("Trie.deserialize got node with " + childrenNumber + " children");
+            }
 
-            if (isTerminal) {
-                ++size;
+            if (++depth == nodes.length) {
+                nodes = Arrays.copyOf(nodes, nodes.length * 2);
+                childrenLeft = Arrays.copyOf(childrenLeft, nodes.length);
             }
+            nodes[depth] = child;
+            childrenLeft[depth] = childrenNumber;
+        }
+        return root;
+    }
+
+    /** Checks read node whose subtree is read completely and adds number of its strings to parent */
+    private static void finishNode(Trie node, Trie parent) throws IOException {
+        if (node.symbols.length == 1 && node.symbols[0] < SINGLE_SYMBOLS.length) {
+            node.symbols = SINGLE_SYMBOLS[node.symbols[0]];
+        }
+        if (parent == null) {
+            return;
+        }
+        if (node.size == 0) {
+            throw new IOException("Trie.deserialize got node without strings");
         }
+        parent.size += node.size;
     }
 
     /**
@@ -210,12 +453,12 @@ public class Trie implements Serializable {
             return false;
         }
 
-        if (!nextNode.keySet().equals(otherTrie.nextNode.keySet())) {
+        if (!Arrays.equals(symbols, otherTrie.symbols)) {
             return false;
         }
 
-        for (char key : nextNode.keySet()) {
-            if (!nextNode.get(key).equals(otherTrie.nextNode.get(key))) {
+        for (int childId = 0; childId < children.length; childId++) {
+            if (!children[childId].equals(otherTrie.children[childId])) {
                 return false;
             }
         }
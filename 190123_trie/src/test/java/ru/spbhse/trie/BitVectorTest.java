@@ -0,0 +1,48 @@
+package ru.spbhse.trie;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitVectorTest {
+
+    @Test
+    void rankAndSelectMatchNaive() {
+        var random = new Random(239);
+        for (int length : new int[] {1, 63, 64, 65, 511, 512, 513, 5000}) {
+            var builder = new BitVector.Builder();
+            var bits = new boolean[length];
+            for (int i = 0; i < length; i++) {
+                bits[i] = random.nextInt(3) == 0;
+                builder.append(bits[i]);
+            }
+            BitVector vector = builder.build();
+            assertEquals(length, vector.length());
+
+            int ones = 0;
+            int zeros = 0;
+            for (int i = 0; i < length; i++) {
+                assertEquals(ones, vector.rank1(i));
+                assertEquals(bits[i], vector.get(i));
+                if (bits[i]) {
+                    assertEquals(i, vector.select1(ones++));
+                } else {
+                    assertEquals(i, vector.select0(zeros++));
+                }
+            }
+            assertEquals(ones, vector.rank1(length));
+        }
+    }
+
+    @Test
+    void rankDirectoryIsSmall() {
+        var builder = new BitVector.Builder();
+        for (int i = 0; i < 1 << 20; i++) {
+            builder.append(i % 3 == 0);
+        }
+        // rank directory takes 1/16 of bits, select samples 1/64
+        assertTrue(builder.build().sizeInBits() < (1 << 20) * 69 / 64 + 128);
+    }
+}
@@ -0,0 +1,142 @@
+package ru.spbhse.trie;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DawgTest {
+
+    private DawgBuilder builder;
+
+    @BeforeEach
+    private void init() {
+        builder = new DawgBuilder();
+    }
+
+    private Dawg build(String... elements) {
+        for (String element : elements) {
+            builder.add(element);
+        }
+        return builder.build();
+    }
+
+    @Test
+    void nullsThrow() {
+        assertThrows(IllegalArgumentException.class, () -> builder.add(null));
+        Dawg dawg = builder.build();
+        assertThrows(IllegalArgumentException.class, () -> dawg.contains(null));
+        assertThrows(IllegalArgumentException.class, () -> dawg.howManyStartsWithPrefix(null));
+    }
+
+    @Test
+    void emptyDawg() {
+        Dawg dawg = builder.build();
+        assertEquals(0, dawg.size());
+        assertFalse(dawg.contains(""));
+        assertFalse(dawg.contains("a"));
+        assertEquals(0, dawg.howManyStartsWithPrefix(""));
+        assertEquals(1, dawg.nodesNumber());
+    }
+
+    @Test
+    void elementsMustBeInIncreasingOrder() {
+        assertTrue(builder.add("aba"));
+        assertFalse(builder.add("aba"));
+        assertTrue(builder.add("abac"));
+        assertThrows(IllegalArgumentException.class, () -> builder.add("ab"));
+        assertTrue(builder.add("b"));
+        assertEquals(3, builder.build().size());
+    }
+
+    @Test
+    void builderCantBeUsedAfterBuild() {
+        builder.add("a");
+        builder.build();
+        assertThrows(IllegalStateException.class, () -> builder.add("b"));
+        assertThrows(IllegalStateException.class, () -> builder.build());
+    }
+
+    @Test
+    void containsAndHowManyStartsWithPrefix() {
+        Dawg dawg = build("", "aba", "abac", "abad", "caba");
+        assertEquals(5, dawg.size());
+        assertTrue(dawg.contains(""));
+        assertTrue(dawg.contains("abac"));
+        assertTrue(dawg.contains("caba"));
+        assertFalse(dawg.contains("ab"));
+        assertFalse(dawg.contains("abacd"));
+        assertFalse(dawg.contains("x"));
+        assertEquals(5, dawg.howManyStartsWithPrefix(""));
+        assertEquals(3, dawg.howManyStartsWithPrefix("ab"));
+        assertEquals(3, dawg.howManyStartsWithPrefix("aba"));
+        assertEquals(1, dawg.howManyStartsWithPrefix("abad"));
+        assertEquals(0, dawg.howManyStartsWithPrefix("abae"));
+    }
+
+    @Test
+    void equalSuffixesAreShared() {
+        Dawg dawg = build("tap", "taps", "top", "tops");
+        // root -t-> node -a,o-> node -p-> terminal node -s-> terminal node
+        assertEquals(5, dawg.nodesNumber());
+        assertEquals(5, dawg.edgesNumber());
+        assertEquals(4, dawg.size());
+        assertEquals(2, dawg.howManyStartsWithPrefix("to"));
+        assertFalse(dawg.contains("tos"));
+    }
+
+    @Test
+    void manyChildrenOfOneNode() {
+        for (char c = 'a'; c < 'a' + 300; c++) {
+            builder.add("x" + c);
+        }
+        Dawg dawg = builder.build();
+        assertEquals(3, dawg.nodesNumber());
+        for (char c = 'a'; c < 'a' + 300; c++) {
+            assertTrue(dawg.contains("x" + c));
+        }
+        assertFalse(dawg.contains("x" + (char) ('a' + 300)));
+        assertEquals(300, dawg.howManyStartsWithPrefix("x"));
+    }
+
+    @Test
+    void randomWordsMatchTrie() {
+        var random = new Random(239);
+        var words = new TreeSet<String>();
+        var trie = new Trie();
+        String[] suffixes = {"", "s", "ed", "ing", "er", "ers"};
+        for (int i = 0; i < 3000; i++) {
+            var stem = new StringBuilder();
+            int length = 1 + random.nextInt(5);
+            for (int j = 0; j < length; j++) {
+                stem.append((char) ('a' + random.nextInt(4)));
+            }
+            String word = stem + suffixes[random.nextInt(suffixes.length)];
+            words.add(word);
+            trie.add(word);
+        }
+        for (String word : words) {
+            builder.add(word);
+        }
+        Dawg dawg = builder.build();
+
+        assertEquals(trie.size(), dawg.size());
+        for (int i = 0; i < 3000; i++) {
+            var query = new StringBuilder();
+            int length = random.nextInt(9);
+            for (int j = 0; j < length; j++) {
+                query.append((char) ('a' + random.nextInt(26)));
+            }
+            String element = random.nextBoolean() ? words.ceiling(query.toString()) : query.toString();
+            if (element == null) {
+                continue;
+            }
+            String prefix = element.substring(0, random.nextInt(element.length() + 1));
+            assertEquals(trie.contains(element), dawg.contains(element));
+            assertEquals(trie.howManyStartsWithPrefix(prefix), dawg.howManyStartsWithPrefix(prefix));
+        }
+    }
+}
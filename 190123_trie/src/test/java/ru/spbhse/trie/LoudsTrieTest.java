@@ -0,0 +1,141 @@
+package ru.spbhse.trie;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoudsTrieTest {
+
+    private static Trie trieOf(String... elements) {
+        var trie = new Trie();
+        for (String element : elements) {
+            trie.add(element);
+        }
+        return trie;
+    }
+
+    @Test
+    void nullsThrow() {
+        assertThrows(IllegalArgumentException.class, () -> LoudsTrie.fromTrie(null));
+        assertThrows(IllegalArgumentException.class, () -> LoudsTrie.fromSorted(null));
+        assertThrows(IllegalArgumentException.class, () -> LoudsTrie.fromSorted(Arrays.asList("a", null)));
+        LoudsTrie trie = LoudsTrie.fromSorted(List.of("a"));
+        assertThrows(IllegalArgumentException.class, () -> trie.contains(null));
+        assertThrows(IllegalArgumentException.class, () -> trie.howManyStartsWithPrefix(null));
+    }
+
+    @Test
+    void unsortedInputThrows() {
+        assertThrows(IllegalArgumentException.class, () -> LoudsTrie.fromSorted(List.of("b", "a")));
+    }
+
+    @Test
+    void emptyTrie() {
+        for (LoudsTrie trie : List.of(LoudsTrie.fromTrie(new Trie()), LoudsTrie.fromSorted(List.of()))) {
+            assertEquals(0, trie.size());
+            assertEquals(1, trie.nodesNumber());
+            assertFalse(trie.contains(""));
+            assertFalse(trie.contains("a"));
+            assertEquals(0, trie.howManyStartsWithPrefix(""));
+        }
+    }
+
+    @Test
+    void containsAndHowManyStartsWithPrefix() {
+        String[] elements = {"", "aba", "abac", "abad", "caba"};
+        for (LoudsTrie trie : List.of(LoudsTrie.fromTrie(trieOf(elements)), LoudsTrie.fromSorted(List.of(elements)))) {
+            assertEquals(5, trie.size());
+            assertEquals(10, trie.nodesNumber());
+            assertTrue(trie.contains(""));
+            assertTrue(trie.contains("abad"));
+            assertTrue(trie.contains("caba"));
+            assertFalse(trie.contains("ab"));
+            assertFalse(trie.contains("abacd"));
+            assertFalse(trie.contains("x"));
+            assertEquals(5, trie.howManyStartsWithPrefix(""));
+            assertEquals(3, trie.howManyStartsWithPrefix("ab"));
+            assertEquals(1, trie.howManyStartsWithPrefix("c"));
+            assertEquals(1, trie.howManyStartsWithPrefix("abad"));
+            assertEquals(0, trie.howManyStartsWithPrefix("abae"));
+            assertEquals(0, trie.howManyStartsWithPrefix("d"));
+        }
+    }
+
+    @Test
+    void duplicatesInSortedInputAreCountedOnce() {
+        LoudsTrie trie = LoudsTrie.fromSorted(List.of("a", "a", "ab", "ab", "b"));
+        assertEquals(3, trie.size());
+        assertEquals(2, trie.howManyStartsWithPrefix("a"));
+    }
+
+    @Test
+    void manyChildrenOfOneNode() {
+        var elements = new ArrayList<String>();
+        for (char c = 'a'; c < 'a' + 300; c++) {
+            elements.add("x" + c);
+        }
+        elements.add("\uffff");
+        LoudsTrie trie = LoudsTrie.fromSorted(elements);
+        for (String element : elements) {
+            assertTrue(trie.contains(element));
+        }
+        assertFalse(trie.contains("x" + (char) ('a' + 300)));
+        assertFalse(trie.contains("x"));
+        assertEquals(300, trie.howManyStartsWithPrefix("x"));
+        assertEquals(trie.sizeInBits(), LoudsTrie.fromTrie(trieOf(elements.toArray(new String[0]))).sizeInBits());
+    }
+
+    @Test
+    void randomWordsMatchTrie() {
+        var random = new Random(239);
+        var words = new TreeSet<String>();
+        for (int i = 0; i < 20000; i++) {
+            var word = new StringBuilder();
+            int length = random.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                word.append((char) ('a' + random.nextInt(5 + j)));
+            }
+            words.add(word.toString());
+        }
+        Trie trie = trieOf(words.toArray(new String[0]));
+        LoudsTrie fromTrie = LoudsTrie.fromTrie(trie);
+        LoudsTrie fromSorted = LoudsTrie.fromSorted(new ArrayList<>(words));
+        assertEquals(trie.size(), fromTrie.size());
+        assertEquals(fromTrie.nodesNumber(), fromSorted.nodesNumber());
+
+        for (int i = 0; i < 20000; i++) {
+            var query = new StringBuilder();
+            int length = random.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                query.append((char) ('a' + random.nextInt(8)));
+            }
+            String element = random.nextBoolean() ? words.ceiling(query.toString()) : query.toString();
+            if (element == null) {
+                continue;
+            }
+            String prefix = element.substring(0, random.nextInt(element.length() + 1));
+            assertEquals(trie.contains(element), fromTrie.contains(element));
+            assertEquals(trie.contains(element), fromSorted.contains(element));
+            assertEquals(trie.howManyStartsWithPrefix(prefix), fromTrie.howManyStartsWithPrefix(prefix));
+            assertEquals(trie.howManyStartsWithPrefix(prefix), fromSorted.howManyStartsWithPrefix(prefix));
+        }
+    }
+
+    @Test
+    void sizeIsCloseToInformationTheoreticMinimum() {
+        var elements = new ArrayList<String>();
+        for (int i = 0; i < 100000; i++) {
+            elements.add(Integer.toString(1000000 + i * 7));
+        }
+        LoudsTrie trie = LoudsTrie.fromSorted(elements);
+        // shape 2n + 1 bits, terminal flag and 4-bit code of one of 10 digits per node
+        long minimum = 7L * trie.nodesNumber();
+        assertTrue(trie.sizeInBits() < minimum * 11 / 10, trie.sizeInBits() + " bits for " + minimum);
+    }
+}
@@ -0,0 +1,185 @@
+package ru.spbhse.trie;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RadixTrieTest {
+
+    private RadixTrie testTrie;
+
+    @BeforeEach
+    private void init() {
+        testTrie = new RadixTrie();
+    }
+
+    @Test
+    void nullsThrow() {
+        assertThrows(IllegalArgumentException.class, () -> testTrie.add(null));
+        assertThrows(IllegalArgumentException.class, () -> testTrie.contains(null));
+        assertThrows(IllegalArgumentException.class, () -> testTrie.remove(null));
+        assertThrows(IllegalArgumentException.class, () -> testTrie.howManyStartsWithPrefix(null));
+    }
+
+    @Test
+    void addContainsRemove() {
+        assertTrue(testTrie.add("abacaba"));
+        assertTrue(testTrie.add("abadabs"));
+        assertTrue(testTrie.add("aba"));
+        assertFalse(testTrie.add("aba"));
+        assertEquals(3, testTrie.size());
+
+        assertTrue(testTrie.contains("aba"));
+        assertTrue(testTrie.contains("abacaba"));
+        assertFalse(testTrie.contains("ab"));
+        assertFalse(testTrie.contains("abac"));
+        assertFalse(testTrie.contains("abacabad"));
+        assertFalse(testTrie.contains(""));
+
+        assertFalse(testTrie.remove("abac"));
+        assertFalse(testTrie.remove("abx"));
+        assertTrue(testTrie.remove("aba"));
+        assertFalse(testTrie.remove("aba"));
+        assertEquals(2, testTrie.size());
+        assertTrue(testTrie.contains("abadabs"));
+    }
+
+    @Test
+    void emptyString() {
+        assertTrue(testTrie.add(""));
+        assertTrue(testTrie.contains(""));
+        assertEquals(1, testTrie.howManyStartsWithPrefix(""));
+        assertTrue(testTrie.remove(""));
+        assertEquals(0, testTrie.size());
+    }
+
+    @Test
+    void chainIsOneNode() {
+        testTrie.add("https://example.com/very/long/path");
+        assertEquals(2, testTrie.nodesNumber());
+
+        // split of the edge in the middle
+        testTrie.add("https://example.com/very/short/path");
+        assertEquals(4, testTrie.nodesNumber());
+        testTrie.add("https://example.com/");
+        assertEquals(5, testTrie.nodesNumber());
+
+        // nodes which are neither terminal nor branching are merged back
+        testTrie.remove("https://example.com/");
+        assertEquals(4, testTrie.nodesNumber());
+        testTrie.remove("https://example.com/very/short/path");
+        assertEquals(2, testTrie.nodesNumber());
+        assertTrue(testTrie.contains("https://example.com/very/long/path"));
+    }
+
+    @Test
+    void howManyStartsWithPrefixInTheMiddleOfEdge() {
+        testTrie.add("abac");
+        testTrie.add("abad");
+        testTrie.add("xyz");
+        assertEquals(3, testTrie.howManyStartsWithPrefix(""));
+        assertEquals(2, testTrie.howManyStartsWithPrefix("a"));
+        assertEquals(2, testTrie.howManyStartsWithPrefix("ab"));
+        assertEquals(1, testTrie.howManyStartsWithPrefix("abac"));
+        assertEquals(1, testTrie.howManyStartsWithPrefix("xy"));
+        assertEquals(0, testTrie.howManyStartsWithPrefix("xz"));
+        assertEquals(0, testTrie.howManyStartsWithPrefix("abacd"));
+        assertEquals(0, testTrie.howManyStartsWithPrefix("b"));
+    }
+
+    @Test
+    void randomOperationsMatchTreeSetAndTrie() {
+        var random = new Random(239);
+        var expected = new TreeSet<String>();
+        var trie = new Trie();
+        for (int i = 0; i < 20000; i++) {
+            var word = new StringBuilder("/");
+            int length = random.nextInt(6);
+            for (int j = 0; j < length; j++) {
+                word.append((char) ('a' + random.nextInt(3)));
+            }
+            String element = word.toString();
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(element), testTrie.add(element));
+                trie.add(element);
+            } else {
+                assertEquals(expected.remove(element), testTrie.remove(element));
+                trie.remove(element);
+            }
+            assertEquals(expected.contains(element), testTrie.contains(element));
+            String prefix = element.substring(0, random.nextInt(element.length() + 1));
+            assertEquals(trie.howManyStartsWithPrefix(prefix), testTrie.howManyStartsWithPrefix(prefix));
+        }
+        assertEquals(expected.size(), testTrie.size());
+    }
+
+    @Test
+    void equalsDoesNotDependOnHistory() {
+        testTrie.add("aba");
+        testTrie.add("abeda");
+
+        var otherTrie = new RadixTrie();
+        otherTrie.add("abedaxx");
+        otherTrie.add("abeda");
+        otherTrie.add("ab");
+        otherTrie.add("aba");
+        otherTrie.remove("ab");
+        otherTrie.remove("abedaxx");
+
+        assertEquals(testTrie, otherTrie);
+        assertEquals(testTrie.hashCode(), otherTrie.hashCode());
+
+        otherTrie.remove("aba");
+        otherTrie.add("abe");
+        assertNotEquals(testTrie, otherTrie);
+        assertNotEquals(testTrie, null);
+        assertNotEquals(testTrie, "not a trie");
+    }
+
+    @Test
+    void serializeAndDeserialize() throws IOException {
+        testTrie.add("aba");
+        testTrie.add("caba");
+        testTrie.add("abc");
+        testTrie.add("");
+
+        var out = new ByteArrayOutputStream();
+        testTrie.serialize(out);
+        var otherTrie = new RadixTrie();
+        otherTrie.add("garbage");
+        otherTrie.deserialize(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(testTrie, otherTrie);
+        assertEquals(4, otherTrie.size());
+        assertEquals(2, otherTrie.howManyStartsWithPrefix("ab"));
+        assertFalse(otherTrie.contains("garbage"));
+    }
+
+    @Test
+    void deserializeRejectsUncompressedTree() throws IOException {
+        // "a" -> "b" -> terminal, where node "a" is neither terminal nor branching
+        var out = new ByteArrayOutputStream();
+        var dataOut = new DataOutputStream(out);
+        dataOut.writeInt(1);
+        dataOut.writeInt(1);
+        dataOut.writeChars("a");
+        dataOut.writeInt(1);
+        dataOut.writeInt(1);
+        dataOut.writeChars("b");
+        dataOut.writeInt(0);
+        dataOut.writeBoolean(true);
+        dataOut.writeBoolean(false);
+        dataOut.writeBoolean(false);
+
+        assertThrows(IOException.class, () -> testTrie.deserialize(new ByteArrayInputStream(out.toByteArray())));
+        assertThrows(IOException.class, () -> testTrie.deserialize(new ByteArrayInputStream(new byte[] {0, 0})));
+    }
+}
@@ -3,9 +3,15 @@ package ru.spbhse.trie;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -163,4 +169,193 @@ class TrieTest {
         }
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void manyChildrenOfOneNode() {
+        // more children than linearly searched ones, added in shuffled order
+        for (char c = 0; c < 300; c++) {
+            char symbol = (char) (c * 7919 % 300 + 'a');
+            assertTrue(testTrie1.add("x" + symbol));
+            assertTrue(testTrie1.add("x" + symbol + symbol));
+        }
+        assertEquals(600, testTrie1.howManyStartsWithPrefix("x"));
+        for (char c = 'a'; c < 'a' + 300; c++) {
+            assertTrue(testTrie1.contains("x" + c));
+            assertFalse(testTrie1.contains("x" + c + 'a' + 'a'));
+            assertEquals(2, testTrie1.howManyStartsWithPrefix("x" + c));
+        }
+        assertFalse(testTrie1.contains("x" + (char) ('a' - 1)));
+        assertFalse(testTrie1.contains("x" + (char) ('a' + 300)));
+
+        for (char c = 'a'; c < 'a' + 300; c += 2) {
+            assertTrue(testTrie1.remove("x" + c));
+            assertTrue(testTrie1.remove("x" + c + c));
+        }
+        assertEquals(300, testTrie1.size());
+        for (char c = 'a'; c < 'a' + 300; c++) {
+            assertEquals((c - 'a') % 2 == 1, testTrie1.contains("x" + c + c));
+        }
+    }
+
+    @Test
+    void removeLastChildAndAddAgain() {
+        testTrie1.add("ab");
+        testTrie1.add("ac");
+        testTrie1.remove("ab");
+        testTrie1.remove("ac");
+        assertEquals(0, testTrie1.howManyStartsWithPrefix("a"));
+        assertEquals(new Trie(), testTrie1);
+
+        testTrie1.add("ac");
+        assertTrue(testTrie1.contains("ac"));
+        assertEquals(1, testTrie1.size());
+    }
+
+    @Test
+    void deserializeChildrenInAnyOrder() throws IOException {
+        try (var out = new ByteArrayOutputStream()) {
+            var dataOut = new DataOutputStream(out);
+            dataOut.writeInt(2);
+            dataOut.writeChar('b');
+            dataOut.writeInt(0);
+            dataOut.writeBoolean(true);
+            dataOut.writeChar('a');
+            dataOut.writeInt(0);
+            dataOut.writeBoolean(true);
+            dataOut.writeBoolean(false);
+
+            testTrie1.deserialize(new ByteArrayInputStream(out.toByteArray()));
+        }
+
+        var expected = new Trie();
+        expected.add("a");
+        expected.add("b");
+        assertEquals(expected, testTrie1);
+        assertEquals(2, testTrie1.size());
+    }
+
+    @Test
+    void serializedFormat() throws IOException {
+        testTrie1.add("ab");
+        testTrie1.add("ac");
+        var out = new ByteArrayOutputStream();
+        testTrie1.serialize(out);
+        // header, root with one child, 'a' with two children, 'b' as is, 'c' as difference with 'b' minus one
+        assertArrayEquals(new byte[] {'T', 'R', 'I', 'E', 2, 2, 'a', 4, 'b', 1, 0, 1}, out.toByteArray());
+    }
+
+    @Test
+    void serializeDoesNotCloseStream() throws IOException {
+        var isClosed = new boolean[1];
+        var out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                isClosed[0] = true;
+            }
+        };
+        testTrie1.add("aba");
+        testTrie1.add("abc");
+        testTrie1.serialize(out);
+        assertFalse(isClosed[0]);
+    }
+
+    @Test
+    void severalTriesInOneStream() throws IOException {
+        testTrie1.add("aba");
+        testTrie1.add("caba");
+        var testTrie2 = new Trie();
+        for (int i = 0; i < 100000; i++) {
+            testTrie2.add(Integer.toString(i * 7));
+        }
+        var out = new ByteArrayOutputStream();
+        testTrie1.serialize(out);
+        testTrie2.serialize(out);
+        testTrie1.serialize(out);
+        out.write(new byte[] {1, 2, 3});
+        byte[] bytes = out.toByteArray();
+
+        var notMarkable = new FilterInputStream(new ByteArrayInputStream(bytes)) {
+            @Override
+            public boolean markSupported() {
+                return false;
+            }
+        };
+        var streams = List.of(new ByteArrayInputStream(bytes),
+                new BufferedInputStream(new ByteArrayInputStream(bytes), 100), notMarkable);
+        for (InputStream in : streams) {
+            var first = new Trie();
+            var second = new Trie();
+            var third = new Trie();
+            first.deserialize(in);
+            second.deserialize(in);
+            third.deserialize(in);
+            assertEquals(testTrie1, first);
+            assertEquals(testTrie2, second);
+            assertEquals(testTrie1, third);
+            assertArrayEquals(new byte[] {1, 2, 3}, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void serializeAndDeserializeWideTrie() throws IOException {
+        for (char c = 0; c < 1000; c++) {
+            testTrie1.add("wide" + (char) (c * 61));
+        }
+        testTrie1.add("\uffff\u0000");
+
+        var out = new ByteArrayOutputStream();
+        testTrie1.serialize(out);
+        var testTrie2 = new Trie();
+        testTrie2.deserialize(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(testTrie1, testTrie2);
+        assertEquals(1001, testTrie2.size());
+        assertEquals(1000, testTrie2.howManyStartsWithPrefix("wide"));
+        assertTrue(testTrie2.contains("\uffff\u0000"));
+    }
+
+    @Test
+    void serializeAndDeserializeDeepTrie() throws IOException {
+        // one word of 100000 letters 'a': every node has one child and is not terminal except the last one
+        final int depth = 100000;
+        var bytes = new ByteArrayOutputStream();
+        bytes.write(new byte[] {'T', 'R', 'I', 'E', 2});
+        for (int i = 0; i < depth; i++) {
+            bytes.write(2);
+            bytes.write('a');
+        }
+        bytes.write(1);
+
+        testTrie1.deserialize(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(1, testTrie1.size());
+        assertTrue(testTrie1.contains("a".repeat(depth)));
+        assertEquals(1, testTrie1.howManyStartsWithPrefix("a".repeat(depth / 2)));
+
+        var out = new ByteArrayOutputStream();
+        testTrie1.serialize(out);
+        assertArrayEquals(bytes.toByteArray(), out.toByteArray());
+    }
+
+    @Test
+    void deserializeBrokenStreamKeepsTrie() throws IOException {
+        testTrie1.add("aba");
+        testTrie1.add("caba");
+        var out = new ByteArrayOutputStream();
+        testTrie1.serialize(out);
+        byte[] bytes = out.toByteArray();
+
+        var testTrie2 = new Trie();
+        testTrie2.add("old");
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 1);
+        assertThrows(IOException.class, () -> testTrie2.deserialize(new ByteArrayInputStream(truncated)));
+        byte[] unknownVersion = bytes.clone();
+        unknownVersion[4] = 3;
+        assertThrows(IOException.class, () -> testTrie2.deserialize(new ByteArrayInputStream(unknownVersion)));
+        // root with one child 'a' which is neither terminal nor has children
+        byte[] emptyNode = {'T', 'R', 'I', 'E', 2, 2, 'a', 0};
+        assertThrows(IOException.class, () -> testTrie2.deserialize(new ByteArrayInputStream(emptyNode)));
+
+        assertEquals(1, testTrie2.size());
+        assertTrue(testTrie2.contains("old"));
+    }
+}
@@ -0,0 +1,67 @@
+package ru.spbhse.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.spbhse.hashmap.cache.BoundedCache;
+import ru.spbhse.hashmap.cache.LruPolicy;
+import ru.spbhse.hashmap.cache.TinyLfuPolicy;
+import ru.spbhse.hashmap.cache.Weigher;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures cache in front of a store: every miss loads value and puts it to cache
+ * Hit rate of every trial is printed on tear down
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BoundedCacheBenchmark {
+
+    @Param({"lru", "tinyLfu"})
+    private String policy;
+
+    @Param({"ZIPFIAN", "UNIFORM"})
+    private KeyDistribution distribution;
+
+    @Param({"1000000"})
+    private int keysNumber;
+
+    @Param({"10000"})
+    private int cacheSize;
+
+    private BoundedCache cache;
+    private String[] keys;
+    private int[] requests;
+    private int nextRequestId;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        keys = new String[keysNumber];
+        for (int i = 0; i < keysNumber; i++) {
+            keys[i] = "key" + i;
+        }
+        requests = distribution.generate(keysNumber, 1 << 22, 239);
+        cache = new BoundedCache(cacheSize, Weigher.ENTRIES,
+                policy.equals("lru") ? new LruPolicy() : new TinyLfuPolicy());
+    }
+
+    @TearDown(Level.Trial)
+    public void printHitRate() {
+        System.out.printf("%nhit rate of %s: %.3f%n", policy, cache.hitRate());
+    }
+
+    @Benchmark
+    public String getOrLoad() {
+        String key = keys[requests[nextRequestId]];
+        nextRequestId = (nextRequestId + 1) & (requests.length - 1);
+        String value = cache.get(key);
+        if (value == null) {
+            value = key;
+            cache.put(key, value);
+        }
+        return value;
+    }
+}
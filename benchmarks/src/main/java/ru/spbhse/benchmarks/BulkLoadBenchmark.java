@@ -0,0 +1,55 @@
+package ru.spbhse.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.spbhse.hashmap.HashMap;
+
+import java.util.concurrent.TimeUnit;
+
+/** Measures loading of many elements to empty HashMap with and without knowing their number in advance */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class BulkLoadBenchmark {
+
+    @Param({"1000000", "10000000"})
+    private int size;
+
+    private String[] keys;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        keys = new String[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = "key" + i;
+        }
+    }
+
+    /** Table grows through all prime sizes from default one */
+    @Benchmark
+    public HashMap putOneByOne() {
+        var map = new HashMap();
+        for (String key : keys) {
+            map.put(key, key);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public HashMap putWithCapacityHint() {
+        var map = new HashMap(size, 2);
+        for (String key : keys) {
+            map.put(key, key);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public HashMap putAll() {
+        var map = new HashMap();
+        map.putAll(keys, keys);
+        return map;
+    }
+}
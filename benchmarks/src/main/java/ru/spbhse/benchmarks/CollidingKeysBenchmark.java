@@ -0,0 +1,52 @@
+package ru.spbhse.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.spbhse.hashmap.StringMap;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures lookups in map where all keys have same hash code, as crafted by an attacker
+ * Time per lookup should grow logarithmically with number of keys, not linearly
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CollidingKeysBenchmark {
+
+    @Param({"chained", "seeded", "javaUtil"})
+    private String engine;
+
+    /** Number of keys is 2^keyBlocks */
+    @Param({"6", "10", "14"})
+    private int keyBlocks;
+
+    private StringMap map;
+    private String[] keys;
+    private int nextKeyId;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        keys = new String[1 << keyBlocks];
+        map = StringMapEngines.create(engine);
+        for (int i = 0; i < keys.length; i++) {
+            // "Aa" and "BB" have same hash code, so do all strings made of them
+            var key = new StringBuilder();
+            for (int block = 0; block < keyBlocks; block++) {
+                key.append((i >> block & 1) == 0 ? "Aa" : "BB");
+            }
+            keys[i] = key.toString();
+            map.put(keys[i], keys[i]);
+        }
+    }
+
+    @Benchmark
+    public String get() {
+        int keyId = nextKeyId;
+        nextKeyId = keyId + 1 == keys.length ? 0 : keyId + 1;
+        return map.get(keys[keyId]);
+    }
+}
@@ -0,0 +1,66 @@
+package ru.spbhse.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.spbhse.hashmap.StringMap;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures throughput of shared map under mixed load: readPercent% of gets, the rest are puts
+ * Run main method to measure scaling from 1 to 32 threads
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConcurrentHashMapBenchmark {
+
+    @Param({"globalLock", "concurrent", "copyOnWrite", "stamped"})
+    private String engine;
+
+    @Param({"90", "99"})
+    private int readPercent;
+
+    @Param({"1000000"})
+    private int keysNumber;
+
+    private StringMap map;
+    private String[] keys;
+
+    @Setup(Level.Iteration)
+    public void fill() {
+        map = StringMapEngines.create(engine);
+        keys = new String[keysNumber];
+        for (int i = 0; i < keysNumber; i++) {
+            keys[i] = "key" + i;
+        }
+        for (int i = 0; i < keysNumber; i += 2) {
+            map.put(keys[i], keys[i]);
+        }
+    }
+
+    @Benchmark
+    public String mixed() {
+        var random = ThreadLocalRandom.current();
+        String key = keys[random.nextInt(keysNumber)];
+        if (random.nextInt(100) < readPercent) {
+            return map.get(key);
+        }
+        return map.put(key, key);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads = 1; threads <= 32; threads *= 2) {
+            new Runner(new OptionsBuilder()
+                    .include(ConcurrentHashMapBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build()).run();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package ru.spbhse.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.spbhse.trie.Dawg;
+import ru.spbhse.trie.DawgBuilder;
+import ru.spbhse.trie.LoudsTrie;
+import ru.spbhse.trie.Trie;
+
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures lookups in Trie, Dawg and LoudsTrie built from word list similar to natural language:
+ * stems of a few syllables, each with several common inflection suffixes
+ * Run main method to print retained heap per word, word list file (one word per line) may be given as argument
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DawgBenchmark {
+
+    private static final String[] SUFFIXES = {"", "s", "ed", "ing", "er", "ers", "ly", "ness", "able", "ment",
+            "ments", "ation", "ations", "ful", "less", "est"};
+    private static final String CONSONANTS = "bcdfghklmnprstvz";
+    private static final String VOWELS = "aeiou";
+
+    @Param({"dawg", "louds", "trie"})
+    private String engine;
+
+    @Param({"1000000"})
+    private int wordsNumber;
+
+    private Trie trie;
+    private Dawg dawg;
+    private LoudsTrie loudsTrie;
+    private String[] requests;
+    private int nextRequestId;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        TreeSet<String> words = generateWords(wordsNumber, new Random(239));
+        if (engine.equals("dawg")) {
+            dawg = buildDawg(words);
+        } else if (engine.equals("louds")) {
+            loudsTrie = LoudsTrie.fromSorted(new ArrayList<>(words));
+        } else {
+            trie = buildTrie(words);
+        }
+        // half of requests are words, half are random strings
+        String[] wordsArray = words.toArray(new String[0]);
+        var random = new Random(17);
+        requests = new String[1 << 20];
+        for (int i = 0; i < requests.length; i++) {
+            String word = wordsArray[random.nextInt(wordsArray.length)];
+            requests[i] = random.nextBoolean() ? word : word.substring(1) + "x";
+        }
+    }
+
+    @Benchmark
+    public boolean contains() {
+        String element = nextRequest();
+        if (dawg != null) {
+            return dawg.contains(element);
+        }
+        return loudsTrie != null ? loudsTrie.contains(element) : trie.contains(element);
+    }
+
+    @Benchmark
+    public int howManyStartsWithPrefix() {
+        String element = nextRequest();
+        String prefix = element.substring(0, Math.min(element.length(), 3));
+        if (dawg != null) {
+            return dawg.howManyStartsWithPrefix(prefix);
+        }
+        return loudsTrie != null ? loudsTrie.howManyStartsWithPrefix(prefix) : trie.howManyStartsWithPrefix(prefix);
+    }
+
+    private String nextRequest() {
+        String request = requests[nextRequestId];
+        nextRequestId = (nextRequestId + 1) & (requests.length - 1);
+        return request;
+    }
+
+    /** Generates given number of distinct words, suffixes of a stem are chosen at random */
+    private static TreeSet<String> generateWords(int wordsNumber, Random random) {
+        var words = new TreeSet<String>();
+        while (words.size() < wordsNumber) {
+            var stem = new StringBuilder();
+            int syllablesNumber = 1 + random.nextInt(4);
+            for (int i = 0; i < syllablesNumber; i++) {
+                stem.append(CONSONANTS.charAt(random.nextInt(CONSONANTS.length())));
+                stem.append(VOWELS.charAt(random.nextInt(VOWELS.length())));
+                if (random.nextInt(3) == 0) {
+                    stem.append(CONSONANTS.charAt(random.nextInt(CONSONANTS.length())));
+                }
+            }
+            for (String suffix : SUFFIXES) {
+                if (random.nextInt(3) == 0 && words.size() < wordsNumber) {
+                    words.add(stem + suffix);
+                }
+            }
+        }
+        return words;
+    }
+
+    private static Dawg buildDawg(Iterable<String> sortedWords) {
+        var builder = new DawgBuilder();
+        for (String word : sortedWords) {
+            builder.add(word);
+        }
+        return builder.build();
+    }
+
+    private static Trie buildTrie(Iterable<String> words) {
+        var trie = new Trie();
+        for (String word : words) {
+            trie.add(word);
+        }
+        return trie;
+    }
+
+    /**
+     * Prints heap retained by Trie, Dawg and LoudsTrie per word, not counting the words themselves
+     * Words are read from file given as the only argument or generated
+     */
+    public static void main(String[] args) throws IOException {
+        var words = new TreeSet<String>();
+        if (args.length > 0) {
+            for (String line : Files.readAllLines(Paths.get(args[0]))) {
+                if (!line.isBlank()) {
+                    words.add(line.strip());
+                }
+            }
+        } else {
+            words = generateWords(1000000, new Random(239));
+        }
+
+        long usedBefore = usedHeap();
+        Trie trie = buildTrie(words);
+        long usedAfter = usedHeap();
+        System.out.printf("trie %6.1f bytes per word%n", (double) (usedAfter - usedBefore) / words.size());
+        Reference.reachabilityFence(trie);
+        trie = null;
+
+        usedBefore = usedHeap();
+        Dawg dawg = buildDawg(words);
+        usedAfter = usedHeap();
+        System.out.printf("dawg %6.1f bytes per word, %d nodes, %d edges for %d words%n",
+                (double) (usedAfter - usedBefore) / words.size(), dawg.nodesNumber(), dawg.edgesNumber(), words.size());
+        Reference.reachabilityFence(dawg);
+        dawg = null;
+
+        var sortedWords = new ArrayList<>(words);
+        usedBefore = usedHeap();
+        LoudsTrie loudsTrie = LoudsTrie.fromSorted(sortedWords);
+        usedAfter = usedHeap();
+        System.out.printf("louds %5.1f bytes per word, %d nodes, %.2f bits per node%n",
+                (double) (usedAfter - usedBefore) / words.size(), loudsTrie.nodesNumber(),
+                (double) loudsTrie.sizeInBits() / loudsTrie.nodesNumber());
+        Reference.reachabilityFence(loudsTrie);
+    }
+
+    private static long usedHeap() {
+        var runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,79 @@
+package ru.spbhse.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.spbhse.hashmap.StringMap;
+
+import java.lang.ref.Reference;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares HashMap with DictionaryEncodedHashMap on values taken from a few thousand distinct strings,
+ * every value is a separate String object, as if it was parsed from input
+ * JMH measures get, run main method to print retained heap per entry
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class DictionaryEncodingBenchmark {
+
+    private static final String[] ENGINES = {"chained", "dictionary"};
+    private static final int DISTINCT_VALUES = 5000;
+
+    @Param({"chained", "dictionary"})
+    private String engine;
+
+    @Param({"1000000"})
+    private int keysNumber;
+
+    private StringMap map;
+    private String[] requests;
+    private int nextRequestId;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        map = fill(engine, keysNumber);
+        requests = new String[1 << 20];
+        int[] ids = KeyDistribution.UNIFORM.generate(keysNumber, requests.length, 239);
+        for (int i = 0; i < requests.length; i++) {
+            requests[i] = "key" + ids[i];
+        }
+    }
+
+    @Benchmark
+    public String get() {
+        String key = requests[nextRequestId];
+        nextRequestId = (nextRequestId + 1) & (requests.length - 1);
+        return map.get(key);
+    }
+
+    private static StringMap fill(String engine, int keysNumber) {
+        StringMap map = StringMapEngines.create(engine);
+        for (int i = 0; i < keysNumber; i++) {
+            map.put("key" + i, "status" + i % DISTINCT_VALUES);
+        }
+        return map;
+    }
+
+    /** Prints heap retained by every map per entry. Number of entries may be given as the only argument */
+    public static void main(String[] args) {
+        int keysNumber = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        for (String engine : ENGINES) {
+            long usedBefore = usedHeap();
+            StringMap map = fill(engine, keysNumber);
+            long usedAfter = usedHeap();
+            System.out.printf("%-10s %6.1f bytes per entry%n", engine, (double) (usedAfter - usedBefore) / keysNumber);
+            Reference.reachabilityFence(map);
+        }
+    }
+
+    private static long usedHeap() {
+        var runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,49 @@
+package ru.spbhse.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.spbhse.hashmap.HashMap;
+import ru.spbhse.hashmap.StringPair;
+
+import java.util.concurrent.TimeUnit;
+
+/** Measures full scan of HashMap entries by sequential iterator and by parallel stream */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class EntryScanBenchmark {
+
+    @Param({"100000", "1000000", "10000000"})
+    private int size;
+
+    private HashMap map;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        map = new HashMap(size, 2);
+        for (int i = 0; i < size; i++) {
+            map.put("key" + i, "value" + i);
+        }
+    }
+
+    @Benchmark
+    public long iterator() {
+        long totalLength = 0;
+        for (StringPair pair : map) {
+            totalLength += pair.getValue().length();
+        }
+        return totalLength;
+    }
+
+    @Benchmark
+    public long stream() {
+        return map.stream().mapToLong(pair -> pair.getValue().length()).sum();
+    }
+
+    @Benchmark
+    public long parallelStream() {
+        return map.parallelStream().mapToLong(pair -> pair.getValue().length()).sum();
+    }
+}
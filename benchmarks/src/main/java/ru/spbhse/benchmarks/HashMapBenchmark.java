@@ -0,0 +1,76 @@
+package ru.spbhse.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.spbhse.hashmap.StringMap;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures put/get/remove of HashMap against java.util.HashMap under different key distributions
+ * Run with -prof gc to see allocation rate (gc.alloc.rate.norm is bytes allocated per operation)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HashMapBenchmark {
+
+    @Param({"chained", "seeded", "javaUtil"})
+    private String engine;
+
+    @Param({"UNIFORM", "ZIPFIAN", "SEQUENTIAL"})
+    private KeyDistribution distribution;
+
+    @Param({"100000"})
+    private int keysNumber;
+
+    private StringMap map;
+    private String[] keys;
+    private int[] requests;
+    private int nextRequestId;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        keys = new String[keysNumber];
+        for (int i = 0; i < keysNumber; i++) {
+            keys[i] = "key" + i;
+        }
+        requests = distribution.generate(keysNumber, 1 << 20, 239);
+    }
+
+    @Setup(Level.Iteration)
+    public void fill() {
+        map = StringMapEngines.create(engine);
+        for (String key : keys) {
+            map.put(key, key);
+        }
+    }
+
+    @Benchmark
+    public String put() {
+        String key = nextKey();
+        return map.put(key, key);
+    }
+
+    @Benchmark
+    public String get() {
+        return map.get(nextKey());
+    }
+
+    /** Removes key and puts it back, so that the map doesn't become empty during iteration */
+    @Benchmark
+    public String remove() {
+        String key = nextKey();
+        String removed = map.remove(key);
+        map.put(key, key);
+        return removed;
+    }
+
+    private String nextKey() {
+        int requestId = nextRequestId;
+        nextRequestId = (requestId + 1) & (requests.length - 1);
+        return keys[requests[requestId]];
+    }
+}
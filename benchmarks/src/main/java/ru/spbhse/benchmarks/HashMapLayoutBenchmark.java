@@ -0,0 +1,86 @@
+package ru.spbhse.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.spbhse.hashmap.StringMap;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares chained HashMap with OpenAddressingHashMap and OffHeapHashMap on lookups in big tables
+ * Run with -prof gc to see heap allocated while filling the table
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class HashMapLayoutBenchmark {
+
+    @Param({"chained", "openAddressing", "offHeap"})
+    private String engine;
+
+    @Param({"100000", "1000000", "10000000"})
+    private int size;
+
+    private StringMap map;
+    private String[] presentKeys;
+    private String[] absentKeys;
+    private int nextKeyId;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        map = StringMapEngines.create(engine);
+        presentKeys = new String[size];
+        absentKeys = new String[size];
+        for (int i = 0; i < size; i++) {
+            presentKeys[i] = "key" + i;
+            absentKeys[i] = "absent" + i;
+            map.put(presentKeys[i], "value" + i);
+        }
+        shuffle(presentKeys);
+        shuffle(absentKeys);
+    }
+
+    @Benchmark
+    public String getPresent() {
+        return map.get(presentKeys[nextKey()]);
+    }
+
+    @Benchmark
+    public boolean containsAbsent() {
+        return map.contains(absentKeys[nextKey()]);
+    }
+
+    /** Measures filling of a new table, -prof gc shows bytes allocated per filling */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public StringMap fillTable() {
+        StringMap newMap = StringMapEngines.create(engine);
+        for (String key : presentKeys) {
+            newMap.put(key, key);
+        }
+        return newMap;
+    }
+
+    /** Returns next key index, walking keys in shuffled order so that every lookup is a cache miss */
+    private int nextKey() {
+        int keyId = nextKeyId;
+        nextKeyId = keyId + 1 == size ? 0 : keyId + 1;
+        return keyId;
+    }
+
+    private static void shuffle(String[] array) {
+        var random = new Random(239);
+        for (int i = array.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            String swap = array[i];
+            array[i] = array[j];
+            array[j] = swap;
+        }
+    }
+}
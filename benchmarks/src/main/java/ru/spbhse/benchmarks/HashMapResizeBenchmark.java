@@ -0,0 +1,49 @@
+package ru.spbhse.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.spbhse.hashmap.StringMap;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures distribution of single put latency while table grows to millions of elements
+ * Stop-the-world resize shows up in high percentiles (p0.99 and above) of chained engine,
+ * incremental resize should keep them close to median
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class HashMapResizeBenchmark {
+
+    @Param({"chained", "incremental"})
+    private String engine;
+
+    @Param({"4000000"})
+    private int maxSize;
+
+    private StringMap map;
+    private String[] keys;
+    private int nextKeyId;
+
+    @Setup(Level.Trial)
+    public void generateKeys() {
+        keys = new String[maxSize];
+        for (int i = 0; i < maxSize; i++) {
+            keys[i] = "key" + i;
+        }
+        map = StringMapEngines.create(engine);
+    }
+
+    @Benchmark
+    public String put() {
+        if (nextKeyId == maxSize) {
+            map = StringMapEngines.create(engine);
+            nextKeyId = 0;
+        }
+        String key = keys[nextKeyId++];
+        return map.put(key, key);
+    }
+}
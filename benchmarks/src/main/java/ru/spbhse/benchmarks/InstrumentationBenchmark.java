@@ -0,0 +1,49 @@
+package ru.spbhse.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.spbhse.hashmap.HashMap;
+
+import java.util.concurrent.TimeUnit;
+
+/** Measures cost of HashMap instrumentation on get: disabled one should be as fast as HashMap without it */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InstrumentationBenchmark {
+
+    @Param({"false", "true"})
+    private boolean instrumented;
+
+    @Param({"1000000"})
+    private int keysNumber;
+
+    private HashMap map;
+    private String[] requests;
+    private int nextRequestId;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        map = new HashMap();
+        if (instrumented) {
+            map.enableInstrumentation();
+        }
+        for (int i = 0; i < keysNumber; i++) {
+            map.put("key" + i, "value");
+        }
+        requests = new String[1 << 20];
+        int[] ids = KeyDistribution.UNIFORM.generate(keysNumber, requests.length, 239);
+        for (int i = 0; i < requests.length; i++) {
+            requests[i] = "key" + ids[i];
+        }
+    }
+
+    @Benchmark
+    public String get() {
+        String key = requests[nextRequestId];
+        nextRequestId = (nextRequestId + 1) & (requests.length - 1);
+        return map.get(key);
+    }
+}
@@ -0,0 +1,40 @@
+package ru.spbhse.benchmarks;
+
+import ru.spbhse.hashmap.StringMap;
+
+import java.util.HashMap;
+
+/** StringMap backed by java.util.HashMap, baseline for comparison */
+class JavaUtilStringMap implements StringMap {
+    private final HashMap<String, String> map = new HashMap<>();
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public boolean contains(String key) {
+        return map.containsKey(key);
+    }
+
+    @Override
+    public String get(String key) {
+        return map.get(key);
+    }
+
+    @Override
+    public String put(String key, String value) {
+        return map.put(key, value);
+    }
+
+    @Override
+    public String remove(String key) {
+        return map.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+    }
+}
@@ -0,0 +1,89 @@
+package ru.spbhse.benchmarks;
+
+import java.util.Random;
+
+/** Distributions of keys requested by benchmarks */
+public enum KeyDistribution {
+    /** Every key is requested with equal probability */
+    UNIFORM,
+    /** Probability of i-th most popular key is proportional to 1 / i^ZIPF_EXPONENT, few keys are very hot */
+    ZIPFIAN,
+    /** Keys are requested one by one in increasing order */
+    SEQUENTIAL;
+
+    private static final double ZIPF_EXPONENT = 0.99;
+
+    /**
+     * Generates sequence of indices of keys in range [0, keysNumber)
+     * @param length length of sequence
+     * @param seed seed of random generator, so that all compared structures get same sequence
+     */
+    public int[] generate(int keysNumber, int length, long seed) {
+        var random = new Random(seed);
+        var indices = new int[length];
+        switch (this) {
+            case UNIFORM:
+                for (int i = 0; i < length; i++) {
+                    indices[i] = random.nextInt(keysNumber);
+                }
+                break;
+            case ZIPFIAN:
+                double[] cumulative = zipfCumulative(keysNumber);
+                // ranks are mapped to keys through permutation, so that hot keys aren't neighbours
+                int[] keyOfRank = permutation(keysNumber, random);
+                for (int i = 0; i < length; i++) {
+                    indices[i] = keyOfRank[upperBound(cumulative, random.nextDouble())];
+                }
+                break;
+            case SEQUENTIAL:
+                for (int i = 0; i < length; i++) {
+                    indices[i] = i % keysNumber;
+                }
+                break;
+        }
+        return indices;
+    }
+
+    /** Returns normalized prefix sums of Zipf weights of ranks 1..keysNumber */
+    private static double[] zipfCumulative(int keysNumber) {
+        var cumulative = new double[keysNumber];
+        double sum = 0;
+        for (int rank = 0; rank < keysNumber; rank++) {
+            sum += 1 / Math.pow(rank + 1, ZIPF_EXPONENT);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < keysNumber; rank++) {
+            cumulative[rank] /= sum;
+        }
+        return cumulative;
+    }
+
+    /** Returns first index with value greater than given one (or last index if there is no such) */
+    private static int upperBound(double[] sorted, double value) {
+        int left = 0;
+        int right = sorted.length - 1;
+        while (left < right) {
+            int middle = (left + right) >>> 1;
+            if (sorted[middle] > value) {
+                right = middle;
+            } else {
+                left = middle + 1;
+            }
+        }
+        return left;
+    }
+
+    private static int[] permutation(int length, Random random) {
+        var permutation = new int[length];
+        for (int i = 0; i < length; i++) {
+            permutation[i] = i;
+        }
+        for (int i = length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = permutation[i];
+            permutation[i] = permutation[j];
+            permutation[j] = swap;
+        }
+        return permutation;
+    }
+}
@@ -0,0 +1,77 @@
+package ru.spbhse.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.spbhse.hashmap.log.LogStructuredHashMap;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures appending puts to LogStructuredHashMap and its opening,
+ * which reads hint file after compaction and scans all segments otherwise
+ * Only the active segment is scanned after compaction
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogStructuredHashMapBenchmark {
+
+    @Param({"false", "true"})
+    private boolean compacted;
+
+    @Param({"1000000"})
+    private int keysNumber;
+
+    private Path directory;
+    private LogStructuredHashMap map;
+    private String[] keys;
+    private int nextKeyId;
+
+    @Setup(Level.Trial)
+    public void fill() throws IOException {
+        directory = Files.createTempDirectory("log");
+        keys = new String[keysNumber];
+        for (int i = 0; i < keysNumber; i++) {
+            keys[i] = "key" + i;
+        }
+        map = LogStructuredHashMap.open(directory, 16 << 20, false);
+        for (String key : keys) {
+            map.put(key, "value of " + key);
+        }
+        if (compacted) {
+            map.compact();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        map.close();
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String put() {
+        String key = keys[nextKeyId];
+        nextKeyId = nextKeyId + 1 == keys.length ? 0 : nextKeyId + 1;
+        return map.put(key, "new value");
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int open() throws IOException {
+        try (var reopened = LogStructuredHashMap.open(directory, 16 << 20, false)) {
+            return reopened.size();
+        }
+    }
+}
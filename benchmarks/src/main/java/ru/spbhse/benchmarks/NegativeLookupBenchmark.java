@@ -0,0 +1,53 @@
+package ru.spbhse.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.spbhse.hashmap.StringMap;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures contains on a full map when most of requested keys are absent
+ * Absent keys share prefix with present ones, so comparing them by equals is not free
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NegativeLookupBenchmark {
+
+    @Param({"chained", "openAddressing", "swiss", "javaUtil"})
+    private String engine;
+
+    @Param({"90"})
+    private int absentPercent;
+
+    @Param({"1000000"})
+    private int keysNumber;
+
+    private StringMap map;
+    private String[] requests;
+    private int nextRequestId;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        map = StringMapEngines.create(engine);
+        for (int i = 0; i < keysNumber; i++) {
+            map.put("some/common/prefix/key" + i, "value");
+        }
+        requests = new String[1 << 20];
+        int[] ids = KeyDistribution.UNIFORM.generate(keysNumber, requests.length, 239);
+        for (int i = 0; i < requests.length; i++) {
+            boolean absent = ids[i] % 100 < absentPercent;
+            requests[i] = "some/common/prefix/" + (absent ? "absent" : "key") + ids[i];
+        }
+    }
+
+    @Benchmark
+    public boolean contains() {
+        String key = requests[nextRequestId];
+        nextRequestId = (nextRequestId + 1) & (requests.length - 1);
+        return map.contains(key);
+    }
+}
@@ -0,0 +1,101 @@
+package ru.spbhse.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.spbhse.hashmap.HashMap;
+import ru.spbhse.hashmap.specialized.IntIntMap;
+import ru.spbhse.hashmap.specialized.LongLongMap;
+
+import java.lang.ref.Reference;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares maps from numeric ids to numbers: boxed java.util.HashMap, String HashMap with ids converted to Strings,
+ * generic HashMap from specialized package and primitive maps
+ * JMH measures filling of a map, run main method to print retained heap per entry
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class SpecializedMapBenchmark {
+
+    private static final String[] ENGINES = {"javaUtil", "stringKeys", "generic", "longLong", "intInt"};
+    /** Odd multiplier spreading sequential ids over the whole range, like real ids */
+    private static final long ID_MULTIPLIER = 0x5DEECE66DL;
+
+    @Param({"javaUtil", "stringKeys", "generic", "longLong", "intInt"})
+    private String engine;
+
+    @Param({"1000000"})
+    private int size;
+
+    @Benchmark
+    public Object fill() {
+        return fill(engine, size);
+    }
+
+    /** Fills map of given engine with given number of pairs (id, number) */
+    private static Object fill(String engine, int size) {
+        switch (engine) {
+            case "javaUtil": {
+                var map = new java.util.HashMap<Long, Long>();
+                for (long i = 0; i < size; i++) {
+                    map.put(i * ID_MULTIPLIER, i);
+                }
+                return map;
+            }
+            case "stringKeys": {
+                var map = new HashMap();
+                for (long i = 0; i < size; i++) {
+                    map.put(Long.toString(i * ID_MULTIPLIER), Long.toString(i));
+                }
+                return map;
+            }
+            case "generic": {
+                var map = new ru.spbhse.hashmap.specialized.HashMap<Long, Long>();
+                for (long i = 0; i < size; i++) {
+                    map.put(i * ID_MULTIPLIER, i);
+                }
+                return map;
+            }
+            case "longLong": {
+                var map = new LongLongMap();
+                for (long i = 0; i < size; i++) {
+                    map.put(i * ID_MULTIPLIER, i);
+                }
+                return map;
+            }
+            case "intInt": {
+                var map = new IntIntMap();
+                for (int i = 0; i < size; i++) {
+                    map.put(i * (int) ID_MULTIPLIER, i);
+                }
+                return map;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown map engine " + engine);
+        }
+    }
+
+    /** Prints heap retained by every map per entry. Number of entries may be given as the only argument */
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        for (String engine : ENGINES) {
+            long usedBefore = usedHeap();
+            Object map = fill(engine, size);
+            long usedAfter = usedHeap();
+            System.out.printf("%-10s %6.1f bytes per entry%n", engine, (double) (usedAfter - usedBefore) / size);
+            Reference.reachabilityFence(map);
+        }
+    }
+
+    private static long usedHeap() {
+        var runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
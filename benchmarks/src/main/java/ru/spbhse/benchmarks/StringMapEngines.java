@@ -0,0 +1,49 @@
+package ru.spbhse.benchmarks;
+
+import ru.spbhse.hashmap.ConcurrentHashMap;
+import ru.spbhse.hashmap.CopyOnWriteHashMap;
+import ru.spbhse.hashmap.CuckooHashMap;
+import ru.spbhse.hashmap.DictionaryEncodedHashMap;
+import ru.spbhse.hashmap.HashMap;
+import ru.spbhse.hashmap.OffHeapHashMap;
+import ru.spbhse.hashmap.SeededHashStrategy;
+import ru.spbhse.hashmap.SegmentedHashMap;
+import ru.spbhse.hashmap.OpenAddressingHashMap;
+import ru.spbhse.hashmap.StringMap;
+import ru.spbhse.hashmap.SwissHashMap;
+
+/** Factory of StringMap engines by their names in benchmark parameters */
+class StringMapEngines {
+    static StringMap create(String engine) {
+        switch (engine) {
+            case "chained":
+                return new HashMap();
+            case "incremental":
+                return new HashMap(true);
+            case "seeded":
+                return new HashMap(new SeededHashStrategy());
+            case "globalLock":
+                return new SynchronizedStringMap(new HashMap());
+            case "concurrent":
+                return new ConcurrentHashMap();
+            case "openAddressing":
+                return new OpenAddressingHashMap();
+            case "javaUtil":
+                return new JavaUtilStringMap();
+            case "offHeap":
+                return new OffHeapHashMap();
+            case "swiss":
+                return new SwissHashMap();
+            case "copyOnWrite":
+                return new CopyOnWriteHashMap();
+            case "dictionary":
+                return new DictionaryEncodedHashMap();
+            case "cuckoo":
+                return new CuckooHashMap();
+            case "stamped":
+                return new SegmentedHashMap();
+            default:
+                throw new IllegalArgumentException("Unknown engine " + engine);
+        }
+    }
+}
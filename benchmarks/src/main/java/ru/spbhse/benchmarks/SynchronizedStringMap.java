@@ -0,0 +1,42 @@
+package ru.spbhse.benchmarks;
+
+import ru.spbhse.hashmap.StringMap;
+
+/** StringMap wrapper which serializes all operations on one global lock, the way HashMap is shared today */
+class SynchronizedStringMap implements StringMap {
+    private final StringMap map;
+
+    SynchronizedStringMap(StringMap map) {
+        this.map = map;
+    }
+
+    @Override
+    public synchronized int size() {
+        return map.size();
+    }
+
+    @Override
+    public synchronized boolean contains(String key) {
+        return map.contains(key);
+    }
+
+    @Override
+    public synchronized String get(String key) {
+        return map.get(key);
+    }
+
+    @Override
+    public synchronized String put(String key, String value) {
+        return map.put(key, value);
+    }
+
+    @Override
+    public synchronized String remove(String key) {
+        return map.remove(key);
+    }
+
+    @Override
+    public synchronized void clear() {
+        map.clear();
+    }
+}
@@ -0,0 +1,53 @@
+package ru.spbhse.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.spbhse.hashmap.StringMap;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures distribution of get latency, JMH reports its percentiles up to p99.99 and the maximum
+ * Chained HashMap looks through a whole bucket, cuckoo HashMap checks a fixed number of cells for any key
+ * Run with -p distribution=ZIPFIAN to repeat hot keys
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TailLatencyBenchmark {
+
+    @Param({"chained", "cuckoo"})
+    private String engine;
+
+    @Param({"UNIFORM"})
+    private KeyDistribution distribution;
+
+    @Param({"1000000"})
+    private int keysNumber;
+
+    private StringMap map;
+    private String[] requests;
+    private int nextRequestId;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        map = StringMapEngines.create(engine);
+        for (int i = 0; i < keysNumber; i++) {
+            map.put("key" + i, "value");
+        }
+        requests = new String[1 << 20];
+        int[] ids = distribution.generate(keysNumber, requests.length, 239);
+        for (int i = 0; i < requests.length; i++) {
+            requests[i] = "key" + ids[i];
+        }
+    }
+
+    @Benchmark
+    public String get() {
+        String key = requests[nextRequestId];
+        nextRequestId = (nextRequestId + 1) & (requests.length - 1);
+        return map.get(key);
+    }
+}
@@ -0,0 +1,142 @@
+package ru.spbhse.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.spbhse.treeset.TreeSet;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures add/contains/navigation of splay TreeSet against java.util.TreeSet under different key distributions
+ * Run with -prof gc to see allocation rate (gc.alloc.rate.norm is bytes allocated per operation)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TreeSetBenchmark {
+
+    @Param({"splay", "javaUtil"})
+    private String engine;
+
+    @Param({"UNIFORM", "ZIPFIAN", "SEQUENTIAL"})
+    private KeyDistribution distribution;
+
+    @Param({"100000"})
+    private int keysNumber;
+
+    private OrderedSet set;
+    private Integer[] keys;
+    private int[] requests;
+    private int nextRequestId;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        keys = new Integer[keysNumber];
+        for (int i = 0; i < keysNumber; i++) {
+            keys[i] = 2 * i;
+        }
+        requests = distribution.generate(keysNumber, 1 << 20, 239);
+    }
+
+    @Setup(Level.Iteration)
+    public void fill() {
+        set = createSet();
+        for (int i = 0; i < keysNumber; i += 2) {
+            set.add(keys[i]);
+        }
+    }
+
+    /** Adds keys to set, half of them are already there */
+    @Benchmark
+    public boolean add() {
+        return set.add(keys[nextRequest()]);
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return set.contains(keys[nextRequest()]);
+    }
+
+    /** Finds neighbours of odd numbers, which are never in set */
+    @Benchmark
+    public Integer ceiling() {
+        return set.ceiling(keys[nextRequest()] + 1);
+    }
+
+    @Benchmark
+    public Integer lower() {
+        return set.lower(keys[nextRequest()] + 1);
+    }
+
+    private int nextRequest() {
+        int requestId = nextRequestId;
+        nextRequestId = (requestId + 1) & (requests.length - 1);
+        return requests[requestId];
+    }
+
+    private OrderedSet createSet() {
+        switch (engine) {
+            case "splay":
+                var splayTree = new TreeSet<Integer>();
+                return new OrderedSet() {
+                    @Override
+                    public boolean add(Integer key) {
+                        return splayTree.add(key);
+                    }
+
+                    @Override
+                    public boolean contains(Integer key) {
+                        return splayTree.contains(key);
+                    }
+
+                    @Override
+                    public Integer ceiling(Integer key) {
+                        return splayTree.ceiling(key);
+                    }
+
+                    @Override
+                    public Integer lower(Integer key) {
+                        return splayTree.lower(key);
+                    }
+                };
+            case "javaUtil":
+                var redBlackTree = new java.util.TreeSet<Integer>();
+                return new OrderedSet() {
+                    @Override
+                    public boolean add(Integer key) {
+                        return redBlackTree.add(key);
+                    }
+
+                    @Override
+                    public boolean contains(Integer key) {
+                        return redBlackTree.contains(key);
+                    }
+
+                    @Override
+                    public Integer ceiling(Integer key) {
+                        return redBlackTree.ceiling(key);
+                    }
+
+                    @Override
+                    public Integer lower(Integer key) {
+                        return redBlackTree.lower(key);
+                    }
+                };
+            default:
+                throw new IllegalArgumentException("Unknown engine " + engine);
+        }
+    }
+
+    /** Operations of TreeSet that are measured */
+    private interface OrderedSet {
+        boolean add(Integer key);
+
+        boolean contains(Integer key);
+
+        Integer ceiling(Integer key);
+
+        Integer lower(Integer key);
+    }
+}
@@ -0,0 +1,220 @@
+package ru.spbhse.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.spbhse.trie.RadixTrie;
+import ru.spbhse.trie.Trie;
+
+import java.lang.ref.Reference;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures add/contains/prefix counting of Trie and RadixTrie against java.util.TreeSet under different key distributions
+ * Run with -prof gc to see allocation rate (gc.alloc.rate.norm is bytes allocated per operation)
+ * Run main method to print retained heap per word
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrieBenchmark {
+
+    private static final String[] ENGINES = {"trie", "radix", "javaUtil"};
+
+    @Param({"trie", "radix", "javaUtil"})
+    private String engine;
+
+    /** Short random words or long URL-like keys with common parts */
+    @Param({"false", "true"})
+    private boolean urls;
+
+    @Param({"UNIFORM", "ZIPFIAN", "SEQUENTIAL"})
+    private KeyDistribution distribution;
+
+    @Param({"100000"})
+    private int wordsNumber;
+
+    private StringSet set;
+    private String[] words;
+    private String[] prefixes;
+    private int[] requests;
+    private int nextRequestId;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        var random = new Random(239);
+        words = urls ? generateUrls(wordsNumber, random) : generateWords(wordsNumber, random);
+        prefixes = new String[wordsNumber];
+        for (int i = 0; i < wordsNumber; i++) {
+            prefixes[i] = words[i].substring(0, 1 + random.nextInt(urls ? words[i].length() : 3));
+        }
+        // sequential distribution walks words in lexicographic order
+        Arrays.sort(words);
+        requests = distribution.generate(wordsNumber, 1 << 20, 239);
+    }
+
+    /** Generates words of 3 to 12 random latin letters */
+    private static String[] generateWords(int wordsNumber, Random random) {
+        var words = new String[wordsNumber];
+        for (int i = 0; i < wordsNumber; i++) {
+            var word = new StringBuilder();
+            int length = 3 + random.nextInt(10);
+            for (int j = 0; j < length; j++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words[i] = word.toString();
+        }
+        return words;
+    }
+
+    /** Generates paths of a few sites with 2 to 4 segments from small dictionaries, ending with random id */
+    private static String[] generateUrls(int urlsNumber, Random random) {
+        String[] hosts = {"https://example.com/", "https://docs.example.org/", "http://mirror.example.net/"};
+        String[] segments = {"api", "v1", "v2", "users", "groups", "repos", "issues", "static", "images", "docs"};
+        var urls = new String[urlsNumber];
+        for (int i = 0; i < urlsNumber; i++) {
+            var url = new StringBuilder(hosts[random.nextInt(hosts.length)]);
+            int segmentsNumber = 2 + random.nextInt(3);
+            for (int j = 0; j < segmentsNumber; j++) {
+                url.append(segments[random.nextInt(segments.length)]).append('/');
+            }
+            urls[i] = url.append(random.nextInt(1000000)).toString();
+        }
+        return urls;
+    }
+
+    @Setup(Level.Iteration)
+    public void fill() {
+        set = createSet(engine);
+        for (int i = 0; i < wordsNumber; i += 2) {
+            set.add(words[i]);
+        }
+    }
+
+    /** Adds words to set, half of them are already there */
+    @Benchmark
+    public boolean add() {
+        return set.add(words[nextRequest()]);
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return set.contains(words[nextRequest()]);
+    }
+
+    @Benchmark
+    public int howManyStartsWithPrefix() {
+        return set.howManyStartsWithPrefix(prefixes[nextRequest()]);
+    }
+
+    private int nextRequest() {
+        int requestId = nextRequestId;
+        nextRequestId = (requestId + 1) & (requests.length - 1);
+        return requests[requestId];
+    }
+
+    /**
+     * Prints heap retained by every engine per word on random words and on URLs, not counting the words themselves
+     * Number of words may be given as the only argument
+     */
+    public static void main(String[] args) {
+        int wordsNumber = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        for (boolean urls : new boolean[] {false, true}) {
+            var random = new Random(239);
+            String[] words = urls ? generateUrls(wordsNumber, random) : generateWords(wordsNumber, random);
+            for (String engine : ENGINES) {
+                long usedBefore = usedHeap();
+                StringSet set = createSet(engine);
+                for (String word : words) {
+                    set.add(word);
+                }
+                long usedAfter = usedHeap();
+                System.out.printf("%-10s %-5s %6.1f bytes per word%n", engine, urls ? "urls" : "words",
+                        (double) (usedAfter - usedBefore) / wordsNumber);
+                Reference.reachabilityFence(set);
+            }
+        }
+    }
+
+    private static long usedHeap() {
+        var runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static StringSet createSet(String engine) {
+        switch (engine) {
+            case "trie":
+                var trie = new Trie();
+                return new StringSet() {
+                    @Override
+                    public boolean add(String word) {
+                        return trie.add(word);
+                    }
+
+                    @Override
+                    public boolean contains(String word) {
+                        return trie.contains(word);
+                    }
+
+                    @Override
+                    public int howManyStartsWithPrefix(String prefix) {
+                        return trie.howManyStartsWithPrefix(prefix);
+                    }
+                };
+            case "radix":
+                var radixTrie = new RadixTrie();
+                return new StringSet() {
+                    @Override
+                    public boolean add(String word) {
+                        return radixTrie.add(word);
+                    }
+
+                    @Override
+                    public boolean contains(String word) {
+                        return radixTrie.contains(word);
+                    }
+
+                    @Override
+                    public int howManyStartsWithPrefix(String prefix) {
+                        return radixTrie.howManyStartsWithPrefix(prefix);
+                    }
+                };
+            case "javaUtil":
+                var treeSet = new TreeSet<String>();
+                return new StringSet() {
+                    @Override
+                    public boolean add(String word) {
+                        return treeSet.add(word);
+                    }
+
+                    @Override
+                    public boolean contains(String word) {
+                        return treeSet.contains(word);
+                    }
+
+                    @Override
+                    public int howManyStartsWithPrefix(String prefix) {
+                        return treeSet.subSet(prefix, prefix + Character.MAX_VALUE).size();
+                    }
+                };
+            default:
+                throw new IllegalArgumentException("Unknown engine " + engine);
+        }
+    }
+
+    /** Operations of Trie that are measured */
+    private interface StringSet {
+        boolean add(String word);
+
+        boolean contains(String word);
+
+        int howManyStartsWithPrefix(String prefix);
+    }
+}
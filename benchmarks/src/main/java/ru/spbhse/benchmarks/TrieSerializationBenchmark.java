@@ -0,0 +1,60 @@
+package ru.spbhse.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.spbhse.trie.Trie;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures serialization of Trie with many random words to memory and its deserialization
+ * Speed in MB/s is serializedBytes / 2^20 divided by time of operation in seconds,
+ * serializedBytes is printed when trial starts
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrieSerializationBenchmark {
+
+    @Param({"1000000"})
+    private int wordsNumber;
+
+    private Trie trie;
+    private byte[] serialized;
+
+    @Setup(Level.Trial)
+    public void fill() throws IOException {
+        var random = new Random(239);
+        trie = new Trie();
+        for (int i = 0; i < wordsNumber; i++) {
+            var word = new StringBuilder();
+            int length = 3 + random.nextInt(10);
+            for (int j = 0; j < length; j++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            trie.add(word.toString());
+        }
+        serialized = serialize();
+        System.out.println("serializedBytes: " + serialized.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        var out = new ByteArrayOutputStream(serialized == null ? 32 : serialized.length);
+        trie.serialize(out);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public Trie deserialize() throws IOException {
+        var result = new Trie();
+        result.deserialize(new ByteArrayInputStream(serialized));
+        return result;
+    }
+}